@@ -83,6 +83,7 @@ import cgeo.geocaching.utils.CryptUtils;
 import cgeo.geocaching.utils.DisposableHandler;
 import cgeo.geocaching.utils.EmojiUtils;
 import cgeo.geocaching.utils.Formatter;
+import cgeo.geocaching.utils.HtmlRenderCache;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.ProcessUtils;
 import cgeo.geocaching.utils.SimpleDisposableHandler;
@@ -168,6 +169,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.functions.Function;
@@ -1626,10 +1629,20 @@ public class CacheDetailActivity extends AbstractViewPagerActivity<CacheDetailAc
 
         private int maxPersonalNotesChars = 0;
         private CachedetailDescriptionPageBinding binding;
+        /**
+         * loading of the descriptions into the current view, disposed when the view is replaced or the activity is destroyed
+         */
+        private final CompositeDisposable viewDisposables = new CompositeDisposable();
+
+        DescriptionViewCreator() {
+            createDisposables.add(viewDisposables);
+        }
 
         @Override
         @SuppressWarnings({"PMD.NPathComplexity", "PMD.ExcessiveMethodLength"}) // splitting up that method would not help improve readability
         public NestedScrollView getDispatchedView(final ViewGroup parentView) {
+            // the previous view of this page is no longer shown
+            viewDisposables.clear();
             if (cache == null) {
                 // something is really wrong
                 return null;
@@ -1638,15 +1651,13 @@ public class CacheDetailActivity extends AbstractViewPagerActivity<CacheDetailAc
             binding = CachedetailDescriptionPageBinding.inflate(getLayoutInflater(), parentView, false);
             view = binding.getRoot();
 
-            // cache short description
-            if (StringUtils.isNotBlank(cache.getShortDescription())) {
-                loadDescription(cache.getShortDescription(), binding.description, null);
-            }
-
-            // long description
-            if (StringUtils.isNotBlank(cache.getDescription()) || cache.supportsDescriptionchange()) {
-                loadLongDescription(parentView);
+            // cache short and long description, both are shown in the same view
+            final boolean hasLongDescription = StringUtils.isNotBlank(cache.getDescription()) || cache.supportsDescriptionchange();
+            if (hasLongDescription) {
+                binding.loading.setVisibility(View.VISIBLE);
+                addDescriptionChangeListener(parentView);
             }
+            loadDescriptions(cache.getShortDescription(), hasLongDescription ? cache.getDescription() : null, binding.description, binding.loading);
 
             // cache personal note
             setPersonalNote(binding.personalnote, binding.personalnoteButtonSeparator, cache.getPersonalNote());
@@ -1753,12 +1764,7 @@ public class CacheDetailActivity extends AbstractViewPagerActivity<CacheDetailAc
             }));
         }
 
-        private void loadLongDescription(final ViewGroup parentView) {
-            binding.loading.setVisibility(View.VISIBLE);
-
-            final String longDescription = cache.getDescription();
-            loadDescription(longDescription, binding.description, binding.loading);
-
+        private void addDescriptionChangeListener(final ViewGroup parentView) {
             if (cache.supportsDescriptionchange()) {
                 binding.description.setOnClickListener(v -> {
                     final Context context = parentView.getContext();
@@ -1800,51 +1806,105 @@ public class CacheDetailActivity extends AbstractViewPagerActivity<CacheDetailAc
         }
 
         /**
-         * Load the description in the background.
+         * Load the descriptions in the background. Descriptions which have been rendered before are shown immediately.
          *
-         * @param descriptionString
-         *            the HTML description as retrieved from the connector
+         * @param shortDescription
+         *            the HTML short description as retrieved from the connector, may be blank
+         * @param longDescription
+         *            the HTML long description as retrieved from the connector, may be blank
          * @param descriptionView
          *            the view to fill
          * @param loadingIndicatorView
          *            the loading indicator view, will be hidden when completed
          */
-        private void loadDescription(final String descriptionString, final IndexOutOfBoundsAvoidingTextView descriptionView, final View loadingIndicatorView) {
-            try {
-                final int backgroundColor = Settings.isLightSkin() ? Color.WHITE : Color.BLACK;
-                descriptionView.setBackgroundColor(backgroundColor);
-
-                final UnknownTagsHandler unknownTagsHandler = new UnknownTagsHandler();
-                final Editable description = new SpannableStringBuilder(HtmlCompat.fromHtml(descriptionString, HtmlCompat.FROM_HTML_MODE_LEGACY, new HtmlImage(cache.getGeocode(), true, false, descriptionView, false), unknownTagsHandler));
-                addWarning(unknownTagsHandler, description);
+        private void loadDescriptions(@Nullable final String shortDescription, @Nullable final String longDescription, final IndexOutOfBoundsAvoidingTextView descriptionView, final View loadingIndicatorView) {
+            final int backgroundColor = Settings.isLightSkin() ? Color.WHITE : Color.BLACK;
+            descriptionView.setBackgroundColor(backgroundColor);
+
+            final String geocode = cache.getGeocode();
+            final String variant = "description:" + backgroundColor;
+            final List<String> descriptions = new ArrayList<>(2);
+            for (final String description : new String[] { shortDescription, longDescription }) {
                 if (StringUtils.isNotBlank(description)) {
-                    fixRelativeLinks(description);
-                    fixTextColor(description, backgroundColor);
+                    descriptions.add(description);
+                }
+            }
 
-                    try {
-                        if (descriptionView.getText().length() == 0) {
-                            descriptionView.setText(description, TextView.BufferType.SPANNABLE);
-                        } else {
-                            descriptionView.append("\n");
-                            descriptionView.append(description);
-                        }
-                    } catch (final Exception e) {
-                        // On 4.1, there is sometimes a crash on measuring the layout: https://code.google.com/p/android/issues/detail?id=35412
-                        Log.e("Android bug setting text: ", e);
-                        // remove the formatting by converting to a simple string
-                        descriptionView.append(description.toString());
+            final List<CharSequence> rendered = new ArrayList<>(descriptions.size());
+            for (final String description : descriptions) {
+                final CharSequence cached = HtmlRenderCache.DESCRIPTIONS.get(geocode, description, variant);
+                if (cached == null) {
+                    break;
+                }
+                rendered.add(cached);
+            }
+            if (rendered.size() == descriptions.size()) {
+                showDescriptions(rendered, descriptionView, loadingIndicatorView);
+                return;
+            }
+
+            viewDisposables.add(Maybe.<List<CharSequence>>fromCallable(() -> {
+                try {
+                    final List<CharSequence> result = new ArrayList<>(descriptions.size());
+                    for (final String description : descriptions) {
+                        result.add(HtmlRenderCache.DESCRIPTIONS.render(geocode, description, variant, html -> renderDescription(html, descriptionView, backgroundColor)));
                     }
+                    return result;
+                } catch (final RuntimeException e) {
+                    Log.e("CacheDetailActivity.loadDescriptions", e);
+                    // complete without descriptions
+                    return null;
+                }
+            }).subscribeOn(AndroidRxUtils.computationScheduler).observeOn(AndroidSchedulers.mainThread()).subscribe(
+                    result -> showDescriptions(result, descriptionView, loadingIndicatorView),
+                    throwable -> Log.e("CacheDetailActivity.loadDescriptions", throwable),
+                    () -> {
+                        showToast(res.getString(R.string.err_load_descr_failed));
+                        loadingIndicatorView.setVisibility(View.GONE);
+                    }));
+        }
 
-                    descriptionView.setMovementMethod(AnchorAwareLinkMovementMethod.getInstance());
-                    descriptionView.setVisibility(View.VISIBLE);
-                    addContextMenu(descriptionView);
-                    potentiallyHideShortDescription();
+        /**
+         * Render a description, may be called on a background thread.
+         */
+        private CharSequence renderDescription(final String descriptionString, final IndexOutOfBoundsAvoidingTextView descriptionView, final int backgroundColor) {
+            final UnknownTagsHandler unknownTagsHandler = new UnknownTagsHandler();
+            final Editable description = new SpannableStringBuilder(HtmlCompat.fromHtml(descriptionString, HtmlCompat.FROM_HTML_MODE_LEGACY, new HtmlImage(cache.getGeocode(), true, false, descriptionView, false), unknownTagsHandler));
+            addWarning(unknownTagsHandler, description);
+            if (StringUtils.isNotBlank(description)) {
+                fixRelativeLinks(description);
+                fixTextColor(description, backgroundColor);
+            }
+            return description;
+        }
+
+        private void showDescriptions(final List<CharSequence> descriptions, final IndexOutOfBoundsAvoidingTextView descriptionView, final View loadingIndicatorView) {
+            for (final CharSequence description : descriptions) {
+                if (StringUtils.isBlank(description)) {
+                    continue;
                 }
-                if (loadingIndicatorView != null) {
-                    loadingIndicatorView.setVisibility(View.GONE);
+                try {
+                    if (descriptionView.getText().length() == 0) {
+                        HtmlRenderCache.setText(descriptionView, description);
+                    } else {
+                        HtmlRenderCache.bindImages(descriptionView, description);
+                        descriptionView.append("\n");
+                        descriptionView.append(description);
+                    }
+                } catch (final Exception e) {
+                    // On 4.1, there is sometimes a crash on measuring the layout: https://code.google.com/p/android/issues/detail?id=35412
+                    Log.e("Android bug setting text: ", e);
+                    // remove the formatting by converting to a simple string
+                    descriptionView.append(description.toString());
                 }
-            } catch (final RuntimeException ignored) {
-                showToast(res.getString(R.string.err_load_descr_failed));
+
+                descriptionView.setMovementMethod(AnchorAwareLinkMovementMethod.getInstance());
+                descriptionView.setVisibility(View.VISIBLE);
+                addContextMenu(descriptionView);
+                potentiallyHideShortDescription();
+            }
+            if (loadingIndicatorView != null) {
+                loadingIndicatorView.setVisibility(View.GONE);
             }
         }
 
@@ -2079,7 +2139,8 @@ public class CacheDetailActivity extends AbstractViewPagerActivity<CacheDetailAc
                 noteView.setOnClickListener(new DecryptTextClickListener(noteView));
                 noteView.setVisibility(View.VISIBLE);
                 if (TextUtils.containsHtml(wpt.getNote())) {
-                    noteView.setText(HtmlCompat.fromHtml(wpt.getNote(), HtmlCompat.FROM_HTML_MODE_LEGACY, new SmileyImage(cache.getGeocode(), noteView), new UnknownTagsHandler()), TextView.BufferType.SPANNABLE);
+                    HtmlRenderCache.setText(noteView, HtmlRenderCache.LOGS.render(cache.getGeocode(), wpt.getNote(), "note",
+                            note -> HtmlCompat.fromHtml(note, HtmlCompat.FROM_HTML_MODE_LEGACY, new SmileyImage(cache.getGeocode(), noteView), new UnknownTagsHandler())));
                 } else {
                     noteView.setText(wpt.getNote());
                 }
@@ -18,6 +18,9 @@ import cgeo.geocaching.command.MoveToListAndRemoveFromOthersCommand;
 import cgeo.geocaching.command.MoveToListCommand;
 import cgeo.geocaching.command.RenameListCommand;
 import cgeo.geocaching.command.SetCacheIconCommand;
+import cgeo.geocaching.connector.ConnectorFactory;
+import cgeo.geocaching.connector.IConnector;
+import cgeo.geocaching.connector.capability.ISearchByGeocodes;
 import cgeo.geocaching.connector.gc.GCMemberState;
 import cgeo.geocaching.connector.gc.PocketQueryListActivity;
 import cgeo.geocaching.connector.internal.InternalConnector;
@@ -132,7 +135,9 @@ import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
 public class CacheListActivity extends AbstractListActivity implements FilteredActivity, LoaderManager.LoaderCallbacks<SearchResult> {
 
@@ -724,7 +729,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         try {
             // toplevel menu items
             setEnabled(menu, R.id.menu_show_on_map, !isEmpty);
-            setEnabled(menu, R.id.menu_filter, search != null && search.getCount() > 0);
+            setEnabled(menu, R.id.menu_filter, search != null && (search.getCount() > 0 || adapter.isFiltered()));
             setVisibleEnabled(menu, R.id.menu_sort, !isHistory, !isEmpty);
             if (adapter.isSelectMode()) {
                 menu.findItem(R.id.menu_switch_select_mode).setTitle(res.getString(R.string.caches_select_mode_exit))
@@ -1161,11 +1166,15 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     }
 
     private void setFilter(final IFilter filter) {
+        final boolean reload = adapter.isReloadNeededForFilter(filter);
         currentFilter = filter;
         adapter.setFilter(filter);
         prepareFilterBar();
         updateTitle();
         invalidateOptionsMenuCompatible();
+        if (reload) {
+            refreshCurrentList();
+        }
     }
 
     @Override
@@ -1183,6 +1192,8 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
 
         adapter = new CacheListAdapter(this, cacheList, type);
         adapter.setStoredLists(Settings.showListsInCacheList() ? StoredList.UserInterface.getMenuLists(true, PseudoList.NEW_LIST.id) : null);
+        // stored lists are loaded with the filter applied by the database
+        adapter.setDatabaseFiltered(type == CacheListType.OFFLINE);
         adapter.setFilter(currentFilter);
 
         if (listFooter == null) {
@@ -1379,16 +1390,48 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
      * Method to asynchronously refresh the caches details.
      */
     private void loadDetails(final DisposableHandler handler, final List<Geocache> caches, final Set<Integer> additionalListIds) {
+        // caches of connectors able to download many caches at once are refreshed in batches, all others one by one
+        final Map<ISearchByGeocodes, List<Geocache>> batchCaches = new HashMap<>();
+        final List<Geocache> singleCaches = new ArrayList<>();
+        for (final Geocache cache : caches) {
+            final IConnector connector = ConnectorFactory.getConnector(cache);
+            if (connector instanceof ISearchByGeocodes) {
+                List<Geocache> connectorCaches = batchCaches.get(connector);
+                if (connectorCaches == null) {
+                    connectorCaches = new ArrayList<>();
+                    batchCaches.put((ISearchByGeocodes) connector, connectorCaches);
+                }
+                connectorCaches.add(cache);
+            } else {
+                singleCaches.add(cache);
+            }
+        }
+        final List<ImmutablePair<ISearchByGeocodes, List<Geocache>>> batches = new ArrayList<>();
+        for (final Map.Entry<ISearchByGeocodes, List<Geocache>> entry : batchCaches.entrySet()) {
+            for (final List<Geocache> batch : ListUtils.partition(entry.getValue(), entry.getKey().getMaxGeocodesPerSearch())) {
+                batches.add(new ImmutablePair<>(entry.getKey(), batch));
+            }
+        }
+        final Observable<Geocache> loadedBatches = Observable.fromIterable(batches).flatMap((Function<ImmutablePair<ISearchByGeocodes, List<Geocache>>, Observable<Geocache>>) batch -> Observable.create((ObservableOnSubscribe<Geocache>) emitter -> {
+            Geocache.storeCaches(batch.left, batch.right, additionalListIds, handler);
+            for (final Geocache cache : batch.right) {
+                detailProgress.incrementAndGet();
+                handler.obtainMessage(DownloadProgress.MSG_LOADED, cache).sendToTarget();
+            }
+            emitter.onComplete();
+        }).subscribeOn(AndroidRxUtils.refreshScheduler));
+
         final Observable<Geocache> allCaches;
-        allCaches = Observable.fromIterable(caches);
-        final Observable<Geocache> loaded = allCaches.flatMap((Function<Geocache, Observable<Geocache>>) cache -> Observable.create((ObservableOnSubscribe<Geocache>) emitter -> {
+        allCaches = Observable.fromIterable(singleCaches);
+        final Observable<Geocache> loadedSingles = allCaches.flatMap((Function<Geocache, Observable<Geocache>>) cache -> Observable.create((ObservableOnSubscribe<Geocache>) emitter -> {
             if (!(Settings.getGCMemberStatus() == GCMemberState.BASIC && cache.isPremiumMembersOnly())) {
                 cache.refreshSynchronous(null, additionalListIds);
             }
             detailProgress.incrementAndGet();
             handler.obtainMessage(DownloadProgress.MSG_LOADED, cache).sendToTarget();
             emitter.onComplete();
-        }).subscribeOn(AndroidRxUtils.refreshScheduler)).doOnComplete(() -> handler.sendEmptyMessage(DownloadProgress.MSG_DONE));
+        }).subscribeOn(AndroidRxUtils.refreshScheduler));
+        final Observable<Geocache> loaded = Observable.merge(loadedBatches, loadedSingles).doOnComplete(() -> handler.sendEmptyMessage(DownloadProgress.MSG_DONE));
         handler.add(loaded.subscribe());
     }
 
@@ -1814,7 +1857,7 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
                     markerId = list.markerId;
                 }
 
-                loader = new OfflineGeocacheListLoader(this, coords, listId);
+                loader = new OfflineGeocacheListLoader(this, coords, listId, currentFilter);
 
                 break;
             case HISTORY:
@@ -1961,10 +2004,21 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
         if (adapter.isFiltered()) {
             result.append(adapter.getCount()).append('/');
         }
-        result.append(getCacheNumberString(getResources(), search.getCount()));
+        result.append(getCacheNumberString(getResources(), getListSize()));
         return result.toString();
     }
 
+    /**
+     * Number of caches in the current list without filtering. Stored lists are filtered by the database, so their
+     * search result does not contain all caches of the list, the size is taken from the list counter then.
+     */
+    private int getListSize() {
+        if (type == CacheListType.OFFLINE && (listId >= StoredList.STANDARD_LIST_ID || listId == PseudoList.ALL_LIST.id)) {
+            return DataStore.getAllStoredCachesCount(Settings.getCacheType(), listId);
+        }
+        return search.getCount();
+    }
+
     /**
      * Used to indicate if an action should be taken after the AbstractSearchLoader has finished
      */
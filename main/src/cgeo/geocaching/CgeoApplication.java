@@ -3,6 +3,7 @@ package cgeo.geocaching;
 import cgeo.geocaching.network.Cookies;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.HtmlRenderCache;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.OOMDumpingUncaughtExceptionHandler;
 
@@ -105,6 +106,7 @@ public class CgeoApplication extends Application {
         if (level >= TRIM_MEMORY_MODERATE) {
             Log.i("Cleaning applications cache to trim memory");
             DataStore.removeAllFromCache();
+            HtmlRenderCache.clearAll();
         }
     }
 
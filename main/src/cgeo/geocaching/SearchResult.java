@@ -9,9 +9,11 @@ import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
 import cgeo.geocaching.enumerations.StatusCode;
 import cgeo.geocaching.gcvote.GCVote;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.PerformanceMetrics;
 
 import android.os.Parcel;
 import android.os.Parcelable;
@@ -32,6 +34,7 @@ import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.functions.Function;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
 public class SearchResult implements Parcelable {
 
@@ -65,6 +68,14 @@ public class SearchResult implements Parcelable {
         this(new HashSet<String>());
     }
 
+    /**
+     * Build a new empty search result with room for the given number of geocodes.
+     */
+    private SearchResult(final int expectedSize) {
+        geocodes = new HashSet<>(expectedSize * 4 / 3 + 1);
+        filteredGeocodes = new HashSet<>();
+    }
+
     /**
      * Build a new empty search result with an error status.
      */
@@ -219,25 +230,20 @@ public class SearchResult implements Parcelable {
         this.totalCountGC = totalCountGC;
     }
 
+    /**
+     * Filter the search result by the state and type of the caches. The caches are only loaded if ratings have to be
+     * added to them, and are not saved again, as filtering does not change them.
+     */
     public SearchResult filterSearchResults(final boolean excludeDisabled, final boolean excludeArchived, final CacheType cacheType) {
         final SearchResult result = new SearchResult(this);
         result.geocodes.clear();
-        final List<Geocache> includedCaches = new ArrayList<>();
-        final Set<Geocache> caches = DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB);
-        int excluded = 0;
-        for (final Geocache cache : caches) {
-            // Is there any reason to exclude the cache from the list?
-            final boolean excludeCache = (excludeDisabled && cache.isDisabled()) || (excludeArchived && cache.isArchived()) || !cacheType.contains(cache);
-            if (excludeCache) {
-                excluded++;
-            } else {
-                includedCaches.add(cache);
-            }
-        }
-        result.addAndPutInCache(includedCaches);
+        final ImmutablePair<Set<String>, Set<String>> filtered = DataStore.filterGeocodes(geocodes, excludeDisabled, excludeArchived, cacheType);
+        result.addGeocodes(filtered.left);
         // decrease maximum number of caches by filtered ones
-        result.setTotalCountGC(result.getTotalCountGC() - excluded);
-        GCVote.loadRatings(includedCaches);
+        result.setTotalCountGC(result.getTotalCountGC() - filtered.right.size());
+        if (Settings.isRatingWanted() && !filtered.left.isEmpty()) {
+            GCVote.loadRatings(new ArrayList<>(DataStore.loadCaches(filtered.left, LoadFlags.LOAD_CACHE_OR_DB)));
+        }
         return result;
     }
 
@@ -276,12 +282,7 @@ public class SearchResult implements Parcelable {
     }
 
     public boolean hasUnsavedCaches() {
-        for (final String geocode : getGeocodes()) {
-            if (!DataStore.isOffline(geocode, null)) {
-                return true;
-            }
-        }
-        return false;
+        return !geocodes.isEmpty() && DataStore.getOfflineGeocodes(geocodes).size() < geocodes.size();
     }
 
     public void addFilteredGeocodes(final Set<String> cachedMissingFromSearch) {
@@ -323,17 +324,34 @@ public class SearchResult implements Parcelable {
                 return Maybe.empty();
             }
             return Maybe.fromCallable(() -> {
+                final long start = System.nanoTime();
                 try {
                     return func.apply(connector);
                 } catch (final Throwable t) {
+                    PerformanceMetrics.counter("search.errors." + connector.getName()).increment();
                     Log.w("parallelCombineActive: swallowing error from connector " + connector, t);
                     return null;
+                } finally {
+                    PerformanceMetrics.timer("search." + connector.getName()).stop(start);
                 }
             }).subscribeOn(AndroidRxUtils.networkScheduler);
-        }).reduce(new SearchResult(), (searchResult, searchResult2) -> {
-            searchResult.addSearchResult(searchResult2);
-            return searchResult;
-        }).blockingGet();
+        }).toList().map(SearchResult::combine).blockingGet();
+    }
+
+    /**
+     * Combine the given search results into a new one, sized for all their geocodes at once.
+     */
+    @NonNull
+    private static SearchResult combine(@NonNull final List<SearchResult> searchResults) {
+        int size = 0;
+        for (final SearchResult searchResult : searchResults) {
+            size += searchResult.geocodes.size();
+        }
+        final SearchResult combined = new SearchResult(size);
+        for (final SearchResult searchResult : searchResults) {
+            combined.addSearchResult(searchResult);
+        }
+        return combined;
     }
 
 }
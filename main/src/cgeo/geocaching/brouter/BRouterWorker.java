@@ -4,7 +4,9 @@ import cgeo.geocaching.brouter.core.OsmNodeNamed;
 import cgeo.geocaching.brouter.core.OsmTrack;
 import cgeo.geocaching.brouter.core.RoutingContext;
 import cgeo.geocaching.brouter.core.RoutingEngine;
+import cgeo.geocaching.brouter.mapaccess.NodesCachePool;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.PerformanceMetrics;
 
 import android.os.Bundle;
 
@@ -12,11 +14,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class BRouterWorker {
+    private static final PerformanceMetrics.Timer ROUTING_TIMER = PerformanceMetrics.timer("brouter.route");
+    private static final PerformanceMetrics.Timer ROUTING_COLD_TIMER = PerformanceMetrics.timer("brouter.route.cold");
+    private static final PerformanceMetrics.Timer ROUTING_WARM_TIMER = PerformanceMetrics.timer("brouter.route.warm");
+
     // public String baseDir;
     public String profileFilename;
     public String rawTrackPath;
     public List<OsmNodeNamed> waypoints;
     public List<OsmNodeNamed> nogoList;
+    public NodesCachePool nodesCachePool;
 
     public String getTrackFromParams(final Bundle params) {
         long maxRunningTime = 60000;
@@ -28,6 +35,7 @@ public class BRouterWorker {
         final RoutingContext rc = new RoutingContext();
         rc.rawTrackPath = rawTrackPath;
         rc.profileFilename = profileFilename;
+        rc.nodesCachePool = nodesCachePool;
 
         final String tiFormat = params.getString("turnInstructionFormat");
         if (tiFormat != null) {
@@ -49,7 +57,15 @@ public class BRouterWorker {
         waypoints = readPositions(params);
 
         final RoutingEngine cr = new RoutingEngine(waypoints, rc);
-        cr.doRun(maxRunningTime);
+        final long start = System.nanoTime();
+        try {
+            cr.doRun(maxRunningTime);
+        } finally {
+            // failed and timed out routings are measured as well
+            ROUTING_TIMER.stop(start);
+            (cr.hasReusedNodesCache() ? ROUTING_WARM_TIMER : ROUTING_COLD_TIMER).stop(start);
+            Log.d("BRouterWorker: route calculated in " + (System.nanoTime() - start) / 1000000 + " ms with " + (cr.hasReusedNodesCache() ? "warm" : "cold") + " nodes cache");
+        }
 
         // store new reference track if any
         // (can exist for timed-out search)
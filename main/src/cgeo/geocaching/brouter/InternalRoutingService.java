@@ -1,5 +1,7 @@
 package cgeo.geocaching.brouter;
 
+import cgeo.geocaching.brouter.core.ProfileCache;
+import cgeo.geocaching.brouter.mapaccess.NodesCachePool;
 import cgeo.geocaching.brouter.util.DefaultFilesUtils;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.Log;
@@ -16,6 +18,9 @@ import org.apache.commons.lang3.StringUtils;
 
 public class InternalRoutingService extends Service {
 
+    /** tile data decoded by previous requests, shared by all requests of this service */
+    private final NodesCachePool nodesCachePool = new NodesCachePool();
+
     private final IInternalRoutingService.Stub myBRouterServiceStub = new IInternalRoutingService.Stub() {
         @Override
         public String getTrackFromParams(final Bundle params) {
@@ -32,6 +37,7 @@ public class InternalRoutingService extends Service {
             worker.rawTrackPath += mode + "_rawtrack.dat";
 
             worker.nogoList = new ArrayList<>();
+            worker.nodesCachePool = nodesCachePool;
 
             try {
                 return worker.getTrackFromParams(params);
@@ -52,12 +58,30 @@ public class InternalRoutingService extends Service {
     public void onCreate() {
         super.onCreate();
         Log.d(getClass().getSimpleName() + "onCreate()");
+        // the nodes caches are bound to the parsed profiles, so keep as many profiles as caches
+        ProfileCache.setSize(NodesCachePool.MAX_IDLE_CACHES);
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
         Log.d(getClass().getSimpleName() + "onDestroy()");
+        nodesCachePool.clear();
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        nodesCachePool.clear();
+    }
+
+    @Override
+    public void onTrimMemory(final int level) {
+        super.onTrimMemory(level);
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            Log.d(getClass().getSimpleName() + "onTrimMemory(" + level + "): dropping " + nodesCachePool.getIdleCount() + " nodes caches");
+            nodesCachePool.clear();
+        }
     }
 
     @Override
@@ -10,6 +10,7 @@ import cgeo.geocaching.brouter.expressions.BExpressionContext;
 import cgeo.geocaching.brouter.expressions.BExpressionContextNode;
 import cgeo.geocaching.brouter.expressions.BExpressionContextWay;
 import cgeo.geocaching.brouter.mapaccess.GeometryDecoder;
+import cgeo.geocaching.brouter.mapaccess.NodesCachePool;
 import cgeo.geocaching.brouter.mapaccess.OsmLink;
 import cgeo.geocaching.brouter.util.CheapAngleMeter;
 import cgeo.geocaching.brouter.util.CheapRulerHelper;
@@ -29,6 +30,7 @@ public final class RoutingContext {
     public BExpressionContextNode expctxNode;
     public GeometryDecoder geometryDecoder = new GeometryDecoder();
     public int memoryclass = 64;
+    public NodesCachePool nodesCachePool; // optional, to reuse the nodes cache of previous requests
     public int downhillcostdiv;
     public int downhillcutoff;
     public int uphillcostdiv;
@@ -23,6 +23,7 @@ public class RoutingEngine extends Thread {
     protected String errorMessage = null;
     protected RoutingContext routingContext;
     private NodesCache nodesCache;
+    private boolean reusedNodesCache = false;
     private final SortedHeap<OsmPath> openSet = new SortedHeap<OsmPath>();
     private boolean finished = false;
     private int linksProcessed = 0;
@@ -99,7 +100,9 @@ public class RoutingEngine extends Thread {
                 break;
             }
             final long endTime = System.currentTimeMillis();
-            logInfo("execution time = " + (endTime - startTime0) / 1000. + " seconds");
+            final Runtime runtime = Runtime.getRuntime();
+            logInfo("execution time = " + (endTime - startTime0) / 1000. + " seconds, links processed = " + linksProcessed
+                + " (" + linksProcessed * 1000L / Math.max(1, endTime - startTime0) + "/s), heap used = " + ((runtime.totalMemory() - runtime.freeMemory()) >> 20) + " MB");
         } catch (IllegalArgumentException e) {
             logException(e);
         } catch (Exception e) {
@@ -114,15 +117,20 @@ public class RoutingEngine extends Thread {
                 logInfo("expression cache stats=" + routingContext.expctxWay.cacheStats());
             }
 
-            ProfileCache.releaseProfile(routingContext);
-
+            // hand over the nodes cache before the profile, so that the next request with this profile finds it
             if (nodesCache != null) {
                 if (hasInfo() && nodesCache != null) {
                     logInfo("NodesCache status before close=" + nodesCache.formatStatus());
                 }
-                nodesCache.close();
+                if (routingContext.nodesCachePool != null && errorMessage == null) {
+                    routingContext.nodesCachePool.release(nodesCache);
+                } else {
+                    nodesCache.close();
+                }
                 nodesCache = null;
             }
+
+            ProfileCache.releaseProfile(routingContext);
             openSet.clear();
             finished = true; // this signals termination to outside
         }
@@ -134,6 +142,13 @@ public class RoutingEngine extends Thread {
     }
 
 
+    /**
+     * @return true if the routing started with the warm nodes cache of a previous request
+     */
+    public boolean hasReusedNodesCache() {
+        return reusedNodesCache;
+    }
+
     public void cleanOnOOM() {
         terminate();
     }
@@ -350,7 +365,12 @@ public class RoutingEngine extends Thread {
         }
         final long maxmem = routingContext.memoryclass * 1024L * 1024L; // in MB
 
-        nodesCache = new NodesCache(routingContext.expctxWay, maxmem, nodesCache, detailed);
+        NodesCache oldCache = nodesCache;
+        if (oldCache == null && routingContext.nodesCachePool != null) {
+            oldCache = routingContext.nodesCachePool.acquire(routingContext.expctxWay);
+            reusedNodesCache = oldCache != null;
+        }
+        nodesCache = new NodesCache(routingContext.expctxWay, maxmem, oldCache, detailed);
         islandNodePairs.clearTempPairs();
     }
 
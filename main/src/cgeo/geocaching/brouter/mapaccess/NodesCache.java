@@ -19,6 +19,7 @@ import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 
@@ -27,10 +28,12 @@ public final class NodesCache implements Closeable {
     public WaypointMatcher waypointMatcher;
     public boolean firstFileAccessFailed = false;
     public String firstFileAccessName;
-    private final BExpressionContextWay expCtxWay;
+    final BExpressionContextWay expCtxWay;
     private final int lookupVersion;
     private String currentFileName;
     private final HashMap<String, PhysicalFile> fileCache;
+    // file information of the tile files at the time of opening, null if missing
+    private final HashMap<String, ContentStorage.FileInformation> fileInfos;
     private final DataBuffers dataBuffers;
     private final OsmFile[][] fileRows;
     private long cacheSum = 0;
@@ -64,6 +67,7 @@ public final class NodesCache implements Closeable {
 
         if (oldCache != null) {
             fileCache = oldCache.fileCache;
+            fileInfos = oldCache.fileInfos;
             dataBuffers = oldCache.dataBuffers;
 
             // re-use old, virgin caches (if same detail-mode)
@@ -82,6 +86,7 @@ public final class NodesCache implements Closeable {
             }
         } else {
             fileCache = new HashMap<String, PhysicalFile>(4);
+            fileInfos = new HashMap<String, ContentStorage.FileInformation>(4);
             fileRows = new OsmFile[180][];
             dataBuffers = new DataBuffers();
         }
@@ -319,8 +324,8 @@ public final class NodesCache implements Closeable {
 
         PhysicalFile ra = null;
         if (!fileCache.containsKey(filenameBase)) {
-            final ContentStorage.FileInformation fi = ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_TILES.getFolder(), filenameBase + BRouterConstants.BROUTER_TILE_FILEEXTENSION);
-            if (fi != null && !fi.isDirectory) {
+            final ContentStorage.FileInformation fi = getTileFileInfo(filenameBase);
+            if (fi != null) {
                 currentFileName = fi.name;
 
                 final InputStream is = ContentStorage.get().openForRead(fi.uri);
@@ -332,6 +337,7 @@ public final class NodesCache implements Closeable {
                 }
             }
             fileCache.put(filenameBase, ra);
+            fileInfos.put(filenameBase, fi);
         }
         ra = fileCache.get(filenameBase);
         final OsmFile osmf = new OsmFile(ra, lonDegree, latDegree, dataBuffers);
@@ -344,6 +350,34 @@ public final class NodesCache implements Closeable {
         return osmf;
     }
 
+    private static ContentStorage.FileInformation getTileFileInfo(final String filenameBase) {
+        final ContentStorage.FileInformation fi = ContentStorage.get().getFileInfo(PersistableFolder.ROUTING_TILES.getFolder(), filenameBase + BRouterConstants.BROUTER_TILE_FILEEXTENSION);
+        return fi != null && !fi.isDirectory ? fi : null;
+    }
+
+    /**
+     * check that no tile file known to this cache was added, removed or replaced (e.g. by a download) since it was opened
+     */
+    boolean isUpToDate() {
+        for (Map.Entry<String, ContentStorage.FileInformation> entry : fileInfos.entrySet()) {
+            final ContentStorage.FileInformation known = entry.getValue();
+            final ContentStorage.FileInformation fi = getTileFileInfo(entry.getKey());
+            if (known == null ? fi != null : fi == null || fi.lastModified != known.lastModified || fi.size != known.size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * drop everything belonging to the finished routing request, keeping only the tile files and the virgin segments for reuse
+     */
+    void clearRequestState() {
+        nodesMap = null;
+        waypointMatcher = null;
+        clean(false);
+    }
+
     @Override
     public void close() {
         for (PhysicalFile f : fileCache.values()) {
@@ -0,0 +1,84 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.expressions.BExpressionContextWay;
+import cgeo.geocaching.utils.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the nodes caches of finished routing requests, so that following requests with the same profile
+ * can take over the opened tile files and the decoded segments instead of reading and decoding them again.
+ * <p>
+ * A nodes cache is only handed out to one routing request at a time, so the caches themselves need no synchronization.
+ */
+public final class NodesCachePool {
+    public static final int MAX_IDLE_CACHES = 2;
+
+    // least recently released first
+    private final List<NodesCache> idleCaches = new ArrayList<>();
+
+    /**
+     * take over the idle cache created for the given way context, if any
+     *
+     * @return the cache or null, if there is no up-to-date cache for that context
+     */
+    @Nullable
+    public NodesCache acquire(@NonNull final BExpressionContextWay expCtxWay) {
+        NodesCache cache = null;
+        synchronized (idleCaches) {
+            for (int i = idleCaches.size() - 1; i >= 0; i--) {
+                if (idleCaches.get(i).expCtxWay == expCtxWay) {
+                    cache = idleCaches.remove(i);
+                    break;
+                }
+            }
+        }
+        if (cache != null && !cache.isUpToDate()) {
+            Log.d("NodesCachePool: tile files changed, dropping cache");
+            cache.close();
+            return null;
+        }
+        return cache;
+    }
+
+    /**
+     * keep the cache of a finished routing request for later requests, closing the least recently used cache if necessary
+     */
+    public void release(@NonNull final NodesCache cache) {
+        cache.clearRequestState();
+        NodesCache evicted = null;
+        synchronized (idleCaches) {
+            idleCaches.add(cache);
+            if (idleCaches.size() > MAX_IDLE_CACHES) {
+                evicted = idleCaches.remove(0);
+            }
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+    }
+
+    /**
+     * close all idle caches, e.g. on memory pressure
+     */
+    public void clear() {
+        final List<NodesCache> caches;
+        synchronized (idleCaches) {
+            caches = new ArrayList<>(idleCaches);
+            idleCaches.clear();
+        }
+        for (final NodesCache cache : caches) {
+            cache.close();
+        }
+    }
+
+    public int getIdleCount() {
+        synchronized (idleCaches) {
+            return idleCaches.size();
+        }
+    }
+}
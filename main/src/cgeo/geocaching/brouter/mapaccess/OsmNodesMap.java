@@ -6,9 +6,9 @@
 package cgeo.geocaching.brouter.mapaccess;
 
 import cgeo.geocaching.brouter.util.ByteArrayUnifier;
+import cgeo.geocaching.brouter.util.OpenLongMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 public final class OsmNodesMap {
     public int nodesCreated;
@@ -21,9 +21,9 @@ public final class OsmNodesMap {
     public OsmNode endNode1;
     public OsmNode endNode2;
     public int cleanupMode = 0;
-    private final HashMap<OsmNode, OsmNode> hmap = new HashMap<OsmNode, OsmNode>(4096);
+    // keyed by the packed position, see OsmNode.getIdFromPos()
+    private final OpenLongMap<OsmNode> hmap = new OpenLongMap<OsmNode>(4096);
     private final ByteArrayUnifier abUnifier = new ByteArrayUnifier(16384, false);
-    private final OsmNode testKey = new OsmNode();
     private long currentmaxmem = 4000000; // start with 4 MB
     private ArrayList<OsmNode> nodes2check;
 
@@ -222,8 +222,11 @@ public final class OsmNodesMap {
     public void collectOutreachers() {
         nodes2check = new ArrayList<OsmNode>(nodesCreated);
         nodesCreated = 0;
-        for (OsmNode n : hmap.values()) {
-            addActiveNode(nodes2check, n);
+        for (int i = 0; i < hmap.capacity(); i++) {
+            final OsmNode n = hmap.valueAt(i);
+            if (n != null) {
+                addActiveNode(nodes2check, n);
+            }
         }
 
         lastVisitID++;
@@ -261,16 +264,14 @@ public final class OsmNodesMap {
      * @return the node for the given id if exist, else null
      */
     public OsmNode get(final int ilon, final int ilat) {
-        testKey.ilon = ilon;
-        testKey.ilat = ilat;
-        return hmap.get(testKey);
+        return hmap.get(((long) ilon) << 32 | ilat);
     }
 
     // ********************** test cleanup **********************
 
     public void remove(final OsmNode node) {
         if (node != endNode1 && node != endNode2) { // keep endnodes in hollow-map even when loaded (needed for escape analysis)
-            hmap.remove(node);
+            hmap.remove(node.getIdFromPos());
         }
     }
 
@@ -280,7 +281,7 @@ public final class OsmNodesMap {
      * @return the previous node if that id existed, else null
      */
     public OsmNode put(final OsmNode node) {
-        return hmap.put(node, node);
+        return hmap.put(node.getIdFromPos(), node);
     }
 
 }
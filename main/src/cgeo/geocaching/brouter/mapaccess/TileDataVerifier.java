@@ -0,0 +1,139 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.util.ByteDataReader;
+import cgeo.geocaching.brouter.util.Crc32Utils;
+import cgeo.geocaching.downloader.DownloadQueue;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+/**
+ * Checks the checksums of a rd5 routing tile while it is being downloaded, see {@link PhysicalFile} for the layout.
+ * <p/>
+ * The top index and the index of each of the 25 sub tiles are checked against the checksums stored at the end of the
+ * file. As the size of the sub tile indexes depends on the format, which is only known at the end, the checksums for
+ * both formats are computed. The content of the sub tiles is checked by BRouter when reading it.
+ */
+public class TileDataVerifier implements DownloadQueue.Verifier {
+
+    private static final int TOP_INDEX_SIZE = 200;
+    private static final int TILES = 25;
+    private static final int EXTRA_SIZE = 8 + 26 * 4;
+    private static final int[] DIVISORS = { 80, 32 };
+
+    private final byte[] topIndex = new byte[TOP_INDEX_SIZE];
+    private final long[] fileIndex = new long[TILES];
+    private final byte[] extra = new byte[EXTRA_SIZE];
+    /**
+     * checksums of the sub tile indexes, for each divisor
+     */
+    private final CRC32[][] subIndexCrcs = new CRC32[DIVISORS.length][TILES];
+    private long position = 0;
+    private boolean topIndexRead = false;
+
+    @Override
+    public void update(@NonNull final byte[] buffer, final int offset, final int length) throws IOException {
+        final long start = position;
+        final long end = position + length;
+        position = end;
+
+        copyRange(buffer, offset, start, end, 0, topIndex);
+        if (!topIndexRead && end >= TOP_INDEX_SIZE) {
+            readTopIndex();
+        }
+        if (!topIndexRead) {
+            return;
+        }
+        for (int tile = 0; tile < TILES; tile++) {
+            final long tileStart = tile > 0 ? fileIndex[tile - 1] : TOP_INDEX_SIZE;
+            if (tileStart == fileIndex[tile]) {
+                continue; // empty
+            }
+            for (int d = 0; d < DIVISORS.length; d++) {
+                final long from = Math.max(start, tileStart);
+                final long to = Math.min(end, tileStart + getIndexSize(DIVISORS[d]));
+                if (from < to) {
+                    subIndexCrcs[d][tile].update(buffer, offset + (int) (from - start), (int) (to - from));
+                }
+            }
+        }
+        copyRange(buffer, offset, start, end, fileIndex[TILES - 1], extra);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (!topIndexRead) {
+            throw new IOException("file of size " + position + " too short");
+        }
+        final long extraStart = fileIndex[TILES - 1];
+        if (position == extraStart) {
+            return; // old format without checksums
+        }
+        if (position < extraStart + EXTRA_SIZE) {
+            throw new IOException("file of size " + position + " too short, should be " + (extraStart + EXTRA_SIZE));
+        }
+
+        final ByteDataReader dis = new ByteDataReader(extra);
+        dis.readLong(); // creation time
+        final int crcData = dis.readInt();
+        final int fileIndexCrc = Crc32Utils.crc(topIndex, 0, TOP_INDEX_SIZE);
+        final int divisorIndex;
+        if (crcData == fileIndexCrc) {
+            divisorIndex = 0; // old format
+        } else if ((crcData ^ 2) == fileIndexCrc) {
+            divisorIndex = 1; // new format
+        } else {
+            throw new IOException("top index checksum error");
+        }
+        final int indexSize = getIndexSize(DIVISORS[divisorIndex]);
+        for (int tile = 0; tile < TILES; tile++) {
+            final int headerCrc = dis.readInt();
+            final long tileStart = tile > 0 ? fileIndex[tile - 1] : TOP_INDEX_SIZE;
+            if (tileStart == fileIndex[tile]) {
+                continue; // empty
+            }
+            if (tileStart + indexSize > position) {
+                throw new IOException("sub index " + tile + " truncated");
+            }
+            // Crc32Utils computes the CRC without the final inversion
+            if ((int) ~subIndexCrcs[divisorIndex][tile].getValue() != headerCrc) {
+                throw new IOException("sub index checksum error");
+            }
+        }
+    }
+
+    private void readTopIndex() throws IOException {
+        final ByteDataReader dis = new ByteDataReader(topIndex);
+        long previous = TOP_INDEX_SIZE;
+        for (int tile = 0; tile < TILES; tile++) {
+            fileIndex[tile] = dis.readLong() & 0xffffffffffffL;
+            if (fileIndex[tile] < previous) {
+                throw new IOException("top index corrupt");
+            }
+            previous = fileIndex[tile];
+        }
+        for (final CRC32[] crcs : subIndexCrcs) {
+            for (int tile = 0; tile < TILES; tile++) {
+                crcs[tile] = new CRC32();
+            }
+        }
+        topIndexRead = true;
+    }
+
+    private static int getIndexSize(final int divisor) {
+        return divisor * divisor * 4;
+    }
+
+    /**
+     * copy the part of a buffer at file position [start, end) which overlaps with the target at file position targetStart
+     */
+    private static void copyRange(final byte[] buffer, final int offset, final long start, final long end, final long targetStart, final byte[] target) {
+        final long from = Math.max(start, targetStart);
+        final long to = Math.min(end, targetStart + target.length);
+        if (from < to) {
+            System.arraycopy(buffer, offset + (int) (from - start), target, (int) (from - targetStart), (int) (to - from));
+        }
+    }
+}
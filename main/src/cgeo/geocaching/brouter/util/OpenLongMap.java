@@ -0,0 +1,151 @@
+package cgeo.geocaching.brouter.util;
+
+import java.util.Arrays;
+
+/**
+ * Map from a long-key to an object-value using open addressing
+ * <p>
+ * Keys and values are kept in two parallel arrays with linear probing,
+ * so there is no entry object and no boxing per mapping, and a lookup
+ * usually touches a single cache line of the key array.
+ * Removing uses backward shifting, so no tombstones are left behind.
+ * Null values are not supported, a null value marks an empty slot.
+ */
+public final class OpenLongMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+    private int resizeThreshold;
+
+    public OpenLongMap(final int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 2 < expectedSize * 3) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = capacity / 3 * 2; // load factor 2/3
+    }
+
+    private static int hash(final long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots, for iterating with {@link #valueAt(int)}
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @return the value in the given slot, or null if the slot is empty
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(final int slot) {
+        return (V) values[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(final long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            final Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    /**
+     * @return the previous value for the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(final long key, final V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        int i = hash(key) & mask;
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value for the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(final long key) {
+        int gap = hash(key) & mask;
+        for (; ; gap = (gap + 1) & mask) {
+            if (values[gap] == null) {
+                return null;
+            }
+            if (keys[gap] == key) {
+                break;
+            }
+        }
+        final V removed = (V) values[gap];
+
+        // shift back following entries of the probe sequence which would not be found anymore
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            final int home = hash(keys[i]) & mask;
+            final boolean reachable = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!reachable) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void resize() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int j = 0; j < oldValues.length; j++) {
+            final Object value = oldValues[j];
+            if (value != null) {
+                int i = hash(oldKeys[j]) & mask;
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package cgeo.geocaching.calculator;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A formula which is parsed once and can then be evaluated many times with different variable values, e.g. when
+ * trying all values of some unknown variables.
+ * <p/>
+ * The grammar was derived from the work of user 'Boann' and released to the public domain on Stack Overflow:
+ * https://stackoverflow.com/questions/3422673/evaluating-a-math-expression-given-in-string-form
+ * <p/>
+ * The '%' operator, square and curly brackets and variables were added. The value of each variable is read from a
+ * register array, the register of a variable is its position in the variable names given on compilation.
+ * <ul>
+ * <li>Upper case variables are substituted textually like in the coordinates of a cache: {@code AB.1} is the number
+ * built of the digits of A, B and 1. A negative or missing value of such a variable makes the number invalid. If the
+ * expression is compiled without digit substitution, a single upper case letter is a variable used as number
+ * instead, like the variables of the calculator depending on each other.</li>
+ * <li>A single lower case letter which is not part of a function name is a variable used as number.</li>
+ * </ul>
+ * Parts which do not contain variables are computed on compilation. Instances are immutable and can be evaluated from
+ * several threads at once.
+ */
+public final class CompiledExpression {
+
+    private interface Node {
+        double eval(@NonNull double[] registers);
+    }
+
+    private static final class Constant implements Node {
+        private final double value;
+
+        Constant(final double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double eval(@NonNull final double[] registers) {
+            return value;
+        }
+    }
+
+    /**
+     * a number built of digits, dots and the digits of upper case variables
+     */
+    private static final class DigitsNode implements Node {
+        /**
+         * register of each part, or -1 for a literal digit (stored in digits) or dot
+         */
+        private final int[] registers;
+        private final int[] digits;
+
+        DigitsNode(final int[] registers, final int[] digits) {
+            this.registers = registers;
+            this.digits = digits;
+        }
+
+        @Override
+        public double eval(@NonNull final double[] values) {
+            long mantissa = 0;
+            int fractionDigits = 0;
+            boolean fraction = false;
+            for (int i = 0; i < registers.length; i++) {
+                if (registers[i] >= 0) {
+                    final double value = values[registers[i]];
+                    if (Double.isNaN(value) || value < 0) {
+                        return Double.NaN;
+                    }
+                    final long digitsOfValue = (long) value;
+                    long factor = 10;
+                    while (factor <= digitsOfValue) {
+                        factor *= 10;
+                        if (fraction) {
+                            fractionDigits++;
+                        }
+                    }
+                    mantissa = mantissa * factor + digitsOfValue;
+                    if (fraction) {
+                        fractionDigits++;
+                    }
+                } else if (digits[i] < 0) {
+                    if (fraction) {
+                        return Double.NaN;
+                    }
+                    fraction = true;
+                } else {
+                    mantissa = mantissa * 10 + digits[i];
+                    if (fraction) {
+                        fractionDigits++;
+                    }
+                }
+            }
+            return fractionDigits == 0 ? mantissa : mantissa / Math.pow(10, fractionDigits);
+        }
+    }
+
+    @NonNull private final Node root;
+    @NonNull private final String expression;
+    private final boolean[] usedRegisters;
+
+    /**
+     * @param expression
+     *            the formula
+     * @param variables
+     *            the names of all variables which may be used in the formula, the index of a name is its register
+     * @throws IllegalArgumentException
+     *             if the formula cannot be parsed
+     */
+    public CompiledExpression(@NonNull final String expression, @NonNull final String variables) {
+        this(expression, variables, true);
+    }
+
+    /**
+     * @param expression
+     *            the formula
+     * @param variables
+     *            the names of all variables which may be used in the formula, the index of a name is its register
+     * @param substituteDigits
+     *            whether upper case variables are substituted as digits, otherwise they are used as numbers
+     * @throws IllegalArgumentException
+     *             if the formula cannot be parsed
+     */
+    public CompiledExpression(@NonNull final String expression, @NonNull final String variables, final boolean substituteDigits) {
+        this.expression = expression;
+        final Parser parser = new Parser(expression, variables, substituteDigits);
+        this.root = parser.parse();
+        this.usedRegisters = parser.usedRegisters;
+    }
+
+    /**
+     * @param registers
+     *            the values of the variables, in the order of the variable names given on compilation
+     * @return the result, {@code NaN} if it cannot be computed for these values
+     */
+    public double evaluate(@NonNull final double[] registers) {
+        return root.eval(registers);
+    }
+
+    public boolean usesRegister(final int register) {
+        return register < usedRegisters.length && usedRegisters[register];
+    }
+
+    public boolean isConstant() {
+        return root instanceof Constant;
+    }
+
+    @Override
+    @NonNull
+    public String toString() {
+        return expression;
+    }
+
+    private static final class Parser {
+        private final String expression;
+        private final String variables;
+        private final boolean substituteDigits;
+        private final boolean[] usedRegisters;
+        private int pos = -1;
+        private int ch;
+
+        Parser(final String expression, final String variables, final boolean substituteDigits) {
+            this.expression = expression;
+            this.variables = variables;
+            this.substituteDigits = substituteDigits;
+            this.usedRegisters = new boolean[variables.length()];
+        }
+
+        Node parse() {
+            nextChar();
+            final Node node = parseExpression();
+            skipBlanks();
+            if (pos < expression.length()) {
+                throw new IllegalArgumentException("Unexpected: " + (char) ch);
+            }
+            return node;
+        }
+
+        private void nextChar() {
+            ch = (++pos < expression.length()) ? expression.charAt(pos) : -1;
+        }
+
+        private void skipBlanks() {
+            while (ch == ' ') {
+                nextChar();
+            }
+        }
+
+        private boolean eat(final int charToEat) {
+            skipBlanks();
+            if (ch == charToEat) {
+                nextChar();
+                return true;
+            }
+            return false;
+        }
+
+        private Node parseExpression() {
+            Node x = parseTerm();
+            for (;;) {
+                if (eat('+')) {
+                    x = binary(x, parseTerm(), '+');
+                } else if (eat('-')) {
+                    x = binary(x, parseTerm(), '-');
+                } else {
+                    return x;
+                }
+            }
+        }
+
+        private Node parseTerm() {
+            Node x = parseFactor();
+            for (;;) {
+                if (eat('*')) {
+                    x = binary(x, parseFactor(), '*');
+                } else if (eat('/')) {
+                    x = binary(x, parseFactor(), '/');
+                } else if (eat('%')) {
+                    x = binary(x, parseFactor(), '%');
+                } else {
+                    return x;
+                }
+            }
+        }
+
+        private Node parseFactor() {
+            if (eat('+')) {
+                return parseFactor();
+            }
+            if (eat('-')) {
+                final Node operand = parseFactor();
+                return fold(registers -> -operand.eval(registers), operand);
+            }
+
+            Node x;
+            if (eat('(')) {
+                x = parseBracket(')');
+            } else if (eat('[')) {
+                x = parseBracket(']');
+            } else if (eat('{')) {
+                x = parseBracket('}');
+            } else if (!substituteDigits && ch >= 'A' && ch <= 'Z') {
+                x = variable((char) ch);
+                nextChar();
+            } else if (isDigitPart(ch)) {
+                x = parseDigits();
+            } else if (ch >= 'a' && ch <= 'z') {
+                x = parseFunctionOrVariable();
+            } else {
+                throw new IllegalArgumentException("Unexpected: " + (char) ch);
+            }
+
+            if (eat('^')) {
+                x = binary(x, parseFactor(), '^');
+            }
+            return x;
+        }
+
+        private Node parseBracket(final char closing) {
+            final Node x = parseExpression();
+            if (!eat(closing)) {
+                throw new IllegalArgumentException("Expected '" + closing + "'");
+            }
+            return x;
+        }
+
+        private boolean isDigitPart(final int c) {
+            return (c >= '0' && c <= '9') || c == '.' || (substituteDigits && c >= 'A' && c <= 'Z');
+        }
+
+        private Node parseDigits() {
+            final List<Integer> registers = new ArrayList<>();
+            final List<Integer> digits = new ArrayList<>();
+            boolean hasVariables = false;
+            final int startPos = pos;
+            while (isDigitPart(ch)) {
+                if (ch >= 'A' && ch <= 'Z') {
+                    registers.add(register((char) ch));
+                    digits.add(0);
+                    hasVariables = true;
+                } else {
+                    registers.add(-1);
+                    digits.add(ch == '.' ? -1 : ch - '0');
+                }
+                nextChar();
+            }
+            if (!hasVariables) {
+                return new Constant(Double.parseDouble(expression.substring(startPos, pos)));
+            }
+            final int[] registerArray = new int[registers.size()];
+            final int[] digitArray = new int[digits.size()];
+            for (int i = 0; i < registerArray.length; i++) {
+                registerArray[i] = registers.get(i);
+                digitArray[i] = digits.get(i);
+            }
+            return new DigitsNode(registerArray, digitArray);
+        }
+
+        private Node parseFunctionOrVariable() {
+            final int startPos = pos;
+            while (ch >= 'a' && ch <= 'z') {
+                nextChar();
+            }
+            final String name = expression.substring(startPos, pos);
+            final Node argument;
+            switch (name) {
+                case "sqrt":
+                    argument = parseFactor();
+                    return fold(registers -> Math.sqrt(argument.eval(registers)), argument);
+                case "sin":
+                    argument = parseFactor();
+                    return fold(registers -> Math.sin(Math.toRadians(argument.eval(registers))), argument);
+                case "cos":
+                    argument = parseFactor();
+                    return fold(registers -> Math.cos(Math.toRadians(argument.eval(registers))), argument);
+                case "tan":
+                    argument = parseFactor();
+                    return fold(registers -> Math.tan(Math.toRadians(argument.eval(registers))), argument);
+                default:
+                    if (name.length() != 1) {
+                        throw new IllegalArgumentException("Unknown function: " + name);
+                    }
+                    return variable(name.charAt(0));
+            }
+        }
+
+        private Node variable(final char name) {
+            final int register = register(name);
+            return registers -> registers[register];
+        }
+
+        private int register(final char name) {
+            final int register = variables.indexOf(name);
+            if (register < 0) {
+                throw new IllegalArgumentException("Unknown variable: " + name);
+            }
+            usedRegisters[register] = true;
+            return register;
+        }
+
+        private static Node binary(final Node left, final Node right, final char operator) {
+            final Node node;
+            switch (operator) {
+                case '+':
+                    node = registers -> left.eval(registers) + right.eval(registers);
+                    break;
+                case '-':
+                    node = registers -> left.eval(registers) - right.eval(registers);
+                    break;
+                case '*':
+                    node = registers -> left.eval(registers) * right.eval(registers);
+                    break;
+                case '/':
+                    node = registers -> left.eval(registers) / right.eval(registers);
+                    break;
+                case '%':
+                    node = registers -> left.eval(registers) % right.eval(registers);
+                    break;
+                default:
+                    node = registers -> Math.pow(left.eval(registers), right.eval(registers));
+                    break;
+            }
+            return fold(node, left, right);
+        }
+
+        /**
+         * replace the node by its value if all operands are constant
+         */
+        private static Node fold(final Node node, final Node... operands) {
+            for (final Node operand : operands) {
+                if (!(operand instanceof Constant)) {
+                    return node;
+                }
+            }
+            return new Constant(node.eval(new double[0]));
+        }
+    }
+}
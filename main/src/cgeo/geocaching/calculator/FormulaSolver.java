@@ -0,0 +1,509 @@
+package cgeo.geocaching.calculator;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.GeopointParser;
+import cgeo.geocaching.models.CalcState;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Finds the coordinates described by a formula for all combinations of values of some unknown variables, keeping the
+ * ones close to a given point, e.g. the posted coordinates of a mystery cache.
+ * <p/>
+ * The formula has the form used by {@link CalcStateEvaluator}. All parts are compiled once, and the combinations are
+ * split into chunks which are tried in parallel. The variables which the latitude depends on are enumerated first, so
+ * that all combinations of the other variables are skipped as soon as the latitude alone is too far off.
+ */
+public final class FormulaSolver {
+
+    /**
+     * lower bound of the length of one degree of latitude on the WGS84 ellipsoid
+     */
+    private static final double MIN_KM_PER_DEGREE_LATITUDE = 110.5;
+    private static final int CHUNKS_PER_CORE = 8;
+    private static final String PLACE_HOLDER = "~";
+
+    /**
+     * The values an unknown variable can take.
+     */
+    public static final class Range {
+        private final char variable;
+        private final int from;
+        private final int to;
+
+        /**
+         * @param from
+         *            the first value
+         * @param to
+         *            the last value (inclusive)
+         */
+        public Range(final char variable, final int from, final int to) {
+            if (to < from) {
+                throw new IllegalArgumentException("Empty range for " + variable);
+            }
+            this.variable = variable;
+            this.from = from;
+            this.to = to;
+        }
+
+        public char getVariable() {
+            return variable;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        int size() {
+            return to - from + 1;
+        }
+    }
+
+    /**
+     * Coordinates found for one combination of values.
+     */
+    public static final class Solution {
+        @NonNull private final Map<Character, Integer> values;
+        @NonNull private final Geopoint coords;
+        private final float distance;
+
+        Solution(@NonNull final Map<Character, Integer> values, @NonNull final Geopoint coords, final float distance) {
+            this.values = values;
+            this.coords = coords;
+            this.distance = distance;
+        }
+
+        /**
+         * @return the values of the unknown variables, ordered by name
+         */
+        @NonNull
+        public Map<Character, Integer> getValues() {
+            return values;
+        }
+
+        @NonNull
+        public Geopoint getCoords() {
+            return coords;
+        }
+
+        /**
+         * @return the distance to the reference point in kilometers
+         */
+        public float getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Coordinate text with variables and bracketed formulas, see {@link CalcStateEvaluator#evaluate(String)}.
+     */
+    static final class Template {
+        /**
+         * literal text (String), the value of a variable (Integer register) or a formula (CompiledExpression)
+         */
+        private final List<Object> parts = new ArrayList<>();
+        private final boolean[] usedRegisters;
+
+        Template(@NonNull final String text, @NonNull final String variables) {
+            usedRegisters = new boolean[variables.length()];
+            final StringBuilder literal = new StringBuilder();
+            int index = 0;
+            if (!text.isEmpty() && "NSEW".indexOf(text.charAt(0)) >= 0) {
+                // hemisphere
+                literal.append(text.charAt(0));
+                index = 1;
+            }
+            while (index < text.length()) {
+                final char ch = text.charAt(index);
+                final int closingIndex = findClosingBracket(text, index);
+                final int register = variables.indexOf(ch);
+                if (closingIndex > index) {
+                    addLiteral(literal);
+                    if (closingIndex > index + 1) {
+                        final CompiledExpression expression = new CompiledExpression(text.substring(index + 1, closingIndex).replace(PLACE_HOLDER, ""), variables);
+                        for (int r = 0; r < usedRegisters.length; r++) {
+                            usedRegisters[r] |= expression.usesRegister(r);
+                        }
+                        parts.add(expression);
+                    }
+                    index = closingIndex + 1;
+                    continue;
+                }
+                if (register >= 0 && Character.isUpperCase(ch)) {
+                    addLiteral(literal);
+                    parts.add(register);
+                    usedRegisters[register] = true;
+                } else if (ch != PLACE_HOLDER.charAt(0)) {
+                    literal.append(ch);
+                }
+                index++;
+            }
+            addLiteral(literal);
+        }
+
+        private void addLiteral(final StringBuilder literal) {
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+                literal.setLength(0);
+            }
+        }
+
+        /**
+         * @return the index of the bracket closing the one at the given index, -1 if there is none
+         */
+        private static int findClosingBracket(final String text, final int index) {
+            final int type = "([{".indexOf(text.charAt(index));
+            if (type < 0) {
+                return -1;
+            }
+            final char opening = "([{".charAt(type);
+            final char closing = ")]}".charAt(type);
+            int nesting = 0;
+            for (int i = index; i < text.length(); i++) {
+                if (text.charAt(i) == opening) {
+                    nesting++;
+                } else if (text.charAt(i) == closing && --nesting == 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        boolean usesRegister(final int register) {
+            return usedRegisters[register];
+        }
+
+        /**
+         * @return the text with all variables substituted, {@code null} if a variable has no valid value
+         */
+        @Nullable
+        String evaluate(@NonNull final double[] registers, @NonNull final StringBuilder buffer) {
+            buffer.setLength(0);
+            for (final Object part : parts) {
+                if (part instanceof String) {
+                    buffer.append((String) part);
+                } else if (part instanceof Integer) {
+                    final double value = registers[(Integer) part];
+                    if (Double.isNaN(value)) {
+                        return null;
+                    }
+                    buffer.append((int) value);
+                } else {
+                    final double value = ((CompiledExpression) part).evaluate(registers);
+                    if (Double.isNaN(value) || Double.isInfinite(value)) {
+                        return null;
+                    }
+                    buffer.append((int) value);
+                }
+            }
+            return buffer.toString();
+        }
+    }
+
+    @NonNull private final Template latitude;
+    @NonNull private final Template longitude;
+    /**
+     * values of all variables which do not depend on the unknown variables
+     */
+    @NonNull private final double[] initialRegisters;
+    /**
+     * the equations to be computed once the latitude variables are set, and the remaining ones
+     */
+    @NonNull private final int[] latitudeEquations;
+    @NonNull private final int[] longitudeEquations;
+    @NonNull private final CompiledExpression[] expressions;
+    /**
+     * the unknown variables, the ones the latitude depends on first
+     */
+    @NonNull private final Range[] ranges;
+    @NonNull private final int[] rangeRegisters;
+    @NonNull private final String variables;
+    /**
+     * number of combinations of the variables which the latitude does not depend on
+     */
+    private final long longitudeCombinations;
+    private final long combinations;
+
+    public FormulaSolver(@NonNull final CalcState calcState, @NonNull final List<Range> ranges) {
+        this(calcState.plainLat, calcState.plainLon, calcState.equations, calcState.freeVariables, ranges);
+    }
+
+    /**
+     * @param latFormula
+     *            the latitude, as text with variables
+     * @param lonFormula
+     *            the longitude, as text with variables
+     * @param equations
+     *            the upper case variables used in the coordinates, with their formulas
+     * @param freeVariables
+     *            the lower case variables used in the formulas of the equations
+     * @param ranges
+     *            the unknown variables to try, their formulas are ignored
+     * @throws IllegalArgumentException
+     *             if a part of the formula cannot be compiled
+     */
+    public FormulaSolver(@NonNull final String latFormula, @NonNull final String lonFormula, @NonNull final List<VariableData> equations,
+                         @NonNull final List<VariableData> freeVariables, @NonNull final List<Range> ranges) {
+        final StringBuilder names = new StringBuilder();
+        for (final VariableData variable : freeVariables) {
+            names.append(variable.getName());
+        }
+        for (final VariableData equation : equations) {
+            names.append(equation.getName());
+        }
+        for (final Range range : ranges) {
+            if (names.indexOf(String.valueOf(range.getVariable())) < 0) {
+                names.append(range.getVariable());
+            }
+        }
+        variables = names.toString();
+        final int registerCount = variables.length();
+
+        final boolean[] unknown = new boolean[registerCount];
+        for (final Range range : ranges) {
+            unknown[variables.indexOf(range.getVariable())] = true;
+        }
+
+        // free variables are constants, unless they are unknown
+        initialRegisters = new double[registerCount];
+        for (final VariableData variable : freeVariables) {
+            final int register = variables.indexOf(variable.getName());
+            if (!unknown[register]) {
+                initialRegisters[register] = evaluateConstant(variable.getExpression());
+            }
+        }
+
+        // which unknown variables each register depends on
+        final boolean[][] dependencies = new boolean[registerCount][registerCount];
+        for (int register = 0; register < registerCount; register++) {
+            dependencies[register][register] = unknown[register];
+        }
+        expressions = new CompiledExpression[registerCount];
+        final List<Integer> computedEquations = new ArrayList<>();
+        for (final VariableData equation : equations) {
+            final int register = variables.indexOf(equation.getName());
+            if (unknown[register]) {
+                continue;
+            }
+            final CompiledExpression expression = compile(equation.getExpression());
+            if (expression == null) {
+                initialRegisters[register] = Double.NaN;
+            } else if (expression.isConstant()) {
+                initialRegisters[register] = expression.evaluate(initialRegisters);
+            } else {
+                boolean dependsOnUnknown = false;
+                for (int used = 0; used < registerCount; used++) {
+                    if (expression.usesRegister(used)) {
+                        for (int dependency = 0; dependency < registerCount; dependency++) {
+                            dependencies[register][dependency] |= dependencies[used][dependency];
+                            dependsOnUnknown |= dependencies[used][dependency];
+                        }
+                    }
+                }
+                if (dependsOnUnknown) {
+                    expressions[register] = expression;
+                    computedEquations.add(register);
+                } else {
+                    initialRegisters[register] = expression.evaluate(initialRegisters);
+                }
+            }
+        }
+
+        latitude = new Template(latFormula, variables);
+        longitude = new Template(lonFormula, variables);
+
+        // order the unknown variables, the ones which the latitude depends on first
+        final boolean[] latitudeDependencies = new boolean[registerCount];
+        for (int register = 0; register < registerCount; register++) {
+            if (latitude.usesRegister(register)) {
+                for (int dependency = 0; dependency < registerCount; dependency++) {
+                    latitudeDependencies[dependency] |= dependencies[register][dependency];
+                }
+            }
+        }
+        final List<Range> orderedRanges = new ArrayList<>();
+        for (final Range range : ranges) {
+            if (latitudeDependencies[variables.indexOf(range.getVariable())]) {
+                orderedRanges.add(range);
+            }
+        }
+        long longitudeCount = 1;
+        for (final Range range : ranges) {
+            if (!latitudeDependencies[variables.indexOf(range.getVariable())]) {
+                orderedRanges.add(range);
+                longitudeCount = Math.multiplyExact(longitudeCount, range.size());
+            }
+        }
+        this.ranges = orderedRanges.toArray(new Range[0]);
+        rangeRegisters = new int[this.ranges.length];
+        long count = 1;
+        for (int i = 0; i < this.ranges.length; i++) {
+            rangeRegisters[i] = variables.indexOf(this.ranges[i].getVariable());
+            count = Math.multiplyExact(count, this.ranges[i].size());
+        }
+        longitudeCombinations = longitudeCount;
+        combinations = count;
+
+        // equations only depending on latitude variables can be computed before the latitude
+        final List<Integer> latitudeList = new ArrayList<>();
+        final List<Integer> longitudeList = new ArrayList<>();
+        for (final int register : computedEquations) {
+            boolean latitudeOnly = true;
+            for (int dependency = 0; dependency < registerCount; dependency++) {
+                latitudeOnly &= !dependencies[register][dependency] || latitudeDependencies[dependency];
+            }
+            (latitudeOnly ? latitudeList : longitudeList).add(register);
+        }
+        latitudeEquations = toArray(latitudeList);
+        longitudeEquations = toArray(longitudeList);
+    }
+
+    @Nullable
+    private CompiledExpression compile(final String expression) {
+        if (expression == null || expression.isEmpty()) {
+            return null;
+        }
+        try {
+            return new CompiledExpression(expression, variables);
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double evaluateConstant(final String expression) {
+        try {
+            return new CompiledExpression(expression, "").evaluate(new double[0]);
+        } catch (final IllegalArgumentException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of combinations of values of the unknown variables
+     */
+    public long getCombinationCount() {
+        return combinations;
+    }
+
+    /**
+     * Try all combinations of the unknown variables in parallel on the computation threads.
+     *
+     * @param reference
+     *            the point to compare to
+     * @param maxDistanceKm
+     *            the maximum distance of a solution to the reference point
+     * @return the solutions, as soon as they are found and in no particular order
+     */
+    @NonNull
+    public Observable<Solution> solve(@NonNull final Geopoint reference, final double maxDistanceKm) {
+        final int chunks = (int) Math.min(combinations, (long) Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+        return Observable.range(0, chunks).flatMap(chunk -> Observable.<Solution>create(emitter -> {
+            solve(combinations * chunk / chunks, combinations * (chunk + 1) / chunks, reference, maxDistanceKm, emitter);
+            emitter.onComplete();
+        }).subscribeOn(Schedulers.computation()), false, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * try the combinations with the given indexes, the index of a combination encodes the values of all unknown
+     * variables with the latitude variables being the most significant digits
+     */
+    private void solve(final long from, final long to, @NonNull final Geopoint reference, final double maxDistanceKm, @NonNull final ObservableEmitter<Solution> emitter) {
+        final double[] registers = initialRegisters.clone();
+        final StringBuilder buffer = new StringBuilder();
+        final double maxLatitudeDifference = maxDistanceKm / MIN_KM_PER_DEGREE_LATITUDE;
+        long index = from;
+        while (index < to && !emitter.isDisposed()) {
+            final long latitudeEnd = Math.min(to, (index / longitudeCombinations + 1) * longitudeCombinations);
+            assignValues(registers, index);
+            computeEquations(registers, latitudeEquations);
+            final double lat = parseLatitude(latitude.evaluate(registers, buffer));
+            if (Double.isNaN(lat) || Math.abs(lat - reference.getLatitude()) > maxLatitudeDifference) {
+                // no combination of the other variables can bring it closer
+                index = latitudeEnd;
+                continue;
+            }
+            for (; index < latitudeEnd && !emitter.isDisposed(); index++) {
+                assignValues(registers, index);
+                computeEquations(registers, longitudeEquations);
+                final double lon = parseLongitude(longitude.evaluate(registers, buffer));
+                if (Double.isNaN(lon)) {
+                    continue;
+                }
+                final Geopoint coords = new Geopoint(lat, lon);
+                final float distance = coords.distanceTo(reference);
+                if (distance <= maxDistanceKm) {
+                    emitter.onNext(new Solution(getValues(registers), coords, distance));
+                }
+            }
+        }
+    }
+
+    private void assignValues(final double[] registers, final long index) {
+        long remaining = index;
+        for (int i = ranges.length - 1; i >= 0; i--) {
+            final int size = ranges[i].size();
+            registers[rangeRegisters[i]] = ranges[i].getFrom() + (int) (remaining % size);
+            remaining /= size;
+        }
+    }
+
+    private void computeEquations(final double[] registers, final int[] equations) {
+        for (final int register : equations) {
+            registers[register] = expressions[register].evaluate(registers);
+        }
+    }
+
+    @NonNull
+    private Map<Character, Integer> getValues(final double[] registers) {
+        final Map<Character, Integer> values = new TreeMap<>();
+        for (int i = 0; i < ranges.length; i++) {
+            values.put(ranges[i].getVariable(), (int) registers[rangeRegisters[i]]);
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static double parseLatitude(@Nullable final String text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        try {
+            return GeopointParser.parseLatitude(text);
+        } catch (final Geopoint.GeopointException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static double parseLongitude(@Nullable final String text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        try {
+            return GeopointParser.parseLongitude(text);
+        } catch (final Geopoint.GeopointException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -94,16 +94,17 @@ public final class VariableData implements JSONAble {
 
     private double evaluateDouble(final List<VariableData> dependantVariables) {
         if (isCacheDirty()) {
-            String expression = getExpression();
+            final StringBuilder names = new StringBuilder();
+            final double[] values = new double[dependantVariables == null ? 0 : dependantVariables.size()];
 
-            if (dependantVariables != null) {
-                for (final VariableData depVar : dependantVariables) {
-                    expression = expression.replace(String.valueOf(depVar.getName()), "(" + depVar.evaluateDouble(null) + ")");
-                }
+            for (int i = 0; i < values.length; i++) {
+                final VariableData depVar = dependantVariables.get(i);
+                names.append(depVar.getName());
+                values[i] = depVar.evaluateDouble(null);
             }
 
             try {
-                setCachedValue(new CalculationUtils(expression).eval());
+                setCachedValue(new CompiledExpression(getExpression(), names.toString(), false).evaluate(values));
             } catch (final Exception e) {
                 setCachedValue(Double.NaN);
             }
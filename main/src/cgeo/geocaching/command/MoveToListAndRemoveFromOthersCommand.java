@@ -10,7 +10,6 @@ import androidx.annotation.NonNull;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,20 +27,15 @@ public abstract class MoveToListAndRemoveFromOthersCommand extends MoveToListCom
 
     @Override
     protected void doCommand() {
-        for (final Geocache cache : getCaches()) {
-            oldLists.put(cache.getGeocode(), new HashSet<>(cache.getLists()));
-        }
+        oldLists.clear();
+        oldLists.putAll(DataStore.loadLists(Geocache.getGeocodes(getCaches())));
         DataStore.saveLists(getCaches(), Collections.singleton(getNewListId()));
     }
 
     @Override
     protected void undoCommand() {
-        for (final Geocache cache : getCaches()) {
-            final Set<Integer> listIds = oldLists.get(cache.getGeocode());
-            if (listIds != null) {
-                DataStore.saveLists(getCaches(), listIds);
-            }
-        }
+        DataStore.removeFromList(getCaches(), getNewListId());
+        DataStore.addToLists(getCaches(), oldLists);
     }
 
 }
@@ -42,6 +42,12 @@ public abstract class AbstractConnector implements IConnector {
         return false;
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[0];
+    }
+
     @Override
     public Set<String> handledGeocodes(@NonNull final Set<String> geocodes) {
         final Set<String> strippedList = new HashSet<>();
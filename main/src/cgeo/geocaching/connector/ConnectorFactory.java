@@ -47,13 +47,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import io.reactivex.rxjava3.core.Maybe;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
 public final class ConnectorFactory {
     @NonNull public static final UnknownConnector UNKNOWN_CONNECTOR = new UnknownConnector();
@@ -87,6 +94,25 @@ public final class ConnectorFactory {
             UNKNOWN_CONNECTOR // the unknown connector MUST be the last one
     ));
 
+    /**
+     * Connectors to ask for a geocode, keyed by the upper case first two characters of the geocode. Each entry keeps
+     * the order of {@link #CONNECTORS}, so overlapping prefixes are resolved the same way as by a full scan.
+     */
+    @NonNull private static final Map<String, IConnector[]> CONNECTORS_BY_PREFIX = getConnectorsByPrefix();
+
+    /**
+     * Connectors to ask for a geocode whose prefix is not declared by any connector.
+     */
+    @NonNull private static final IConnector[] CONNECTORS_WITHOUT_PREFIX = getConnectorsForPrefix(null);
+
+    private static final int GEOCODE_MEMO_SIZE = 256;
+
+    /**
+     * Small memo of recently resolved geocodes. It is direct mapped by the hash of the geocode, so lookups and updates
+     * don't need any locking, and a colliding geocode simply replaces the older entry.
+     */
+    @NonNull private static final AtomicReferenceArray<ImmutablePair<String, IConnector>> GEOCODE_MEMO = new AtomicReferenceArray<>(GEOCODE_MEMO_SIZE);
+
     @NonNull public static final UnknownTrackableConnector UNKNOWN_TRACKABLE_CONNECTOR = new UnknownTrackableConnector();
 
     @NonNull
@@ -133,6 +159,40 @@ public final class ConnectorFactory {
         return Collections.unmodifiableCollection(matching);
     }
 
+    @NonNull
+    private static Map<String, IConnector[]> getConnectorsByPrefix() {
+        final Set<String> prefixes = new HashSet<>();
+        for (final IConnector connector : CONNECTORS) {
+            for (final String prefix : connector.getGeocodePrefixes()) {
+                prefixes.add(prefix.toUpperCase(Locale.US));
+            }
+        }
+        final Map<String, IConnector[]> connectorsByPrefix = new HashMap<>();
+        for (final String prefix : prefixes) {
+            connectorsByPrefix.put(prefix, getConnectorsForPrefix(prefix));
+        }
+        return Collections.unmodifiableMap(connectorsByPrefix);
+    }
+
+    /**
+     * Select the connectors which declare the given prefix, together with those accepting any prefix.
+     */
+    @NonNull
+    private static IConnector[] getConnectorsForPrefix(@Nullable final String prefix) {
+        final List<IConnector> connectors = new ArrayList<>();
+        for (final IConnector connector : CONNECTORS) {
+            final String[] prefixes = connector.getGeocodePrefixes();
+            boolean matching = prefixes.length == 0;
+            for (final String connectorPrefix : prefixes) {
+                matching |= connectorPrefix.equalsIgnoreCase(prefix);
+            }
+            if (matching) {
+                connectors.add(connector);
+            }
+        }
+        return connectors.toArray(new IConnector[connectors.size()]);
+    }
+
     @NonNull
     public static Collection<IConnector> getConnectors() {
         return CONNECTORS;
@@ -221,12 +281,7 @@ public final class ConnectorFactory {
         if (isInvalidGeocode(geocode)) {
             return false;
         }
-        for (final IConnector connector : CONNECTORS) {
-            if (connector.canHandle(geocode)) {
-                return true;
-            }
-        }
-        return false;
+        return findConnector(geocode) != null;
     }
 
     /**
@@ -316,13 +371,39 @@ public final class ConnectorFactory {
         if (isInvalidGeocode(geocode)) {
             return UNKNOWN_CONNECTOR;
         }
-        for (final IConnector connector : CONNECTORS) {
+        final IConnector connector = findConnector(geocode);
+        // in case of errors, take UNKNOWN to avoid null checks everywhere
+        return connector != null ? connector : UNKNOWN_CONNECTOR;
+    }
+
+    /**
+     * Find the first connector in the order of {@link #CONNECTORS} which can handle the geocode. Only the connectors
+     * declaring the prefix of the geocode are asked.
+     */
+    @Nullable
+    private static IConnector findConnector(@NonNull final String geocode) {
+        final int hash = geocode.hashCode();
+        final int slot = (hash ^ (hash >>> 16)) & (GEOCODE_MEMO_SIZE - 1);
+        final ImmutablePair<String, IConnector> memo = GEOCODE_MEMO.get(slot);
+        if (memo != null && memo.left.equals(geocode)) {
+            return memo.right;
+        }
+        for (final IConnector connector : getCandidateConnectors(geocode)) {
             if (connector.canHandle(geocode)) {
+                GEOCODE_MEMO.set(slot, ImmutablePair.of(geocode, connector));
                 return connector;
             }
         }
-        // in case of errors, take UNKNOWN to avoid null checks everywhere
-        return UNKNOWN_CONNECTOR;
+        return null;
+    }
+
+    @NonNull
+    private static IConnector[] getCandidateConnectors(@NonNull final String geocode) {
+        if (geocode.length() < 2) {
+            return CONNECTORS_WITHOUT_PREFIX;
+        }
+        final IConnector[] connectors = CONNECTORS_BY_PREFIX.get(geocode.substring(0, 2).toUpperCase(Locale.US));
+        return connectors != null ? connectors : CONNECTORS_WITHOUT_PREFIX;
     }
 
     /**
@@ -30,6 +30,15 @@ public interface IConnector {
      */
     boolean canHandle(@NonNull String geocode);
 
+    /**
+     * Get the (case insensitive) two character prefixes of the geocodes this connector can handle. The connector factory
+     * only asks this connector to {@link #canHandle(String)} geocodes starting with one of these prefixes.
+     *
+     * @return the prefixes, or an empty array if the geocodes of this connector can start with anything
+     */
+    @NonNull
+    String[] getGeocodePrefixes();
+
     /**
      * Return a new geocodes list, with only geocodes for which this connector is responsible.
      *
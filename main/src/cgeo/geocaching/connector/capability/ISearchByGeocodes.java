@@ -0,0 +1,33 @@
+package cgeo.geocaching.connector.capability;
+
+import cgeo.geocaching.log.LogEntry;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * connector capability of downloading the details of many caches with few requests
+ *
+ */
+public interface ISearchByGeocodes extends ISearchByGeocode {
+
+    /**
+     * maximum number of geocodes to pass to {@link #searchByGeocodes(Collection, Map)} at once
+     */
+    int getMaxGeocodesPerSearch();
+
+    /**
+     * Download the details of all given caches. Neither the caches nor their logs are saved, so the caller can add
+     * more information before saving all of them at once.
+     *
+     * @param logsByGeocode
+     *            receives the downloaded logs of each cache
+     * @return the downloaded caches, caches which could not be downloaded are missing
+     */
+    @NonNull
+    List<Geocache> searchByGeocodes(@NonNull Collection<String> geocodes, @NonNull Map<String, List<LogEntry>> logsByGeocode);
+}
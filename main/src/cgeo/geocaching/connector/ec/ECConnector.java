@@ -67,6 +67,12 @@ public class ECConnector extends AbstractConnector implements ISearchByGeocode,
         return PATTERN_EC_CODE.matcher(geocode).matches();
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "EC" };
+    }
+
     @Override
     @NonNull
     public String getCacheUrl(@NonNull final Geocache cache) {
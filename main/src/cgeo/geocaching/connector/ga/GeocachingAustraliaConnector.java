@@ -43,6 +43,12 @@ public class GeocachingAustraliaConnector extends AbstractConnector {
         return (StringUtils.startsWithIgnoreCase(geocode, "GA") || StringUtils.startsWithIgnoreCase(geocode, "TP")) && isNumericId(geocode.substring(2));
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "GA", "TP" };
+    }
+
     @Override
     @NonNull
     protected String getCacheUrlPrefix() {
@@ -0,0 +1,118 @@
+package cgeo.geocaching.connector.gc;
+
+import cgeo.geocaching.utils.TextUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A cache details page of geocaching.com, prepared for parsing.
+ * <p/>
+ * After collapsing the whitespace like {@link TextUtils#replaceWhitespace(String)}, the page is scanned once for all
+ * {@code id="..."} attributes, recording the position of the first occurrence of each id. Patterns containing such an
+ * attribute can then start matching at that anchor instead of scanning the page from its beginning, and patterns for
+ * elements missing on the page are not evaluated at all.
+ * <p/>
+ * An anchored pattern must contain the literal attribute {@code id="<anchor>"} and must not contain a {@code <} before
+ * that attribute, except as its very first character. Then no match can start before the last tag opening in front
+ * of the first occurrence of the attribute, and the result is the same as when matching the whole page.
+ */
+final class GCCachePage {
+
+    private static final String ID_ATTRIBUTE = "id=\"";
+
+    /**
+     * longer attribute values are not recorded, they are no element ids we are interested in
+     */
+    private static final int MAX_ID_LENGTH = 200;
+
+    @NonNull private final String text;
+
+    /**
+     * id attribute value to the position of the first character of the value
+     */
+    @NonNull private final Map<String, Integer> anchors = new HashMap<>();
+
+    GCCachePage(@NonNull final String page) {
+        text = TextUtils.replaceWhitespace(page);
+        for (int index = text.indexOf(ID_ATTRIBUTE); index >= 0; index = text.indexOf(ID_ATTRIBUTE, index + 1)) {
+            final int start = index + ID_ATTRIBUTE.length();
+            final int end = text.indexOf('"', start);
+            if (end < 0) {
+                break;
+            }
+            if (end - start <= MAX_ID_LENGTH) {
+                final String id = text.substring(start, end);
+                if (!anchors.containsKey(id)) {
+                    anchors.put(id, start);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the page with collapsed whitespace
+     */
+    @NonNull
+    String getText() {
+        return text;
+    }
+
+    boolean hasAnchor(@NonNull final String id) {
+        return anchors.containsKey(id);
+    }
+
+    /**
+     * @return the index to start matching patterns anchored at the given element id, or {@code -1} if no element with
+     *         that id exists on the page
+     */
+    int getAnchorStart(@NonNull final String id) {
+        final Integer position = anchors.get(id);
+        if (position == null) {
+            return -1;
+        }
+        return Math.max(0, text.lastIndexOf('<', position));
+    }
+
+    /**
+     * @see TextUtils#getMatch(String, Pattern, boolean, String)
+     */
+    @Nullable
+    String getMatch(@NonNull final Pattern pattern, @NonNull final String anchor, final boolean trim, @Nullable final String defaultValue) {
+        return getMatch(0, pattern, anchor, trim, 1, defaultValue);
+    }
+
+    /**
+     * Same as {@link TextUtils#getMatch(String, int, Pattern, boolean, int, String, boolean)} on the page text, but
+     * starting at the anchor if that comes after the given start index.
+     */
+    @Nullable
+    String getMatch(final int start, @NonNull final Pattern pattern, @NonNull final String anchor, final boolean trim, final int group, @Nullable final String defaultValue) {
+        final int anchorStart = getAnchorStart(anchor);
+        if (anchorStart < 0) {
+            return defaultValue;
+        }
+        return TextUtils.getMatch(text, Math.max(start, anchorStart), pattern, trim, group, defaultValue, false);
+    }
+
+    /**
+     * @see TextUtils#matches(String, Pattern)
+     */
+    boolean matches(@NonNull final Pattern pattern, @NonNull final String anchor) {
+        final int anchorStart = getAnchorStart(anchor);
+        return anchorStart >= 0 && TextUtils.matches(text, anchorStart, pattern);
+    }
+
+    /**
+     * @return {@code true} if the page contains the given text, which contains the anchor as described above
+     */
+    boolean contains(@NonNull final String literal, @NonNull final String anchor) {
+        final int anchorStart = getAnchorStart(anchor);
+        return anchorStart >= 0 && text.indexOf(literal, anchorStart) >= 0;
+    }
+
+}
@@ -141,6 +141,12 @@ public class GCConnector extends AbstractConnector implements ISearchByGeocode,
         return PATTERN_GC_CODE.matcher(geocode).matches();
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "GC" };
+    }
+
     @Override
     @NonNull
     public String getLongCacheUrl(@NonNull final Geocache cache) {
@@ -74,6 +74,24 @@ public final class GCConstants {
     static final Pattern PATTERN_BACKGROUND_IMAGE = Pattern.compile("<body background=\"(.+?)\"");
     static final String PATTERN_GC_CHECKER = "ctl00_ContentBody_lblSolutionChecker";
 
+    // Element ids the cache details patterns and status strings can be anchored at using GCCachePage. Each of them
+    // contains the literal id="..." attribute and no other tag before it.
+
+    static final String ID_HINT = "div_hint";
+    static final String ID_DESC = "ctl00_ContentBody_LongDescription";
+    static final String ID_SHORTDESC = "ctl00_ContentBody_ShortDescription";
+    static final String ID_LATLON = "uxLatLon";
+    static final String ID_LOCATION = "ctl00_ContentBody_Location";
+    static final String ID_PERSONALNOTE = "viewCacheNote";
+    static final String ID_DIFFICULTY = "ctl00_ContentBody_uxLegendScale";
+    static final String ID_FOUND = "ctl00_ContentBody_GeoNav_logTypeImage";
+    static final String ID_OWNER_DISPLAYNAME = "ctl00_ContentBody_mcd1";
+    static final String ID_IS_FAVORITE = "pnlFavoriteCache";
+    static final String ID_COUNTLOGS = "ctl00_ContentBody_lblFindCounts";
+    static final String ID_STATUS_DISABLED = "ctl00_ContentBody_uxDisabledMessageBody";
+    static final String ID_STATUS_ARCHIVED = "ctl00_ContentBody_archivedMessage";
+    static final String ID_STATUS_LOCKED = "ctl00_ContentBody_lockedMessage";
+
     // Info box top-right
     public static final Pattern PATTERN_LOGIN_NAME = Pattern.compile("class=\"user-name\"[^>]*>(.*?)</span>", Pattern.DOTALL);
     /** Use replaceAll("[,.]","") on the resulting string before converting to an int */
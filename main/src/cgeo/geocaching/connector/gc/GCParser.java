@@ -477,23 +477,27 @@ public final class GCParser {
             return UNKNOWN_PARSE_ERROR;
         }
 
-        // first handle the content with line breaks, then trim everything for easier matching and reduced memory consumption in parsed fields
+        // trim everything for easier matching and reduced memory consumption in parsed fields, and find the anchors of all page elements on the way
+        final GCCachePage cachePage = new GCCachePage(pageIn);
+        final String page = cachePage.getText();
+
+        // the personal note keeps its line breaks, so it has to be taken from the original content
         String personalNoteWithLineBreaks = "";
-        final MatcherWrapper matcher = new MatcherWrapper(GCConstants.PATTERN_PERSONALNOTE, pageIn);
-        if (matcher.find()) {
-            personalNoteWithLineBreaks = matcher.group(1).trim();
+        if (cachePage.hasAnchor(GCConstants.ID_PERSONALNOTE)) {
+            final MatcherWrapper matcher = new MatcherWrapper(GCConstants.PATTERN_PERSONALNOTE, pageIn);
+            if (matcher.find()) {
+                personalNoteWithLineBreaks = matcher.group(1).trim();
+            }
         }
 
-        final String page = TextUtils.replaceWhitespace(pageIn);
-
         final Geocache cache = new Geocache();
-        cache.setDisabled(page.contains(GCConstants.STRING_STATUS_DISABLED));
-        cache.setArchived(page.contains(GCConstants.STRING_STATUS_ARCHIVED)
-                        || page.contains(GCConstants.STRING_STATUS_LOCKED));
+        cache.setDisabled(cachePage.contains(GCConstants.STRING_STATUS_DISABLED, GCConstants.ID_STATUS_DISABLED));
+        cache.setArchived(cachePage.contains(GCConstants.STRING_STATUS_ARCHIVED, GCConstants.ID_STATUS_ARCHIVED)
+                        || cachePage.contains(GCConstants.STRING_STATUS_LOCKED, GCConstants.ID_STATUS_LOCKED));
 
         cache.setPremiumMembersOnly(TextUtils.matches(page, GCConstants.PATTERN_PREMIUMMEMBERS));
 
-        cache.setFavorite(TextUtils.matches(page, GCConstants.PATTERN_IS_FAVORITE));
+        cache.setFavorite(cachePage.matches(GCConstants.PATTERN_IS_FAVORITE, GCConstants.ID_IS_FAVORITE));
 
         // cache geocode
         cache.setGeocode(TextUtils.getMatch(page, GCConstants.PATTERN_GEOCODE, true, cache.getGeocode()));
@@ -515,73 +519,68 @@ public final class GCParser {
 
         cache.setUserModifiedCoords(false);
 
-        String tableInside = page;
-
-        final int pos = tableInside.indexOf(GCConstants.STRING_CACHEDETAILS);
+        // cache details, matched from their table onwards without copying that part of the page
+        final int pos = page.indexOf(GCConstants.STRING_CACHEDETAILS);
         if (pos == -1) {
             Log.e("GCParser.parseCache: ID \"cacheDetails\" not found on page");
             return UNKNOWN_PARSE_ERROR;
         }
 
-        tableInside = tableInside.substring(pos);
-
-        if (StringUtils.isNotBlank(tableInside)) {
-            // cache terrain
-            String result = TextUtils.getMatch(tableInside, GCConstants.PATTERN_TERRAIN, true, null);
-            if (result != null) {
-                try {
-                    cache.setTerrain(Float.parseFloat(StringUtils.replaceChars(result, '_', '.')));
-                } catch (final NumberFormatException e) {
-                    Log.e("Error parsing terrain value", e);
-                }
+        // cache terrain
+        String stars = TextUtils.getMatch(page, pos, GCConstants.PATTERN_TERRAIN, true, 1, null, false);
+        if (stars != null) {
+            try {
+                cache.setTerrain(Float.parseFloat(StringUtils.replaceChars(stars, '_', '.')));
+            } catch (final NumberFormatException e) {
+                Log.e("Error parsing terrain value", e);
             }
+        }
 
-            // cache difficulty
-            result = TextUtils.getMatch(tableInside, GCConstants.PATTERN_DIFFICULTY, true, null);
-            if (result != null) {
-                try {
-                    cache.setDifficulty(Float.parseFloat(StringUtils.replaceChars(result, '_', '.')));
-                } catch (final NumberFormatException e) {
-                    Log.e("Error parsing difficulty value", e);
-                }
+        // cache difficulty
+        stars = cachePage.getMatch(pos, GCConstants.PATTERN_DIFFICULTY, GCConstants.ID_DIFFICULTY, true, 1, null);
+        if (stars != null) {
+            try {
+                cache.setDifficulty(Float.parseFloat(StringUtils.replaceChars(stars, '_', '.')));
+            } catch (final NumberFormatException e) {
+                Log.e("Error parsing difficulty value", e);
             }
+        }
 
-            // owner
-            cache.setOwnerDisplayName(StringEscapeUtils.unescapeHtml4(TextUtils.getMatch(tableInside, GCConstants.PATTERN_OWNER_DISPLAYNAME, true, cache.getOwnerDisplayName())));
-            cache.setOwnerGuid(TextUtils.getMatch(tableInside, GCConstants.PATTERN_OWNER_GUID, true, 2, cache.getOwnerGuid(), false));
+        // owner
+        cache.setOwnerDisplayName(StringEscapeUtils.unescapeHtml4(cachePage.getMatch(pos, GCConstants.PATTERN_OWNER_DISPLAYNAME, GCConstants.ID_OWNER_DISPLAYNAME, true, 1, cache.getOwnerDisplayName())));
+        cache.setOwnerGuid(TextUtils.getMatch(page, pos, GCConstants.PATTERN_OWNER_GUID, true, 2, cache.getOwnerGuid(), false));
 
-            // hidden
-            try {
-                String hiddenString = TextUtils.getMatch(tableInside, GCConstants.PATTERN_HIDDEN, true, null);
+        // hidden
+        try {
+            String hiddenString = TextUtils.getMatch(page, pos, GCConstants.PATTERN_HIDDEN, true, 1, null, false);
+            if (StringUtils.isNotBlank(hiddenString)) {
+                cache.setHidden(GCLogin.parseGcCustomDate(hiddenString));
+            }
+            if (cache.getHiddenDate() == null) {
+                // event date
+                hiddenString = TextUtils.getMatch(page, pos, GCConstants.PATTERN_HIDDENEVENT, true, 1, null, false);
                 if (StringUtils.isNotBlank(hiddenString)) {
                     cache.setHidden(GCLogin.parseGcCustomDate(hiddenString));
                 }
-                if (cache.getHiddenDate() == null) {
-                    // event date
-                    hiddenString = TextUtils.getMatch(tableInside, GCConstants.PATTERN_HIDDENEVENT, true, null);
-                    if (StringUtils.isNotBlank(hiddenString)) {
-                        cache.setHidden(GCLogin.parseGcCustomDate(hiddenString));
-                    }
-                }
-            } catch (final ParseException e) {
-                // failed to parse cache hidden date
-                Log.w("GCParser.parseCache: Failed to parse cache hidden (event) date", e);
-            }
-
-            // favorite
-            try {
-                cache.setFavoritePoints(Integer.parseInt(TextUtils.getMatch(tableInside, GCConstants.PATTERN_FAVORITECOUNT, true, "0")));
-            } catch (final NumberFormatException e) {
-                Log.e("Error parsing favorite count", e);
             }
+        } catch (final ParseException e) {
+            // failed to parse cache hidden date
+            Log.w("GCParser.parseCache: Failed to parse cache hidden (event) date", e);
+        }
 
-            // cache size
-            cache.setSize(CacheSize.getById(TextUtils.getMatch(tableInside, GCConstants.PATTERN_SIZE, true, CacheSize.NOT_CHOSEN.id)));
+        // favorite
+        try {
+            cache.setFavoritePoints(Integer.parseInt(TextUtils.getMatch(page, pos, GCConstants.PATTERN_FAVORITECOUNT, true, 1, "0", false)));
+        } catch (final NumberFormatException e) {
+            Log.e("Error parsing favorite count", e);
         }
 
+        // cache size
+        cache.setSize(CacheSize.getById(TextUtils.getMatch(page, pos, GCConstants.PATTERN_SIZE, true, 1, CacheSize.NOT_CHOSEN.id, false)));
+
         // cache found / DNF
-        cache.setFound(TextUtils.matches(page, GCConstants.PATTERN_FOUND));
-        cache.setDNF(TextUtils.matches(page, GCConstants.PATTERN_DNF));
+        cache.setFound(cachePage.matches(GCConstants.PATTERN_FOUND, GCConstants.ID_FOUND));
+        cache.setDNF(cachePage.matches(GCConstants.PATTERN_DNF, GCConstants.ID_FOUND));
 
         // cache type
         cache.setType(CacheType.getByWaypointType(TextUtils.getMatch(page, GCConstants.PATTERN_TYPE, true, cache.getType().id)));
@@ -590,7 +589,7 @@ public final class GCParser {
         cache.setOnWatchlist(TextUtils.matches(page, GCConstants.PATTERN_WATCHLIST));
 
         // latitude and longitude. Can only be retrieved if user is logged in
-        String latlon = TextUtils.getMatch(page, GCConstants.PATTERN_LATLON, true, "");
+        String latlon = cachePage.getMatch(GCConstants.PATTERN_LATLON, GCConstants.ID_LATLON, true, "");
         if (StringUtils.isNotEmpty(latlon)) {
             try {
                 cache.setCoords(new Geopoint(latlon));
@@ -601,10 +600,10 @@ public final class GCParser {
         }
 
         // cache location
-        cache.setLocation(TextUtils.getMatch(page, GCConstants.PATTERN_LOCATION, true, ""));
+        cache.setLocation(cachePage.getMatch(GCConstants.PATTERN_LOCATION, GCConstants.ID_LOCATION, true, ""));
 
         // cache hint
-        final String result = TextUtils.getMatch(page, GCConstants.PATTERN_HINT, false, null);
+        final String result = cachePage.getMatch(GCConstants.PATTERN_HINT, GCConstants.ID_HINT, false, null);
         if (result != null) {
             // replace linebreak and paragraph tags
             final String hint = GCConstants.PATTERN_LINEBREAK.matcher(result).replaceAll("\n");
@@ -617,10 +616,10 @@ public final class GCParser {
         cache.setPersonalNote(personalNoteWithLineBreaks, true);
 
         // cache short description
-        cache.setShortDescription(TextUtils.getMatch(page, GCConstants.PATTERN_SHORTDESC, true, ""));
+        cache.setShortDescription(cachePage.getMatch(GCConstants.PATTERN_SHORTDESC, GCConstants.ID_SHORTDESC, true, ""));
 
         // cache description
-        final String longDescription = TextUtils.getMatch(page, GCConstants.PATTERN_DESC, true, "");
+        final String longDescription = cachePage.getMatch(GCConstants.PATTERN_DESC, GCConstants.ID_DESC, true, "");
         String relatedWebPage = TextUtils.getMatch(page, GCConstants.PATTERN_RELATED_WEB_PAGE, true, "");
         if (StringUtils.isNotEmpty(relatedWebPage)) {
             relatedWebPage = String.format("<br/><br/><a href=\"%s\"><b>%s</b></a>", relatedWebPage, relatedWebPage);
@@ -735,7 +734,7 @@ public final class GCParser {
 
         // cache logs counts
         try {
-            final String countlogs = TextUtils.getMatch(page, GCConstants.PATTERN_COUNTLOGS, true, null);
+            final String countlogs = cachePage.getMatch(GCConstants.PATTERN_COUNTLOGS, GCConstants.ID_COUNTLOGS, true, null);
             if (countlogs != null) {
                 final MatcherWrapper matcherLog = new MatcherWrapper(GCConstants.PATTERN_COUNTLOG, countlogs);
 
@@ -781,12 +780,9 @@ public final class GCParser {
             }
             DisposableHandler.sendLoadProgressDetail(handler, R.string.cache_dialog_loading_details_status_waypoints);
 
-            String wpList = page.substring(wpBegin);
-
-            int wpEnd = wpList.indexOf("</p>");
-            if (wpEnd > -1 && wpEnd <= wpList.length()) {
-                wpList = wpList.substring(0, wpEnd);
-            }
+            // copy only the waypoints section, not the rest of the page
+            int wpEnd = page.indexOf("</p>", wpBegin);
+            String wpList = wpEnd > -1 ? page.substring(wpBegin, wpEnd) : page.substring(wpBegin);
 
             if (!wpList.contains("No additional waypoints to display.")) {
                 wpEnd = wpList.indexOf("</table>");
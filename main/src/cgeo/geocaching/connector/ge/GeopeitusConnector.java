@@ -43,6 +43,12 @@ public class GeopeitusConnector extends AbstractConnector {
         return StringUtils.startsWith(geocode, "GE") && isNumericId(geocode.substring(2));
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "GE" };
+    }
+
     @Override
     @NonNull
     protected String getCacheUrlPrefix() {
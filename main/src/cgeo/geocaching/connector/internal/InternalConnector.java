@@ -117,6 +117,12 @@ public class InternalConnector extends AbstractConnector implements ISearchByGeo
         return PATTERN_GEOCODE.matcher(geocode).matches();
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { PREFIX };
+    }
+
     @Override
     public int getCacheMapMarkerId(final boolean disabled) {
         return disabled ? R.drawable.marker_disabled_oc : R.drawable.marker_oc;
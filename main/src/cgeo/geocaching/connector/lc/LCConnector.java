@@ -53,6 +53,12 @@ public class LCConnector extends AbstractConnector implements ISearchByGeocode,
         return PATTERN_LC_CODE.matcher(geocode).matches();
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "LC" };
+    }
+
     @Override
     @NonNull
     public String getCacheUrl(@NonNull final Geocache cache) {
@@ -2,7 +2,8 @@ package cgeo.geocaching.connector.oc;
 
 import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.connector.capability.IOAuthCapability;
-import cgeo.geocaching.connector.capability.ISearchByGeocode;
+import cgeo.geocaching.connector.capability.ISearchByGeocodes;
+import cgeo.geocaching.log.LogEntry;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.network.Parameters;
 import cgeo.geocaching.utils.AndroidRxUtils;
@@ -14,10 +15,14 @@ import android.net.Uri;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 import io.reactivex.rxjava3.core.Maybe;
 import org.apache.commons.lang3.StringUtils;
 
-public class OCApiConnector extends OCConnector implements ISearchByGeocode, IOAuthCapability {
+public class OCApiConnector extends OCConnector implements ISearchByGeocodes, IOAuthCapability {
 
     private final String cK;
     private final ApiSupport apiSupport;
@@ -82,6 +87,17 @@ public class OCApiConnector extends OCConnector implements ISearchByGeocode, IOA
         return new SearchResult(cache);
     }
 
+    @Override
+    public int getMaxGeocodesPerSearch() {
+        return OkapiClient.MAX_CACHES_PER_REQUEST;
+    }
+
+    @Override
+    @NonNull
+    public List<Geocache> searchByGeocodes(@NonNull final Collection<String> geocodes, @NonNull final Map<String, List<LogEntry>> logsByGeocode) {
+        return OkapiClient.getCaches(geocodes, this, logsByGeocode);
+    }
+
     @Override
     public boolean isActive() {
         // currently always active, but only for details download
@@ -36,12 +36,14 @@ public class OCConnector extends AbstractConnector implements SmileyCapability {
     private static final List<LogType> STANDARD_LOG_TYPES = Arrays.asList(LogType.FOUND_IT, LogType.DIDNT_FIND_IT, LogType.NOTE);
     private static final List<LogType> EVENT_LOG_TYPES = Arrays.asList(LogType.WILL_ATTEND, LogType.ATTENDED, LogType.NOTE);
     @NonNull private final String abbreviation;
+    private final String geocodePrefix;
 
     public OCConnector(@NonNull final String name, @NonNull final String host, final boolean https, final String prefix, @NonNull final String abbreviation) {
         this.name = name;
         this.host = host;
         this.https = https;
         this.abbreviation = abbreviation;
+        this.geocodePrefix = prefix;
         codePattern = Pattern.compile(prefix + "[A-Z0-9]+", Pattern.CASE_INSENSITIVE);
     }
 
@@ -50,6 +52,12 @@ public class OCConnector extends AbstractConnector implements SmileyCapability {
         return codePattern.matcher(geocode).matches();
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { geocodePrefix };
+    }
+
     @Override
     @NonNull
     public String getName() {
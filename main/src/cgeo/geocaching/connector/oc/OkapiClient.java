@@ -51,6 +51,7 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
@@ -64,7 +65,9 @@ import java.util.regex.Pattern;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -168,6 +171,9 @@ final class OkapiClient {
     private static final String METHOD_SEARCH_NEAREST = "services/caches/search/nearest";
     private static final String METHOD_RETRIEVE_CACHES = "services/caches/geocaches";
 
+    /** maximum number of cache codes OKAPI accepts in one {@link OkapiService#SERVICE_CACHES} request */
+    static final int MAX_CACHES_PER_REQUEST = 500;
+
     private static final Pattern PATTERN_TIMEZONE = Pattern.compile("([+-][01][0-9]):([03])0");
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
@@ -186,16 +192,48 @@ final class OkapiClient {
         final OCApiConnector ocapiConn = (OCApiConnector) connector;
 
         final Parameters params = new Parameters("cache_code", geoCode);
-        params.add("fields", getFullFields(ocapiConn));
-        params.add("attribution_append", "none");
-        params.add(PARAMETER_LOGCOUNT_KEY, PARAMETER_LOGCOUNT_VALUE);
-        params.add(PARAMETER_LOG_FIELDS_KEY, PARAMETER_LOG_FIELDS_VALUE);
+        addFullRetrieveParams(params, ocapiConn);
 
         final JSONResult result = getRequest(ocapiConn, OkapiService.SERVICE_CACHE, params);
 
         return result.isSuccess ? parseCache(result.data) : null;
     }
 
+    /**
+     * Retrieve the details of many caches, using one request per {@link #MAX_CACHES_PER_REQUEST} caches. The response
+     * is parsed cache by cache while it is read, so only the tree of a single cache is kept in memory.
+     * <p/>
+     * Neither the caches nor their logs are saved, so that the caller can save all of them in few transactions.
+     *
+     * @param logsByGeocode
+     *            receives the logs of each retrieved cache
+     * @return the retrieved caches, caches which are unknown to the server are missing
+     */
+    @NonNull
+    public static List<Geocache> getCaches(@NonNull final Collection<String> geoCodes, @NonNull final OCApiConnector connector, @NonNull final Map<String, List<LogEntry>> logsByGeocode) {
+        final List<String> codes = new ArrayList<>(geoCodes);
+        final List<Geocache> caches = new ArrayList<>(codes.size());
+        for (int start = 0; start < codes.size(); start += MAX_CACHES_PER_REQUEST) {
+            final List<String> batch = codes.subList(start, Math.min(codes.size(), start + MAX_CACHES_PER_REQUEST));
+            final Parameters params = new Parameters("cache_codes", StringUtils.join(batch, SEPARATOR));
+            addFullRetrieveParams(params, connector);
+
+            // the list of cache codes may be too long for a GET request
+            final Response response = requestResponse(connector, OkapiService.SERVICE_CACHES, "POST", params);
+            if (response != null) {
+                caches.addAll(parseCachesStream(response, logsByGeocode));
+            }
+        }
+        return caches;
+    }
+
+    private static void addFullRetrieveParams(@NonNull final Parameters params, @NonNull final OCApiConnector connector) {
+        params.add("fields", getFullFields(connector));
+        params.add("attribution_append", "none");
+        params.add(PARAMETER_LOGCOUNT_KEY, PARAMETER_LOGCOUNT_VALUE);
+        params.add(PARAMETER_LOG_FIELDS_KEY, PARAMETER_LOG_FIELDS_VALUE);
+    }
+
     @NonNull
     public static List<Geocache> getCachesAround(@NonNull final Geopoint center, @NonNull final OCApiConnector connector) {
         final String centerString = GeopointFormatter.format(GeopointFormatter.Format.LAT_DECDEGREE_RAW, center) + SEPARATOR + GeopointFormatter.format(GeopointFormatter.Format.LON_DECDEGREE_RAW, center);
@@ -462,93 +500,135 @@ final class OkapiClient {
         return cache;
     }
 
+    /**
+     * Parse the response of {@link OkapiService#SERVICE_CACHES}, which maps cache codes to cache objects (or
+     * {@code null} for unknown caches), while reading it.
+     */
+    @NonNull
+    private static List<Geocache> parseCachesStream(@NonNull final Response response, @NonNull final Map<String, List<LogEntry>> logsByGeocode) {
+        final List<Geocache> caches = new ArrayList<>();
+        try (JsonParser parser = MAPPER.getFactory().createParser(response.body().byteStream())) {
+            if (!response.isSuccessful() || parser.nextToken() != JsonToken.START_OBJECT) {
+                Log.w("OkapiClient.parseCachesStream: unexpected response " + response);
+                return caches;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String geocode = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    Log.w("OkapiClient.parseCachesStream: no cache " + geocode);
+                    parser.skipChildren();
+                    continue;
+                }
+                final ObjectNode cacheResponse = MAPPER.readTree(parser);
+                final Geocache cache = new Geocache();
+                cache.setReliableLatLon(true);
+                try {
+                    parseCacheDetails(cacheResponse, cache);
+                    cache.setDetailedUpdatedNow();
+                    logsByGeocode.put(cache.getGeocode(), parseLogs((ArrayNode) cacheResponse.path(CACHE_LATEST_LOGS), cache.getGeocode()));
+                    caches.add(cache);
+                } catch (ClassCastException | NullPointerException e) {
+                    Log.e("OkapiClient.parseCachesStream", e);
+                }
+            }
+        } catch (final IOException e) {
+            Log.e("OkapiClient.parseCachesStream", e);
+        } finally {
+            response.close();
+        }
+        return caches;
+    }
+
     @NonNull
     private static Geocache parseCache(final ObjectNode response) {
         final Geocache cache = new Geocache();
         cache.setReliableLatLon(true);
         try {
+            parseCacheDetails(response, cache);
 
-            parseCoreCache(response, cache);
+            cache.setDetailedUpdatedNow();
+            // save full detailed caches
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            DataStore.saveLogs(cache.getGeocode(), parseLogs((ArrayNode) response.path(CACHE_LATEST_LOGS), cache.getGeocode()), true);
+        } catch (ClassCastException | NullPointerException e) {
+            Log.e("OkapiClient.parseCache", e);
+        }
+        return cache;
+    }
 
-            // not used: url
-            final String owner = parseUser(response.get(CACHE_OWNER));
-            cache.setOwnerDisplayName(owner);
-            // OpenCaching has no distinction between user id and user display name. Set the ID anyway to simplify c:geo workflows.
-            cache.setOwnerUserId(owner);
-            final String profile = response.get(CACHE_OWNER).get(CACHE_USER_PROFILE).asText();
-            if (StringUtils.isNotEmpty(profile)) {
-                final String id = StringUtils.substringAfter(profile, "userid=");
-                if (StringUtils.isNotEmpty(id)) {
-                    cache.setOwnerUserId(id);
-                }
+    private static void parseCacheDetails(final ObjectNode response, @NonNull final Geocache cache) {
+        parseCoreCache(response, cache);
+
+        // not used: url
+        final String owner = parseUser(response.get(CACHE_OWNER));
+        cache.setOwnerDisplayName(owner);
+        // OpenCaching has no distinction between user id and user display name. Set the ID anyway to simplify c:geo workflows.
+        cache.setOwnerUserId(owner);
+        final String profile = response.get(CACHE_OWNER).get(CACHE_USER_PROFILE).asText();
+        if (StringUtils.isNotEmpty(profile)) {
+            final String id = StringUtils.substringAfter(profile, "userid=");
+            if (StringUtils.isNotEmpty(id)) {
+                cache.setOwnerUserId(id);
             }
+        }
 
-            final Map<LogType, Integer> logCounts = cache.getLogCounts();
-            logCounts.put(LogType.FOUND_IT, response.get(CACHE_FOUNDS).asInt());
-            logCounts.put(LogType.DIDNT_FIND_IT, response.get(CACHE_NOTFOUNDS).asInt());
-            // only current Api
-            logCounts.put(LogType.WILL_ATTEND, response.path(CACHE_WILLATTENDS).asInt());
+        final Map<LogType, Integer> logCounts = cache.getLogCounts();
+        logCounts.put(LogType.FOUND_IT, response.get(CACHE_FOUNDS).asInt());
+        logCounts.put(LogType.DIDNT_FIND_IT, response.get(CACHE_NOTFOUNDS).asInt());
+        // only current Api
+        logCounts.put(LogType.WILL_ATTEND, response.path(CACHE_WILLATTENDS).asInt());
 
-            if (response.has(CACHE_RATING)) {
-                cache.setRating((float) response.get(CACHE_RATING).asDouble());
-            }
-            cache.setVotes(response.get(CACHE_VOTES).asInt());
-
-            cache.setFavoritePoints(response.get(CACHE_RECOMMENDATIONS).asInt());
-            // not used: req_password
-            // Prepend gc-link to description if available
-            final StringBuilder description = new StringBuilder(500);
-            if (response.hasNonNull("gc_code")) {
-                final String gccode = response.get("gc_code").asText();
-                description.append(Geocache.getAlternativeListingText(gccode));
-            }
-            description.append(response.get(CACHE_DESCRIPTION).asText());
-            cache.setDescription(description.toString());
+        if (response.has(CACHE_RATING)) {
+            cache.setRating((float) response.get(CACHE_RATING).asDouble());
+        }
+        cache.setVotes(response.get(CACHE_VOTES).asInt());
 
-            if (response.has(CACHE_SHORT_DESCRIPTION)) {
-                final String shortDescription = StringUtils.trim(response.get(CACHE_SHORT_DESCRIPTION).asText());
-                if (StringUtils.isNotEmpty(shortDescription)) {
-                    cache.setShortDescription(shortDescription);
-                }
-            }
+        cache.setFavoritePoints(response.get(CACHE_RECOMMENDATIONS).asInt());
+        // not used: req_password
+        // Prepend gc-link to description if available
+        final StringBuilder description = new StringBuilder(500);
+        if (response.hasNonNull("gc_code")) {
+            final String gccode = response.get("gc_code").asText();
+            description.append(Geocache.getAlternativeListingText(gccode));
+        }
+        description.append(response.get(CACHE_DESCRIPTION).asText());
+        cache.setDescription(description.toString());
 
-            // currently the hint is delivered as HTML (contrary to OKAPI documentation), so we can store it directly
-            cache.setHint(response.get(CACHE_HINT).asText());
-            // not used: hints
-
-            final ArrayNode images = (ArrayNode) response.get(CACHE_IMAGES);
-            if (images != null) {
-                for (final JsonNode imageResponse: images) {
-                    final String title = imageResponse.get(CACHE_IMAGE_CAPTION).asText();
-                    final String url = absoluteUrl(imageResponse.get(CACHE_IMAGE_URL).asText(), cache.getGeocode());
-                    // all images are added as spoiler images, although OKAPI has spoiler and non spoiler images
-                    cache.addSpoiler(new Image.Builder().setUrl(url).setTitle(title).build());
-                }
+        if (response.has(CACHE_SHORT_DESCRIPTION)) {
+            final String shortDescription = StringUtils.trim(response.get(CACHE_SHORT_DESCRIPTION).asText());
+            if (StringUtils.isNotEmpty(shortDescription)) {
+                cache.setShortDescription(shortDescription);
             }
+        }
 
-            cache.setAttributes(parseAttributes((ArrayNode) response.path(CACHE_ATTRNAMES), (ArrayNode) response.get(CACHE_ATTR_ACODES)));
-            //TODO: Store license per cache
-            //cache.setLicense(response.getString("attribution_note"));
-            cache.setWaypoints(parseWaypoints((ArrayNode) response.path(CACHE_WPTS)), false);
-
-            cache.mergeInventory(parseTrackables((ArrayNode) response.path(CACHE_TRACKABLES)), EnumSet.of(TrackableBrand.GEOKRETY));
+        // currently the hint is delivered as HTML (contrary to OKAPI documentation), so we can store it directly
+        cache.setHint(response.get(CACHE_HINT).asText());
+        // not used: hints
 
-            if (response.has(CACHE_IS_WATCHED)) {
-                cache.setOnWatchlist(response.get(CACHE_IS_WATCHED).asBoolean());
-            }
-            if (response.hasNonNull(CACHE_MY_NOTES)) {
-                cache.setPersonalNote(response.get(CACHE_MY_NOTES).asText(), true);
+        final ArrayNode images = (ArrayNode) response.get(CACHE_IMAGES);
+        if (images != null) {
+            for (final JsonNode imageResponse: images) {
+                final String title = imageResponse.get(CACHE_IMAGE_CAPTION).asText();
+                final String url = absoluteUrl(imageResponse.get(CACHE_IMAGE_URL).asText(), cache.getGeocode());
+                // all images are added as spoiler images, although OKAPI has spoiler and non spoiler images
+                cache.addSpoiler(new Image.Builder().setUrl(url).setTitle(title).build());
             }
-            cache.setLogPasswordRequired(response.get(CACHE_REQ_PASSWORD).asBoolean());
+        }
 
-            cache.setDetailedUpdatedNow();
-            // save full detailed caches
-            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
-            DataStore.saveLogs(cache.getGeocode(), parseLogs((ArrayNode) response.path(CACHE_LATEST_LOGS), cache.getGeocode()), true);
-        } catch (ClassCastException | NullPointerException e) {
-            Log.e("OkapiClient.parseCache", e);
+        cache.setAttributes(parseAttributes((ArrayNode) response.path(CACHE_ATTRNAMES), (ArrayNode) response.get(CACHE_ATTR_ACODES)));
+        //TODO: Store license per cache
+        //cache.setLicense(response.getString("attribution_note"));
+        cache.setWaypoints(parseWaypoints((ArrayNode) response.path(CACHE_WPTS)), false);
+
+        cache.mergeInventory(parseTrackables((ArrayNode) response.path(CACHE_TRACKABLES)), EnumSet.of(TrackableBrand.GEOKRETY));
+
+        if (response.has(CACHE_IS_WATCHED)) {
+            cache.setOnWatchlist(response.get(CACHE_IS_WATCHED).asBoolean());
         }
-        return cache;
+        if (response.hasNonNull(CACHE_MY_NOTES)) {
+            cache.setPersonalNote(response.get(CACHE_MY_NOTES).asText(), true);
+        }
+        cache.setLogPasswordRequired(response.get(CACHE_REQ_PASSWORD).asBoolean());
     }
 
     private static void parseCoreCache(final ObjectNode response, @NonNull final Geocache cache) {
@@ -899,15 +979,58 @@ final class OkapiClient {
             return new JSONResult("unknown OKAPI connector host");
         }
 
+        if (!addRequestParams(connector, service, method, params)) {
+            return new JSONResult("invalid oauth tokens");
+        }
+
+        try {
+            return new JSONResult(execute(connector, service, method, params));
+        } catch (final Exception e) {
+            return new JSONResult("connection error");
+        }
+    }
+
+    /**
+     * Same as {@link #request(OCApiConnector, OkapiService, String, Parameters)}, but leaves reading the response to
+     * the caller.
+     *
+     * @return the response, which must be closed by the caller, or {@code null} in case of errors
+     */
+    @Nullable
+    private static Response requestResponse(@NonNull final OCApiConnector connector, @NonNull final OkapiService service, @NonNull final String method, @NonNull final Parameters params) {
+        if (StringUtils.isBlank(connector.getHost())) {
+            Log.w("OkapiClient.requestResponse: unknown OKAPI connector host");
+            return null;
+        }
+
+        if (!addRequestParams(connector, service, method, params)) {
+            Log.w("OkapiClient.requestResponse: invalid oauth tokens");
+            return null;
+        }
+
+        try {
+            return execute(connector, service, method, params);
+        } catch (final Exception e) {
+            Log.w("OkapiClient.requestResponse: connection error", e);
+            return null;
+        }
+    }
+
+    /**
+     * add language and authentication parameters
+     *
+     * @return {@code false} if the OAuth tokens are invalid
+     */
+    private static boolean addRequestParams(@NonNull final OCApiConnector connector, @NonNull final OkapiService service, @NonNull final String method, @NonNull final Parameters params) {
         params.add("langpref", getPreferredLanguage());
 
         switch (connector.getSupportedAuthLevel()) {
             case Level3: {
                 final OAuthTokens tokens = new OAuthTokens(connector);
                 if (!tokens.isValid()) {
-                    return new JSONResult("invalid oauth tokens");
+                    return false;
                 }
-                OAuth.signOAuth(host, service.methodName, method, connector.isHttps(), params, tokens, connector.getCK(), connector.getCS());
+                OAuth.signOAuth(connector.getHost(), service.methodName, method, connector.isHttps(), params, tokens, connector.getCK(), connector.getCS());
                 break;
             }
             case Level1 : {
@@ -918,16 +1041,16 @@ final class OkapiClient {
                 // do nothing, anonymous access
                 break;
         }
+        return true;
+    }
 
+    @NonNull
+    private static Response execute(@NonNull final OCApiConnector connector, @NonNull final OkapiService service, @NonNull final String method, @NonNull final Parameters params) {
         final String uri = connector.getHostUrl() + service.methodName;
-        try {
-            if ("GET".equals(method)) {
-                return new JSONResult(Network.getRequest(uri, params).blockingGet());
-            }
-            return new JSONResult(Network.postRequest(uri, params).blockingGet());
-        } catch (final Exception e) {
-            return new JSONResult("connection error");
+        if ("GET".equals(method)) {
+            return Network.getRequest(uri, params).blockingGet();
         }
+        return Network.postRequest(uri, params).blockingGet();
     }
 
     @NonNull
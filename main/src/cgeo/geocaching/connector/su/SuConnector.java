@@ -43,18 +43,18 @@ import org.apache.commons.lang3.StringUtils;
 
 public class SuConnector extends AbstractConnector implements ISearchByCenter, ISearchByGeocode, ISearchByViewPort, ILogin, IOAuthCapability, WatchListCapability, PersonalNoteCapability, ISearchByKeyword, ISearchByOwner, IFavoriteCapability, IVotingCapability {
 
-    private static final CharSequence PREFIX_MULTISTEP_VIRTUAL = "MV";
-    private static final CharSequence PREFIX_TRADITIONAL = "TR";
-    private static final CharSequence PREFIX_VIRTUAL = "VI";
-    private static final CharSequence PREFIX_MULTISTEP = "MS";
-    private static final CharSequence PREFIX_EVENT = "EV";
-    private static final CharSequence PREFIX_CONTEST = "CT";
-    private static final CharSequence PREFIX_MYSTERY = "LT";
-    private static final CharSequence PREFIX_MYSTERY_VIRTUAL = "LV";
+    private static final String PREFIX_MULTISTEP_VIRTUAL = "MV";
+    private static final String PREFIX_TRADITIONAL = "TR";
+    private static final String PREFIX_VIRTUAL = "VI";
+    private static final String PREFIX_MULTISTEP = "MS";
+    private static final String PREFIX_EVENT = "EV";
+    private static final String PREFIX_CONTEST = "CT";
+    private static final String PREFIX_MYSTERY = "LT";
+    private static final String PREFIX_MYSTERY_VIRTUAL = "LV";
 
     // Let just add this general prefix, since for search prefix is not important at all,
     // all IDs are unique at SU
-    private static final CharSequence PREFIX_GENERAL = "SU";
+    private static final String PREFIX_GENERAL = "SU";
 
     private UserInfo userInfo = new UserInfo(StringUtils.EMPTY, 0, UserInfoStatus.NOT_RETRIEVED);
 
@@ -170,6 +170,12 @@ public class SuConnector extends AbstractConnector implements ISearchByCenter, I
         return StringUtils.startsWithAny(StringUtils.upperCase(geocode), PREFIX_GENERAL, PREFIX_TRADITIONAL, PREFIX_MULTISTEP_VIRTUAL, PREFIX_VIRTUAL, PREFIX_MULTISTEP, PREFIX_EVENT, PREFIX_CONTEST, PREFIX_MYSTERY, PREFIX_MYSTERY_VIRTUAL) && isNumericId(SuConnector.geocodeToId(geocode));
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { PREFIX_GENERAL, PREFIX_TRADITIONAL, PREFIX_MULTISTEP_VIRTUAL, PREFIX_VIRTUAL, PREFIX_MULTISTEP, PREFIX_EVENT, PREFIX_CONTEST, PREFIX_MYSTERY, PREFIX_MYSTERY_VIRTUAL };
+    }
+
     @Override
     @NonNull
     protected String getCacheUrlPrefix() {
@@ -51,4 +51,10 @@ public class TerraCachingConnector extends AbstractConnector {
     public boolean canHandle(@NonNull final String geocode) {
         return PATTERN_GEOCODE.matcher(geocode).matches();
     }
+
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "TC", "CC", "LC" };
+    }
 }
@@ -51,6 +51,12 @@ public class WaymarkingConnector extends AbstractConnector {
         return StringUtils.startsWith(geocode, "WM");
     }
 
+    @Override
+    @NonNull
+    public String[] getGeocodePrefixes() {
+        return new String[] { "WM" };
+    }
+
     @Override
     @Nullable
     public String getGeocodeFromUrl(@NonNull final String url) {
@@ -35,6 +35,7 @@ public class BRouterTileDownloader extends AbstractDownloader {
         final MatcherWrapper matchMap = new MatcherWrapper(PATTERN_TILE, page);
         while (matchMap.find()) {
             final Download offlineMap = new Download(matchMap.group(1), Uri.parse(uri + matchMap.group(1)), false, CalendarUtils.yearMonthDay(CalendarUtils.parseDayMonthYearUS(matchMap.group(2))), Formatter.formatBytes(Long.parseLong(matchMap.group(3))), offlineMapType);
+            offlineMap.setSize(Long.parseLong(matchMap.group(3)));
             list.add(offlineMap);
         }
     }
@@ -45,7 +46,9 @@ public class BRouterTileDownloader extends AbstractDownloader {
         while (matchMap.find()) {
             final String filename = matchMap.group(1);
             if (filename.equals(remoteFilename)) {
-                return new Download(filename, Uri.parse(mapBase + filename), false, CalendarUtils.yearMonthDay(CalendarUtils.parseDayMonthYearUS(matchMap.group(2))), Formatter.formatBytes(Long.parseLong(matchMap.group(3))), offlineMapType);
+                final Download download = new Download(filename, Uri.parse(mapBase + filename), false, CalendarUtils.yearMonthDay(CalendarUtils.parseDayMonthYearUS(matchMap.group(2))), Formatter.formatBytes(Long.parseLong(matchMap.group(3))), offlineMapType);
+                download.setSize(Long.parseLong(matchMap.group(3)));
+                return download;
             }
         }
         return null;
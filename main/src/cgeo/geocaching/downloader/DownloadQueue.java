@@ -0,0 +1,319 @@
+package cgeo.geocaching.downloader;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableEmitter;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.functions.Supplier;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Downloads files into a work directory, with a bounded number of downloads running in parallel.
+ * <p/>
+ * Content is written to a partial file first. An interrupted download is resumed from the end of its partial file using
+ * a HTTP range request, also in a later run. While the content is written its size and, if a {@link Verifier} is given,
+ * its checksums are verified, so that no file has to be read again afterwards. A file is only renamed to its final name
+ * in the work directory if it is complete and valid.
+ */
+public class DownloadQueue {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 << 10;
+    /**
+     * number of attempts per file, each further attempt resumes the previous one if possible
+     */
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Checks the content of a file while it is being downloaded.
+     */
+    public interface Verifier {
+        /**
+         * Called with the content of the file in order.
+         *
+         * @throws IOException if the content seen so far is invalid
+         */
+        void update(@NonNull byte[] buffer, int offset, int length) throws IOException;
+
+        /**
+         * Called after the complete content was passed to {@link #update(byte[], int, int)}.
+         *
+         * @throws IOException if the content is invalid
+         */
+        void finish() throws IOException;
+    }
+
+    /**
+     * A file to be downloaded.
+     */
+    public static final class Task {
+        @NonNull private final String url;
+        @NonNull private final String fileName;
+        private final long expectedSize;
+        @Nullable private final Supplier<Verifier> verifierFactory;
+
+        /**
+         * @param fileName
+         *            the name of the file in the work directory
+         * @param expectedSize
+         *            the size of the file in bytes, or -1 if unknown
+         * @param verifierFactory
+         *            creates a verifier for each attempt, or {@code null} if the content is not to be verified
+         */
+        public Task(@NonNull final String url, @NonNull final String fileName, final long expectedSize, @Nullable final Supplier<Verifier> verifierFactory) {
+            this.url = url;
+            this.fileName = fileName;
+            this.expectedSize = expectedSize;
+            this.verifierFactory = verifierFactory;
+        }
+
+        @NonNull
+        public String getUrl() {
+            return url;
+        }
+
+        @NonNull
+        public String getFileName() {
+            return fileName;
+        }
+    }
+
+    /**
+     * The outcome of a task, either the downloaded file or the error.
+     */
+    public static final class Result {
+        @NonNull private final Task task;
+        @Nullable private final File file;
+        @Nullable private final Throwable error;
+
+        Result(@NonNull final Task task, @Nullable final File file, @Nullable final Throwable error) {
+            this.task = task;
+            this.file = file;
+            this.error = error;
+        }
+
+        @NonNull
+        public Task getTask() {
+            return task;
+        }
+
+        /**
+         * @return the downloaded file in the work directory, {@code null} if the download failed
+         */
+        @Nullable
+        public File getFile() {
+            return file;
+        }
+
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return file != null;
+        }
+    }
+
+    /**
+     * an error which does not get better by trying again
+     */
+    private static class PermanentException extends IOException {
+        private static final long serialVersionUID = 8547930470813934563L;
+
+        PermanentException(final String message) {
+            super(message);
+        }
+    }
+
+    @NonNull private final OkHttpClient client;
+    @NonNull private final File workDir;
+    @NonNull private final Scheduler scheduler;
+    private final int parallelism;
+
+    /**
+     * @param workDir
+     *            the directory for partial and downloaded files
+     * @param scheduler
+     *            the scheduler to run the (blocking) downloads on
+     * @param parallelism
+     *            the maximum number of downloads running at the same time
+     */
+    public DownloadQueue(@NonNull final OkHttpClient client, @NonNull final File workDir, @NonNull final Scheduler scheduler, final int parallelism) {
+        this.client = client;
+        this.workDir = workDir;
+        this.scheduler = scheduler;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Download the given files. The downloads start on subscription, disposing the subscription stops them, keeping
+     * their partial files for resuming later.
+     *
+     * @return the result of each task, in the order of completion
+     */
+    @NonNull
+    public Observable<Result> download(@NonNull final Collection<Task> tasks) {
+        return Observable.fromIterable(tasks).flatMap(task -> Observable.<Result>create(emitter -> {
+            Result result;
+            try {
+                result = new Result(task, download(task, emitter), null);
+            } catch (final IOException e) {
+                result = new Result(task, null, e);
+            }
+            if (!emitter.isDisposed()) {
+                emitter.onNext(result);
+                emitter.onComplete();
+            }
+        }).subscribeOn(scheduler), parallelism);
+    }
+
+    @NonNull
+    private File download(@NonNull final Task task, @NonNull final ObservableEmitter<Result> emitter) throws IOException {
+        if (!workDir.isDirectory() && !workDir.mkdirs()) {
+            throw new IOException("Cannot create " + workDir);
+        }
+        final File partial = new File(workDir, task.fileName + PARTIAL_SUFFIX);
+        IOException lastError = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !emitter.isDisposed(); attempt++) {
+            final boolean resuming = partial.length() > 0;
+            try {
+                downloadPartial(task, partial, emitter);
+                final File target = new File(workDir, task.fileName);
+                if ((target.exists() && !target.delete()) || !partial.renameTo(target)) {
+                    throw new IOException("Cannot rename " + partial + " to " + target);
+                }
+                return target;
+            } catch (final PermanentException e) {
+                deleteQuietly(partial);
+                if (!resuming) {
+                    throw e;
+                }
+                // the partial file may be outdated, start again from the beginning
+                lastError = e;
+            } catch (final IOException e) {
+                lastError = e;
+            }
+        }
+        throw lastError != null ? lastError : new InterruptedIOException("Download of " + task.url + " cancelled");
+    }
+
+    /**
+     * download the file, or the rest of it if the partial file already exists
+     */
+    private void downloadPartial(@NonNull final Task task, @NonNull final File partial, @NonNull final ObservableEmitter<Result> emitter) throws IOException {
+        long offset = partial.length();
+        if (task.expectedSize >= 0 && offset > task.expectedSize) {
+            deleteQuietly(partial);
+            offset = 0;
+        }
+        final Request.Builder request = new Request.Builder().url(task.url);
+        if (offset > 0) {
+            request.header("Range", "bytes=" + offset + "-");
+        }
+        final Call call = client.newCall(request.build());
+        emitter.setCancellable(call::cancel);
+        try (Response response = call.execute()) {
+            final boolean append;
+            if (offset > 0 && response.code() == 206 && String.valueOf(response.header("Content-Range")).startsWith("bytes " + offset + "-")) {
+                append = true;
+            } else if (offset > 0 && response.code() == 416 && offset == task.expectedSize) {
+                // the partial file is complete already
+                append = true;
+            } else if (response.code() == 200) {
+                // no range request, or the server does not support it
+                append = false;
+            } else if (response.code() >= 400 && response.code() < 500) {
+                throw new PermanentException("HTTP " + response.code() + " for " + task.url);
+            } else {
+                throw new IOException("HTTP " + response.code() + " for " + task.url);
+            }
+
+            final Verifier verifier = createVerifier(task);
+            long size = 0;
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            if (append && verifier != null) {
+                // the verifier has to see the whole content
+                try (InputStream in = new FileInputStream(partial)) {
+                    int length;
+                    while ((length = in.read(buffer)) > 0) {
+                        verify(verifier, buffer, length);
+                    }
+                }
+            }
+            if (append) {
+                size = partial.length();
+            }
+            final ResponseBody body = response.body();
+            if (response.code() != 416 && body != null) {
+                try (InputStream in = body.byteStream(); OutputStream out = new FileOutputStream(partial, append)) {
+                    int length;
+                    while ((length = in.read(buffer)) > 0) {
+                        if (emitter.isDisposed()) {
+                            throw new InterruptedIOException("Download of " + task.url + " cancelled");
+                        }
+                        if (verifier != null) {
+                            verify(verifier, buffer, length);
+                        }
+                        out.write(buffer, 0, length);
+                        size += length;
+                        if (task.expectedSize >= 0 && size > task.expectedSize) {
+                            throw new PermanentException("File " + task.url + " larger than expected " + task.expectedSize);
+                        }
+                    }
+                }
+            }
+            if (task.expectedSize >= 0 && size != task.expectedSize) {
+                throw new IOException("File " + task.url + " has " + size + " bytes instead of " + task.expectedSize);
+            }
+            if (verifier != null) {
+                try {
+                    verifier.finish();
+                } catch (final IOException e) {
+                    throw new PermanentException("File " + task.url + " is corrupt: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void verify(@NonNull final Verifier verifier, @NonNull final byte[] buffer, final int length) throws PermanentException {
+        try {
+            verifier.update(buffer, 0, length);
+        } catch (final IOException e) {
+            throw new PermanentException("File is corrupt: " + e.getMessage());
+        }
+    }
+
+    @Nullable
+    private static Verifier createVerifier(@NonNull final Task task) throws IOException {
+        if (task.verifierFactory == null) {
+            return null;
+        }
+        try {
+            return task.verifierFactory.get();
+        } catch (final Throwable t) {
+            throw new IOException("Cannot verify " + task.url, t);
+        }
+    }
+
+    private static void deleteQuietly(@NonNull final File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
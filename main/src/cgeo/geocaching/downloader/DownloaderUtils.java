@@ -1,7 +1,9 @@
 package cgeo.geocaching.downloader;
 
+import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
 import cgeo.geocaching.activity.ActivityMixin;
+import cgeo.geocaching.brouter.mapaccess.TileDataVerifier;
 import cgeo.geocaching.models.Download;
 import cgeo.geocaching.network.Network;
 import cgeo.geocaching.network.Parameters;
@@ -12,6 +14,7 @@ import cgeo.geocaching.storage.ContentStorage;
 import cgeo.geocaching.storage.PersistableFolder;
 import cgeo.geocaching.storage.extension.PendingDownload;
 import cgeo.geocaching.ui.dialog.Dialogs;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.AsyncTaskWithProgressText;
 import cgeo.geocaching.utils.CalendarUtils;
 import cgeo.geocaching.utils.Log;
@@ -20,7 +23,9 @@ import cgeo.geocaching.utils.functions.Action1;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.DownloadManager;
+import android.content.Context;
 import android.content.Intent;
+import android.net.ConnectivityManager;
 import android.net.Uri;
 import android.os.Environment;
 import android.view.View;
@@ -33,10 +38,13 @@ import static android.content.Context.DOWNLOAD_SERVICE;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
+import java.io.File;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import okhttp3.Response;
 import org.apache.commons.lang3.StringUtils;
 
@@ -48,6 +56,11 @@ public class DownloaderUtils {
     public static final String RESULT_DATE = "dateInfo";
     public static final String RESULT_TYPEID = "typeId";
 
+    /** number of routing tiles downloaded at the same time */
+    private static final int PARALLEL_TILE_DOWNLOADS = 4;
+    /** directory in the cache for downloading routing tiles, keeping partial downloads for resuming them */
+    private static final String TILE_DOWNLOAD_DIR = "tiledownloads";
+
     private DownloaderUtils() {
         // utility class
     }
@@ -93,6 +106,15 @@ public class DownloaderUtils {
             .setPositiveButton(android.R.string.ok, (dialog, which) -> {
                 final boolean allowMeteredNetwork = ((CheckBox) layout.findViewById(R.id.allow_metered_network)).isChecked();
 
+                if (type == Download.DownloadType.DOWNLOADTYPE_BROUTER_TILES.id) {
+                    downloadRoutingTiles(activity, Collections.singletonList(createTileTask(uri, -1)), allowMeteredNetwork);
+                    dialog.dismiss();
+                    if (callback != null) {
+                        callback.run();
+                    }
+                    return;
+                }
+
                 final DownloadManager.Request request = new DownloadManager.Request(uri)
                     .setTitle(filename)
                     .setDescription(String.format(activity.getString(R.string.downloadmap_filename), filename))
@@ -123,6 +145,49 @@ public class DownloaderUtils {
             .show();
     }
 
+    private static DownloadQueue.Task createTileTask(final Uri uri, final long size) {
+        return new DownloadQueue.Task(uri.toString(), uri.getLastPathSegment(), size, TileDataVerifier::new);
+    }
+
+    /**
+     * Download routing tiles within the app instead of using the system download manager: several at once, resuming
+     * interrupted downloads and checking the tiles while they are written, so that they need not be read again.
+     */
+    private static void downloadRoutingTiles(final Activity activity, final List<DownloadQueue.Task> tasks, final boolean allowMeteredNetwork) {
+        final ConnectivityManager connectivityManager = (ConnectivityManager) activity.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (!allowMeteredNetwork && connectivityManager != null && connectivityManager.isActiveNetworkMetered()) {
+            ActivityMixin.showToast(activity, R.string.download_metered_network);
+            return;
+        }
+        final File workDir = new File(activity.getCacheDir(), TILE_DOWNLOAD_DIR);
+        ActivityMixin.showShortToast(activity, R.string.download_started);
+        new DownloadQueue(Network.getHttpClient(), workDir, AndroidRxUtils.networkScheduler, PARALLEL_TILE_DOWNLOADS).download(tasks)
+            .filter(DownloaderUtils::storeRoutingTile)
+            .count()
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(count -> ActivityMixin.showApplicationToast(CgeoApplication.getInstance().getString(R.string.download_finished, count.intValue(), tasks.size())),
+                throwable -> Log.e("Downloading routing tiles failed", throwable));
+    }
+
+    /**
+     * move a downloaded tile into the routing tiles folder
+     */
+    private static boolean storeRoutingTile(final DownloadQueue.Result result) {
+        final File file = result.getFile();
+        if (file == null) {
+            Log.w("Download of " + result.getTask().getUrl() + " failed", result.getError());
+            return false;
+        }
+        final boolean stored = ContentStorage.get().replaceFile(PersistableFolder.ROUTING_TILES.getFolder(), result.getTask().getFileName(), file) != null;
+        if (stored) {
+            Log.i("Download of " + result.getTask().getFileName() + " successful");
+        }
+        if (!file.delete()) {
+            Log.w("Could not delete downloaded file " + file);
+        }
+        return stored;
+    }
+
     public interface DirectoryWritable {
         void run(PersistableFolder folder, boolean isAvailable);
     }
@@ -262,6 +327,16 @@ public class DownloaderUtils {
                         .setPositiveButton(android.R.string.ok, (dialog, which) -> {
                             final boolean allowMeteredNetwork = ((CheckBox) layout.findViewById(R.id.allow_metered_network)).isChecked();
 
+                            if (currentType == Download.DownloadType.DOWNLOADTYPE_BROUTER_TILES) {
+                                final List<DownloadQueue.Task> tasks = new ArrayList<>();
+                                for (Download download : result) {
+                                    tasks.add(createTileTask(download.getUri(), download.getSize()));
+                                }
+                                downloadRoutingTiles(activity, tasks, allowMeteredNetwork);
+                                dialog.dismiss();
+                                return;
+                            }
+
                             final DownloadManager downloadManager = (DownloadManager) activity.getSystemService(DOWNLOAD_SERVICE);
                             if (null != downloadManager) {
                                 for (Download download : result) {
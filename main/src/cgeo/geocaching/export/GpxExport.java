@@ -11,6 +11,7 @@ import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.utils.AsyncTaskWithProgress;
 import cgeo.geocaching.utils.FileNameCreator;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.PerformanceMetrics;
 import cgeo.geocaching.utils.ShareUtils;
 import cgeo.geocaching.utils.UriUtils;
 
@@ -33,11 +34,17 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 
 public class GpxExport extends AbstractExport {
 
+    private static final PerformanceMetrics.Timer EXPORT_TIMER = PerformanceMetrics.timer("gpx.export");
+    private static final PerformanceMetrics.Counter EXPORTED_CACHES = PerformanceMetrics.counter("gpx.export.caches");
+
     private String fileName = "geocache.gpx"; // used in tests
 
     public GpxExport() {
@@ -81,8 +88,12 @@ public class GpxExport extends AbstractExport {
         final CheckBox includeFoundStatus = layout.findViewById(R.id.include_found_status);
         includeFoundStatus.setChecked(Settings.getIncludeFoundStatus());
 
+        final CheckBox exportZip = layout.findViewById(R.id.export_zip);
+        exportZip.setChecked(Settings.getGpxExportZip());
+
         builder.setPositiveButton(R.string.export, (dialog, which) -> {
             Settings.setIncludeFoundStatus(includeFoundStatus.isChecked());
+            Settings.setGpxExportZip(exportZip.isChecked());
             dialog.dismiss();
             new ExportTask(activity).execute(geocodes);
         });
@@ -112,19 +123,33 @@ public class GpxExport extends AbstractExport {
 
             setMessage(CgeoApplication.getInstance().getResources().getQuantityString(R.plurals.cache_counts, allGeocodes.size(), allGeocodes.size()));
 
-            final Uri uri = ContentStorage.get().create(PersistableFolder.GPX, fileName);
+            // zip is only offered in the dialog, an export without activity uses plain gpx
+            final boolean zip = activity != null && Settings.getGpxExportZip();
+            final Uri uri = ContentStorage.get().create(PersistableFolder.GPX, zip ? StringUtils.removeEnd(fileName, ".gpx") + ".zip" : fileName);
             if (uri == null) {
                 return null;
             }
 
             BufferedWriter writer = null;
+            final long start = System.nanoTime();
             try (OutputStream os = ContentStorage.get().openForWrite(uri)) {
                 if (os == null) {
                     return null;
                 }
 
-                writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+                final ZipOutputStream zipStream = zip ? new ZipOutputStream(os) : null;
+                if (zipStream != null) {
+                    zipStream.putNextEntry(new ZipEntry(fileName));
+                }
+                writer = new BufferedWriter(new OutputStreamWriter(zipStream != null ? zipStream : os, StandardCharsets.UTF_8));
                 new GpxSerializer().writeGPX(allGeocodes, writer, ExportTask.this::publishProgress);
+                writer.flush();
+                if (zipStream != null) {
+                    // write the end of the zip file before the target stream is closed
+                    zipStream.closeEntry();
+                    zipStream.finish();
+                }
+                EXPORTED_CACHES.add(allGeocodes.size());
             } catch (final IOException e) {
                 Log.e("GpxExport.ExportTask export", e);
                 // delete partial GPX file on error
@@ -133,6 +158,7 @@ public class GpxExport extends AbstractExport {
                 return null;
             } finally {
                 IOUtils.closeQuietly(writer);
+                EXPORT_TIMER.stop(start);
             }
 
             return uri;
@@ -143,7 +169,7 @@ public class GpxExport extends AbstractExport {
             final Activity activityLocal = activity;
             if (activityLocal != null) {
                 if (uri != null) {
-                        ShareUtils.shareOrDismissDialog(activityLocal, uri, "application/xml", R.string.export, getName() + ' ' + activityLocal.getString(R.string.export_exportedto) + ": " + UriUtils.toUserDisplayableString(uri));
+                        ShareUtils.shareOrDismissDialog(activityLocal, uri, StringUtils.endsWith(uri.getPath(), ".zip") ? "application/zip" : "application/xml", R.string.export, getName() + ' ' + activityLocal.getString(R.string.export_exportedto) + ": " + UriUtils.toUserDisplayableString(uri));
                 } else {
                     ActivityMixin.showToast(activityLocal, activityLocal.getString(R.string.export_failed));
                 }
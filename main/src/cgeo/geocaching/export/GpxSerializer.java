@@ -21,6 +21,7 @@ import cgeo.org.kxml2.io.KXmlSerializer;
 import androidx.annotation.NonNull;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -28,9 +29,11 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.xmlpull.v1.XmlSerializer;
 
@@ -61,12 +64,24 @@ public final class GpxSerializer {
      */
     public static final int CACHES_PER_BATCH = 100;
 
+    /**
+     * number of batches loaded from the database ahead of the batch being serialized
+     */
+    private static final int BATCHES_LOADED_AHEAD = 2;
+
+    private static final String FEATURE_INDENT = "http://xmlpull.org/v1/doc/features.html#indent-output";
+
     /**
      * counter for exported caches, used for progress reporting
      */
     private int countExported;
     private ProgressListener progressListener;
+    private Writer writer;
     private final XmlSerializer gpx = new KXmlSerializer();
+    /**
+     * number of caches serialized at the same time
+     */
+    private final int parallelism;
 
     protected interface ProgressListener {
 
@@ -74,20 +89,27 @@ public final class GpxSerializer {
 
     }
 
-    public void writeGPX(@NonNull final List<String> allGeocodesIn, final Writer writer, final ProgressListener progressListener) throws IOException {
-        // create a copy of the geocode list, as we need to modify it, but it might be immutable
-        final List<String> allGeocodes = new ArrayList<>(allGeocodesIn);
+    public GpxSerializer() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
 
+    GpxSerializer(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Exports the given caches. The export is pipelined: while the caches of one batch are serialized in parallel
+     * (each into a string of its own), the next batches are loaded from the database on another thread. The
+     * serialized caches are written on the calling thread, in the same order as a sequential export would write them.
+     */
+    public void writeGPX(@NonNull final List<String> allGeocodes, final Writer writer, final ProgressListener progressListener) throws IOException {
         this.progressListener = progressListener;
+        this.writer = writer;
         gpx.setOutput(writer);
-        gpx.setFeature("http://xmlpull.org/v1/doc/features.html#indent-output", true);
+        gpx.setFeature(FEATURE_INDENT, true);
 
         gpx.startDocument(StandardCharsets.UTF_8.name(), true);
-        gpx.setPrefix(PREFIX_GPX, NS_GPX);
-        gpx.setPrefix(PREFIX_XSI, NS_XSI);
-        gpx.setPrefix(PREFIX_GROUNDSPEAK, NS_GROUNDSPEAK);
-        gpx.setPrefix(PREFIX_GSAK, NS_GSAK);
-        gpx.setPrefix(PREFIX_CGEO, NS_CGEO);
+        setPrefixes(gpx);
 
         gpx.startTag(NS_GPX, "gpx");
         gpx.attribute("", "version", "1.0");
@@ -96,79 +118,137 @@ public final class GpxSerializer {
 
         // Split the overall set of geocodes into small chunks. That is a compromise between memory efficiency (because
         // we don't load all caches fully into memory) and speed (because we don't query each cache separately).
-        while (!allGeocodes.isEmpty()) {
-            final List<String> batch = allGeocodes.subList(0, Math.min(CACHES_PER_BATCH, allGeocodes.size()));
-            exportBatch(gpx, batch);
-            batch.clear();
+        try {
+            Flowable.fromIterable(ListUtils.partition(new ArrayList<>(allGeocodes), CACHES_PER_BATCH))
+                .map(GpxSerializer::loadBatch)
+                .subscribeOn(Schedulers.io())
+                .concatMap(caches -> Flowable.fromIterable(caches)
+                    .concatMapEager(cache -> Flowable.fromCallable(() -> serializeCache(cache)).subscribeOn(Schedulers.computation()), parallelism, 1), BATCHES_LOADED_AHEAD)
+                .blockingForEach(this::writeSerializedCache);
+        } catch (final RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
         }
 
         gpx.endTag(NS_GPX, "gpx");
         gpx.endDocument();
     }
 
-    private void exportBatch(final XmlSerializer gpx, @NonNull final Collection<String> geocodesOfBatch) throws IOException {
-        final Set<Geocache> caches = DataStore.loadCaches(geocodesOfBatch, LoadFlags.LOAD_ALL_DB_ONLY);
-        for (final Geocache cache : caches) {
-            if (cache == null) {
-                continue;
-            }
+    private static void setPrefixes(@NonNull final XmlSerializer gpx) throws IOException {
+        gpx.setPrefix(PREFIX_GPX, NS_GPX);
+        gpx.setPrefix(PREFIX_XSI, NS_XSI);
+        gpx.setPrefix(PREFIX_GROUNDSPEAK, NS_GROUNDSPEAK);
+        gpx.setPrefix(PREFIX_GSAK, NS_GSAK);
+        gpx.setPrefix(PREFIX_CGEO, NS_CGEO);
+    }
 
-            final boolean isInternal = InternalConnector.getInstance().canHandle(cache.getGeocode());
-            final Geopoint coords = cache.getCoords();
-            if (coords == null && !isInternal) {
-                // Export would be invalid without coordinates.
-                continue;
+    @NonNull
+    private static List<Geocache> loadBatch(@NonNull final Collection<String> geocodesOfBatch) {
+        final List<Geocache> caches = new ArrayList<>(geocodesOfBatch.size());
+        for (final Geocache cache : DataStore.loadCaches(geocodesOfBatch, LoadFlags.LOAD_ALL_DB_ONLY)) {
+            if (cache != null) {
+                caches.add(cache);
             }
-            gpx.startTag(NS_GPX, "wpt");
-            gpx.attribute("", "lat", Double.toString(coords == null ? 0 : coords.getLatitude()));
-            gpx.attribute("", "lon", Double.toString(coords == null ? 0 : coords.getLongitude()));
+        }
+        return caches;
+    }
 
-            final Date hiddenDate = cache.getHiddenDate();
-            if (hiddenDate != null) {
-                XmlUtils.simpleText(gpx, NS_GPX, "time", dateFormatZ.format(hiddenDate));
-            }
+    /**
+     * Serializes a single cache including its waypoints, exactly as it is written inside the gpx element of the document.
+     *
+     * @return the serialized cache, empty if the cache cannot be exported
+     */
+    @NonNull
+    private static String serializeCache(@NonNull final Geocache cache) throws IOException {
+        final StringWriter buffer = new StringWriter();
+        final GpxSerializer serializer = new GpxSerializer(1);
+        serializer.gpx.setOutput(buffer);
+        serializer.gpx.setFeature(FEATURE_INDENT, true);
+        setPrefixes(serializer.gpx);
+        // enclosing gpx element, so that namespaces and indentation are the same as in the document
+        serializer.gpx.startTag(NS_GPX, "gpx");
+        serializer.gpx.flush();
+        final int start = buffer.getBuffer().length();
+        if (!serializer.writeCache(cache)) {
+            return "";
+        }
+        serializer.gpx.flush();
+        return buffer.getBuffer().substring(start);
+    }
+
+    private void writeSerializedCache(@NonNull final String serializedCache) throws IOException {
+        if (serializedCache.isEmpty()) {
+            return;
+        }
+        if (countExported == 0) {
+            // complete the gpx start tag before writing to the output directly
+            gpx.flush();
+        }
+        writer.write(serializedCache);
 
-            XmlUtils.multipleTexts(gpx, NS_GPX, "name", cache.getGeocode(), "desc", cache.getName(), "url", cache.getUrl(), "urlname", cache.getName(), "sym", cache.isFound() && Settings.getIncludeFoundStatus() ? "Geocache Found" : "Geocache", "type", "Geocache|" + cache.getType().pattern);
+        countExported++;
+        if (progressListener != null) {
+            progressListener.publishProgress(countExported);
+        }
+    }
+
+    /**
+     * @return false if the cache cannot be exported
+     */
+    private boolean writeCache(@NonNull final Geocache cache) throws IOException {
+        final boolean isInternal = InternalConnector.getInstance().canHandle(cache.getGeocode());
+        final Geopoint coords = cache.getCoords();
+        if (coords == null && !isInternal) {
+            // Export would be invalid without coordinates.
+            return false;
+        }
+        gpx.startTag(NS_GPX, "wpt");
+        gpx.attribute("", "lat", Double.toString(coords == null ? 0 : coords.getLatitude()));
+        gpx.attribute("", "lon", Double.toString(coords == null ? 0 : coords.getLongitude()));
 
-            gpx.startTag(NS_GROUNDSPEAK, "cache");
-            gpx.attribute("", "id", cache.getCacheId());
-            gpx.attribute("", "available", !cache.isDisabled() ? "True" : "False");
-            gpx.attribute("", "archived", cache.isArchived() ? "True" : "False");
+        final Date hiddenDate = cache.getHiddenDate();
+        if (hiddenDate != null) {
+            XmlUtils.simpleText(gpx, NS_GPX, "time", dateFormatZ.format(hiddenDate));
+        }
 
-            XmlUtils.multipleTexts(gpx, NS_GROUNDSPEAK, "name", cache.getName(), "placed_by", cache.getOwnerDisplayName(), "owner", cache.getOwnerUserId(), "type", cache.getType().pattern, "container", cache.getSize().id);
+        XmlUtils.multipleTexts(gpx, NS_GPX, "name", cache.getGeocode(), "desc", cache.getName(), "url", cache.getUrl(), "urlname", cache.getName(), "sym", cache.isFound() && Settings.getIncludeFoundStatus() ? "Geocache Found" : "Geocache", "type", "Geocache|" + cache.getType().pattern);
 
-            writeAttributes(cache);
+        gpx.startTag(NS_GROUNDSPEAK, "cache");
+        gpx.attribute("", "id", cache.getCacheId());
+        gpx.attribute("", "available", !cache.isDisabled() ? "True" : "False");
+        gpx.attribute("", "archived", cache.isArchived() ? "True" : "False");
 
-            XmlUtils.multipleTexts(gpx, NS_GROUNDSPEAK, "difficulty", integerIfPossible(cache.getDifficulty()), "terrain", integerIfPossible(cache.getTerrain()), "country", getCountry(cache), "state", getState(cache));
+        XmlUtils.multipleTexts(gpx, NS_GROUNDSPEAK, "name", cache.getName(), "placed_by", cache.getOwnerDisplayName(), "owner", cache.getOwnerUserId(), "type", cache.getType().pattern, "container", cache.getSize().id);
 
-            gpx.startTag(NS_GROUNDSPEAK, "short_description");
-            gpx.attribute("", "html", TextUtils.containsHtml(cache.getShortDescription()) ? "True" : "False");
-            gpx.text(cache.getShortDescription());
-            gpx.endTag(NS_GROUNDSPEAK, "short_description");
+        writeAttributes(cache);
 
-            gpx.startTag(NS_GROUNDSPEAK, "long_description");
-            gpx.attribute("", "html", TextUtils.containsHtml(cache.getDescription()) ? "True" : "False");
-            gpx.text(cache.getDescription());
-            gpx.endTag(NS_GROUNDSPEAK, "long_description");
+        XmlUtils.multipleTexts(gpx, NS_GROUNDSPEAK, "difficulty", integerIfPossible(cache.getDifficulty()), "terrain", integerIfPossible(cache.getTerrain()), "country", getCountry(cache), "state", getState(cache));
 
-            XmlUtils.simpleText(gpx, NS_GROUNDSPEAK, "encoded_hints", cache.getHint());
+        gpx.startTag(NS_GROUNDSPEAK, "short_description");
+        gpx.attribute("", "html", TextUtils.containsHtml(cache.getShortDescription()) ? "True" : "False");
+        gpx.text(cache.getShortDescription());
+        gpx.endTag(NS_GROUNDSPEAK, "short_description");
 
-            writeLogs(cache);
-            writeTravelBugs(cache);
+        gpx.startTag(NS_GROUNDSPEAK, "long_description");
+        gpx.attribute("", "html", TextUtils.containsHtml(cache.getDescription()) ? "True" : "False");
+        gpx.text(cache.getDescription());
+        gpx.endTag(NS_GROUNDSPEAK, "long_description");
 
-            gpx.endTag(NS_GROUNDSPEAK, "cache");
+        XmlUtils.simpleText(gpx, NS_GROUNDSPEAK, "encoded_hints", cache.getHint());
 
-            writeGsakExtensions(cache);
+        writeLogs(cache);
+        writeTravelBugs(cache);
 
-            gpx.endTag(NS_GPX, "wpt");
+        gpx.endTag(NS_GROUNDSPEAK, "cache");
 
-            writeWaypoints(cache);
+        writeGsakExtensions(cache);
 
-            countExported++;
-            if (progressListener != null) {
-                progressListener.publishProgress(countExported);
-            }
-        }
+        gpx.endTag(NS_GPX, "wpt");
+
+        writeWaypoints(cache);
+        return true;
     }
 
     private void writeGsakExtensions(@NonNull final Geocache cache) throws IOException {
@@ -5,6 +5,7 @@ import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.DisposableHandler;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.PerformanceMetrics;
 
 import android.os.Handler;
 
@@ -13,6 +14,9 @@ import java.util.Collection;
 import java.util.concurrent.CancellationException;
 
 abstract class AbstractImportThread extends Thread {
+    private static final PerformanceMetrics.Timer IMPORT_TIMER = PerformanceMetrics.timer("gpx.import");
+    private static final PerformanceMetrics.Counter IMPORTED_CACHES = PerformanceMetrics.counter("gpx.import.caches");
+
     final int listId;
     final Handler importStepHandler;
     final DisposableHandler progressHandler;
@@ -25,10 +29,13 @@ abstract class AbstractImportThread extends Thread {
 
     @Override
     public void run() {
+        final long start = System.nanoTime();
         try {
             importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_START, getSourceDisplayName()));
             final Collection<Geocache> caches = doImport();
-            Log.i("Imported successfully " + caches.size() + " caches.");
+            final long millis = Math.max(1, (System.nanoTime() - start) / 1000000);
+            Log.i("Imported successfully " + caches.size() + " caches (" + caches.size() * 1000L / millis + " caches/s).");
+            IMPORTED_CACHES.add(caches.size());
 
             final SearchResult search = new SearchResult(caches);
             // Do not put imported caches into the cachecache. That would consume lots of memory for no benefit.
@@ -46,6 +53,8 @@ abstract class AbstractImportThread extends Thread {
         } catch (final Exception e) {
             Log.e("Importing caches failed - unknown error: ", e);
             importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_FINISHED_WITH_ERROR, R.string.gpx_import_error_unexpected, 0, e.getLocalizedMessage()));
+        } finally {
+            IMPORT_TIMER.stop(start);
         }
     }
 
@@ -2,11 +2,13 @@ package cgeo.geocaching.filter;
 
 import cgeo.geocaching.enumerations.CacheAttribute;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -43,6 +45,12 @@ class AttributeFilter extends AbstractFilter {
         return cache.getAttributes().contains(attribute);
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        return DataStore.SqlFilter.attribute(attribute);
+    }
+
     public static class Factory implements IFilterFactory {
 
         @Override
@@ -2,11 +2,13 @@ package cgeo.geocaching.filter;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.util.ArrayList;
@@ -43,6 +45,12 @@ class DifficultyFilter extends AbstractDTFilter {
         return rangeMin <= difficulty && difficulty < rangeMax;
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        return DataStore.SqlFilter.difficultyRange(rangeMin, rangeMax);
+    }
+
     public static class Factory implements IFilterFactory {
 
         private static final int DIFFICULTY_MIN = 1;
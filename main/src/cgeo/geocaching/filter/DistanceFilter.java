@@ -6,11 +6,13 @@ import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.sensors.GeoData;
 import cgeo.geocaching.sensors.Sensors;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -60,6 +62,12 @@ class DistanceFilter extends AbstractFilter {
         return distance >= minDistance && distance <= maxDistance;
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        return DataStore.SqlFilter.nearCoordinates(new Geopoint(geo), maxDistance);
+    }
+
     public static class Factory implements IFilterFactory {
 
         private static final int[] KILOMETERS = { 0, 2, 5, 10, 20, 50 };
@@ -1,10 +1,12 @@
 package cgeo.geocaching.filter;
 
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.List;
 
@@ -20,4 +22,13 @@ public interface IFilter extends Parcelable {
 
     void filter(@NonNull List<Geocache> list);
 
+    /**
+     * @return the selection the database can use to load only caches accepted by this filter, or {@code null} if the
+     *         filter can only be applied in memory
+     */
+    @Nullable
+    default DataStore.SqlFilter getSqlFilter() {
+        return null;
+    }
+
 }
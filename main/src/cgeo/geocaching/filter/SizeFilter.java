@@ -2,11 +2,13 @@ package cgeo.geocaching.filter;
 
 import cgeo.geocaching.enumerations.CacheSize;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -42,6 +44,12 @@ class SizeFilter extends AbstractFilter {
         return cacheSize == cache.getSize();
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        return DataStore.SqlFilter.size(cacheSize);
+    }
+
     @Override
     @NonNull
     public String getName() {
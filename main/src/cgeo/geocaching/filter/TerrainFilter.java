@@ -2,11 +2,13 @@ package cgeo.geocaching.filter;
 
 import cgeo.geocaching.R;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 
 import java.util.ArrayList;
@@ -30,6 +32,12 @@ class TerrainFilter extends AbstractDTFilter {
         return rangeMin <= terrain && terrain < rangeMax;
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        return DataStore.SqlFilter.terrainRange(rangeMin, rangeMax);
+    }
+
     public static class Factory implements IFilterFactory {
         private static final int TERRAIN_MIN = 1;
         private static final int TERRAIN_MAX = 7;
@@ -2,11 +2,13 @@ package cgeo.geocaching.filter;
 
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import android.os.Parcel;
 import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +31,13 @@ class TypeFilter extends AbstractFilter {
         return cacheType == cache.getType();
     }
 
+    @Override
+    @Nullable
+    public DataStore.SqlFilter getSqlFilter() {
+        // unknown types may be stored with any id
+        return cacheType == CacheType.UNKNOWN ? null : DataStore.SqlFilter.type(cacheType);
+    }
+
     @Override
     @NonNull
     public String getName() {
@@ -2,6 +2,7 @@ package cgeo.geocaching.loaders;
 
 import cgeo.geocaching.Intents;
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.filter.IFilter;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
@@ -9,20 +10,29 @@ import cgeo.geocaching.storage.DataStore;
 import android.app.Activity;
 import android.os.Bundle;
 
+import androidx.annotation.Nullable;
+
 public class OfflineGeocacheListLoader extends AbstractSearchLoader {
 
     private final int listId;
     private final Geopoint searchCenter;
+    @Nullable private final IFilter filter;
 
-    public OfflineGeocacheListLoader(final Activity activity, final Geopoint searchCenter, final int listId) {
+    /**
+     * @param filter
+     *            filter which is handed over to the database as far as possible, the caches of the search result still
+     *            need to be filtered in memory if the filter is not {@link DataStore.SqlFilter#isExact() exact}
+     */
+    public OfflineGeocacheListLoader(final Activity activity, final Geopoint searchCenter, final int listId, @Nullable final IFilter filter) {
         super(activity);
         this.searchCenter = searchCenter;
         this.listId = listId;
+        this.filter = filter;
     }
 
     @Override
     public SearchResult runSearch() {
-        return DataStore.getBatchOfStoredCaches(searchCenter, Settings.getCacheType(), listId);
+        return DataStore.getBatchOfStoredCaches(searchCenter, Settings.getCacheType(), listId, filter != null ? filter.getSqlFilter() : null);
     }
 
     /**
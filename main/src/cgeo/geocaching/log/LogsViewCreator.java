@@ -11,6 +11,7 @@ import cgeo.geocaching.ui.FastScrollListener;
 import cgeo.geocaching.ui.dialog.ContextMenuDialog;
 import cgeo.geocaching.utils.ClipboardUtils;
 import cgeo.geocaching.utils.Formatter;
+import cgeo.geocaching.utils.HtmlRenderCache;
 import cgeo.geocaching.utils.HtmlUtils;
 import cgeo.geocaching.utils.ShareUtils;
 import cgeo.geocaching.utils.TextUtils;
@@ -35,7 +36,13 @@ import org.apache.commons.text.StringEscapeUtils;
 
 public abstract class LogsViewCreator extends AbstractCachingListViewPageViewCreator {
 
+    /** number of log texts rendered in the background ahead of the last shown log */
+    private static final int PRERENDER_AHEAD = 10;
+    private static final String LOG_VARIANT = "log";
+
     protected final AbstractActionBarActivity activity;
+    /** position up to which (exclusive) log texts have already been scheduled for rendering */
+    private int prerenderedUntil = 0;
 
     public LogsViewCreator(final AbstractActionBarActivity activity) {
         this.activity = activity;
@@ -51,6 +58,7 @@ public abstract class LogsViewCreator extends AbstractCachingListViewPageViewCre
 
         view = (ListView) activity.getLayoutInflater().inflate(R.layout.logs_page, parentView, false);
         addHeaderView();
+        prerenderedUntil = 0;
         view.setAdapter(new ArrayAdapter<LogEntry>(activity, R.layout.logs_item, logs) {
 
             @Override
@@ -70,6 +78,7 @@ public abstract class LogsViewCreator extends AbstractCachingListViewPageViewCre
                 if (log != null) {
                     fillViewHolder(convertView, holder, log);
                 }
+                prerenderLogs(this, position, holder.binding.log);
                 return rowView;
             }
         });
@@ -94,8 +103,8 @@ public abstract class LogsViewCreator extends AbstractCachingListViewPageViewCre
 
         // log text, avoid parsing HTML if not necessary
         if (TextUtils.containsHtml(log.log)) {
-            final UnknownTagsHandler unknownTagsHandler = new UnknownTagsHandler();
-            holder.binding.log.setText(TextUtils.trimSpanned(HtmlCompat.fromHtml(log.getDisplayText(), HtmlCompat.FROM_HTML_MODE_LEGACY, new SmileyImage(getGeocode(), holder.binding.log), unknownTagsHandler)), TextView.BufferType.SPANNABLE);
+            final TextView logView = holder.binding.log;
+            HtmlRenderCache.setText(logView, HtmlRenderCache.LOGS.render(getGeocode(), log.getDisplayText(), LOG_VARIANT, html -> renderLog(html, logView)));
         } else {
             holder.binding.log.setText(log.log, TextView.BufferType.SPANNABLE);
         }
@@ -127,6 +136,28 @@ public abstract class LogsViewCreator extends AbstractCachingListViewPageViewCre
         holder.binding.detailBox.setOnClickListener(logContextMenuClickListener);
     }
 
+    /**
+     * Render the HTML texts of the logs following the given position in the background, so that scrolling
+     * down does not need to parse them on the UI thread.
+     */
+    private void prerenderLogs(final ArrayAdapter<LogEntry> adapter, final int position, final TextView logView) {
+        final int end = Math.min(adapter.getCount(), position + 1 + PRERENDER_AHEAD);
+        for (int i = Math.max(position + 1, prerenderedUntil); i < end; i++) {
+            final LogEntry log = adapter.getItem(i);
+            if (log != null && TextUtils.containsHtml(log.log)) {
+                HtmlRenderCache.LOGS.renderInBackground(getGeocode(), log.getDisplayText(), LOG_VARIANT, html -> renderLog(html, logView));
+            }
+        }
+        prerenderedUntil = Math.max(prerenderedUntil, end);
+    }
+
+    /**
+     * Render a HTML log text, may be called on a background thread. Smileys are scaled to the line height of the given view.
+     */
+    private CharSequence renderLog(final String html, final TextView logView) {
+        return TextUtils.trimSpanned(HtmlCompat.fromHtml(html, HtmlCompat.FROM_HTML_MODE_LEGACY, new SmileyImage(getGeocode(), logView), new UnknownTagsHandler()));
+    }
+
     protected View.OnClickListener createOnLogClickListener(final LogViewHolder holder, final LogEntry log) {
         return v -> {
             final String author = StringEscapeUtils.unescapeHtml4(log.author);
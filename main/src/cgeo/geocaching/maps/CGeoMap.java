@@ -978,13 +978,8 @@ public class CGeoMap extends AbstractMap implements ViewFactory, OnCacheTapListe
     }
 
     private Set<String> getUnsavedGeocodes(final Set<String> geocodes) {
-        final Set<String> unsavedGeocodes = new HashSet<>();
-
-        for (final String geocode : geocodes) {
-            if (!DataStore.isOffline(geocode, null)) {
-                unsavedGeocodes.add(geocode);
-            }
-        }
+        final Set<String> unsavedGeocodes = new HashSet<>(geocodes);
+        unsavedGeocodes.removeAll(DataStore.getOfflineGeocodes(geocodes));
         return unsavedGeocodes;
     }
 
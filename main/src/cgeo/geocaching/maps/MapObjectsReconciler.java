@@ -0,0 +1,225 @@
+package cgeo.geocaching.maps;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies requested additions and removals of map objects to a map, independent of the map provider.
+ * <p/>
+ * Requests can be made from any thread. For each object only the last request counts, so an object removed and added
+ * again before the map was updated is left untouched. The requests are applied in the order they were made, removals
+ * before additions, in slices of at most the given time budget, so that the map can be drawn in between. Drawn objects
+ * which the target can reuse are not removed, but changed to show the next added object instead, which is much cheaper
+ * for markers than removing and adding them.
+ *
+ * @param <K>
+ *            the requested objects, equal objects are drawn only once
+ * @param <D>
+ *            the objects drawn on the map
+ */
+public class MapObjectsReconciler<K, D> {
+
+    /**
+     * number of requests taken out of the queues at once
+     */
+    static final int BATCH_SIZE = 32;
+
+    /**
+     * The map the objects are drawn on. All methods are called from {@link #applyRequests()}.
+     */
+    public interface Target<K, D> {
+
+        /**
+         * @return the object drawn on the map
+         */
+        @NonNull
+        D add(@NonNull K object);
+
+        void remove(@NonNull D drawn);
+
+        /**
+         * @return {@code true} if the drawn object can be changed to show another object
+         */
+        boolean isReusable(@NonNull D drawn);
+
+        /**
+         * @return {@code true} if the object can be shown by changing a reusable drawn object
+         */
+        boolean canReuseFor(@NonNull K object);
+
+        /**
+         * change a reusable drawn object to show the given object
+         */
+        void reuse(@NonNull D drawn, @NonNull K object);
+    }
+
+    /**
+     * source of the time for the budget of {@link #applyRequests()}
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    @NonNull private final Target<K, D> target;
+    private final long budgetNanos;
+    @NonNull private final Clock clock;
+
+    // guarded by lock
+    private final Set<K> requestedToAdd = new LinkedHashSet<>();
+    private final Set<K> requestedToRemove = new LinkedHashSet<>();
+    private boolean applyRequested = false;
+    private final Lock lock = new ReentrantLock();
+
+    // only accessed in applyRequests
+    private final Map<K, D> drawObjects = new HashMap<>();
+    private final Deque<D> reusableObjects = new ArrayDeque<>();
+
+    /**
+     * @param budgetNanos
+     *            maximum time spent in one call of {@link #applyRequests()}
+     */
+    public MapObjectsReconciler(@NonNull final Target<K, D> target, final long budgetNanos, @NonNull final Clock clock) {
+        this.target = target;
+        this.budgetNanos = budgetNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * @return {@code true} if the caller has to schedule {@link #applyRequests()}
+     */
+    public boolean requestAdd(@NonNull final Collection<? extends K> toAdd) {
+        lock.lock();
+        try {
+            for (final K object : toAdd) {
+                requestedToRemove.remove(object);
+                requestedToAdd.add(object);
+            }
+            return requestApply();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the caller has to schedule {@link #applyRequests()}
+     */
+    public boolean requestRemove(@NonNull final Collection<? extends K> toRemove) {
+        lock.lock();
+        try {
+            for (final K object : toRemove) {
+                requestedToAdd.remove(object);
+                requestedToRemove.add(object);
+            }
+            return requestApply();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * must be called holding the lock
+     */
+    private boolean requestApply() {
+        if (applyRequested || (requestedToAdd.isEmpty() && requestedToRemove.isEmpty())) {
+            return false;
+        }
+        applyRequested = true;
+        return true;
+    }
+
+    /**
+     * Apply the requests until the time budget is used up. Must always be called from the same thread, e.g. the UI
+     * thread of the map.
+     *
+     * @return {@code true} if requests are left, the caller has to schedule another call then
+     */
+    public boolean applyRequests() {
+        final long start = clock.nanoTime();
+        final List<K> removals = new ArrayList<>(BATCH_SIZE);
+        final List<K> additions = new ArrayList<>(BATCH_SIZE);
+        while (clock.nanoTime() - start < budgetNanos) {
+            lock.lock();
+            try {
+                takeBatch(requestedToRemove, removals);
+                takeBatch(requestedToAdd, additions);
+            } finally {
+                lock.unlock();
+            }
+            if (removals.isEmpty() && additions.isEmpty()) {
+                break;
+            }
+            for (final K object : removals) {
+                remove(object);
+            }
+            for (final K object : additions) {
+                add(object);
+            }
+            removals.clear();
+            additions.clear();
+        }
+
+        lock.lock();
+        try {
+            if (requestedToAdd.isEmpty()) {
+                // no more objects to be reused
+                for (final D drawn : reusableObjects) {
+                    target.remove(drawn);
+                }
+                reusableObjects.clear();
+            }
+            if (requestedToAdd.isEmpty() && requestedToRemove.isEmpty()) {
+                applyRequested = false;
+                return false;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <K> void takeBatch(final Set<K> requests, final List<K> batch) {
+        final Iterator<K> it = requests.iterator();
+        while (it.hasNext() && batch.size() < BATCH_SIZE) {
+            batch.add(it.next());
+            it.remove();
+        }
+    }
+
+    private void remove(@NonNull final K object) {
+        final D drawn = drawObjects.remove(object);
+        if (drawn == null) {
+            return; // not drawn (yet)
+        }
+        if (target.isReusable(drawn)) {
+            reusableObjects.add(drawn);
+        } else {
+            target.remove(drawn);
+        }
+    }
+
+    private void add(@NonNull final K object) {
+        if (drawObjects.containsKey(object)) {
+            // avoid drawing the same object twice, e.g. consecutive identical accuracy circles
+            return;
+        }
+        if (!reusableObjects.isEmpty() && target.canReuseFor(object)) {
+            final D drawn = reusableObjects.poll();
+            target.reuse(drawn, object);
+            drawObjects.put(object, drawn);
+        } else {
+            drawObjects.put(object, target.add(object));
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class MapSettingsUtils {
             settingsElementsCheckboxes.add(new SettingsCheckboxModel(R.string.map_show_track, R.drawable.ic_menu_hidetrack, Settings.isHideTrack(), Settings::setHideTrack, true));
         }
         settingsElementsCheckboxes.add(new SettingsCheckboxModel(R.string.map_show_circles, R.drawable.ic_menu_circle, isShowCircles, Settings::setShowCircles, false));
+        settingsElementsCheckboxes.add(new SettingsCheckboxModel(R.string.map_cluster_caches, R.drawable.ic_menu_mapmode, Settings.isMapClustering(), Settings::setMapClustering, false));
 
         final View dialogView = activity.getLayoutInflater().inflate(R.layout.map_settings_dialog, null);
 
@@ -0,0 +1,220 @@
+package cgeo.geocaching.maps;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.utils.functions.Func1;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups map items which are close to each other on screen into clusters, independent of the map provider.
+ * <p/>
+ * The items are projected once into the Web Mercator plane used by all map tiles and kept as packed coordinates. For a
+ * zoom level the world is split into a fixed grid of cells about {@link #CELL_SIZE_PIXELS} pixels wide, and cells
+ * holding at least {@link #MIN_CLUSTER_SIZE} items become a cluster. As the grid is anchored to the world and not to
+ * the viewport, the clusters do not change while panning, so the result for a zoom level is computed once and reused.
+ * Clustering should be done on a background thread, the results can be read from any thread.
+ */
+public class MarkerClusterer<T> {
+
+    /**
+     * cells with fewer items show their items individually
+     */
+    public static final int MIN_CLUSTER_SIZE = 5;
+    /**
+     * from this zoom level on all items are shown individually
+     */
+    public static final int MAX_CLUSTER_ZOOM = 16;
+    private static final int CELL_SIZE_PIXELS = 64;
+    private static final int TILE_SIZE_PIXELS = 256;
+    /**
+     * the index of an item is packed into the lower bits of its sort key
+     */
+    private static final int INDEX_BITS = 20;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    /**
+     * A group of nearby items, shown as one marker.
+     */
+    public static final class Cluster<T> {
+        @NonNull private final Geopoint center;
+        @NonNull private final List<T> items;
+
+        Cluster(@NonNull final Geopoint center, @NonNull final List<T> items) {
+            this.center = center;
+            this.items = items;
+        }
+
+        /**
+         * @return the center of mass of all items in this cluster
+         */
+        @NonNull
+        public Geopoint getCenter() {
+            return center;
+        }
+
+        @NonNull
+        public List<T> getItems() {
+            return items;
+        }
+
+        public int size() {
+            return items.size();
+        }
+    }
+
+    /**
+     * The clusters and the remaining single items for one zoom level.
+     */
+    public static final class Result<T> {
+        @NonNull private final List<Cluster<T>> clusters;
+        @NonNull private final List<T> singles;
+
+        Result(@NonNull final List<Cluster<T>> clusters, @NonNull final List<T> singles) {
+            this.clusters = Collections.unmodifiableList(clusters);
+            this.singles = Collections.unmodifiableList(singles);
+        }
+
+        @NonNull
+        public List<Cluster<T>> getClusters() {
+            return clusters;
+        }
+
+        @NonNull
+        public List<T> getSingles() {
+            return singles;
+        }
+    }
+
+    @NonNull private final List<T> items;
+    /**
+     * Mercator coordinates of the items, normalized to [0, 1] for the whole world
+     */
+    @NonNull private final double[] mercatorX;
+    @NonNull private final double[] mercatorY;
+    /**
+     * items without coordinates are never clustered
+     */
+    @NonNull private final boolean[] hasCoords;
+    private final Map<Integer, Result<T>> resultsByZoom = new HashMap<>();
+
+    public MarkerClusterer(@NonNull final Collection<T> items, @NonNull final Func1<T, Geopoint> coordinates) {
+        this.items = new ArrayList<>(items);
+        final int count = this.items.size();
+        mercatorX = new double[count];
+        mercatorY = new double[count];
+        hasCoords = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            final Geopoint coords = coordinates.call(this.items.get(i));
+            if (coords != null) {
+                mercatorX[i] = toMercatorX(coords.getLongitude());
+                mercatorY[i] = toMercatorY(coords.getLatitude());
+                hasCoords[i] = true;
+            }
+        }
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * @return the clusters for the given zoom level, computed on the first request for this zoom level
+     */
+    @NonNull
+    public synchronized Result<T> getClusters(final int zoom) {
+        final int effectiveZoom = Math.max(0, Math.min(zoom, MAX_CLUSTER_ZOOM));
+        Result<T> result = resultsByZoom.get(effectiveZoom);
+        if (result == null) {
+            result = computeClusters(effectiveZoom);
+            resultsByZoom.put(effectiveZoom, result);
+        }
+        return result;
+    }
+
+    @NonNull
+    private Result<T> computeClusters(final int zoom) {
+        final int count = items.size();
+        if (zoom >= MAX_CLUSTER_ZOOM || count < MIN_CLUSTER_SIZE || count > INDEX_MASK) {
+            return new Result<>(Collections.<Cluster<T>>emptyList(), items);
+        }
+
+        // sort the items by their cell, so that all items of a cell are adjacent
+        final long cellsPerAxis = (1L << zoom) * TILE_SIZE_PIXELS / CELL_SIZE_PIXELS;
+        final long[] keys = new long[count];
+        int keyCount = 0;
+        final List<T> singles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (hasCoords[i]) {
+                final long cell = toCell(mercatorX[i], cellsPerAxis) * cellsPerAxis + toCell(mercatorY[i], cellsPerAxis);
+                keys[keyCount++] = (cell << INDEX_BITS) | i;
+            } else {
+                singles.add(items.get(i));
+            }
+        }
+        Arrays.sort(keys, 0, keyCount);
+
+        final List<Cluster<T>> clusters = new ArrayList<>();
+        int start = 0;
+        while (start < keyCount) {
+            final long cell = keys[start] >>> INDEX_BITS;
+            int end = start + 1;
+            while (end < keyCount && keys[end] >>> INDEX_BITS == cell) {
+                end++;
+            }
+            if (end - start >= MIN_CLUSTER_SIZE) {
+                clusters.add(createCluster(keys, start, end));
+            } else {
+                for (int k = start; k < end; k++) {
+                    singles.add(items.get((int) (keys[k] & INDEX_MASK)));
+                }
+            }
+            start = end;
+        }
+        return new Result<>(clusters, singles);
+    }
+
+    @NonNull
+    private Cluster<T> createCluster(final long[] keys, final int start, final int end) {
+        final List<T> clusterItems = new ArrayList<>(end - start);
+        double sumX = 0;
+        double sumY = 0;
+        for (int k = start; k < end; k++) {
+            final int index = (int) (keys[k] & INDEX_MASK);
+            clusterItems.add(items.get(index));
+            sumX += mercatorX[index];
+            sumY += mercatorY[index];
+        }
+        final int size = end - start;
+        return new Cluster<>(new Geopoint(fromMercatorY(sumY / size), fromMercatorX(sumX / size)), clusterItems);
+    }
+
+    private static long toCell(final double mercator, final long cellsPerAxis) {
+        return Math.max(0, Math.min(cellsPerAxis - 1, (long) (mercator * cellsPerAxis)));
+    }
+
+    static double toMercatorX(final double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    static double toMercatorY(final double latitude) {
+        // clip at the latitude limit of the map tiles
+        final double sinLatitude = Math.sin(Math.toRadians(Math.max(-85.0511, Math.min(85.0511, latitude))));
+        return 0.5 - Math.log((1 + sinLatitude) / (1 - sinLatitude)) / (4 * Math.PI);
+    }
+
+    static double fromMercatorX(final double x) {
+        return x * 360 - 180;
+    }
+
+    static double fromMercatorY(final double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
@@ -5,7 +5,9 @@ import cgeo.geocaching.maps.CacheMarker;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
-import android.util.SparseArray;
+
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
@@ -13,17 +15,21 @@ import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 public class BitmapDescriptorCache {
 
     /**
-     * rely on unique hashcode of CacheMarker
+     * keyed by the drawable instance, as different markers may share a hash code. The drawables are cached in
+     * {@link cgeo.geocaching.utils.MapMarkerUtils}, entries vanish once a drawable is not used anymore.
      */
-    protected final SparseArray<BitmapDescriptor> cache = new SparseArray<>();
+    protected final Map<Drawable, BitmapDescriptor> cache = new WeakHashMap<>();
 
     public BitmapDescriptor fromCacheMarker(final CacheMarker d) {
-        BitmapDescriptor bd = cache.get(d.hashCode());
-        if (bd == null) {
-            bd = toBitmapDescriptor(d.getDrawable());
-            cache.put(d.hashCode(), bd);
+        final Drawable drawable = d.getDrawable();
+        synchronized (cache) {
+            BitmapDescriptor bd = cache.get(drawable);
+            if (bd == null) {
+                bd = toBitmapDescriptor(drawable);
+                cache.put(drawable, bd);
+            }
+            return bd;
         }
-        return bd;
     }
 
     public static BitmapDescriptor toBitmapDescriptor(final Drawable d) {
@@ -1,6 +1,12 @@
 package cgeo.geocaching.maps.google.v2;
 
+import cgeo.geocaching.CgeoApplication;
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.IConversion;
+import cgeo.geocaching.maps.MarkerClusterer;
+import cgeo.geocaching.utils.MapMarkerUtils;
+
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 
@@ -11,10 +17,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.MarkerOptions;
 
 public class GoogleCachesList {
 
     protected static final double CIRCLE_RADIUS = 528.0 * IConversion.FEET_TO_KILOMETER * 1000.0;
+    public static final float ZINDEX_CLUSTER = 5;
     public static final float ZINDEX_GEOCACHE = 4;
     public static final float ZINDEX_WAYPOINT = 3;
     public static final float ZINDEX_CIRCLE   = 2;
@@ -23,6 +33,11 @@ public class GoogleCachesList {
 
     private final GoogleMapObjectsQueue mapObjects;
 
+    /**
+     * cluster icons by number of caches, the same descriptor instance keeps the marker options of a cluster equal
+     */
+    private final SparseArray<BitmapDescriptor> clusterIcons = new SparseArray<>();
+
     public GoogleCachesList(final GoogleMap googleMap) {
         mapObjects = new GoogleMapObjectsQueue(googleMap);
     }
@@ -35,11 +50,28 @@ public class GoogleCachesList {
     }
 
 
-    public void redraw(@NonNull final Collection<? extends MapObjectOptionsFactory> itemsPre, final boolean showCircles) {
+    public void redraw(@NonNull final Collection<? extends MapObjectOptionsFactory> itemsPre, @NonNull final Collection<? extends MarkerClusterer.Cluster<?>> clusters, final boolean showCircles) {
         final Collection<MapObjectOptions> options = updateMapObjectOptions(itemsPre, showCircles);
+        for (final MarkerClusterer.Cluster<?> cluster : clusters) {
+            options.add(getClusterOptions(cluster));
+        }
         updateMapObjects(options);
     }
 
+    private MapObjectOptions getClusterOptions(final MarkerClusterer.Cluster<?> cluster) {
+        BitmapDescriptor icon = clusterIcons.get(cluster.size());
+        if (icon == null) {
+            icon = BitmapDescriptorCache.toBitmapDescriptor(MapMarkerUtils.createClusterMarker(CgeoApplication.getInstance().getResources(), cluster.size()));
+            clusterIcons.put(cluster.size(), icon);
+        }
+        final Geopoint center = cluster.getCenter();
+        return MapObjectOptions.from(new MarkerOptions()
+                .icon(icon)
+                .position(new LatLng(center.getLatitude(), center.getLongitude()))
+                .anchor(0.5f, 0.5f)
+                .zIndex(ZINDEX_CLUSTER));
+    }
+
     private void updateMapObjects(@NonNull final Collection<MapObjectOptions> options) {
         if (this.options == options) {
             return; // rare, can happen, be prepared if happens
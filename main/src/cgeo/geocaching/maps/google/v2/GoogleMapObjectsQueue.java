@@ -1,75 +1,128 @@
 package cgeo.geocaching.maps.google.v2;
 
+import cgeo.geocaching.maps.MapObjectsReconciler;
+
 import android.os.Handler;
 import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Circle;
-import com.google.android.gms.maps.model.CircleOptions;
 import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.maps.model.Polyline;
 
+/**
+ * Applies requested additions and removals of map objects to the google map, using a {@link MapObjectsReconciler}.
+ * <p/>
+ * Requests can be made from any thread. The map is updated on the UI thread in slices of at most
+ * {@link #FRAME_BUDGET_NANOS} per frame, and removed markers are reused for added markers by moving them and
+ * exchanging their icon, which is much cheaper than removing and adding a marker.
+ */
 public class GoogleMapObjectsQueue {
 
+    /**
+     * maximum time per frame spent on updating the google map, the rest of the frame is left for drawing
+     */
+    private static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
 
-    private final GoogleMap googleMap;
-
-    private boolean repaintRequested = false;
-
-    private final ConcurrentLinkedQueue<MapObjectOptions> requestedToAdd = new ConcurrentLinkedQueue<>();
-    private final ConcurrentLinkedQueue<MapObjectOptions> requestedToRemove = new ConcurrentLinkedQueue<>();
-
-    private final RepaintRunner repaintRunner = new RepaintRunner();
-
-    private final Lock lock = new ReentrantLock();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
 
+    private final MapObjectsReconciler<MapObjectOptions, Object> reconciler;
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> updateMap();
 
     public GoogleMapObjectsQueue(final GoogleMap googleMap) {
-        this.googleMap = googleMap;
+        this.reconciler = new MapObjectsReconciler<>(new GoogleMapTarget(googleMap), FRAME_BUDGET_NANOS, System::nanoTime);
     }
 
     public void requestAdd(final Collection<? extends MapObjectOptions> toAdd) {
-        requestedToAdd.addAll(toAdd);
-        requestRepaint();
+        if (reconciler.requestAdd(toAdd)) {
+            requestFrame();
+        }
     }
 
     public void requestAdd(final MapObjectOptions toAdd) {
-        requestedToAdd.add(toAdd);
-        requestRepaint();
+        requestAdd(Collections.singletonList(toAdd));
     }
 
     public void requestRemove(final Collection<? extends MapObjectOptions> toRemove) {
-        requestedToRemove.addAll(toRemove);
-        requestRepaint();
+        if (reconciler.requestRemove(toRemove)) {
+            requestFrame();
+        }
     }
 
-    void requestRepaint() {
-        lock.lock();
-        if (!repaintRequested)  {
-            repaintRequested = true;
-            runOnUIThread(repaintRunner);
+    private void requestFrame() {
+        // modifications of google map must be run on main (UI) thread, the choreographer has to be retrieved there
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        } else {
+            MAIN_HANDLER.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
         }
-        lock.unlock();
     }
 
-    public void runOnUIThread(final Runnable runnable) {
-        // inspired by http://stackoverflow.com/questions/12850143/android-basics-running-code-in-the-ui-thread/25250494#25250494
-        // modifications of google map must be run on main (UI) thread
-        new Handler(Looper.getMainLooper()).post(runnable);
+    private void updateMap() {
+        if (reconciler.applyRequests()) {
+            // continue in the next frame, so that the map can be drawn in between
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
     }
 
+    private static final class GoogleMapTarget implements MapObjectsReconciler.Target<MapObjectOptions, Object> {
+        private final GoogleMap googleMap;
 
-    private static void removeDrawnObject(final Object obj) {
-        if (obj == null) {
-            return; // failsafe
+        GoogleMapTarget(final GoogleMap googleMap) {
+            this.googleMap = googleMap;
+        }
+
+        @Override
+        @NonNull
+        public Object add(@NonNull final MapObjectOptions options) {
+            return options.addToGoogleMap(googleMap);
+        }
+
+        @Override
+        public void remove(@NonNull final Object drawn) {
+            removeDrawnObject(drawn);
+        }
+
+        @Override
+        public boolean isReusable(@NonNull final Object drawn) {
+            return drawn instanceof Marker;
         }
+
+        @Override
+        public boolean canReuseFor(@NonNull final MapObjectOptions options) {
+            return options.options instanceof MarkerOptions && ((MarkerOptions) options.options).getIcon() != null;
+        }
+
+        @Override
+        public void reuse(@NonNull final Object drawn, @NonNull final MapObjectOptions options) {
+            updateMarker((Marker) drawn, (MarkerOptions) options.options);
+        }
+    }
+
+    private static void updateMarker(final Marker marker, final MarkerOptions options) {
+        marker.setPosition(options.getPosition());
+        marker.setIcon(options.getIcon());
+        marker.setAnchor(options.getAnchorU(), options.getAnchorV());
+        marker.setInfoWindowAnchor(options.getInfoWindowAnchorU(), options.getInfoWindowAnchorV());
+        marker.setZIndex(options.getZIndex());
+        marker.setAlpha(options.getAlpha());
+        marker.setRotation(options.getRotation());
+        marker.setFlat(options.isFlat());
+        marker.setDraggable(options.isDraggable());
+        marker.setTitle(options.getTitle());
+        marker.setSnippet(options.getSnippet());
+        marker.setVisible(options.isVisible());
+    }
+
+    private static void removeDrawnObject(final Object obj) {
         if (obj instanceof Marker) {
             ((Marker) obj).remove();
         } else
@@ -82,69 +135,4 @@ public class GoogleMapObjectsQueue {
             throw new IllegalStateException();
         }
     }
-
-    private class RepaintRunner implements Runnable {
-
-        /**
-         * magic number of milliseconds. maximum allowed time of adding or removing items to googlemap
-         */
-        protected static final long TIME_MAX = 40;
-
-        private final Map<MapObjectOptions, Object> drawObjects = new HashMap<>();
-        private final Map<Object, MapObjectOptions> drawnBy = new HashMap<>();
-
-        private boolean removeRequested() {
-            final long time = System.currentTimeMillis();
-            MapObjectOptions options;
-            while ((options = requestedToRemove.poll()) != null) {
-                final Object obj = drawObjects.get(options);
-                if (obj != null) {
-                    removeDrawnObject(obj);
-                    drawnBy.remove(obj);
-                } else {
-                    // could not remove, is it enqueued to be draw?
-                    if (requestedToAdd.contains(options)) {
-                        // if yes, it is not anymore
-                        requestedToAdd.remove(options);
-                    }
-                }
-                if (System.currentTimeMillis() - time >= TIME_MAX) {
-                    // removing and adding markers are time costly operations and we don't want to block UI thread
-                    runOnUIThread(this);
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        @Override
-        public void run() {
-            lock.lock();
-            if (repaintRequested && removeRequested() && addRequested()) {
-                // repaint successful, set flag to false
-                repaintRequested = false;
-            }
-            lock.unlock();
-        }
-
-        private boolean addRequested() {
-            final long time = System.currentTimeMillis();
-            MapObjectOptions options;
-            while ((options = requestedToAdd.poll()) != null) {
-                // avoid redrawing exactly the same accuracy circle, as sometimes consecutive identical circles remain on the map
-                if (!(options.options instanceof CircleOptions) || ((CircleOptions) options.options).getZIndex() != GooglePositionAndHistory.ZINDEX_POSITION_ACCURACY_CIRCLE || !drawObjects.containsKey(options)) {
-                    final Object drawn = options.addToGoogleMap(googleMap);
-                    drawnBy.put(drawn, options);
-                    drawObjects.put(options, drawn);
-                }
-                if (System.currentTimeMillis() - time >= TIME_MAX) {
-                    // removing and adding markers are time costly operations and we dont want to block UI thread
-                    runOnUIThread(this);
-                    return false;
-                }
-            }
-            return true;
-        }
-
-    }
 }
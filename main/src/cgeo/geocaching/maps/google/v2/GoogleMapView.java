@@ -8,6 +8,7 @@ import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.CGeoMap;
 import cgeo.geocaching.maps.DistanceDrawer;
 import cgeo.geocaching.maps.MapProviderFactory;
+import cgeo.geocaching.maps.MarkerClusterer;
 import cgeo.geocaching.maps.ScaleDrawer;
 import cgeo.geocaching.maps.interfaces.GeneralOverlay;
 import cgeo.geocaching.maps.interfaces.GeoPointImpl;
@@ -23,7 +24,9 @@ import cgeo.geocaching.maps.mapsforge.AbstractMapsforgeMapSource;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.ui.dialog.Dialogs;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.MapMarkerUtils;
 import static cgeo.geocaching.maps.google.v2.GoogleMapUtils.isGoogleMapsAvailable;
 
 import android.app.Activity;
@@ -39,11 +42,20 @@ import android.view.MotionEvent;
 import android.view.View;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapView;
 import com.google.android.gms.maps.OnMapReadyCallback;
@@ -65,6 +77,17 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
     private GoogleCachesList cachesList;
     private GestureDetector gestureDetector;
     private Collection<GoogleCacheOverlayItem> cacheItems;
+    /**
+     * the items drawn as single markers, which are all items unless caches are clustered
+     */
+    private volatile Collection<GoogleCacheOverlayItem> displayedItems;
+
+    // clustering of dense caches, guarded by lock
+    private MarkerClusterer<String> clusterer;
+    private Set<String> clustererGeocodes = Collections.emptySet();
+    private volatile List<MarkerClusterer.Cluster<String>> clusters = Collections.emptyList();
+    private volatile int clusterZoom = -1;
+    private final AtomicBoolean clusterRedrawPending = new AtomicBoolean(false);
 
     private OnCacheTapListener onCacheTapListener;
     private boolean showCircles = false;
@@ -175,6 +198,13 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
         if (newVisibleRegion != null) {
             visibleRegion = newVisibleRegion;
         }
+        if (clusterZoom >= 0 && clusterZoom != Math.min(getMapZoomLevel(), MarkerClusterer.MAX_CLUSTER_ZOOM) && clusterRedrawPending.compareAndSet(false, true)) {
+            // clusters have to be rebuilt for the new zoom level
+            AndroidRxUtils.computationScheduler.scheduleDirect(() -> {
+                clusterRedrawPending.set(false);
+                redraw();
+            });
+        }
         invalidate(); // force redraw to draw scale
     }
 
@@ -391,6 +421,9 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
             // is map already initialized?
             if (googleMap != null) {
                 final Point p = new Point((int) e.getX(), (int) e.getY());
+                if (onClusterTap(p)) {
+                    return false;
+                }
                 final LatLng latLng = googleMap.getProjection().fromScreenLocation(p);
                 if (latLng != null && onCacheTapListener != null) {
                     final GoogleCacheOverlayItem closest = closest(new Geopoint(latLng.latitude, latLng.longitude));
@@ -453,14 +486,15 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
     }
 
     public GoogleCacheOverlayItem closest(final Geopoint geopoint) {
-        if (cacheItems == null) {
+        final Collection<GoogleCacheOverlayItem> items = displayedItems;
+        if (items == null) {
             return null;
         }
-        final int size = cacheItems.size();
+        final int size = items.size();
         if (size == 0) {
             return null;
         }
-        final Iterator<GoogleCacheOverlayItem> it = cacheItems.iterator();
+        final Iterator<GoogleCacheOverlayItem> it = items.iterator();
         GoogleCacheOverlayItem closest = it.next();
         float closestDist = closest.getCoord().getCoords().distanceTo(geopoint);
         while (it.hasNext()) {
@@ -488,10 +522,66 @@ public class GoogleMapView extends MapView implements MapViewImpl<GoogleCacheOve
 
 
     public void redraw() {
-        if (cachesList == null || cacheItems == null) {
-            return;
+        try {
+            lock.lock();
+            if (cachesList == null || cacheItems == null) {
+                return;
+            }
+            if (!Settings.isMapClustering()) {
+                clusterer = null;
+                clusterZoom = -1;
+                clusters = Collections.emptyList();
+                displayedItems = cacheItems;
+                cachesList.redraw(cacheItems, clusters, showCircles);
+                return;
+            }
+
+            // only caches are clustered, waypoints are always shown
+            final Collection<GoogleCacheOverlayItem> singles = new ArrayList<>();
+            final Map<String, GoogleCacheOverlayItem> cachesByGeocode = new HashMap<>();
+            for (final GoogleCacheOverlayItem item : cacheItems) {
+                if (item.getCoord() instanceof Geocache) {
+                    cachesByGeocode.put(item.getCoord().getGeocode(), item);
+                } else {
+                    singles.add(item);
+                }
+            }
+            // reuse the clusters as long as the same caches are displayed
+            if (clusterer == null || !cachesByGeocode.keySet().equals(clustererGeocodes)) {
+                clusterer = new MarkerClusterer<>(cachesByGeocode.keySet(), geocode -> cachesByGeocode.get(geocode).getCoord().getCoords());
+                clustererGeocodes = new HashSet<>(cachesByGeocode.keySet());
+            }
+            clusterZoom = Math.min(getMapZoomLevel(), MarkerClusterer.MAX_CLUSTER_ZOOM);
+            final MarkerClusterer.Result<String> result = clusterer.getClusters(clusterZoom);
+            for (final String geocode : result.getSingles()) {
+                singles.add(cachesByGeocode.get(geocode));
+            }
+            clusters = result.getClusters();
+            displayedItems = singles;
+            cachesList.redraw(singles, clusters, showCircles);
+        } finally {
+            lock.unlock();
         }
-        cachesList.redraw(cacheItems, showCircles);
+    }
+
+    /**
+     * zoom in on a tapped cluster, so that it splits into its caches
+     *
+     * @return {@code true} if a cluster was hit
+     */
+    private boolean onClusterTap(final Point tapPoint) {
+        for (final MarkerClusterer.Cluster<String> cluster : clusters) {
+            final LatLng center = new LatLng(cluster.getCenter().getLatitude(), cluster.getCenter().getLongitude());
+            final Point clusterPoint = googleMap.getProjection().toScreenLocation(center);
+            final int radius = MapMarkerUtils.createClusterMarker(getResources(), cluster.size()).getIntrinsicWidth() / 2;
+            final int diffX = tapPoint.x - clusterPoint.x;
+            final int diffY = tapPoint.y - clusterPoint.y;
+            if (diffX * diffX + diffY * diffY <= radius * radius) {
+                googleMap.animateCamera(CameraUpdateFactory.newLatLngZoom(center, zoomLevel + 2));
+                return true;
+            }
+        }
+        return false;
     }
 
 
@@ -5,7 +5,9 @@ import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.location.WaypointDistanceInfo;
+import cgeo.geocaching.maps.MarkerClusterer;
 import cgeo.geocaching.maps.mapsforge.v6.MapHandlers;
+import cgeo.geocaching.maps.mapsforge.v6.MfMapView;
 import cgeo.geocaching.maps.mapsforge.v6.NewMap;
 import cgeo.geocaching.maps.mapsforge.v6.TapHandler;
 import cgeo.geocaching.models.Geocache;
@@ -14,12 +16,19 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MapMarkerUtils;
+import cgeo.geocaching.utils.PerformanceMetrics;
+
+import android.util.SparseArray;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.mapsforge.core.graphics.Bitmap;
@@ -31,6 +40,8 @@ import org.mapsforge.map.layer.Layers;
 
 public abstract class AbstractCachesOverlay {
 
+    private static final PerformanceMetrics.Timer UPDATE_TIMER = PerformanceMetrics.timer("map.overlay.update");
+
     private final int overlayId;
     private final Set<GeoEntry> geoEntries;
     private final WeakReference<CachesBundle> bundleRef;
@@ -42,6 +53,18 @@ public abstract class AbstractCachesOverlay {
     private boolean showCircles;
     private final WeakReference<NewMap> mapRef;
 
+    // clustering of dense caches, updated by the loading thread of this overlay
+    private final List<ClusterLayer> clusterLayers = new ArrayList<>();
+    private MarkerClusterer<String> clusterer;
+    private Set<String> clustererGeocodes = Collections.emptySet();
+    private MarkerClusterer.Result<String> displayedClusters;
+    private int clusterZoom = -1;
+    private volatile Collection<String> clusteredGeocodes = Collections.emptyList();
+    /**
+     * marker bitmaps of the displayed clusters by cluster size, shared by all clusters of the same size
+     */
+    private SparseArray<Bitmap> clusterBitmaps = new SparseArray<>();
+
     public AbstractCachesOverlay(final NewMap map, final int overlayId, final Set<GeoEntry> geoEntries, final CachesBundle bundle, final Layer anchorLayer, final MapHandlers mapHandlers) {
         this.overlayId = overlayId;
         this.geoEntries = geoEntries;
@@ -81,7 +104,7 @@ public abstract class AbstractCachesOverlay {
     }
 
     int getCachesCount() {
-        return layerList.getCacheCount();
+        return layerList.getCacheCount() + clusteredGeocodes.size();
     }
 
     @SuppressWarnings("unused")
@@ -96,6 +119,7 @@ public abstract class AbstractCachesOverlay {
     public void invalidate() {
         invalidated = true;
         showCircles = Settings.isShowCircles();
+        clustererGeocodes = Collections.emptySet();
     }
 
     public void invalidate(final Collection<String> invalidGeocodes) {
@@ -138,6 +162,110 @@ public abstract class AbstractCachesOverlay {
     }
 
     protected void update(final Set<Geocache> cachesToDisplay) {
+        final long start = System.nanoTime();
+        try {
+            if (Settings.isMapClustering()) {
+                final Map<String, Geocache> cachesByGeocode = new HashMap<>();
+                for (final Geocache cache : cachesToDisplay) {
+                    if (cache != null && cache.getCoords() != null && cache.getCoords().isValid()) {
+                        cachesByGeocode.put(cache.getGeocode(), cache);
+                    }
+                }
+                final MarkerClusterer.Result<String> clusters = getClusters(cachesByGeocode);
+                final Set<Geocache> singles = new HashSet<>();
+                for (final String geocode : clusters.getSingles()) {
+                    singles.add(cachesByGeocode.get(geocode));
+                }
+                updateInternal(singles);
+                syncClusters(clusters);
+            } else {
+                clusterer = null;
+                syncClusters(null);
+                updateInternal(cachesToDisplay);
+            }
+        } finally {
+            UPDATE_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * The clusterer is reused as long as the same caches are displayed, so that panning and zooming back and forth
+     * does not recompute the clusters.
+     */
+    private MarkerClusterer.Result<String> getClusters(final Map<String, Geocache> cachesByGeocode) {
+        if (clusterer == null || !cachesByGeocode.keySet().equals(clustererGeocodes)) {
+            clusterer = new MarkerClusterer<>(cachesByGeocode.keySet(), geocode -> cachesByGeocode.get(geocode).getCoords());
+            clustererGeocodes = new HashSet<>(cachesByGeocode.keySet());
+        }
+        clusterZoom = Math.min(getMapZoomLevel(), MarkerClusterer.MAX_CLUSTER_ZOOM);
+        return clusterer.getClusters(clusterZoom);
+    }
+
+    /**
+     * @return {@code true} if the clusters displayed by this overlay do not fit the current zoom level anymore
+     */
+    protected boolean isClusterZoomChanged() {
+        return clusterer != null && clusterZoom != Math.min(getMapZoomLevel(), MarkerClusterer.MAX_CLUSTER_ZOOM);
+    }
+
+    private void syncClusters(final MarkerClusterer.Result<String> clusters) {
+        if (clusters == displayedClusters) {
+            return;
+        }
+        final Layers layers = getLayers();
+        if (layers == null) {
+            return;
+        }
+        final List<ClusterLayer> newLayers = new ArrayList<>();
+        final List<String> newGeocodes = new ArrayList<>();
+        final SparseArray<Bitmap> newBitmaps = new SparseArray<>();
+        if (clusters != null) {
+            final MfMapView mapView = this.bundleRef.get().getMapView();
+            for (final MarkerClusterer.Cluster<String> cluster : clusters.getClusters()) {
+                final Geopoint center = cluster.getCenter();
+                final Bitmap marker = getClusterBitmap(cluster.size(), newBitmaps);
+                newLayers.add(new ClusterLayer(new LatLong(center.getLatitude(), center.getLongitude()), marker, mapView.getModel().mapViewPosition));
+                newGeocodes.addAll(cluster.getItems());
+            }
+        }
+        synchronized (this.bundleRef.get().getMapView()) {
+            for (final ClusterLayer layer : clusterLayers) {
+                layers.remove(layer);
+            }
+            clusterLayers.clear();
+            final int index = layers.indexOf(anchorLayer) + 1;
+            for (final ClusterLayer layer : newLayers) {
+                layers.add(index, layer);
+            }
+            clusterLayers.addAll(newLayers);
+        }
+        // the markers of the removed clusters are not drawn anymore, so bitmaps of sizes not shown now can be released
+        for (int i = 0; i < clusterBitmaps.size(); i++) {
+            if (newBitmaps.get(clusterBitmaps.keyAt(i)) == null) {
+                clusterBitmaps.valueAt(i).decrementRefCount();
+            }
+        }
+        clusterBitmaps = newBitmaps;
+        clusteredGeocodes = newGeocodes;
+        displayedClusters = clusters;
+    }
+
+    /**
+     * @return the marker bitmap of a cluster of this size, reusing the one of the displayed clusters if possible
+     */
+    private Bitmap getClusterBitmap(final int size, final SparseArray<Bitmap> newBitmaps) {
+        Bitmap bitmap = newBitmaps.get(size);
+        if (bitmap == null) {
+            bitmap = clusterBitmaps.get(size);
+            if (bitmap == null) {
+                bitmap = AndroidGraphicFactory.convertToBitmap(MapMarkerUtils.createClusterMarker(CgeoApplication.getInstance().getResources(), size));
+            }
+            newBitmaps.put(size, bitmap);
+        }
+        return bitmap;
+    }
+
+    private void updateInternal(final Set<Geocache> cachesToDisplay) {
 
         final Collection<String> removeCodes = getGeocodes();
         final Collection<String> newCodes = new HashSet<>();
@@ -150,7 +278,7 @@ public abstract class AbstractCachesOverlay {
             if (lastCompactIconMode != newCompactIconMode) {
                 // remove all codes from this layer and restart
                 syncLayers(removeCodes, newCodes);
-                update(cachesToDisplay);
+                updateInternal(cachesToDisplay);
                 return;
             }
 
@@ -237,8 +365,13 @@ public abstract class AbstractCachesOverlay {
         return layerList.getGeocodes();
     }
 
+    /**
+     * @return the geocodes of all caches displayed by this overlay, either as single marker or as part of a cluster
+     */
     protected Collection<String> getCacheGeocodes() {
-        return layerList.getCacheGeocodes();
+        final Collection<String> geocodes = layerList.getCacheGeocodes();
+        geocodes.addAll(clusteredGeocodes);
+        return geocodes;
     }
 
     protected Viewport getViewport() {
@@ -295,6 +428,7 @@ public abstract class AbstractCachesOverlay {
         }
 
         layerList.clear();
+        syncClusters(null);
 
         Log.d(String.format(Locale.ENGLISH, "Layers for id %d cleared, remaining geoEntries: %d", overlayId, geoEntries.size()));
     }
@@ -62,8 +62,8 @@ public class CachesOverlay extends AbstractCachesOverlay {
             }
             overlay.updating = true;
             try {
-                // Initially bring the main list in
-                if (overlay.firstRun || overlay.isInvalidated()) {
+                // Initially bring the main list in, clusters have to be rebuilt on zoom changes
+                if (overlay.firstRun || overlay.isInvalidated() || overlay.isClusterZoomChanged()) {
                     final Set<Geocache> cachesToDisplay = overlay.search.getCachesFromSearchResult(LoadFlags.LOAD_WAYPOINTS);
                     overlay.display(cachesToDisplay);
                     overlay.firstRun = false;
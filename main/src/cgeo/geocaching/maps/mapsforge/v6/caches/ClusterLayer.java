@@ -0,0 +1,33 @@
+package cgeo.geocaching.maps.mapsforge.v6.caches;
+
+import org.mapsforge.core.graphics.Bitmap;
+import org.mapsforge.core.model.LatLong;
+import org.mapsforge.core.model.MapPosition;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.map.layer.overlay.Marker;
+import org.mapsforge.map.model.IMapViewPosition;
+
+/**
+ * Marker for a cluster of caches. Tapping it zooms in on the cluster, so that it splits into its caches.
+ */
+public class ClusterLayer extends Marker {
+
+    private static final int ZOOM_STEP = 2;
+
+    private final IMapViewPosition mapViewPosition;
+
+    public ClusterLayer(final LatLong latLong, final Bitmap bitmap, final IMapViewPosition mapViewPosition) {
+        super(latLong, bitmap, 0, 0);
+        this.mapViewPosition = mapViewPosition;
+    }
+
+    @Override
+    public boolean onTap(final LatLong tapLatLong, final Point layerXY, final Point tapXY) {
+        if (!contains(layerXY, tapXY)) {
+            return false;
+        }
+        final int zoom = Math.min(mapViewPosition.getZoomLevel() + ZOOM_STEP, mapViewPosition.getZoomLevelMax());
+        mapViewPosition.setMapPosition(new MapPosition(getLatLong(), (byte) zoom));
+        return true;
+    }
+}
@@ -27,6 +27,7 @@ public class Download {
     private final boolean isDir;
     private final long dateInfo;
     private final String sizeInfo;
+    private long size = -1;
     private String addInfo;
     private final DownloadType type;
 
@@ -64,6 +65,15 @@ public class Download {
         return sizeInfo;
     }
 
+    /** size in bytes, -1 if unknown */
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(final long size) {
+        this.size = size;
+    }
+
     public void setAddInfo(final String addInfo) {
         this.addInfo = addInfo;
     }
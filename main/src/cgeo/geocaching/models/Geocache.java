@@ -11,6 +11,7 @@ import cgeo.geocaching.connector.capability.IFavoriteCapability;
 import cgeo.geocaching.connector.capability.ILogin;
 import cgeo.geocaching.connector.capability.ISearchByCenter;
 import cgeo.geocaching.connector.capability.ISearchByGeocode;
+import cgeo.geocaching.connector.capability.ISearchByGeocodes;
 import cgeo.geocaching.connector.capability.WatchListCapability;
 import cgeo.geocaching.connector.gc.GCConnector;
 import cgeo.geocaching.connector.gc.GCConstants;
@@ -70,6 +71,7 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -1831,59 +1833,112 @@ public class Geocache implements IWaypoint {
                 return;
             }
 
-            final HtmlImage imgGetter = new HtmlImage(cache.getGeocode(), false, true, forceRedownload);
-
-            // store images from description
-            if (StringUtils.isNotBlank(cache.getDescription())) {
-                HtmlCompat.fromHtml(cache.getDescription(), HtmlCompat.FROM_HTML_MODE_LEGACY, imgGetter, null);
+            if (!storeImages(cache, forceRedownload, handler)) {
+                return;
             }
 
+            cache.setLists(lists);
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+
             if (DisposableHandler.isDisposed(handler)) {
                 return;
             }
 
-            // store spoilers
-            if (CollectionUtils.isNotEmpty(cache.getSpoilers())) {
-                for (final Image oneSpoiler : cache.getSpoilers()) {
-                    imgGetter.getDrawable(oneSpoiler.getUrl());
-                }
+            if (handler != null) {
+                handler.sendEmptyMessage(DisposableHandler.DONE);
             }
+        } catch (final Exception e) {
+            Log.e("Geocache.storeCache", e);
+        }
+    }
 
+    /**
+     * Refresh several caches of a connector which can download them together, and save them in one step.
+     *
+     * @param origCaches
+     *            the caches to refresh, at most {@link ISearchByGeocodes#getMaxGeocodesPerSearch()} should be given
+     * @param additionalListIds
+     *            lists to store the caches in, in addition to the lists they are already stored in
+     */
+    public static void storeCaches(@NonNull final ISearchByGeocodes connector, @NonNull final Collection<Geocache> origCaches, @NonNull final Set<Integer> additionalListIds, @Nullable final DisposableHandler handler) {
+        try {
+            final Map<String, Geocache> origByGeocode = new HashMap<>();
+            for (final Geocache origCache : origCaches) {
+                origByGeocode.put(origCache.getGeocode(), origCache);
+            }
+            final Map<String, List<LogEntry>> logsByGeocode = new HashMap<>();
+            final List<Geocache> caches = connector.searchByGeocodes(origByGeocode.keySet(), logsByGeocode);
             if (DisposableHandler.isDisposed(handler)) {
                 return;
             }
 
-            // store images from logs
-            if (Settings.isStoreLogImages()) {
-                for (final LogEntry log : cache.getLogs()) {
-                    if (log.hasLogImages()) {
-                        for (final Image oneLogImg : log.getLogImages()) {
-                            imgGetter.getDrawable(oneLogImg.getUrl());
-                        }
-                    }
+            for (final Geocache cache : caches) {
+                final Geocache origCache = origByGeocode.get(cache.getGeocode());
+                final Set<Integer> combinedListIds = new HashSet<>(additionalListIds);
+                if (origCache != null) {
+                    combinedListIds.addAll(origCache.getLists());
                 }
+                cache.setLists(combinedListIds);
             }
+            DataStore.saveCaches(caches, EnumSet.of(SaveFlag.DB), logsByGeocode);
 
-            if (DisposableHandler.isDisposed(handler)) {
-                return;
+            // the logs are only available after saving
+            for (final Geocache cache : caches) {
+                if (DisposableHandler.isDisposed(handler) || !storeImages(cache, true, handler)) {
+                    return;
+                }
             }
+        } catch (final Exception e) {
+            Log.e("Geocache.storeCaches", e);
+        }
+    }
 
-            // Need to wait for images loading since HtmlImage.getDrawable is non-blocking here
-            imgGetter.waitForEndCompletable(null).blockingAwait();
+    /**
+     * store the images of the description, spoilers and logs (if wanted) of the cache for offline use
+     *
+     * @return {@code false} if the handler was disposed before all images were stored
+     */
+    private static boolean storeImages(@NonNull final Geocache cache, final boolean forceRedownload, @Nullable final DisposableHandler handler) {
+        final HtmlImage imgGetter = new HtmlImage(cache.getGeocode(), false, true, forceRedownload);
 
-            cache.setLists(lists);
-            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+        // store images from description
+        if (StringUtils.isNotBlank(cache.getDescription())) {
+            HtmlCompat.fromHtml(cache.getDescription(), HtmlCompat.FROM_HTML_MODE_LEGACY, imgGetter, null);
+        }
 
-            if (DisposableHandler.isDisposed(handler)) {
-                return;
+        if (DisposableHandler.isDisposed(handler)) {
+            return false;
+        }
+
+        // store spoilers
+        if (CollectionUtils.isNotEmpty(cache.getSpoilers())) {
+            for (final Image oneSpoiler : cache.getSpoilers()) {
+                imgGetter.getDrawable(oneSpoiler.getUrl());
             }
+        }
 
-            if (handler != null) {
-                handler.sendEmptyMessage(DisposableHandler.DONE);
+        if (DisposableHandler.isDisposed(handler)) {
+            return false;
+        }
+
+        // store images from logs
+        if (Settings.isStoreLogImages()) {
+            for (final LogEntry log : cache.getLogs()) {
+                if (log.hasLogImages()) {
+                    for (final Image oneLogImg : log.getLogImages()) {
+                        imgGetter.getDrawable(oneLogImg.getUrl());
+                    }
+                }
             }
-        } catch (final Exception e) {
-            Log.e("Geocache.storeCache", e);
         }
+
+        if (DisposableHandler.isDisposed(handler)) {
+            return false;
+        }
+
+        // Need to wait for images loading since HtmlImage.getDrawable is non-blocking here
+        imgGetter.waitForEndCompletable(null).blockingAwait();
+        return true;
     }
 
     public static SearchResult searchByGeocode(final String geocode, final String guid, final boolean forceReload, final DisposableHandler handler) {
@@ -72,6 +72,11 @@ public final class Network {
 
     private static final OkHttpClient OK_HTTP_CLIENT = getNewHttpClient();
 
+    /** the client used for all requests, for callers which need to stream a response themselves */
+    public static OkHttpClient getHttpClient() {
+        return OK_HTTP_CLIENT;
+    }
+
     private static OkHttpClient getNewHttpClient() {
         final OkHttpClient.Builder client = new OkHttpClient.Builder()
                 .connectTimeout(30, TimeUnit.SECONDS)
@@ -71,6 +71,13 @@ public class DirectionData {
         );
     }
 
+    /**
+     * Returns a copy with another direction, keeping the raw orientation values
+     */
+    public DirectionData withDirection(final float newDirection) {
+        return new DirectionData(newDirection, deviceOrientation, azimuth, pitch, roll);
+    }
+
     /**
      * Returns corrected direction in degree! (0 - 360)
      */
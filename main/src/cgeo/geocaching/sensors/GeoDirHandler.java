@@ -29,6 +29,10 @@ public abstract class GeoDirHandler {
     public static final int UPDATE_DIRECTION = 1 << 1;
     public static final int UPDATE_GEODIR = 1 << 2;
     public static final int LOW_POWER = 1 << 3;
+    /**
+     * The data is not displayed, so the direction sensors can be sampled at a low rate.
+     */
+    public static final int BACKGROUND = 1 << 4;
 
     /**
      * Update method called when new geodata is available. This method is called on the UI thread.
@@ -71,14 +75,27 @@ public abstract class GeoDirHandler {
     }
 
 
-    private static <T> Flowable<T> throttleIfNeeded(final Observable<T> observable, final long windowDuration, final TimeUnit unit) {
-        return (windowDuration > 0 ? observable.throttleFirst(windowDuration, unit) : observable).toFlowable(BackpressureStrategy.LATEST);
+    /**
+     * Throttle before moving to the UI thread, so that values which are dropped anyway are never posted to it.
+     */
+    private static <T> Flowable<T> throttleOnMainThread(final Observable<T> observable, final long windowDuration, final TimeUnit unit) {
+        return (windowDuration > 0 ? observable.throttleFirst(windowDuration, unit) : observable).observeOn(AndroidSchedulers.mainThread()).toFlowable(BackpressureStrategy.LATEST);
+    }
+
+    private static int getSamplingPeriodUs(final int flags, final long windowDuration, final TimeUnit unit) {
+        if ((flags & BACKGROUND) != 0) {
+            return Sensors.SAMPLING_PERIOD_BACKGROUND_US;
+        }
+        if (windowDuration > 0) {
+            return (int) Math.max(Sensors.SAMPLING_PERIOD_VISIBLE_US, Math.min(Sensors.SAMPLING_PERIOD_BACKGROUND_US, unit.toMicros(windowDuration)));
+        }
+        return Sensors.SAMPLING_PERIOD_VISIBLE_US;
     }
 
     /**
      * Register the current GeoDirHandler for GeoData and direction information (if the preferences allow it).
      *
-     * @param flags a combination of UPDATE_GEODATA, UPDATE_DIRECTION, UPDATE_GEODIR, and LOW_POWER
+     * @param flags a combination of UPDATE_GEODATA, UPDATE_DIRECTION, UPDATE_GEODIR, LOW_POWER and BACKGROUND
      * @return a disposable which can be used to stop the handler
      */
     public Disposable start(final int flags) {
@@ -88,7 +105,7 @@ public abstract class GeoDirHandler {
     /**
      * Register the current GeoDirHandler for GeoData and direction information (if the preferences allow it).
      *
-     * @param flags a combination of UPDATE_GEODATA, UPDATE_DIRECTION, UPDATE_GEODIR, and LOW_POWER
+     * @param flags a combination of UPDATE_GEODATA, UPDATE_DIRECTION, UPDATE_GEODIR, LOW_POWER and BACKGROUND
      * @param windowDuration if greater than 0, the size of the window duration during which no new value will be presented
      * @param unit the unit for the windowDuration
      * @return a disposable which can be used to stop the handler
@@ -98,15 +115,18 @@ public abstract class GeoDirHandler {
         final boolean lowPower = (flags & LOW_POWER) != 0;
         final Sensors sensors = Sensors.getInstance();
 
+        if ((flags & (UPDATE_DIRECTION | UPDATE_GEODIR)) != 0) {
+            disposables.add(sensors.requestDirectionSamplingPeriod(getSamplingPeriodUs(flags, windowDuration, unit)));
+        }
         if ((flags & UPDATE_GEODATA) != 0) {
-            disposables.add(throttleIfNeeded(sensors.geoDataObservable(lowPower).observeOn(AndroidSchedulers.mainThread()), windowDuration, unit).subscribe(this::updateGeoData));
+            disposables.add(throttleOnMainThread(sensors.geoDataObservable(lowPower), windowDuration, unit).subscribe(this::updateGeoData));
         }
         if ((flags & UPDATE_DIRECTION) != 0) {
-            disposables.add(throttleIfNeeded(sensors.directionDataObservable().observeOn(AndroidSchedulers.mainThread()), windowDuration, unit).subscribe(this::updateDirectionData));
+            disposables.add(throttleOnMainThread(sensors.directionDataObservable(), windowDuration, unit).subscribe(this::updateDirectionData));
         }
         if ((flags & UPDATE_GEODIR) != 0) {
             // combineOnLatest() does not implement backpressure handling, so we need to explicitly use a backpressure operator there.
-            disposables.add(throttleIfNeeded(Observable.combineLatest(sensors.geoDataObservable(lowPower), sensors.directionDataObservable(), ImmutablePair::of).observeOn(AndroidSchedulers.mainThread()), windowDuration, unit).subscribe(geoDir -> updateGeoDirData(geoDir.left, geoDir.right)));
+            disposables.add(throttleOnMainThread(Observable.combineLatest(sensors.geoDataObservable(lowPower), sensors.directionDataObservable(), ImmutablePair::of), windowDuration, unit).subscribe(geoDir -> updateGeoDirData(geoDir.left, geoDir.right)));
         }
         return disposables;
     }
@@ -0,0 +1,60 @@
+package cgeo.geocaching.sensors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Low pass filter for a heading in degrees, smoothing the jitter of the magnetic sensors.
+ * <p/>
+ * The heading is averaged as a unit vector, so that values around north (e.g. 359° and 1°) are averaged correctly.
+ * The weight of a new value depends on the time since the previous one, so the amount of smoothing does not change
+ * with the sampling rate. Instances are not thread safe.
+ */
+public class HeadingFilter {
+
+    /**
+     * after this time without values the filter starts again from the next value
+     */
+    private static final long RESET_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final double timeConstantNanos;
+    private double x;
+    private double y;
+    private long lastTimestamp;
+    private boolean initialized = false;
+
+    /**
+     * @param timeConstantMillis
+     *            the time after which about 63% of a change of heading is shown
+     */
+    public HeadingFilter(final long timeConstantMillis) {
+        timeConstantNanos = TimeUnit.MILLISECONDS.toNanos(timeConstantMillis);
+    }
+
+    /**
+     * @param heading
+     *            the measured heading in degrees
+     * @param timestampNanos
+     *            the time of the measurement, e.g. {@link System#nanoTime()}
+     * @return the smoothed heading in degrees (0 - 360)
+     */
+    public float filter(final float heading, final long timestampNanos) {
+        final double radians = Math.toRadians(heading);
+        final long elapsed = timestampNanos - lastTimestamp;
+        lastTimestamp = timestampNanos;
+        if (!initialized || elapsed < 0 || elapsed > RESET_NANOS) {
+            initialized = true;
+            x = Math.cos(radians);
+            y = Math.sin(radians);
+        } else {
+            final double alpha = elapsed / (timeConstantNanos + elapsed);
+            x += alpha * (Math.cos(radians) - x);
+            y += alpha * (Math.sin(radians) - y);
+        }
+        final double result = Math.toDegrees(Math.atan2(y, x));
+        return (float) (result < 0 ? result + 360 : result);
+    }
+
+    public void reset() {
+        initialized = false;
+    }
+}
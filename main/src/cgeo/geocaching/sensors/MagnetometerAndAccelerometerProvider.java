@@ -20,7 +20,7 @@ public class MagnetometerAndAccelerometerProvider {
         // Utility class, not to be instantiated
     }
 
-    public static Observable<DirectionData> create(final Context context) {
+    public static Observable<DirectionData> create(final Context context, final int samplingPeriodUs) {
 
         final SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
         final Sensor accelerometerSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
@@ -67,8 +67,8 @@ public class MagnetometerAndAccelerometerProvider {
                     }
                 };
                 Log.d("MagnetometerAndAccelerometerProvider: registering listener");
-                sensorManager.registerListener(listener, accelerometerSensor, SensorManager.SENSOR_DELAY_NORMAL);
-                sensorManager.registerListener(listener, magnetometerSensor, SensorManager.SENSOR_DELAY_NORMAL);
+                sensorManager.registerListener(listener, accelerometerSensor, samplingPeriodUs);
+                sensorManager.registerListener(listener, magnetometerSensor, samplingPeriodUs);
                 emitter.setDisposable(AndroidRxUtils.disposeOnCallbacksScheduler(() -> {
                     Log.d("MagnetometerAndAccelerometerProvider: unregistering listener");
                     sensorManager.unregisterListener(listener, accelerometerSensor);
@@ -27,7 +27,7 @@ public class OrientationProvider {
     }
 
     @SuppressWarnings("deprecation")
-    public static Observable<DirectionData> create(final Context context) {
+    public static Observable<DirectionData> create(final Context context, final int samplingPeriodUs) {
         final SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
         final Sensor orientationSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ORIENTATION);
         if (orientationSensor == null) {
@@ -51,7 +51,7 @@ public class OrientationProvider {
                 }
             };
             Log.d("OrientationProvider: registering listener");
-            sensorManager.registerListener(listener, orientationSensor, SensorManager.SENSOR_DELAY_NORMAL);
+            sensorManager.registerListener(listener, orientationSensor, samplingPeriodUs);
             emitter.setDisposable(AndroidRxUtils.disposeOnCallbacksScheduler(() -> {
                 Log.d("OrientationProvider: unregistering listener");
                 sensorManager.unregisterListener(listener, orientationSensor);
@@ -30,7 +30,7 @@ public class RotationProvider {
         // Utility class, not to be instantiated
     }
 
-    public static Observable<DirectionData> create(final Context context) {
+    public static Observable<DirectionData> create(final Context context, final int samplingPeriodUs) {
         final SensorManager sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
         final Sensor rotationSensor = sensorManager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
         if (rotationSensor == null) {
@@ -71,7 +71,7 @@ public class RotationProvider {
 
             };
             Log.d("RotationProvider: registering listener");
-            sensorManager.registerListener(listener, rotationSensor, SensorManager.SENSOR_DELAY_NORMAL);
+            sensorManager.registerListener(listener, rotationSensor, samplingPeriodUs);
             emitter.setDisposable(AndroidRxUtils.disposeOnCallbacksScheduler(() -> {
                 Log.d("RotationProvider: unregistering listener");
                 sensorManager.unregisterListener(listener, rotationSensor);
@@ -4,6 +4,7 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.playservices.LocationProvider;
 import cgeo.geocaching.sensors.GnssStatusProvider.Status;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.AngleUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.RxUtils;
@@ -13,15 +14,29 @@ import android.content.Context;
 
 import androidx.annotation.NonNull;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
 
 public class Sensors {
 
+    /**
+     * sampling period of the direction sensors while the direction is displayed (about 15 values per second)
+     */
+    public static final int SAMPLING_PERIOD_VISIBLE_US = 66_000;
+    /**
+     * sampling period of the direction sensors while the direction is not displayed
+     */
+    public static final int SAMPLING_PERIOD_BACKGROUND_US = 500_000;
+    private static final long HEADING_TIME_CONSTANT_MILLIS = 250;
+
     private Observable<GeoData> geoDataObservable;
     private Observable<GeoData> geoDataObservableLowPower;
     private Observable<DirectionData> directionDataObservable;
@@ -30,6 +45,10 @@ public class Sensors {
     private volatile DirectionData currentDirection = DirectionData.EMPTY;
     private final boolean hasCompassCapabilities;
 
+    // guarded by itself
+    private final List<Integer> requestedSamplingPeriods = new ArrayList<>();
+    private final BehaviorSubject<Integer> samplingPeriod = BehaviorSubject.createDefault(SAMPLING_PERIOD_BACKGROUND_US);
+
     private static class InstanceHolder {
         static final Sensors INSTANCE = new Sensors();
     }
@@ -94,16 +113,23 @@ public class Sensors {
         // On some devices, the orientation sensor (Xperia and S4 running Lollipop) seems to have been deprecated for real.
         // Use the rotation sensor if it is available unless the orientatation sensor is forced by the user.
         // After updating Moto G there is no rotation sensor anymore. Use magnetic field and accelerometer instead.
-        final Observable<DirectionData> sensorDirectionObservable;
         final Application application = CgeoApplication.getInstance();
+        final Function<Integer, Observable<DirectionData>> sensorDirectionFactory;
         if (Settings.useOrientationSensor(application)) {
-            sensorDirectionObservable = OrientationProvider.create(application);
+            sensorDirectionFactory = period -> OrientationProvider.create(application, period);
         } else if (RotationProvider.hasRotationSensor(application)) {
-            sensorDirectionObservable = RotationProvider.create(application);
+            sensorDirectionFactory = period -> RotationProvider.create(application, period);
         } else {
-            sensorDirectionObservable = MagnetometerAndAccelerometerProvider.create(application);
+            sensorDirectionFactory = period -> MagnetometerAndAccelerometerProvider.create(application, period);
         }
 
+        // The sensors are registered again whenever the requested sampling period changes. Their values are smoothed
+        // on a dedicated thread, so that neither the sensor callbacks nor the UI thread are loaded with it.
+        final HeadingFilter headingFilter = new HeadingFilter(HEADING_TIME_CONSTANT_MILLIS);
+        final Observable<DirectionData> sensorDirectionObservable = samplingPeriod.distinctUntilChanged().switchMap(sensorDirectionFactory)
+                .observeOn(AndroidRxUtils.sensorFusionScheduler)
+                .map(dirData -> dirData.withDirection(headingFilter.filter(dirData.getDirection(), System.nanoTime())));
+
         final Observable<DirectionData> magneticDirectionObservable = sensorDirectionObservable.onErrorResumeNext((Function<Throwable, Observable<DirectionData>>) throwable -> {
             Log.e("Device orientation is not available due to sensors error, disabling compass", throwable);
             Settings.setUseCompass(false);
@@ -126,6 +152,36 @@ public class Sensors {
         directionDataObservable = RxUtils.rememberLast(Observable.merge(magneticDirectionObservable, directionFromGpsObservable).doOnNext(onNextrememberDirectionAction), DirectionData.EMPTY);
     }
 
+    /**
+     * Request a sampling period of the direction sensors. The shortest period requested is used.
+     *
+     * @param periodUs the period in microseconds
+     * @return a disposable which withdraws the request
+     */
+    public Disposable requestDirectionSamplingPeriod(final int periodUs) {
+        synchronized (requestedSamplingPeriods) {
+            requestedSamplingPeriods.add(periodUs);
+            updateSamplingPeriod();
+        }
+        return Disposable.fromRunnable(() -> {
+            synchronized (requestedSamplingPeriods) {
+                requestedSamplingPeriods.remove(Integer.valueOf(periodUs));
+                updateSamplingPeriod();
+            }
+        });
+    }
+
+    /**
+     * must be called holding the lock of requestedSamplingPeriods
+     */
+    private void updateSamplingPeriod() {
+        int period = SAMPLING_PERIOD_BACKGROUND_US;
+        for (final int requested : requestedSamplingPeriods) {
+            period = Math.min(period, requested);
+        }
+        samplingPeriod.onNext(period);
+    }
+
     public Observable<GeoData> geoDataObservable(final boolean lowPower) {
         return lowPower ? geoDataObservableLowPower : geoDataObservable;
     }
@@ -1289,6 +1289,14 @@ public class Settings {
         putBoolean(R.string.pref_includefoundstatus, includeFoundStatus);
     }
 
+    public static boolean getGpxExportZip() {
+        return getBoolean(R.string.pref_gpxexportzip, false);
+    }
+
+    public static void setGpxExportZip(final boolean gpxExportZip) {
+        putBoolean(R.string.pref_gpxexportzip, gpxExportZip);
+    }
+
     public static boolean getClearTrailAfterExportStatus() {
         return getBoolean(R.string.pref_cleartrailafterexportstatus, false);
     }
@@ -1409,6 +1417,14 @@ public class Settings {
         return getBoolean(R.string.pref_showCircles, false);
     }
 
+    public static void setMapClustering(final boolean mapClustering) {
+        putBoolean(R.string.pref_mapClustering, mapClustering);
+    }
+
+    public static boolean isMapClustering() {
+        return getBoolean(R.string.pref_mapClustering, false);
+    }
+
     public static void setSupersizeDistance(final int supersizeDistance) {
         putInt(R.string.pref_supersizeDistance, supersizeDistance);
     }
@@ -512,6 +512,10 @@ public class SettingsActivity extends PreferenceActivity implements Preference.O
             DebugUtils.createLogcat(SettingsActivity.this);
             return true;
         });
+        getPreference(R.string.pref_performance_metrics).setOnPreferenceClickListener(preference -> {
+            DebugUtils.showPerformanceMetrics(SettingsActivity.this);
+            return true;
+        });
         getPreference(R.string.pref_view_settings).setOnPreferenceClickListener(preference -> {
             startActivity(new Intent(this, ViewSettingsActivity.class));
             return true;
@@ -4,6 +4,9 @@ import cgeo.geocaching.connector.gc.GCConstants;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -18,17 +21,20 @@ abstract class AbstractCacheComparator implements CacheComparator {
             final boolean canCompare1 = canCompare(cache1);
             final boolean canCompare2 = canCompare(cache2);
             if (!canCompare1) {
-                return canCompare2 ? 1 : fallbackToGeocode(cache1, cache2);
+                return canCompare2 ? 1 : compareGeocodes(cache1, cache2);
             }
             return canCompare2 ? compareCaches(cache1, cache2) : -1;
         } catch (final Exception e) {
             Log.e("AbstractCacheComparator.compare", e);
             // This may violate the Comparator interface if the exception is not systematic.
-            return fallbackToGeocode(cache1, cache2);
+            return compareGeocodes(cache1, cache2);
         }
     }
 
-    private static int fallbackToGeocode(final Geocache cache1, final Geocache cache2) {
+    /**
+     * Compares caches by the prefix and the id of their geocode. Caches which cannot be compared are sorted this way.
+     */
+    static int compareGeocodes(final Geocache cache1, final Geocache cache2) {
         final int comparePrefix = StringUtils.compareIgnoreCase(StringUtils.substring(cache1.getGeocode(), 0, 2), StringUtils.substring(cache2.getGeocode(), 0, 2));
         if (comparePrefix == 0) {
             return (int) (GCConstants.gccodeToGCId(cache1.getGeocode())
@@ -63,6 +69,44 @@ abstract class AbstractCacheComparator implements CacheComparator {
      */
     protected abstract int compareCaches(Geocache cache1, Geocache cache2);
 
+    /**
+     * Creates the sort keys {@link CacheSorter} can extract per cache instead of calling
+     * {@link #compareCaches(Geocache, Geocache)} for each pair of caches. This is called once per sort.
+     * <p/>
+     * The default implementation returns {@code null}, meaning that the order can only be determined by comparing caches.
+     */
+    @Nullable
+    protected SortKeys getSortKeys() {
+        return null;
+    }
+
+    /**
+     * Sort keys giving the same order as {@link #compareGeocodes(Geocache, Geocache)}.
+     */
+    @NonNull
+    static SortKeys getGeocodeSortKeys() {
+        return SortKeys.numeric(cache -> getGeocodePrefixKey(cache.getGeocode()), cache -> GCConstants.gccodeToGCId(cache.getGeocode()));
+    }
+
+    /**
+     * Key for the case insensitive order of the first two characters of the geocode. Shorter prefixes are sorted first.
+     */
+    private static double getGeocodePrefixKey(@Nullable final String geocode) {
+        if (geocode == null) {
+            return -1;
+        }
+        final int first = geocode.length() > 0 ? foldCase(geocode.charAt(0)) : -1;
+        final int second = geocode.length() > 1 ? foldCase(geocode.charAt(1)) : -1;
+        return (first + 1) * (double) (Character.MAX_VALUE + 2) + (second + 1);
+    }
+
+    /**
+     * same case folding as {@link String#compareToIgnoreCase(String)}
+     */
+    private static int foldCase(final char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
     @Override
     public boolean isAutoManaged() {
         return false;
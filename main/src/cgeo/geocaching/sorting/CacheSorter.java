@@ -0,0 +1,231 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.utils.Log;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.CollationKey;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorts lists of caches using sort keys which are extracted only once per cache.
+ * <p/>
+ * Comparators derived from {@link AbstractCacheComparator} can provide numeric or {@link CollationKey} {@link SortKeys}. Those
+ * keys are turned into dense integer ranks, which are then sorted as primitive {@code long} values (rank and position
+ * packed together) level by level, starting with the least significant one. As every pass is stable, the result is
+ * identical to a stable sort using the comparator (or an {@link InverseComparator} wrapping it). Large lists are sorted
+ * in parallel where the platform supports it.
+ * <p/>
+ * Comparators without sort keys are sorted with {@link Collections#sort(List, java.util.Comparator)} as before.
+ */
+public final class CacheSorter {
+
+    /**
+     * minimum number of caches for using a parallel sort
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 10000;
+
+    private CacheSorter() {
+        // utility class
+    }
+
+    public static void sort(@NonNull final List<Geocache> list, @NonNull final CacheComparator comparator, final boolean inverse) {
+        if (list.size() < 2) {
+            return;
+        }
+        final SortKeys sortKeys = comparator instanceof AbstractCacheComparator ? ((AbstractCacheComparator) comparator).getSortKeys() : null;
+        if (sortKeys == null) {
+            Collections.sort(list, inverse ? new InverseComparator(comparator) : comparator);
+            return;
+        }
+        final Geocache[] caches = list.toArray(new Geocache[list.size()]);
+        final int[] order = getSortedIndices((AbstractCacheComparator) comparator, sortKeys, caches, inverse);
+        for (int i = 0; i < caches.length; i++) {
+            list.set(i, caches[order[i]]);
+        }
+    }
+
+    @NonNull
+    private static int[] getSortedIndices(@NonNull final AbstractCacheComparator comparator, @NonNull final SortKeys sortKeys, @NonNull final Geocache[] caches, final boolean inverse) {
+        final int size = caches.length;
+        final int levels = sortKeys.getLevels();
+        final boolean collation = sortKeys.isText();
+        final double[][] keys = collation ? null : new double[levels][size];
+        final CollationKey[] collationKeys = collation ? new CollationKey[size] : null;
+        final boolean[] comparable = new boolean[size];
+        int fallbackCount = 0;
+
+        for (int i = 0; i < size; i++) {
+            comparable[i] = extractKeys(comparator, sortKeys, caches[i], i, keys, collationKeys);
+            if (!comparable[i]) {
+                fallbackCount++;
+            }
+        }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        // least significant level first: caches which cannot be compared are sorted by geocode
+        if (fallbackCount > 0) {
+            final SortKeys geocodeKeys = AbstractCacheComparator.getGeocodeSortKeys();
+            final double[][] fallbackKeys = new double[geocodeKeys.getLevels()][size];
+            for (int i = 0; i < size; i++) {
+                if (!comparable[i]) {
+                    for (int level = 0; level < fallbackKeys.length; level++) {
+                        fallbackKeys[level][i] = geocodeKeys.getKey(caches[i], level);
+                    }
+                }
+            }
+            for (int level = fallbackKeys.length - 1; level >= 0; level--) {
+                order = sortByRank(order, getRanks(fallbackKeys[level]), inverse);
+            }
+        }
+        if (fallbackCount < size) {
+            if (collation) {
+                order = sortByRank(order, getRanks(collationKeys), inverse);
+            } else {
+                for (int level = levels - 1; level >= 0; level--) {
+                    order = sortByRank(order, getRanks(keys[level]), inverse);
+                }
+            }
+        }
+        // most significant level: comparable caches before all others
+        if (fallbackCount > 0 && fallbackCount < size) {
+            final int[] groups = new int[size];
+            for (int i = 0; i < size; i++) {
+                groups[i] = comparable[i] ? 0 : 1;
+            }
+            order = sortByRank(order, groups, inverse);
+        }
+        return order;
+    }
+
+    /**
+     * @return {@code false} if the cache cannot be compared and must be sorted by geocode instead
+     */
+    private static boolean extractKeys(@NonNull final AbstractCacheComparator comparator, @NonNull final SortKeys sortKeys, @NonNull final Geocache cache, final int index, @Nullable final double[][] keys, @Nullable final CollationKey[] collationKeys) {
+        try {
+            if (!comparator.canCompare(cache)) {
+                return false;
+            }
+            if (collationKeys != null) {
+                collationKeys[index] = sortKeys.getTextKey(cache);
+            } else if (keys != null) {
+                for (int level = 0; level < keys.length; level++) {
+                    keys[level][index] = sortKeys.getKey(cache, level);
+                }
+            }
+            return true;
+        } catch (final Exception e) {
+            Log.e("CacheSorter.extractKeys", e);
+            return false;
+        }
+    }
+
+    /**
+     * stable sort of the given order by the ranks of its elements
+     *
+     * @return the new order
+     */
+    @NonNull
+    private static int[] sortByRank(@NonNull final int[] order, @NonNull final int[] ranks, final boolean inverse) {
+        final int size = order.length;
+        int maxRank = 0;
+        if (inverse) {
+            for (final int rank : ranks) {
+                maxRank = Math.max(maxRank, rank);
+            }
+        }
+        final long[] packed = new long[size];
+        for (int position = 0; position < size; position++) {
+            final int rank = ranks[order[position]];
+            packed[position] = ((long) (inverse ? maxRank - rank : rank) << 32) | position;
+        }
+        sort(packed);
+        final int[] result = new int[size];
+        for (int position = 0; position < size; position++) {
+            result[position] = order[(int) packed[position]];
+        }
+        return result;
+    }
+
+    /**
+     * @return dense ranks (0 for the smallest value, equal values have equal ranks) in the order of
+     *         {@link Double#compare(double, double)}
+     */
+    @NonNull
+    private static int[] getRanks(@NonNull final double[] values) {
+        final double[] sorted = values.clone();
+        sort(sorted);
+        int distinct = 0;
+        for (final double value : sorted) {
+            if (distinct == 0 || Double.compare(sorted[distinct - 1], value) != 0) {
+                sorted[distinct++] = value;
+            }
+        }
+        final int[] ranks = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            ranks[i] = Arrays.binarySearch(sorted, 0, distinct, values[i]);
+        }
+        return ranks;
+    }
+
+    /**
+     * @return dense ranks of the collation keys, {@code null} keys (of caches which cannot be compared) get rank 0
+     */
+    @NonNull
+    private static int[] getRanks(@NonNull final CollationKey[] keys) {
+        final CollationKey[] sorted = new CollationKey[keys.length];
+        int count = 0;
+        for (final CollationKey key : keys) {
+            if (key != null) {
+                sorted[count++] = key;
+            }
+        }
+        sort(sorted, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || sorted[distinct - 1].compareTo(sorted[i]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        final int[] ranks = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranks[i] = keys[i] == null ? 0 : Arrays.binarySearch(sorted, 0, distinct, keys[i]);
+        }
+        return ranks;
+    }
+
+    private static void sort(@NonNull final long[] values) {
+        if (values.length >= PARALLEL_SORT_THRESHOLD && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+    }
+
+    private static void sort(@NonNull final double[] values) {
+        if (values.length >= PARALLEL_SORT_THRESHOLD && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            Arrays.parallelSort(values);
+        } else {
+            Arrays.sort(values);
+        }
+    }
+
+    private static void sort(@NonNull final CollationKey[] values, final int count) {
+        if (count >= PARALLEL_SORT_THRESHOLD && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            Arrays.parallelSort(values, 0, count);
+        } else {
+            Arrays.sort(values, 0, count);
+        }
+    }
+
+}
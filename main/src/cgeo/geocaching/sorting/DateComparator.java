@@ -1,5 +1,6 @@
 package cgeo.geocaching.sorting;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.sensors.Sensors;
 import cgeo.geocaching.utils.CalendarUtils;
@@ -42,6 +43,28 @@ class DateComparator extends AbstractCacheComparator {
         return distanceComparator.compare(cache1, cache2);
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        final SortKeys.NumericKey sameDateKey = getSameDateSortKey();
+        return SortKeys.numeric(cache -> {
+            final Date date = cache.getHiddenDate();
+            return date == null ? Double.POSITIVE_INFINITY : date.getTime();
+        }, cache -> {
+            // caches without date are not compared any further
+            return cache.getHiddenDate() == null ? 0 : sameDateKey.get(cache);
+        });
+    }
+
+    /**
+     * sort key matching {@link #sortSameDate(Geocache, Geocache)}, created once per sort
+     */
+    @NonNull
+    protected SortKeys.NumericKey getSameDateSortKey() {
+        final Geopoint coords = Sensors.getInstance().currentGeo().getCoords();
+        return cache -> DistanceComparator.getDistanceSortKey(coords, cache);
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getHiddenDate());
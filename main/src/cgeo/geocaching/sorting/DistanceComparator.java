@@ -5,6 +5,7 @@ import cgeo.geocaching.location.Units;
 import cgeo.geocaching.models.Geocache;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -61,6 +62,23 @@ public class DistanceComparator extends AbstractCacheComparator {
         return distance2 == null ? -1 : Float.compare(distance1, distance2);
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> getDistanceSortKey(coords, cache));
+    }
+
+    /**
+     * sort key matching {@link #compareCaches(Geocache, Geocache)}, also updating the distance of the cache
+     */
+    static double getDistanceSortKey(@Nullable final Geopoint coords, @NonNull final Geocache cache) {
+        if (coords != null && cache.getCoords() != null) {
+            cache.setDistance(coords.distanceTo(cache.getCoords()));
+        }
+        final Float distance = cache.getDistance();
+        return distance == null ? Double.POSITIVE_INFINITY : distance;
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return Units.getDistanceFromKilometers(cache.getDistance());
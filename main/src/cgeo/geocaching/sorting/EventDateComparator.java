@@ -2,6 +2,8 @@ package cgeo.geocaching.sorting;
 
 import cgeo.geocaching.models.Geocache;
 
+import androidx.annotation.NonNull;
+
 /**
  * Compares caches by date. Used only for event caches, if the cache list detects that a list contains only events.
  */
@@ -14,6 +16,12 @@ public class EventDateComparator extends DateComparator {
         return compare(left.getEventTimeMinutes(), right.getEventTimeMinutes());
     }
 
+    @Override
+    @NonNull
+    protected SortKeys.NumericKey getSameDateSortKey() {
+        return Geocache::getEventTimeMinutes;
+    }
+
     /**
      * copy of {@link Integer#compare(int, int)}, as that is not available on lower API levels
      *
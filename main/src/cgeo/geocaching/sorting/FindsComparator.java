@@ -20,6 +20,12 @@ class FindsComparator extends AbstractCacheComparator {
         return finds2 - finds1;
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getFindsCount());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%d", cache.getFindsCount());
@@ -11,14 +11,14 @@ import androidx.annotation.NonNull;
 public class GeocodeComparator extends AbstractCacheComparator {
 
     @Override
-    protected boolean canCompare(final Geocache cache) {
-        // This will fall back to geocode comparisons.
-        return false;
+    protected int compareCaches(final Geocache cache1, final Geocache cache2) {
+        return compareGeocodes(cache1, cache2);
     }
 
     @Override
-    protected int compareCaches(final Geocache cache1, final Geocache cache2) {
-        throw new IllegalStateException("should never be called");
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return getGeocodeSortKeys();
     }
 
     @Override
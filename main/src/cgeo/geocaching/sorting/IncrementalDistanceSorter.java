@@ -0,0 +1,161 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps a list of caches ordered by distance to a (slowly) moving position.
+ * <p/>
+ * Distances are computed once per update into a primitive key array. As long as the position only moves a little,
+ * the previous order is nearly sorted already and is repaired with an insertion sort. A full sort is only done if the
+ * position jumped, the list was changed heavily from outside or if the repair gets too expensive.
+ * <p/>
+ * The resulting order is the same as a stable sort with {@link DistanceComparator} (or its {@link InverseComparator}):
+ * caches without coordinates are placed last (first for inverse order), ties keep their previous relative order.
+ */
+public class IncrementalDistanceSorter {
+
+    /**
+     * moving further than this distance (in kilometers) since the last full sort forces another full sort
+     */
+    private static final float POSITION_JUMP_KM = 1.0f;
+
+    /**
+     * maximum number of element shifts per element in the list the insertion sort may do before falling back to a full
+     * sort
+     */
+    private static final int MAX_SHIFTS_PER_ELEMENT = 4;
+
+    @Nullable private Geopoint lastFullSortCoords = null;
+    private boolean lastInverse = false;
+
+    private Geocache[] items = new Geocache[0];
+    private float[] keys = new float[0];
+
+    /**
+     * force the next {@link #sort(List, Geopoint, boolean)} to do a full sort
+     */
+    public void invalidate() {
+        lastFullSortCoords = null;
+    }
+
+    /**
+     * Sort the given list in place by distance to the given coordinates. The distance of all caches with coordinates is
+     * updated as a side effect.
+     *
+     * @return the number of list positions which changed their cache, {@code 0} if the order did not change
+     */
+    public int sort(@NonNull final List<Geocache> list, @NonNull final Geopoint coords, final boolean inverse) {
+        final int size = list.size();
+        if (size == 0) {
+            return 0;
+        }
+        final Geocache[] previous = list.toArray(new Geocache[size]);
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            items[i] = previous[i];
+            keys[i] = computeKey(previous[i], coords);
+        }
+
+        final boolean repaired = !needsFullSort(coords, inverse) && insertionSort(size, inverse);
+        if (!repaired) {
+            fullSort(size, inverse, previous);
+            lastFullSortCoords = coords;
+            lastInverse = inverse;
+        }
+
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            if (items[i] != previous[i]) {
+                list.set(i, items[i]);
+                changed++;
+            }
+        }
+        // don't keep references to caches which may no longer be needed
+        Arrays.fill(items, 0, size, null);
+        return changed;
+    }
+
+    private boolean needsFullSort(@NonNull final Geopoint coords, final boolean inverse) {
+        return lastFullSortCoords == null || inverse != lastInverse || lastFullSortCoords.distanceTo(coords) > POSITION_JUMP_KM;
+    }
+
+    private void ensureCapacity(final int size) {
+        if (items.length < size) {
+            items = new Geocache[size];
+            keys = new float[size];
+        }
+    }
+
+    private static float computeKey(@NonNull final Geocache cache, @NonNull final Geopoint coords) {
+        final Geopoint cacheCoords = cache.getCoords();
+        if (cacheCoords != null) {
+            cache.setDistance(coords.distanceTo(cacheCoords));
+        }
+        return computeOrderKey(cache);
+    }
+
+    /**
+     * stable insertion sort of {@link #items} by {@link #keys}
+     *
+     * @return {@code false} if the list was too unsorted and the shift budget was exhausted, leaving the arrays in an
+     *         unspecified (but complete) order
+     */
+    private boolean insertionSort(final int size, final boolean inverse) {
+        long budget = (long) size * MAX_SHIFTS_PER_ELEMENT;
+        for (int i = 1; i < size; i++) {
+            final float key = keys[i];
+            final Geocache item = items[i];
+            int j = i - 1;
+            while (j >= 0 && isBefore(key, keys[j], inverse)) {
+                keys[j + 1] = keys[j];
+                items[j + 1] = items[j];
+                j--;
+                if (--budget < 0) {
+                    keys[j + 1] = key;
+                    items[j + 1] = item;
+                    return false;
+                }
+            }
+            keys[j + 1] = key;
+            items[j + 1] = item;
+        }
+        return true;
+    }
+
+    private static boolean isBefore(final float key, final float other, final boolean inverse) {
+        return inverse ? key > other : key < other;
+    }
+
+    /**
+     * Stable full sort. Keys are non-negative floats, so their raw bits have the same order as the values and can be
+     * packed together with the original index into a single primitive {@code long}.
+     */
+    private void fullSort(final int size, final boolean inverse, @NonNull final Geocache[] previous) {
+        // the insertion sort may have shuffled the arrays before giving up, so start over from the original order
+        final long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            final int bits = Float.floatToIntBits(computeOrderKey(previous[i]));
+            packed[i] = ((long) (inverse ? Integer.MAX_VALUE - bits : bits) << 32) | i;
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < size; i++) {
+            items[i] = previous[(int) packed[i]];
+        }
+    }
+
+    /**
+     * caches without coordinates may still have a distance given by the search which created them
+     */
+    private static float computeOrderKey(@NonNull final Geocache cache) {
+        final Float distance = cache.getDistance();
+        return distance == null ? Float.POSITIVE_INFINITY : distance;
+    }
+
+}
@@ -16,6 +16,12 @@ class InventoryComparator extends AbstractCacheComparator {
         return cache2.getInventoryItems() - cache1.getInventoryItems();
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getInventoryItems());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%d", cache.getInventoryItems());
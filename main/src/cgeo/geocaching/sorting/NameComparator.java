@@ -23,6 +23,12 @@ public class NameComparator extends AbstractCacheComparator {
         return TextUtils.COLLATOR.compare(cache1.getNameForSorting(), cache2.getNameForSorting());
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.text(cache -> TextUtils.COLLATOR.getCollationKey(cache.getNameForSorting()));
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return StringUtils.upperCase(StringUtils.substring(cache.getNameForSorting(), 0, 2));
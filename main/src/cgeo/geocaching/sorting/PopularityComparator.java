@@ -17,6 +17,12 @@ class PopularityComparator extends AbstractCacheComparator {
         return cache2.getFavoritePoints() - cache1.getFavoritePoints();
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getFavoritePoints());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%d", cache.getFavoritePoints());
@@ -13,19 +13,21 @@ class PopularityRatioComparator extends AbstractCacheComparator {
 
     @Override
     protected int compareCaches(final Geocache cache1, final Geocache cache2) {
-        final int finds1 = cache1.getFindsCount();
-        final int finds2 = cache2.getFindsCount();
+        return Float.compare(getRatio(cache2), getRatio(cache1));
+    }
 
-        float ratio1 = 0.0f;
-        if (finds1 != 0) {
-            ratio1 = (float) cache1.getFavoritePoints() / (float) finds1;
-        }
-        float ratio2 = 0.0f;
-        if (finds2 != 0) {
-            ratio2 = (float) cache2.getFavoritePoints() / (float) finds2;
+    private static float getRatio(final Geocache cache) {
+        final int finds = cache.getFindsCount();
+        if (finds == 0) {
+            return 0.0f;
         }
+        return (float) cache.getFavoritePoints() / (float) finds;
+    }
 
-        return Float.compare(ratio2, ratio1);
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -getRatio(cache));
     }
 
     @Override
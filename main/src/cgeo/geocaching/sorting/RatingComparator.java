@@ -34,6 +34,12 @@ class RatingComparator extends AbstractCacheComparator {
         return (votes * rating + AVERAGE_VOTES * AVERAGE_RATING) / (votes + AVERAGE_VOTES);
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -getWeightedArithmeticMean(cache));
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%.2f", getWeightedArithmeticMean(cache));
@@ -15,6 +15,12 @@ class SizeComparator extends AbstractCacheComparator {
         return cache2.getSize().comparable - cache1.getSize().comparable;
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getSize().comparable);
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return cache.getSize().toString();
@@ -0,0 +1,85 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.models.Geocache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.CollationKey;
+
+/**
+ * Sort keys of an {@link AbstractCacheComparator}, which {@link CacheSorter} extracts only once per cache instead of
+ * comparing each pair of caches.
+ * <p/>
+ * Sorting ascending by all keys must give the same order as {@link AbstractCacheComparator#compareCaches(Geocache, Geocache)}
+ * for all caches accepted by {@link AbstractCacheComparator#canCompare(Geocache)}. A comparator creates new sort keys
+ * for every sort, so state like the current position is only read once per sort.
+ */
+final class SortKeys {
+
+    /**
+     * numeric sort key of one level
+     */
+    interface NumericKey {
+        double get(@NonNull Geocache cache);
+    }
+
+    /**
+     * text sort key
+     */
+    interface TextKey {
+        @NonNull
+        CollationKey get(@NonNull Geocache cache);
+    }
+
+    @Nullable
+    private final NumericKey[] numericKeys;
+    @Nullable
+    private final TextKey textKey;
+
+    private SortKeys(@Nullable final NumericKey[] numericKeys, @Nullable final TextKey textKey) {
+        this.numericKeys = numericKeys;
+        this.textKey = textKey;
+    }
+
+    /**
+     * @param levels
+     *            numeric keys, the most significant one first
+     */
+    @NonNull
+    static SortKeys numeric(@NonNull final NumericKey... levels) {
+        return new SortKeys(levels, null);
+    }
+
+    @NonNull
+    static SortKeys text(@NonNull final TextKey key) {
+        return new SortKeys(null, key);
+    }
+
+    boolean isText() {
+        return textKey != null;
+    }
+
+    /**
+     * @return the number of numeric levels, {@code 0} for a text key
+     */
+    int getLevels() {
+        return numericKeys == null ? 0 : numericKeys.length;
+    }
+
+    double getKey(@NonNull final Geocache cache, final int level) {
+        if (numericKeys == null) {
+            throw new IllegalStateException("no numeric sort keys");
+        }
+        return numericKeys[level].get(cache);
+    }
+
+    @NonNull
+    CollationKey getTextKey(@NonNull final Geocache cache) {
+        if (textKey == null) {
+            throw new IllegalStateException("no text sort key");
+        }
+        return textKey.get(cache);
+    }
+
+}
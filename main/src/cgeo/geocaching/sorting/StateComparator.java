@@ -30,6 +30,12 @@ class StateComparator extends AbstractCacheComparator {
         return 0;
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> getState(cache));
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         switch (getState(cache)) {
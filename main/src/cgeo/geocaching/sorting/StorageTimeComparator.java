@@ -12,6 +12,12 @@ class StorageTimeComparator extends AbstractCacheComparator {
         return Long.compare(cache1.getUpdated(), cache2.getUpdated());
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> cache.getUpdated());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getUpdated());
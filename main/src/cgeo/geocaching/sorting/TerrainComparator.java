@@ -22,6 +22,12 @@ class TerrainComparator extends AbstractCacheComparator {
         return Float.compare(cache1.getTerrain(), cache2.getTerrain());
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> cache.getTerrain());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%.1f", cache.getTerrain());
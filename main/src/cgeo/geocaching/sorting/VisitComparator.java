@@ -25,6 +25,12 @@ public class VisitComparator extends AbstractCacheComparator {
         return Long.compare(lhs, rhs);
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getVisitedDate());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return CalendarUtils.yearMonth(cache.getVisitedDate());
@@ -17,6 +17,12 @@ class VoteComparator extends AbstractCacheComparator {
         return Float.compare(cache2.getMyVote(), cache1.getMyVote());
     }
 
+    @Override
+    @NonNull
+    protected SortKeys getSortKeys() {
+        return SortKeys.numeric(cache -> -cache.getMyVote());
+    }
+
     @Override
     public String getSortableSection(@NonNull final Geocache cache) {
         return String.format(Locale.getDefault(), "%.2f", cache.getMyVote());
@@ -155,7 +155,7 @@ public class SpeechService extends Service implements OnInitListener {
         synchronized (startingActivityLock) {
             final Activity startingActivityChecked = startingActivity;
             if (startingActivityChecked != null) {
-                initDisposable.add(geoDirHandler.start(GeoDirHandler.UPDATE_GEODIR));
+                initDisposable.add(geoDirHandler.start(GeoDirHandler.UPDATE_GEODIR | GeoDirHandler.BACKGROUND));
                 ActivityMixin.showShortToast(startingActivity, startingActivityChecked.getString(R.string.tts_started));
             }
         }
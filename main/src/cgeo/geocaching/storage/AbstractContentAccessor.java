@@ -26,6 +26,9 @@ abstract class AbstractContentAccessor {
 
     public abstract Uri create(@NonNull Folder folder, @NonNull String name) throws IOException;
 
+    /** Renames a file within its folder. A file with the new name must not exist. Returns the Uri of the renamed file */
+    public abstract Uri rename(@NonNull Uri uri, @NonNull String newName) throws IOException;
+
     public abstract List<ContentStorage.FileInformation> list(@NonNull Folder folder) throws IOException;
 
     /** If a file with given name exists in folder, it is returned. Otherwise null is returned */
@@ -428,6 +428,46 @@ public class ContentStorage {
         return copy(Uri.fromFile(file), getFolder(folder, false), nameCreator, deleteFileOnSuccess);
     }
 
+    /**
+     * Write an (internal's) file content to a folder under the given name, replacing an existing file of that name.
+     * The content is written under a temporary name first, so that an incomplete file is never seen under the given name.
+     * An existing file is renamed aside until the new file took its name and restored if that fails. Since storage
+     * frameworks offer no atomic replace, the name is missing for a short moment in between.
+     */
+    public Uri replaceFile(final Folder folder, final String name, final File file) {
+        final Uri tempUri = copy(Uri.fromFile(file), folder, FileNameCreator.forName(name + ".tmp"), false);
+        if (tempUri == null) {
+            return null;
+        }
+        Uri oldUri = null;
+        try {
+            final FileInformation existing = getFileInfo(folder, name);
+            if (existing != null) {
+                oldUri = getAccessorFor(existing.uri).rename(existing.uri, name + ".old");
+            }
+            final Uri result = getAccessorFor(tempUri).rename(tempUri, name);
+            if (oldUri != null) {
+                delete(oldUri);
+            }
+            return result;
+        } catch (IOException ioe) {
+            delete(tempUri);
+            if (oldUri != null) {
+                restoreFile(oldUri, name);
+            }
+            reportProblem(R.string.contentstorage_err_write_failed, ioe, false, name);
+        }
+        return null;
+    }
+
+    private void restoreFile(final Uri oldUri, final String name) {
+        try {
+            getAccessorFor(oldUri).rename(oldUri, name);
+        } catch (IOException ioe) {
+            Log.w("ContentStorage: could not restore '" + oldUri + "' as '" + name + "'", ioe);
+        }
+    }
+
     /** Helper method, meant for usage in conjunction with {@link #writeFileToFolder(PersistableFolder, FileNameCreator, File, boolean)} */
     public File createTempFile() {
         return createTempFile(null);
@@ -46,7 +46,9 @@ import cgeo.geocaching.utils.FileNameCreator;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.PerformanceMetrics;
 import cgeo.geocaching.utils.Version;
+import cgeo.geocaching.utils.functions.Action1;
 import cgeo.geocaching.utils.functions.Func1;
 import static cgeo.geocaching.settings.Settings.getMaximumMapTrailLength;
 import static cgeo.geocaching.storage.DataStore.DBExtensionType.DBEXTENSION_INVALID;
@@ -106,6 +108,7 @@ import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
 public class DataStore {
 
@@ -138,7 +141,9 @@ public class DataStore {
         DBEXTENSION_FOUNDNUM(2),
         DBEXTENSION_DOWNGRADEABLE_DBVERSION(3),
         DBEXTENSION_ONE_TIME_DIALOGS(4),
-        DBEXTENSION_EMOJILRU(5);
+        DBEXTENSION_EMOJILRU(5),
+        DBEXTENSION_FOLDER_URI_INDEX(6),
+        DBEXTENSION_MAINTENANCE(7);
 
         public final int id;
 
@@ -204,6 +209,11 @@ public class DataStore {
     /** The list of fields needed for mapping. */
     private static final String[] WAYPOINT_COLUMNS = { "_id", "geocode", "updated", "type", "prefix", "lookup", "name", "latitude", "longitude", "note", "own", "visited", "user_note", "org_coords_empty", "calc_state" };
 
+    /** Number of caches stored within one transaction by {@link #saveCaches(Collection, Set)} */
+    private static final int SAVE_CACHES_CHUNK_SIZE = 100;
+
+    private static final PerformanceMetrics.Counter STORED_CACHES = PerformanceMetrics.counter("db.store.caches");
+
     /** Number of days (as ms) after temporarily saved caches are deleted */
     private static final long DAYS_AFTER_CACHE_IS_DELETED = 3 * 24 * 60 * 60 * 1000;
 
@@ -212,7 +222,7 @@ public class DataStore {
      */
     private static final CacheCache cacheCache = new CacheCache();
     private static volatile SQLiteDatabase database = null;
-    private static final int dbVersion = 94;
+    private static final int dbVersion = 95;
     public static final int customListIdOffset = 10;
 
     /**
@@ -242,12 +252,16 @@ public class DataStore {
             91, // add fields to cg_extension
             92, // add emoji id to cg_caches
             93,  // add emoji id to cg_lists
-            94  // add scale to offline log images
+            94,  // add scale to offline log images
+            95  // add cache counters per list and cache type, maintained by triggers
     }));
 
     @NonNull private static final String dbTableCaches = "cg_caches";
     @NonNull private static final String dbTableLists = "cg_lists";
     @NonNull private static final String dbTableCachesLists = "cg_caches_lists";
+    @NonNull private static final String dbTableListCounts = "cg_list_counts";
+    /** temporary table of the geocodes which set based list operations work on, see {@link #fillTempGeocodes(Collection)} */
+    @NonNull private static final String dbTableTempGeocodes = "temp_geocodes";
     @NonNull private static final String dbTableAttributes = "cg_attributes";
     @NonNull private static final String dbTableWaypoints = "cg_waypoints";
     @NonNull private static final String dbTableSpoilers = "cg_spoilers";
@@ -263,6 +277,41 @@ public class DataStore {
     @NonNull private static final String dbTableRoute = "cg_route";
     @NonNull private static final String dbTableExtension = "cg_extension";
     @NonNull private static final String dbTableSequences = "sqlite_sequence";
+
+    /** List id used in {@link #dbTableListCounts} for counting the caches stored on any list */
+    private static final int ALL_LISTS_COUNT_ID = -1;
+
+    /**
+     * Tables cleaned from orphaned records by {@link #cleanIfNeeded(Context)}, with the condition identifying those
+     * records. The order matters, as records of later tables may become orphaned by cleaning earlier tables.
+     */
+    // package-private for tests
+    static final String[][] ORPHANED_RECORDS = {
+            { dbTableCachesLists, "list_id <> " + StoredList.STANDARD_LIST_ID + " AND NOT EXISTS (SELECT 1 FROM " + dbTableLists + " WHERE " + dbTableLists + "._id = " + dbTableCachesLists + ".list_id - " + customListIdOffset + ")" },
+            { dbTableAttributes, notExistingCache(dbTableAttributes) },
+            { dbTableSpoilers, notExistingCache(dbTableSpoilers) },
+            { dbTableCachesLists, notExistingCache(dbTableCachesLists) },
+            { dbTableWaypoints, notExistingCache(dbTableWaypoints) },
+            { dbTableTrackables, notExistingCache(dbTableTrackables) },
+            { dbTableLogCount, notExistingCache(dbTableLogCount) },
+            { dbTableLogsOffline, notExistingCache(dbTableLogsOffline) },
+            { dbTableLogsOfflineImages, "NOT EXISTS (SELECT 1 FROM " + dbTableLogsOffline + " WHERE " + dbTableLogsOffline + "._id = " + dbTableLogsOfflineImages + ".logoffline_id)" },
+            { dbTableLogsOfflineTrackables, "NOT EXISTS (SELECT 1 FROM " + dbTableLogsOffline + " WHERE " + dbTableLogsOffline + "._id = " + dbTableLogsOfflineTrackables + ".logoffline_id)" },
+            { dbTableLogs, notExistingCache(dbTableLogs) },
+            { dbTableLogImages, "NOT EXISTS (SELECT 1 FROM " + dbTableLogs + " WHERE " + dbTableLogs + "._id = " + dbTableLogImages + ".log_id)" }
+    };
+
+    private static final String MAINTENANCE_PROGRESS_KEY = "clean";
+    /** Number of expired caches removed in one transaction by {@link #cleanIfNeeded(Context)} */
+    private static final int MAINTENANCE_CACHES_PER_CHUNK = 200;
+    /** Number of existing rows checked for orphaned records in one statement by {@link #cleanIfNeeded(Context)} */
+    private static final int MAINTENANCE_ROWS_PER_CHUNK = 5000;
+    private static final long MAINTENANCE_PAUSE_MILLIS = 20;
+    /** Minimum time between two saves of the cleanup progress */
+    private static final long MAINTENANCE_PROGRESS_INTERVAL_MILLIS = 2000;
+    /** Minimum number of rows removed by {@link #cleanIfNeeded(Context)} to update the statistics of the query planner */
+    private static final long MAINTENANCE_ANALYZE_THRESHOLD = 10000;
+
     @NonNull private static final String dbCreateCaches = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableCaches + " ("
             + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -327,6 +376,14 @@ public class DataStore {
             + "geocode TEXT NOT NULL, "
             + "PRIMARY KEY (list_id, geocode)"
             + "); ";
+    // type is empty for caches on a list which are not stored in cg_caches
+    private static final String dbCreateListCounts = ""
+            + "CREATE TABLE IF NOT EXISTS " + dbTableListCounts + " ("
+            + "list_id INTEGER NOT NULL, "
+            + "type TEXT NOT NULL, "
+            + "count INTEGER NOT NULL DEFAULT 0, "
+            + "PRIMARY KEY (list_id, type)"
+            + "); ";
     private static final String dbCreateAttributes = ""
             + "CREATE TABLE IF NOT EXISTS " + dbTableAttributes + " ("
             + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
@@ -657,6 +714,40 @@ public class DataStore {
             db.delete(dbTableExtension, "_type = ? AND _key LIKE ?", new String[]{ String.valueOf(type.id), key });
         }
 
+        /**
+         * get the first entry with exactly this key, unlike {@link #load(DBExtensionType, String)} the key is not
+         * matched using LIKE, so it may contain '%' and '_'
+         */
+        @Nullable
+        protected static DBExtension loadExact(final DBExtensionType type, @NonNull final String key) {
+            if (!init(false)) {
+                return null;
+            }
+            checkState(type, key, false);
+            try (Cursor cursor = database.query(dbTableExtension,
+                    new String[]{"_id", "_key", "long1", "long2", "long3", "long4", "string1", "string2", "string3", "string4"},
+                    "_type = ? AND _key = ?",
+                    new String[]{String.valueOf(type.id), key},
+                    null, null, "_id", "1")) {
+                if (cursor.moveToNext()) {
+                    return new DBExtension(cursor.getLong(0), cursor.getString(1), cursor.getLong(2), cursor.getLong(3), cursor.getLong(4), cursor.getLong(5), cursor.getString(6), cursor.getString(7), cursor.getString(8), cursor.getString(9));
+                }
+            }
+            return null;
+        }
+
+        /**
+         * removes all elements with exactly this key from database, unlike {@link #removeAll(DBExtensionType, String)}
+         * the key is not matched using LIKE, so it may contain '%' and '_'
+         */
+        protected static void removeExact(final DBExtensionType type, @NonNull final String key) {
+            if (!init(false)) {
+                return;
+            }
+            checkState(type, key, false);
+            database.delete(dbTableExtension, "_type = ? AND _key = ?", new String[]{ String.valueOf(type.id), key });
+        }
+
         private static void checkState(final DBExtensionType type, @Nullable final String key, final boolean nullable) {
             if (type == DBEXTENSION_INVALID) {
                 throw new IllegalStateException("DBExtension: type must be set to valid type");
@@ -931,6 +1022,7 @@ public class DataStore {
             db.execSQL(dbCreateCaches);
             db.execSQL(dbCreateLists);
             db.execSQL(dbCreateCachesLists);
+            db.execSQL(dbCreateListCounts);
             db.execSQL(dbCreateAttributes);
             db.execSQL(dbCreateWaypoints);
             db.execSQL(dbCreateSpoilers);
@@ -947,6 +1039,101 @@ public class DataStore {
             db.execSQL(dbCreateExtension);
 
             createIndices(db, dbVersion);
+            createListCountTriggers(db);
+        }
+
+        /**
+         * The triggers keep {@link #dbTableListCounts} up to date on every change of the list memberships or of the
+         * cache types, so that all cache counts of a list can be read without scanning the lists.
+         * Caches on any stored list are additionally counted once under {@link #ALL_LISTS_COUNT_ID}.
+         */
+        private static void createListCountTriggers(final SQLiteDatabase db) {
+            // a before trigger also handles INSERT OR REPLACE/IGNORE of an existing membership, which doesn't change any count
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_add BEFORE INSERT ON " + dbTableCachesLists
+                    + " WHEN NEW.list_id >= " + StoredList.STANDARD_LIST_ID
+                    + " AND NOT EXISTS (SELECT 1 FROM " + dbTableCachesLists + " WHERE list_id = NEW.list_id AND geocode = NEW.geocode)"
+                    + " BEGIN "
+                    + changeListCounts("SELECT NEW.list_id AS list_id UNION ALL SELECT " + ALL_LISTS_COUNT_ID + " WHERE NOT " + onAnyList("NEW.geocode", null), typeOfCache("NEW.geocode"), 1)
+                    + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_remove AFTER DELETE ON " + dbTableCachesLists
+                    + " WHEN OLD.list_id >= " + StoredList.STANDARD_LIST_ID
+                    + " BEGIN "
+                    + changeListCounts("SELECT OLD.list_id AS list_id UNION ALL SELECT " + ALL_LISTS_COUNT_ID + " WHERE NOT " + onAnyList("OLD.geocode", null), typeOfCache("OLD.geocode"), -1)
+                    + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_move AFTER UPDATE OF list_id ON " + dbTableCachesLists
+                    + " WHEN OLD.list_id IS NOT NEW.list_id"
+                    + " BEGIN "
+                    + changeListCounts("SELECT OLD.list_id AS list_id WHERE OLD.list_id >= " + StoredList.STANDARD_LIST_ID
+                            + " UNION ALL SELECT " + ALL_LISTS_COUNT_ID + " WHERE OLD.list_id >= " + StoredList.STANDARD_LIST_ID + " AND NOT " + onAnyList("OLD.geocode", null), typeOfCache("OLD.geocode"), -1)
+                    + changeListCounts("SELECT NEW.list_id AS list_id WHERE NEW.list_id >= " + StoredList.STANDARD_LIST_ID
+                            + " UNION ALL SELECT " + ALL_LISTS_COUNT_ID + " WHERE NEW.list_id >= " + StoredList.STANDARD_LIST_ID + " AND OLD.list_id < " + StoredList.STANDARD_LIST_ID
+                            + " AND NOT " + onAnyList("NEW.geocode", "NEW.list_id"), typeOfCache("NEW.geocode"), 1)
+                    + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_cache_add AFTER INSERT ON " + dbTableCaches
+                    + " BEGIN "
+                    + changeListCounts(listCountIdsOf("NEW.geocode"), "''", -1)
+                    + changeListCounts(listCountIdsOf("NEW.geocode"), "IFNULL(NEW.type, '')", 1)
+                    + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_cache_type AFTER UPDATE OF type ON " + dbTableCaches
+                    + " WHEN IFNULL(OLD.type, '') <> IFNULL(NEW.type, '')"
+                    + " BEGIN "
+                    + changeListCounts(listCountIdsOf("NEW.geocode"), "IFNULL(OLD.type, '')", -1)
+                    + changeListCounts(listCountIdsOf("NEW.geocode"), "IFNULL(NEW.type, '')", 1)
+                    + " END");
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS tr_list_counts_cache_remove AFTER DELETE ON " + dbTableCaches
+                    + " BEGIN "
+                    + changeListCounts(listCountIdsOf("OLD.geocode"), "IFNULL(OLD.type, '')", -1)
+                    + changeListCounts(listCountIdsOf("OLD.geocode"), "''", 1)
+                    + " END");
+        }
+
+        /**
+         * Recalculate all list counters from the list memberships, e.g. after creating {@link #dbTableListCounts}.
+         */
+        private static void rebuildListCounts(final SQLiteDatabase db) {
+            db.execSQL("DELETE FROM " + dbTableListCounts);
+            db.execSQL("INSERT INTO " + dbTableListCounts + " (list_id, type, count)"
+                    + " SELECT l.list_id, IFNULL(c.type, ''), COUNT(*) FROM " + dbTableCachesLists + " l"
+                    + " LEFT OUTER JOIN " + dbTableCaches + " c ON c.geocode = l.geocode"
+                    + " WHERE l.list_id >= " + StoredList.STANDARD_LIST_ID
+                    + " GROUP BY l.list_id, IFNULL(c.type, '')");
+            db.execSQL("INSERT INTO " + dbTableListCounts + " (list_id, type, count)"
+                    + " SELECT " + ALL_LISTS_COUNT_ID + ", IFNULL(c.type, ''), COUNT(*)"
+                    + " FROM (SELECT DISTINCT geocode FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID + ") l"
+                    + " LEFT OUTER JOIN " + dbTableCaches + " c ON c.geocode = l.geocode"
+                    + " GROUP BY IFNULL(c.type, '')");
+        }
+
+        /**
+         * Trigger statements adding delta to the counters of the given type for all list ids selected by the query.
+         */
+        private static String changeListCounts(final String listIds, final String type, final int delta) {
+            final StringBuilder statements = new StringBuilder();
+            if (delta > 0) {
+                // no INSERT OR IGNORE, as the conflict handling of the triggering statement would override it
+                statements.append("INSERT INTO ").append(dbTableListCounts).append(" (list_id, type, count) SELECT ids.list_id, ").append(type).append(", 0 FROM (").append(listIds).append(") ids")
+                        .append(" WHERE NOT EXISTS (SELECT 1 FROM ").append(dbTableListCounts).append(" n WHERE n.list_id = ids.list_id AND n.type = ").append(type).append("); ");
+            }
+            statements.append("UPDATE ").append(dbTableListCounts).append(" SET count = count + ").append(delta)
+                    .append(" WHERE type = ").append(type).append(" AND list_id IN (").append(listIds).append("); ");
+            return statements.toString();
+        }
+
+        /**
+         * Query for all counter list ids of a cache: its stored lists and {@link #ALL_LISTS_COUNT_ID}
+         */
+        private static String listCountIdsOf(final String geocode) {
+            return "SELECT list_id FROM " + dbTableCachesLists + " WHERE geocode = " + geocode + " AND list_id >= " + StoredList.STANDARD_LIST_ID
+                    + " UNION ALL SELECT " + ALL_LISTS_COUNT_ID + " WHERE " + onAnyList(geocode, null);
+        }
+
+        private static String onAnyList(final String geocode, @Nullable final String exceptListId) {
+            return "EXISTS (SELECT 1 FROM " + dbTableCachesLists + " WHERE geocode = " + geocode + " AND list_id >= " + StoredList.STANDARD_LIST_ID
+                    + (exceptListId != null ? " AND list_id <> " + exceptListId : "") + ")";
+        }
+
+        private static String typeOfCache(final String geocode) {
+            return "IFNULL((SELECT type FROM " + dbTableCaches + " WHERE geocode = " + geocode + "), '')";
         }
 
         private static void createIndices(final SQLiteDatabase db, final int currentVersion) {
@@ -1543,6 +1730,17 @@ public class DataStore {
                         }
                     }
 
+                    // add cache counters per list and cache type
+                    if (oldVersion < 95) {
+                        try {
+                            db.execSQL(dbCreateListCounts);
+                            createListCountTriggers(db);
+                            rebuildListCounts(db);
+                        } catch (final SQLException e) {
+                            onUpgradeError(e, 95);
+                        }
+                    }
+
                 }
 
                 //at the very end of onUpgrade: rewrite downgradeable versions in database
@@ -1633,6 +1831,7 @@ public class DataStore {
             db.execSQL("DROP TABLE IF EXISTS " + dbTableCaches);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableLists);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableCachesLists);
+            db.execSQL("DROP TABLE IF EXISTS " + dbTableListCounts);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableAttributes);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableWaypoints);
             db.execSQL("DROP TABLE IF EXISTS " + dbTableSpoilers);
@@ -1840,6 +2039,75 @@ public class DataStore {
         return false;
     }
 
+    /**
+     * Get those of the given geocodes whose caches are stored offline. This is the bulk variant of
+     * {@link #isOffline(String, String)}, using a single query for all geocodes.
+     *
+     * @return the subset of the given geocodes which are stored offline
+     */
+    @NonNull
+    public static Set<String> getOfflineGeocodes(@NonNull final Collection<String> geocodes) {
+        final Set<String> offline = new HashSet<>();
+        if (geocodes.isEmpty()) {
+            return offline;
+        }
+        init();
+
+        try {
+            final String query = "SELECT DISTINCT c.geocode FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c." + whereGeocodeIn(geocodes)
+                    + " AND c.geocode = l.geocode AND c.detailed = 1 AND l.list_id != " + StoredList.TEMPORARY_LIST.id;
+            final Set<String> stored = cursorToColl(database.rawQuery(query, null), new HashSet<>(), GET_STRING_0);
+            // the query matches the upper case geocodes, so map them back to the given ones
+            for (final String geocode : geocodes) {
+                if (stored.contains(StringUtils.upperCase(geocode))) {
+                    offline.add(geocode);
+                }
+            }
+        } catch (final Exception e) {
+            Log.e("DataStore.getOfflineGeocodes", e);
+        }
+        return offline;
+    }
+
+    /**
+     * Split the given geocodes by the state and type of their caches, without loading the caches.
+     * Caches in the memory cache are checked there, as they might not have been stored in the database yet.
+     * Geocodes whose caches are neither in memory nor in the database are left out.
+     *
+     * @return the geocodes of the included caches and the geocodes of the excluded caches
+     */
+    @NonNull
+    public static ImmutablePair<Set<String>, Set<String>> filterGeocodes(@NonNull final Collection<String> geocodes, final boolean excludeDisabled, final boolean excludeArchived, @NonNull final CacheType cacheType) {
+        final Set<String> included = new HashSet<>(geocodes.size());
+        final Set<String> excluded = new HashSet<>();
+        final List<String> notInMemory = new ArrayList<>();
+        for (final String geocode : geocodes) {
+            final Geocache cache = cacheCache.getCacheFromCache(geocode);
+            if (cache == null) {
+                notInMemory.add(geocode);
+            } else if ((excludeDisabled && cache.isDisabled()) || (excludeArchived && cache.isArchived()) || !cacheType.contains(cache)) {
+                excluded.add(geocode);
+            } else {
+                included.add(geocode);
+            }
+        }
+        if (notInMemory.isEmpty()) {
+            return ImmutablePair.of(included, excluded);
+        }
+        init();
+
+        try (Cursor cursor = database.rawQuery("SELECT geocode, disabled, archived, type FROM " + dbTableCaches + " WHERE " + whereGeocodeIn(notInMemory), null)) {
+            while (cursor.moveToNext()) {
+                final boolean exclude = (excludeDisabled && cursor.getInt(1) == 1) || (excludeArchived && cursor.getInt(2) == 1)
+                        || (cacheType != CacheType.ALL && CacheType.getById(cursor.getString(3)) != cacheType);
+                (exclude ? excluded : included).add(cursor.getString(0));
+            }
+        } catch (final Exception e) {
+            Log.e("DataStore.filterGeocodes", e);
+        }
+        return ImmutablePair.of(included, excluded);
+    }
+
     @Nullable
     public static String getGeocodeForGuid(final String guid) {
         if (StringUtils.isBlank(guid)) {
@@ -1920,6 +2188,16 @@ public class DataStore {
      * @param caches the caches to save in the CacheCache/DB
      */
     public static void saveCaches(final Collection<Geocache> caches, final Set<LoadFlags.SaveFlag> saveFlags) {
+        saveCaches(caches, saveFlags, Collections.emptyMap());
+    }
+
+    /**
+     * Save/store caches to the CacheCache, together with their downloaded logs
+     *
+     * @param caches the caches to save in the CacheCache/DB
+     * @param logsByGeocode logs replacing all stored logs of the caches, saved in the same transactions as the caches
+     */
+    public static void saveCaches(final Collection<Geocache> caches, final Set<LoadFlags.SaveFlag> saveFlags, @NonNull final Map<String, List<LogEntry>> logsByGeocode) {
         if (CollectionUtils.isEmpty(caches)) {
             return;
         }
@@ -1930,6 +2208,7 @@ public class DataStore {
 
             final List<String> cachesFromDatabase = new ArrayList<>();
             final Map<String, Geocache> existingCaches = new HashMap<>();
+            final Map<String, Geocache> databaseCaches = new HashMap<>();
 
             // first check which caches are in the memory cache
             for (final Geocache cache : caches) {
@@ -1945,6 +2224,7 @@ public class DataStore {
             // then load all remaining caches from the database in one step
             for (final Geocache cacheFromDatabase : loadCaches(cachesFromDatabase, LoadFlags.LOAD_ALL_DB_ONLY)) {
                 existingCaches.put(cacheFromDatabase.getGeocode(), cacheFromDatabase);
+                databaseCaches.put(cacheFromDatabase.getGeocode(), cacheFromDatabase);
             }
 
             final List<Geocache> toBeStored = new ArrayList<>();
@@ -1974,13 +2254,26 @@ public class DataStore {
                 }
             }
 
-            for (final Geocache geocache : toBeStored) {
-                storeIntoDatabase(geocache);
+            if (!toBeStored.isEmpty()) {
+                final long start = System.nanoTime();
+                storeIntoDatabase(toBeStored, databaseCaches, logsByGeocode);
+                final long micros = Math.max(1, (System.nanoTime() - start) / 1000);
+                STORED_CACHES.add(toBeStored.size());
+                cLog.add("stored:%d (%d caches/s)", toBeStored.size(), toBeStored.size() * 1000000L / micros);
             }
 
             for (final Geocache geocache : toBeUpdated) {
                 updateDisabledStatus(geocache);
             }
+
+            // logs of caches which did not need to be stored
+            final Map<String, List<LogEntry>> remainingLogs = new HashMap<>(logsByGeocode);
+            for (final Geocache cache : toBeStored) {
+                remainingLogs.remove(cache.getGeocode());
+            }
+            if (!remainingLogs.isEmpty()) {
+                saveLogs(remainingLogs);
+            }
         }
 
     }
@@ -2010,7 +2303,85 @@ public class DataStore {
         return false;
     }
 
-    private static boolean storeIntoDatabase(final Geocache cache) {
+    /**
+     * Store the caches in chunks of {@link #SAVE_CACHES_CHUNK_SIZE} caches per transaction. If storing a chunk fails,
+     * its caches are stored again one by one, so a single broken cache does not prevent storing the others.
+     *
+     * @param databaseCaches the caches as they have just been loaded from the database, used to skip unchanged rows
+     */
+    private static void storeIntoDatabase(final List<Geocache> caches, final Map<String, Geocache> databaseCaches, final Map<String, List<LogEntry>> logsByGeocode) {
+        init();
+        for (int chunkStart = 0; chunkStart < caches.size(); chunkStart += SAVE_CACHES_CHUNK_SIZE) {
+            final List<Geocache> chunk = caches.subList(chunkStart, Math.min(chunkStart + SAVE_CACHES_CHUNK_SIZE, caches.size()));
+            // ids of inserted waypoints are invalid again if the chunk is rolled back
+            final List<Waypoint> newWaypoints = new ArrayList<>();
+            for (final Geocache cache : chunk) {
+                for (final Waypoint waypoint : cache.getWaypoints()) {
+                    if (waypoint.getId() < 0) {
+                        newWaypoints.add(waypoint);
+                    }
+                }
+            }
+
+            boolean stored = false;
+            database.beginTransaction();
+            try {
+                for (final Geocache cache : chunk) {
+                    storeIntoDatabaseWithoutTransaction(cache, databaseCaches.get(cache.getGeocode()));
+                    final List<LogEntry> logs = logsByGeocode.get(cache.getGeocode());
+                    if (logs != null) {
+                        saveLogsWithoutTransaction(cache.getGeocode(), logs, true);
+                    }
+                }
+                database.setTransactionSuccessful();
+                stored = true;
+            } catch (final Exception e) {
+                Log.w("SaveCaches: storing " + chunk.size() + " caches failed, storing them one by one", e);
+            } finally {
+                database.endTransaction();
+            }
+
+            if (!stored) {
+                for (final Waypoint waypoint : newWaypoints) {
+                    waypoint.setId(-1);
+                }
+                final Map<String, List<LogEntry>> chunkLogs = new HashMap<>();
+                for (final Geocache cache : chunk) {
+                    storeIntoDatabase(cache, databaseCaches.get(cache.getGeocode()));
+                    final List<LogEntry> logs = logsByGeocode.get(cache.getGeocode());
+                    if (logs != null) {
+                        chunkLogs.put(cache.getGeocode(), logs);
+                    }
+                }
+                saveLogs(chunkLogs);
+            }
+        }
+    }
+
+    private static boolean storeIntoDatabase(final Geocache cache, @Nullable final Geocache databaseCache) {
+        init();
+
+        // try to update record else insert fresh..
+        database.beginTransaction();
+
+        try {
+            storeIntoDatabaseWithoutTransaction(cache, databaseCache);
+            database.setTransactionSuccessful();
+            return true;
+        } catch (final Exception e) {
+            Log.e("SaveCache", e);
+        } finally {
+            database.endTransaction();
+        }
+
+        return false;
+    }
+
+    /**
+     * @param databaseCache the cache as currently stored in the database, or {@code null} if that is not known. Child
+     *                      rows (attributes, spoilers, log counts and lists) equal to those of this cache are not written again.
+     */
+    private static void storeIntoDatabaseWithoutTransaction(final Geocache cache, @Nullable final Geocache databaseCache) {
         cache.addStorageLocation(StorageLocation.DATABASE);
         cacheCache.putCacheInCache(cache);
         Log.d("Saving " + cache.toString() + " (" + cache.getLists() + ") to DB");
@@ -2070,34 +2441,27 @@ public class DataStore {
         values.put("owner_guid", cache.getOwnerGuid());
         values.put("emoji", cache.getAssignedEmoji());
 
-        init();
-
-        // try to update record else insert fresh..
-        database.beginTransaction();
-
-        try {
+        if (databaseCache == null || !databaseCache.getAttributes().equals(cache.getAttributes())) {
             saveAttributesWithoutTransaction(cache);
-            saveWaypointsWithoutTransaction(cache);
+        }
+        saveWaypointsWithoutTransaction(cache);
+        if (databaseCache == null || !databaseCache.getSpoilers().equals(cache.getSpoilers())) {
             saveSpoilersWithoutTransaction(cache);
+        }
+        if (databaseCache == null || !databaseCache.getLogCounts().equals(cache.getLogCounts())) {
             saveLogCountsWithoutTransaction(cache);
-            saveInventoryWithoutTransaction(cache.getGeocode(), cache.getInventory());
+        }
+        saveInventoryWithoutTransaction(cache.getGeocode(), cache.getInventory());
+        if (databaseCache == null || !databaseCache.getLists().containsAll(cache.getLists())) {
             saveListsWithoutTransaction(cache);
-
-            final int rows = database.update(dbTableCaches, values, "geocode = ?", new String[] { cache.getGeocode() });
-            if (rows == 0) {
-                // cache is not in the DB, insert it
-                /* long id = */
-                database.insert(dbTableCaches, null, values);
-            }
-            database.setTransactionSuccessful();
-            return true;
-        } catch (final Exception e) {
-            Log.e("SaveCache", e);
-        } finally {
-            database.endTransaction();
         }
 
-        return false;
+        final int rows = database.update(dbTableCaches, values, "geocode = ?", new String[] { cache.getGeocode() });
+        if (rows == 0) {
+            // cache is not in the DB, insert it
+            /* long id = */
+            database.insert(dbTableCaches, null, values);
+        }
     }
 
     private static void saveAttributesWithoutTransaction(final Geocache cache) {
@@ -2106,7 +2470,9 @@ public class DataStore {
         // The attributes must be fetched first because lazy loading may load
         // a null set otherwise.
         final List<String> attributes = cache.getAttributes();
-        database.delete(dbTableAttributes, "geocode = ?", new String[]{geocode});
+        final SQLiteStatement remove = PreparedStatement.REMOVE_ATTRIBUTES.getStatement();
+        remove.bindString(1, geocode);
+        remove.executeUpdateDelete();
 
         if (attributes.isEmpty()) {
             return;
@@ -2331,67 +2697,213 @@ public class DataStore {
         }
     }
 
+    /**
+     * Save the logs of many caches in one transaction, replacing all their stored logs
+     */
+    private static void saveLogs(final Map<String, List<LogEntry>> logsByGeocode) {
+        if (logsByGeocode.isEmpty()) {
+            return;
+        }
+        init();
+        database.beginTransaction();
+        try {
+            for (final Map.Entry<String, List<LogEntry>> entry : logsByGeocode.entrySet()) {
+                saveLogsWithoutTransaction(entry.getKey(), entry.getValue(), true);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Save the logs of a cache or trackable by merging them with the logs already stored. Logs are matched by their
+     * service log id, or by date, log type and author if one of them has no service log id. Only new logs are inserted
+     * and only changed logs are updated. The images of a changed log are replaced, those of a removed log are removed.
+     *
+     * @param removeAllExistingLogs
+     *            {@code true} if the given logs replace all stored logs, {@code false} to keep stored logs not matched
+     *            by any of the given logs
+     */
     private static void saveLogsWithoutTransaction(final String geocode, final Iterable<LogEntry> logs, final boolean removeAllExistingLogs) {
         try (ContextLogger cLog = new ContextLogger("DataStore.saveLogsWithoutTransaction(%s)", geocode)) {
             if (!logs.iterator().hasNext()) {
                 return;
             }
-            // TODO delete logimages referring these logs
-            if (removeAllExistingLogs) {
-                database.delete(dbTableLogs, "geocode = ?", new String[]{geocode});
-            } else {
-                // instead of deleting all existing logs for this cache, try to merge
-                // by deleting only those from same author, same date, same logtype
-                final SQLiteStatement deleteLog = PreparedStatement.CLEAN_LOG.getStatement();
-                for (final LogEntry log : logs) {
-                    deleteLog.bindString(1, geocode);
-                    deleteLog.bindLong(2, log.date);
-                    deleteLog.bindLong(3, log.logType.id);
-                    deleteLog.bindString(4, log.author);
-                    deleteLog.executeUpdateDelete();
+
+            final List<LogEntry> storedLogs = loadLogs(geocode, Integer.MAX_VALUE);
+            final Map<String, LogEntry> storedByServiceLogId = new HashMap<>();
+            final Map<String, List<LogEntry>> storedByDateTypeAuthor = new HashMap<>();
+            for (final LogEntry storedLog : storedLogs) {
+                if (storedLog.serviceLogId != null) {
+                    storedByServiceLogId.put(storedLog.serviceLogId, storedLog);
                 }
+                final String key = getLogMergeKey(storedLog);
+                List<LogEntry> sameKey = storedByDateTypeAuthor.get(key);
+                if (sameKey == null) {
+                    sameKey = new ArrayList<>();
+                    storedByDateTypeAuthor.put(key, sameKey);
+                }
+                sameKey.add(storedLog);
             }
 
-            final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
+            final Set<Integer> matchedIds = new HashSet<>();
             final long timestamp = System.currentTimeMillis();
-            int logCnt = 0;
-            int imgCnt = 0;
+            int inserted = 0;
+            int updated = 0;
+            int unchanged = 0;
             for (final LogEntry log : logs) {
-                logCnt++;
-                insertLog.bindString(1, geocode);
-                insertLog.bindLong(2, timestamp);
-                if (log.serviceLogId == null) {
-                    insertLog.bindNull(3);
+                final LogEntry storedLog = findStoredLog(log, storedByServiceLogId, storedByDateTypeAuthor, matchedIds);
+                if (storedLog == null) {
+                    insertLogImages(insertLog(geocode, log, timestamp), log);
+                    inserted++;
+                    continue;
+                }
+                matchedIds.add(storedLog.id);
+                final boolean logChanged = !isSameLogContent(storedLog, log);
+                if (logChanged) {
+                    // keep a known service log id if the new log does not have one
+                    updateLog(storedLog.id, log.serviceLogId == null ? log.buildUpon().setServiceLogId(storedLog.serviceLogId).build() : log, timestamp);
+                }
+                final boolean imagesChanged = !isSameLogImages(storedLog.logImages, log.logImages);
+                if (imagesChanged) {
+                    removeLogImages(storedLog.id);
+                    insertLogImages(storedLog.id, log);
+                }
+                if (logChanged || imagesChanged) {
+                    updated++;
                 } else {
-                    insertLog.bindString(3, log.serviceLogId);
+                    unchanged++;
                 }
-                insertLog.bindLong(4, log.logType.id);
-                insertLog.bindString(5, log.author);
-                insertLog.bindString(6, log.authorGuid);
-                insertLog.bindString(7, log.log);
-                insertLog.bindLong(8, log.date);
-                insertLog.bindLong(9, log.found);
-                insertLog.bindLong(10, log.friend ? 1 : 0);
-                final long logId = insertLog.executeInsert();
-                if (log.hasLogImages()) {
-                    final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
-                    for (final Image img : log.getLogImages()) {
-                        imgCnt++;
-                        insertImage.bindLong(1, logId);
-                        insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
-                        insertImage.bindString(3, img.getUrl());
-                        insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
-                        insertImage.executeInsert();
+            }
+
+            int removed = 0;
+            if (removeAllExistingLogs) {
+                final SQLiteStatement removeLog = PreparedStatement.REMOVE_LOG.getStatement();
+                for (final LogEntry storedLog : storedLogs) {
+                    if (!matchedIds.contains(storedLog.id)) {
+                        removeLogImages(storedLog.id);
+                        removeLog.bindLong(1, storedLog.id);
+                        removeLog.executeUpdateDelete();
+                        removed++;
                     }
                 }
             }
-            cLog.add("logs:%d, imgs:%d", logCnt, imgCnt);
+            cLog.add("inserted:%d, updated:%d, unchanged:%d, removed:%d", inserted, updated, unchanged, removed);
         }
     }
 
+    @NonNull
+    private static String getLogMergeKey(final LogEntry log) {
+        return log.date + "|" + log.logType.id + "|" + log.author;
+    }
+
+    @Nullable
+    private static LogEntry findStoredLog(final LogEntry log, final Map<String, LogEntry> storedByServiceLogId, final Map<String, List<LogEntry>> storedByDateTypeAuthor, final Set<Integer> matchedIds) {
+        if (log.serviceLogId != null) {
+            final LogEntry storedLog = storedByServiceLogId.get(log.serviceLogId);
+            if (storedLog != null && !matchedIds.contains(storedLog.id)) {
+                return storedLog;
+            }
+        }
+        final List<LogEntry> candidates = storedByDateTypeAuthor.get(getLogMergeKey(log));
+        if (candidates != null) {
+            for (final LogEntry candidate : candidates) {
+                // logs with different service log ids are different logs, even if they look the same
+                if (!matchedIds.contains(candidate.id) && (candidate.serviceLogId == null || log.serviceLogId == null)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSameLogContent(final LogEntry storedLog, final LogEntry log) {
+        return (log.serviceLogId == null || log.serviceLogId.equals(storedLog.serviceLogId)) &&
+                storedLog.logType == log.logType &&
+                StringUtils.equals(storedLog.author, log.author) &&
+                StringUtils.equals(storedLog.authorGuid, log.authorGuid) &&
+                StringUtils.equals(storedLog.log, log.log) &&
+                storedLog.date == log.date &&
+                storedLog.found == log.found &&
+                storedLog.friend == log.friend;
+    }
+
+    private static boolean isSameLogImages(final List<Image> storedImages, final List<Image> images) {
+        if (storedImages.size() != images.size()) {
+            return false;
+        }
+        for (int i = 0; i < images.size(); i++) {
+            final Image storedImage = storedImages.get(i);
+            final Image image = images.get(i);
+            // compare the values as they are stored
+            if (!StringUtils.equals(storedImage.getUrl(), image.getUrl()) ||
+                    !StringUtils.equals(StringUtils.defaultIfBlank(storedImage.title, ""), StringUtils.defaultIfBlank(image.title, "")) ||
+                    !StringUtils.equals(StringUtils.defaultIfBlank(storedImage.getDescription(), ""), StringUtils.defaultIfBlank(image.getDescription(), ""))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long insertLog(final String geocode, final LogEntry log, final long timestamp) {
+        final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
+        insertLog.bindString(1, geocode);
+        bindLogValues(insertLog, 2, log, timestamp);
+        return insertLog.executeInsert();
+    }
+
+    private static void updateLog(final int logId, final LogEntry log, final long timestamp) {
+        final SQLiteStatement updateLog = PreparedStatement.UPDATE_LOG.getStatement();
+        bindLogValues(updateLog, 1, log, timestamp);
+        updateLog.bindLong(10, logId);
+        updateLog.executeUpdateDelete();
+    }
+
+    /**
+     * bind the columns updated, service_log_id, type, author, author_guid, log, date, found and friend, starting at the given index
+     */
+    private static void bindLogValues(final SQLiteStatement statement, final int firstIndex, final LogEntry log, final long timestamp) {
+        statement.bindLong(firstIndex, timestamp);
+        if (log.serviceLogId == null) {
+            statement.bindNull(firstIndex + 1);
+        } else {
+            statement.bindString(firstIndex + 1, log.serviceLogId);
+        }
+        statement.bindLong(firstIndex + 2, log.logType.id);
+        statement.bindString(firstIndex + 3, log.author);
+        statement.bindString(firstIndex + 4, log.authorGuid);
+        statement.bindString(firstIndex + 5, log.log);
+        statement.bindLong(firstIndex + 6, log.date);
+        statement.bindLong(firstIndex + 7, log.found);
+        statement.bindLong(firstIndex + 8, log.friend ? 1 : 0);
+    }
+
+    private static void insertLogImages(final long logId, final LogEntry log) {
+        if (!log.hasLogImages()) {
+            return;
+        }
+        final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
+        for (final Image img : log.getLogImages()) {
+            insertImage.bindLong(1, logId);
+            insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
+            insertImage.bindString(3, img.getUrl());
+            insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
+            insertImage.executeInsert();
+        }
+    }
+
+    private static void removeLogImages(final long logId) {
+        final SQLiteStatement removeImages = PreparedStatement.REMOVE_LOG_IMAGES.getStatement();
+        removeImages.bindLong(1, logId);
+        removeImages.executeUpdateDelete();
+    }
+
     private static void saveLogCountsWithoutTransaction(final Geocache cache) {
         final String geocode = cache.getGeocode();
-        database.delete(dbTableLogCount, "geocode = ?", new String[]{geocode});
+        final SQLiteStatement remove = PreparedStatement.REMOVE_LOG_COUNTS.getStatement();
+        remove.bindString(1, geocode);
+        remove.executeUpdateDelete();
 
         final Map<LogType, Integer> logCounts = cache.getLogCounts();
         if (MapUtils.isNotEmpty(logCounts)) {
@@ -2515,48 +3027,50 @@ public class DataStore {
             return new HashSet<>();
         }
 
-        final Set<Geocache> result = new HashSet<>(geocodes.size());
-        final Set<String> remaining = new HashSet<>(geocodes);
+        try (ContextLogger cLog = new ContextLogger("DataStore.loadCaches(#%d,flags:%s)", geocodes.size(), loadFlags)) {
+            final Set<Geocache> result = new HashSet<>(geocodes.size());
+            final Set<String> remaining = new HashSet<>(geocodes);
 
-        if (loadFlags.contains(LoadFlag.CACHE_BEFORE)) {
-            for (final String geocode : geocodes) {
-                final Geocache cache = cacheCache.getCacheFromCache(geocode);
-                if (cache != null) {
-                    result.add(cache);
-                    remaining.remove(cache.getGeocode());
+            if (loadFlags.contains(LoadFlag.CACHE_BEFORE)) {
+                for (final String geocode : geocodes) {
+                    final Geocache cache = cacheCache.getCacheFromCache(geocode);
+                    if (cache != null) {
+                        result.add(cache);
+                        remaining.remove(cache.getGeocode());
+                    }
                 }
             }
-        }
-
-        if (loadFlags.contains(LoadFlag.DB_MINIMAL) ||
-                loadFlags.contains(LoadFlag.ATTRIBUTES) ||
-                loadFlags.contains(LoadFlag.WAYPOINTS) ||
-                loadFlags.contains(LoadFlag.SPOILERS) ||
-                loadFlags.contains(LoadFlag.LOGS) ||
-                loadFlags.contains(LoadFlag.INVENTORY) ||
-                loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
 
-            final Set<Geocache> cachesFromDB = loadCachesFromGeocodes(remaining, loadFlags);
-            result.addAll(cachesFromDB);
-            for (final Geocache cache : cachesFromDB) {
-                remaining.remove(cache.getGeocode());
+            if (loadFlags.contains(LoadFlag.DB_MINIMAL) ||
+                    loadFlags.contains(LoadFlag.ATTRIBUTES) ||
+                    loadFlags.contains(LoadFlag.WAYPOINTS) ||
+                    loadFlags.contains(LoadFlag.SPOILERS) ||
+                    loadFlags.contains(LoadFlag.LOGS) ||
+                    loadFlags.contains(LoadFlag.INVENTORY) ||
+                    loadFlags.contains(LoadFlag.OFFLINE_LOG)) {
+
+                final Set<Geocache> cachesFromDB = loadCachesFromGeocodes(remaining, loadFlags);
+                result.addAll(cachesFromDB);
+                for (final Geocache cache : cachesFromDB) {
+                    remaining.remove(cache.getGeocode());
+                }
             }
-        }
 
-        if (loadFlags.contains(LoadFlag.CACHE_AFTER)) {
-            for (final String geocode : new HashSet<>(remaining)) {
-                final Geocache cache = cacheCache.getCacheFromCache(geocode);
-                if (cache != null) {
-                    result.add(cache);
-                    remaining.remove(cache.getGeocode());
+            if (loadFlags.contains(LoadFlag.CACHE_AFTER)) {
+                for (final String geocode : new HashSet<>(remaining)) {
+                    final Geocache cache = cacheCache.getCacheFromCache(geocode);
+                    if (cache != null) {
+                        result.add(cache);
+                        remaining.remove(cache.getGeocode());
+                    }
                 }
             }
-        }
 
-        if (CollectionUtils.isNotEmpty(remaining)) {
-            Log.d("DataStore.loadCaches(" + remaining.toString() + ") returned no results");
+            if (CollectionUtils.isNotEmpty(remaining)) {
+                Log.d("DataStore.loadCaches(" + remaining.toString() + ") returned no results");
+            }
+            return result;
         }
-        return result;
     }
 
     /*
@@ -2788,6 +3302,10 @@ public class DataStore {
     @NonNull
     public static Map<String, Set<Integer>> loadLists(final Collection<String> geocodes) {
         final Map<String, Set<Integer>> cacheLists = new HashMap<>();
+        if (geocodes.isEmpty()) {
+            return cacheLists;
+        }
+        init();
 
         final String query = "SELECT list_id, geocode FROM " + dbTableCachesLists +
                 " WHERE " +
@@ -3063,6 +3581,11 @@ public class DataStore {
      */
     @NonNull
     public static List<LogEntry> loadLogs(final String geocode) {
+        return Collections.unmodifiableList(loadLogs(geocode, 100));
+    }
+
+    @NonNull
+    private static List<LogEntry> loadLogs(final String geocode, final int maxLogs) {
         try (ContextLogger cLog = new ContextLogger("DataStore.loadLogs(%s)", geocode)) {
             final List<LogEntry> logs = new ArrayList<>();
 
@@ -3076,11 +3599,11 @@ public class DataStore {
                 //                           0          1               2     3       4            5    6     7      8                                       9                10      11     12   13
                 "SELECT cg_logs._id AS cg_logs_id, service_log_id, type, author, author_guid, log, date, found, friend, " + dbTableLogImages + "._id as cg_logImages_id, log_id, title, url, description"
                             + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages
-                            + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC", new String[]{geocode});
+                            + " ON ( cg_logs._id = log_id ) WHERE geocode = ?  ORDER BY date DESC, cg_logs._id ASC, cg_logImages_id ASC", new String[]{geocode});
 
             LogEntry.Builder log = null;
             int cnt = 0;
-            while (cursor.moveToNext() && logs.size() < 100) {
+            while (cursor.moveToNext() && logs.size() < maxLogs) {
                 cnt ++;
                 if (log == null || log.getId() != cursor.getInt(0)) {
                     // Start of a new log entry group (we may have several entries if the log has several images).
@@ -3113,7 +3636,7 @@ public class DataStore {
 
             cLog.add("l:%d,#:%d", cnt, logs.size());
 
-            return Collections.unmodifiableList(logs);
+            return logs;
         }
     }
 
@@ -3249,21 +3772,13 @@ public class DataStore {
             final SQLiteStatement compiledStmnt;
             synchronized (PreparedStatement.COUNT_TYPE_LIST) {
                 // All the statements here are used only once and are protected through the current synchronized block
-                if (list == PseudoList.ALL_LIST.id) {
-                    if (cacheType == CacheType.ALL) {
-                        compiledStmnt = PreparedStatement.COUNT_ALL_TYPES_ALL_LIST.getStatement();
-                    } else {
-                        compiledStmnt = PreparedStatement.COUNT_TYPE_ALL_LIST.getStatement();
-                        compiledStmnt.bindString(1, cacheType.id);
-                    }
-                } else if (cacheType == CacheType.ALL) {
-                    compiledStmnt = PreparedStatement.COUNT_ALL_TYPES_LIST.getStatement();
-                    compiledStmnt.bindLong(1, list);
+                if (cacheType == CacheType.ALL) {
+                    compiledStmnt = PreparedStatement.COUNT_STORED_LIST.getStatement();
                 } else {
                     compiledStmnt = PreparedStatement.COUNT_TYPE_LIST.getStatement();
-                    compiledStmnt.bindString(1, cacheType.id);
-                    compiledStmnt.bindLong(1, list);
+                    compiledStmnt.bindString(2, cacheType.id);
                 }
+                compiledStmnt.bindLong(1, list == PseudoList.ALL_LIST.id ? ALL_LISTS_COUNT_ID : list);
 
                 return (int) compiledStmnt.simpleQueryForLong();
             }
@@ -3339,13 +3854,13 @@ public class DataStore {
      * @return a non-null set of geocodes
      */
     @NonNull
-    private static Set<String> loadBatchOfStoredGeocodes(final Geopoint coords, final CacheType cacheType, final int listId) {
+    private static Set<String> loadBatchOfStoredGeocodes(final Geopoint coords, final CacheType cacheType, final int listId, @Nullable final SqlFilter filter) {
         if (cacheType == null) {
             throw new IllegalArgumentException("cacheType must not be null");
         }
 
-        try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.loadBatchOfStoredGeocodes(coords=%s, type=%s, list=%d)",
-                String.valueOf(coords), String.valueOf(cacheType), listId)) {
+        try (ContextLogger cLog = new ContextLogger(Log.LogLevel.DEBUG, "DataStore.loadBatchOfStoredGeocodes(coords=%s, type=%s, list=%d, filter=%s)",
+                String.valueOf(coords), String.valueOf(cacheType), listId, String.valueOf(filter))) {
             final StringBuilder selection = new StringBuilder();
 
             String[] selectionArgs = null;
@@ -3360,6 +3875,11 @@ public class DataStore {
             selection.append(listId != PseudoList.ALL_LIST.id ? "=" + Math.max(listId, 1) : ">= " + StoredList.STANDARD_LIST_ID);
             selection.append(')');
 
+            if (filter != null) {
+                selection.append(" AND (").append(filter.selection).append(')');
+                selectionArgs = ArrayUtils.addAll(selectionArgs, filter.selectionArgs);
+            }
+
             cLog.add("Sel:" + selection);
 
             if (coords != null) {
@@ -3481,6 +4001,9 @@ public class DataStore {
     /**
      * Remove caches which are not on any list in the background. Once it has been executed once it will not do anything.
      * This must be called from the UI thread to ensure synchronization of an internal variable.
+     * <p/>
+     * The cleanup works in small chunks with pauses in between, so that it does not block other database users for a
+     * longer time. Its progress is stored, so that an interrupted cleanup continues where it stopped on the next start.
      */
     public static void cleanIfNeeded(final Context context) {
         if (databaseCleaned) {
@@ -3491,22 +4014,15 @@ public class DataStore {
         Schedulers.io().scheduleDirect(() -> {
             Log.d("Database clean: started");
             try {
-                final Set<String> geocodes = new HashSet<>();
-                final String timestampString = Long.toString(System.currentTimeMillis() - DAYS_AFTER_CACHE_IS_DELETED);
-                queryToColl(dbTableCaches,
-                        new String[]{"geocode"},
-                        "detailedupdate < ? AND visiteddate < ? AND geocode NOT IN (SELECT DISTINCT (geocode) FROM " + dbTableCachesLists + ")",
-                        new String[]{timestampString, timestampString},
-                        null,
-                        null,
-                        geocodes,
-                        GET_STRING_0);
-
-                final Set<String> withoutOfflineLogs = exceptCachesWithOfflineLog(geocodes);
-                Log.d("Database clean: removing " + withoutOfflineLogs.size() + " geocaches");
-                removeCaches(withoutOfflineLogs, LoadFlags.REMOVE_ALL);
+                init();
+                final long removedRows = removeExpiredAndOrphanedRecords(MAINTENANCE_ROWS_PER_CHUNK);
+                removeInvalidExtensionValues();
 
-                deleteOrphanedRecords();
+                if (removedRows >= MAINTENANCE_ANALYZE_THRESHOLD) {
+                    // refresh the statistics of the query planner after larger changes
+                    Log.d("Database clean: analyzing after removing " + removedRows + " rows");
+                    database.execSQL("ANALYZE");
+                }
 
                 // Remove the obsolete "_others" directory where the user avatar used to be stored.
                 FileUtils.deleteDirectory(LocalStorage.getGeocacheDataDirectory("_others"));
@@ -3515,6 +4031,9 @@ public class DataStore {
                 if (version > -1) {
                     Settings.setVersion(version);
                 }
+            } catch (final InterruptedException e) {
+                Log.d("Database clean: interrupted");
+                return;
             } catch (final Exception e) {
                 Log.w("DataStore.clean", e);
             }
@@ -3523,36 +4042,110 @@ public class DataStore {
         });
     }
 
-    private static void deleteOrphanedRecords() {
-        Log.d("Database clean: removing non-existing lists");
-        database.delete(dbTableCachesLists, "list_id <> " + StoredList.STANDARD_LIST_ID + " AND list_id NOT IN (SELECT _id + " + customListIdOffset + " FROM " + dbTableLists + ")", null);
-
-        Log.d("Database clean: removing non-existing caches from attributes");
-        database.delete(dbTableAttributes, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
-
-        Log.d("Database clean: removing non-existing caches from spoilers");
-        database.delete(dbTableSpoilers, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
-
-        Log.d("Database clean: removing non-existing caches from lists");
-        database.delete(dbTableCachesLists, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
-
-        Log.d("Database clean: removing non-existing caches from waypoints");
-        database.delete(dbTableWaypoints, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+    /**
+     * Remove expired caches and orphaned records in chunks, continuing at the stored progress of an interrupted run.
+     *
+     * @param rowsPerChunk number of existing rows checked for orphaned records in one statement
+     * @return the number of removed rows
+     */
+    static long removeExpiredAndOrphanedRecords(final int rowsPerChunk) throws InterruptedException {
+        final MaintenanceProgress progress = new MaintenanceProgress();
+        final DBExtension stored = DBExtension.load(DBExtensionType.DBEXTENSION_MAINTENANCE, MAINTENANCE_PROGRESS_KEY);
+        final int firstStep = stored != null ? (int) stored.getLong1() : 0;
+        long removedRows = 0;
+        for (int step = firstStep; step <= ORPHANED_RECORDS.length; step++) {
+            final long firstRowId = stored != null && step == firstStep ? stored.getLong2() : 0;
+            removedRows += step == 0 ? removeExpiredCaches(firstRowId, progress) : removeOrphanedRecords(step, firstRowId, rowsPerChunk, progress);
+        }
+        DBExtension.removeAll(DBExtensionType.DBEXTENSION_MAINTENANCE, MAINTENANCE_PROGRESS_KEY);
+        return removedRows;
+    }
 
-        Log.d("Database clean: removing non-existing caches from trackables");
-        database.delete(dbTableTrackables, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+    /**
+     * Remove the caches which have not been updated or visited for some days and are not stored on any list, in chunks
+     * ordered by their row id.
+     *
+     * @return the number of removed caches
+     */
+    private static long removeExpiredCaches(final long firstRowId, final MaintenanceProgress progress) throws InterruptedException {
+        final String timestampString = Long.toString(System.currentTimeMillis() - DAYS_AFTER_CACHE_IS_DELETED);
+        long lastRowId = firstRowId;
+        long removed = 0;
+        while (true) {
+            final Set<String> geocodes = new HashSet<>();
+            try (Cursor cursor = database.rawQuery("SELECT _id, geocode FROM " + dbTableCaches
+                    + " WHERE _id > ? AND detailedupdate < ? AND visiteddate < ?"
+                    + " AND NOT EXISTS (SELECT 1 FROM " + dbTableCachesLists + " WHERE " + dbTableCachesLists + ".geocode = " + dbTableCaches + ".geocode)"
+                    + " AND NOT EXISTS (SELECT 1 FROM " + dbTableLogsOffline + " WHERE " + dbTableLogsOffline + ".geocode = " + dbTableCaches + ".geocode)"
+                    + " ORDER BY _id LIMIT " + MAINTENANCE_CACHES_PER_CHUNK, new String[] { Long.toString(lastRowId), timestampString, timestampString })) {
+                while (cursor.moveToNext()) {
+                    lastRowId = cursor.getLong(0);
+                    geocodes.add(cursor.getString(1));
+                }
+            }
+            if (geocodes.isEmpty()) {
+                Log.d("Database clean: removed " + removed + " geocaches");
+                return removed;
+            }
+            removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            removed += geocodes.size();
+            progress.pause(0, lastRowId);
+        }
+    }
 
-        Log.d("Database clean: removing non-existing caches from logcount");
-        database.delete(dbTableLogCount, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+    /**
+     * Remove the orphaned records of one table, checking a window of existing rows at a time.
+     *
+     * @param step index of the table in {@link #ORPHANED_RECORDS}, counting from 1
+     * @return the number of removed records
+     */
+    private static long removeOrphanedRecords(final int step, final long firstRowId, final int rowsPerChunk, final MaintenanceProgress progress) throws InterruptedException {
+        final String table = ORPHANED_RECORDS[step - 1][0];
+        final String whereClause = "rowid > ? AND rowid <= ? AND " + ORPHANED_RECORDS[step - 1][1];
+        // the window ends at the last of the next existing rows, so gaps in the row ids cost nothing
+        final String windowEndQuery = "SELECT IFNULL(MAX(rowid), 0) FROM (SELECT rowid FROM " + table + " WHERE rowid > ? ORDER BY rowid LIMIT " + rowsPerChunk + ")";
+        long removed = 0;
+        long rowId = firstRowId;
+        while (true) {
+            final long windowEnd = DatabaseUtils.longForQuery(database, windowEndQuery, new String[] { Long.toString(rowId) });
+            if (windowEnd <= rowId) {
+                break;
+            }
+            removed += database.delete(table, whereClause, new String[] { Long.toString(rowId), Long.toString(windowEnd) });
+            rowId = windowEnd;
+            progress.pause(step, rowId);
+        }
+        Log.d("Database clean: removed " + removed + " orphaned records from " + table);
+        return removed;
+    }
 
-        DBLogOfflineUtils.cleanOrphanedRecords(database);
+    /**
+     * Progress of the database cleanup, which is stored from time to time, so that an interrupted cleanup can continue.
+     */
+    private static final class MaintenanceProgress {
+        private long lastSaved = System.currentTimeMillis();
 
-        Log.d("Database clean: removing non-existing caches from logs");
-        database.delete(dbTableLogs, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+        /**
+         * Give other database users the chance to run, and store the progress if it has not been stored for a while.
+         */
+        void pause(final int step, final long rowId) throws InterruptedException {
+            final long now = System.currentTimeMillis();
+            if (now - lastSaved >= MAINTENANCE_PROGRESS_INTERVAL_MILLIS) {
+                DBExtension.removeAll(DBExtensionType.DBEXTENSION_MAINTENANCE, MAINTENANCE_PROGRESS_KEY);
+                DBExtension.add(DBExtensionType.DBEXTENSION_MAINTENANCE, MAINTENANCE_PROGRESS_KEY, step, rowId, 0, 0, "", "", "", "");
+                lastSaved = now;
+            }
+            Thread.sleep(MAINTENANCE_PAUSE_MILLIS);
+        }
+    }
 
-        Log.d("Database clean: removing non-existing logs from logimages");
-        database.delete(dbTableLogImages, "log_id NOT IN (SELECT _id FROM " + dbTableLogs + ")", null);
+    @NonNull
+    private static String notExistingCache(@NonNull final String table) {
+        // a record without geocode (like a trackable not in a cache) is no orphan
+        return table + ".geocode IS NOT NULL AND NOT EXISTS (SELECT 1 FROM " + dbTableCaches + " WHERE " + dbTableCaches + ".geocode = " + table + ".geocode)";
+    }
 
+    private static void removeInvalidExtensionValues() {
         Log.d("Database clean: remove non-existing extension values");
         final DBExtensionType[] extensionValues = DBExtensionType.values();
         if (extensionValues.length > 0) {
@@ -3565,27 +4158,6 @@ public class DataStore {
         database.delete(dbTableExtension, "_type=" + DBEXTENSION_INVALID.id, null);
     }
 
-    /**
-     * remove all geocodes from the given list of geocodes where an offline log exists
-     */
-    @NonNull
-    private static Set<String> exceptCachesWithOfflineLog(@NonNull final Set<String> geocodes) {
-        if (geocodes.isEmpty()) {
-            return geocodes;
-        }
-
-        final List<String> geocodesWithOfflineLog = queryToColl(dbTableLogsOffline,
-                new String[] { "geocode" },
-                null,
-                null,
-                null,
-                null,
-                new LinkedList<>(),
-                GET_STRING_0);
-        geocodes.removeAll(geocodesWithOfflineLog);
-        return geocodes;
-    }
-
     public static void removeAllFromCache() {
         // clean up CacheCache
         cacheCache.removeAllFromCache();
@@ -3695,13 +4267,12 @@ public class DataStore {
 
         final Resources res = CgeoApplication.getInstance().getResources();
         final List<StoredList> lists = new ArrayList<>();
-        lists.add(new StoredList(StoredList.STANDARD_LIST_ID, res.getString(R.string.list_inbox), EmojiUtils.NO_EMOJI, (int) PreparedStatement.COUNT_CACHES_ON_STANDARD_LIST.simpleQueryForLong()));
+        lists.add(new StoredList(StoredList.STANDARD_LIST_ID, res.getString(R.string.list_inbox), EmojiUtils.NO_EMOJI, getListCount(StoredList.STANDARD_LIST_ID)));
 
         try {
-            final String query = "SELECT l._id AS _id, l.title AS title, l.emoji AS emoji, COUNT(c.geocode) AS count" +
-                    " FROM " + dbTableLists + " l LEFT OUTER JOIN " + dbTableCachesLists + " c" +
-                    " ON l._id + " + customListIdOffset + " = c.list_id" +
-                    " GROUP BY l._id" +
+            final String query = "SELECT l._id AS _id, l.title AS title, l.emoji AS emoji," +
+                    " (SELECT IFNULL(SUM(n.count), 0) FROM " + dbTableListCounts + " n WHERE n.list_id = l._id + " + customListIdOffset + ") AS count" +
+                    " FROM " + dbTableLists + " l" +
                     " ORDER BY l.title COLLATE NOCASE ASC";
 
             lists.addAll(getListsFromCursor(database.rawQuery(query, null)));
@@ -3747,11 +4318,22 @@ public class DataStore {
         }
 
         // fall back to standard list in case of invalid list id
-        return new StoredList(StoredList.STANDARD_LIST_ID, res.getString(R.string.list_inbox), EmojiUtils.NO_EMOJI, (int) PreparedStatement.COUNT_CACHES_ON_STANDARD_LIST.simpleQueryForLong());
+        return new StoredList(StoredList.STANDARD_LIST_ID, res.getString(R.string.list_inbox), EmojiUtils.NO_EMOJI, getListCount(StoredList.STANDARD_LIST_ID));
     }
 
     public static int getAllCachesCount() {
-        return (int) PreparedStatement.COUNT_ALL_CACHES.simpleQueryForLong();
+        return getListCount(ALL_LISTS_COUNT_ID);
+    }
+
+    /**
+     * Number of caches on a list, read from the maintained list counters
+     */
+    private static int getListCount(final int countId) {
+        synchronized (PreparedStatement.COUNT_TYPE_LIST) {
+            final SQLiteStatement compiledStmnt = PreparedStatement.COUNT_LIST.getStatement();
+            compiledStmnt.bindLong(1, countId);
+            return (int) compiledStmnt.simpleQueryForLong();
+        }
     }
 
     /**
@@ -3889,154 +4471,245 @@ public class DataStore {
     }
 
     public static void moveToList(final Collection<Geocache> caches, final int oldListId, final int newListId) {
-        if (caches.isEmpty()) {
-            return;
-        }
-        final AbstractList list = AbstractList.getListById(newListId);
-        if (list == null) {
-            return;
+        if (moveGeocodesToList(Geocache.getGeocodes(caches), oldListId, newListId)) {
+            updateLists(caches, lists -> {
+                lists.remove(oldListId);
+                lists.add(newListId);
+            });
         }
-        if (!list.isConcrete()) {
-            return;
+    }
+
+    /**
+     * Move the caches with the given geocodes from one list to another. Caches in memory are updated, other caches
+     * are not loaded.
+     *
+     * @return true if the caches have been moved, false if there was nothing to move or the target is no concrete list
+     */
+    public static boolean moveGeocodesToList(final Collection<String> geocodes, final int oldListId, final int newListId) {
+        if (geocodes.isEmpty() || !isConcreteList(newListId)) {
+            return false;
         }
         init();
 
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindLong(1, oldListId);
-                remove.bindString(2, cache.getGeocode());
-                remove.execute();
-
-                add.bindLong(1, newListId);
-                add.bindString(2, cache.getGeocode());
-                add.execute();
-
-                cache.getLists().remove(oldListId);
-                cache.getLists().add(newListId);
-            }
+            fillTempGeocodes(geocodes);
+            database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")", new Object[] { oldListId });
+            database.execSQL("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableTempGeocodes, new Object[] { newListId });
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        updateCachedLists(geocodes, lists -> {
+            lists.remove(oldListId);
+            lists.add(newListId);
+        });
+        return true;
     }
 
     public static void removeFromList(final Collection<Geocache> caches, final int oldListId) {
-        init();
+        removeGeocodesFromList(Geocache.getGeocodes(caches), oldListId);
+        updateLists(caches, lists -> lists.remove(oldListId));
+    }
 
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
+    /**
+     * Remove the caches with the given geocodes from a list. Caches in memory are updated, other caches are not loaded.
+     */
+    public static void removeGeocodesFromList(final Collection<String> geocodes, final int oldListId) {
+        if (geocodes.isEmpty()) {
+            return;
+        }
+        init();
 
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindLong(1, oldListId);
-                remove.bindString(2, cache.getGeocode());
-                remove.execute();
-                cache.getLists().remove(oldListId);
-            }
+            fillTempGeocodes(geocodes);
+            database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")", new Object[] { oldListId });
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        updateCachedLists(geocodes, lists -> lists.remove(oldListId));
     }
 
     public static void addToList(final Collection<Geocache> caches, final int listId) {
-        if (caches.isEmpty()) {
-            return;
+        if (addGeocodesToList(Geocache.getGeocodes(caches), listId)) {
+            updateLists(caches, lists -> lists.add(listId));
         }
-        final AbstractList list = AbstractList.getListById(listId);
-        if (list == null) {
-            return;
-        }
-        if (!list.isConcrete()) {
-            return;
+    }
+
+    /**
+     * Add the caches with the given geocodes to a list. Caches in memory are updated, other caches are not loaded.
+     *
+     * @return true if the caches have been added, false if there was nothing to add or the list is no concrete list
+     */
+    public static boolean addGeocodesToList(final Collection<String> geocodes, final int listId) {
+        if (geocodes.isEmpty() || !isConcreteList(listId)) {
+            return false;
         }
         init();
 
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                add.bindLong(1, listId);
-                add.bindString(2, cache.getGeocode());
-                add.execute();
-
-                cache.getLists().add(listId);
-            }
+            insertTempGeocodesIntoList(geocodes, listId);
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        updateCachedLists(geocodes, lists -> lists.add(listId));
+        return true;
     }
 
+    /**
+     * Replace the lists of the given caches.
+     */
     public static void saveLists(final Collection<Geocache> caches, final Set<Integer> listIds) {
-        if (caches.isEmpty()) {
-            return;
+        if (saveGeocodesLists(Geocache.getGeocodes(caches), listIds)) {
+            updateLists(caches, lists -> {
+                lists.clear();
+                lists.addAll(listIds);
+            });
         }
-        init();
+    }
 
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_ALL_LISTS.getStatement();
+    /**
+     * Replace the lists of the caches with the given geocodes. Caches in memory are updated, other caches are not loaded.
+     *
+     * @return true if the lists have been replaced, false if there was nothing to change or one of the lists is no concrete list
+     */
+    public static boolean saveGeocodesLists(final Collection<String> geocodes, final Set<Integer> listIds) {
+        if (geocodes.isEmpty()) {
+            return false;
+        }
+        for (final Integer listId : listIds) {
+            if (!isConcreteList(listId)) {
+                return false;
+            }
+        }
+        init();
 
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindString(1, cache.getGeocode());
-                remove.execute();
-                cache.getLists().clear();
-
-                for (final Integer listId : listIds) {
-                    final AbstractList list = AbstractList.getListById(listId);
-                    if (list == null) {
-                        return;
-                    }
-                    if (!list.isConcrete()) {
-                        return;
-                    }
-                    add.bindLong(1, listId);
-                    add.bindString(2, cache.getGeocode());
-                    add.execute();
-
-                    cache.getLists().add(listId);
-                }
+            fillTempGeocodes(geocodes);
+            database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")");
+            for (final Integer listId : listIds) {
+                database.execSQL("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableTempGeocodes, new Object[] { listId });
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        updateCachedLists(geocodes, lists -> {
+            lists.clear();
+            lists.addAll(listIds);
+        });
+        return true;
     }
 
     public static void addToLists(final Collection<Geocache> caches, final Map<String, Set<Integer>> cachesLists) {
-        if (caches.isEmpty() || cachesLists.isEmpty()) {
+        final Map<String, Set<Integer>> listsOfCaches = new HashMap<>();
+        for (final Geocache cache : caches) {
+            final Set<Integer> lists = cachesLists.get(cache.getGeocode());
+            if (lists != null) {
+                listsOfCaches.put(cache.getGeocode(), lists);
+            }
+        }
+        addGeocodesToLists(listsOfCaches);
+        for (final Geocache cache : caches) {
+            final Set<Integer> lists = listsOfCaches.get(cache.getGeocode());
+            if (lists != null) {
+                cache.getLists().addAll(lists);
+            }
+        }
+    }
+
+    /**
+     * Add caches to lists, e.g. to restore the lists returned by {@link #markDropped(Collection)}. This uses one
+     * statement per list instead of one per cache. Caches in memory are updated, other caches are not loaded.
+     *
+     * @param cachesLists the lists to add to by geocode
+     */
+    public static void addGeocodesToLists(final Map<String, Set<Integer>> cachesLists) {
+        final Map<Integer, Set<String>> geocodesByList = new HashMap<>();
+        for (final Entry<String, Set<Integer>> entry : cachesLists.entrySet()) {
+            for (final Integer listId : entry.getValue()) {
+                Set<String> geocodes = geocodesByList.get(listId);
+                if (geocodes == null) {
+                    geocodes = new HashSet<>();
+                    geocodesByList.put(listId, geocodes);
+                }
+                geocodes.add(entry.getKey());
+            }
+        }
+        if (geocodesByList.isEmpty()) {
             return;
         }
         init();
 
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                final Set<Integer> lists = cachesLists.get(cache.getGeocode());
-                if (lists.isEmpty()) {
-                    continue;
-                }
-
-                for (final Integer listId : lists) {
-                    add.bindLong(1, listId);
-                    add.bindString(2, cache.getGeocode());
-                    add.execute();
-                }
-
+            for (final Entry<Integer, Set<String>> entry : geocodesByList.entrySet()) {
+                insertTempGeocodesIntoList(entry.getValue(), entry.getKey());
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        for (final Entry<String, Set<Integer>> entry : cachesLists.entrySet()) {
+            final Geocache cache = cacheCache.getCacheFromCache(entry.getKey());
+            if (cache != null) {
+                cache.getLists().addAll(entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isConcreteList(final int listId) {
+        final AbstractList list = AbstractList.getListById(listId);
+        return list != null && list.isConcrete();
+    }
+
+    /**
+     * Fill the temporary table of geocodes which the set based list statements work on. Must be called inside a
+     * transaction, so that the table is filled and used on the same database connection.
+     */
+    private static void fillTempGeocodes(final Collection<String> geocodes) {
+        database.execSQL("CREATE TEMP TABLE IF NOT EXISTS " + dbTableTempGeocodes + " (geocode TEXT PRIMARY KEY)");
+        database.execSQL("DELETE FROM " + dbTableTempGeocodes);
+        final SQLiteStatement insert = database.compileStatement("INSERT OR IGNORE INTO " + dbTableTempGeocodes + " (geocode) VALUES (?)");
+        try {
+            for (final String geocode : geocodes) {
+                insert.bindString(1, geocode);
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    private static void insertTempGeocodesIntoList(final Collection<String> geocodes, final int listId) {
+        fillTempGeocodes(geocodes);
+        database.execSQL("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableTempGeocodes, new Object[] { listId });
+    }
+
+    /**
+     * Apply a change of the list memberships to the given caches.
+     */
+    private static void updateLists(final Collection<Geocache> caches, final Action1<Set<Integer>> update) {
+        for (final Geocache cache : caches) {
+            update.call(cache.getLists());
+        }
+    }
+
+    /**
+     * Apply a change of the list memberships to those of the given caches which are in memory, so they need not be reloaded.
+     */
+    private static void updateCachedLists(final Collection<String> geocodes, final Action1<Set<Integer>> update) {
+        for (final String geocode : geocodes) {
+            final Geocache cache = cacheCache.getCacheFromCache(geocode);
+            if (cache != null) {
+                update.call(cache.getLists());
+            }
+        }
     }
 
     public static void setCacheIcons(final Collection<Geocache> caches, final int newCacheIcon) {
@@ -4260,20 +4933,20 @@ public class DataStore {
 
         HISTORY_COUNT("SELECT COUNT(*) FROM " + dbTableCaches + " WHERE visiteddate > 0 OR geocode IN (SELECT geocode FROM " + dbTableLogsOffline + ")"),
         MOVE_TO_STANDARD_LIST("UPDATE " + dbTableCachesLists + " SET list_id = " + StoredList.STANDARD_LIST_ID + " WHERE list_id = ? AND geocode NOT IN (SELECT DISTINCT (geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID + ")"),
-        REMOVE_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode = ?"),
-        REMOVE_FROM_ALL_LISTS("DELETE FROM " + dbTableCachesLists + " WHERE geocode = ?"),
         REMOVE_ALL_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ?"),
         UPDATE_VISIT_DATE("UPDATE " + dbTableCaches + " SET visiteddate = ? WHERE geocode = ?"),
         INSERT_LOG_IMAGE("INSERT INTO " + dbTableLogImages + " (log_id, title, url, description) VALUES (?, ?, ?, ?)"),
         INSERT_LOG_COUNTS("INSERT INTO " + dbTableLogCount + " (geocode, updated, type, count) VALUES (?, ?, ?, ?)"),
         INSERT_SPOILER("INSERT INTO " + dbTableSpoilers + " (geocode, updated, url, title, description) VALUES (?, ?, ?, ?, ?)"),
         REMOVE_SPOILERS("DELETE FROM " + dbTableSpoilers + " WHERE geocode = ?"),
+        REMOVE_LOG_COUNTS("DELETE FROM " + dbTableLogCount + " WHERE geocode = ?"),
         OFFLINE_LOG_ID_OF_GEOCODE("SELECT _id FROM " + dbTableLogsOffline + " WHERE geocode = ?"),
-        COUNT_CACHES_ON_STANDARD_LIST("SELECT COUNT(geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID),
-        COUNT_ALL_CACHES("SELECT COUNT(DISTINCT(geocode)) FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID),
         INSERT_LOG("INSERT INTO " + dbTableLogs + " (geocode, updated, service_log_id, type, author, author_guid, log, date, found, friend) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
-        CLEAN_LOG("DELETE FROM " + dbTableLogs + " WHERE geocode = ? AND date = ? AND type = ? AND author = ?"),
+        UPDATE_LOG("UPDATE " + dbTableLogs + " SET updated = ?, service_log_id = ?, type = ?, author = ?, author_guid = ?, log = ?, date = ?, found = ?, friend = ? WHERE _id = ?"),
+        REMOVE_LOG("DELETE FROM " + dbTableLogs + " WHERE _id = ?"),
+        REMOVE_LOG_IMAGES("DELETE FROM " + dbTableLogImages + " WHERE log_id = ?"),
         INSERT_ATTRIBUTE("INSERT INTO " + dbTableAttributes + " (geocode, updated, attribute) VALUES (?, ?, ?)"),
+        REMOVE_ATTRIBUTES("DELETE FROM " + dbTableAttributes + " WHERE geocode = ?"),
         ADD_TO_LIST("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) VALUES (?, ?)"),
         GEOCODE_OFFLINE("SELECT COUNT(l.list_id) FROM " + dbTableCachesLists + " l, " + dbTableCaches + " c WHERE c.geocode = ? AND c.geocode = l.geocode AND c.detailed = 1 AND l.list_id != " + StoredList.TEMPORARY_LIST.id),
         GUID_OFFLINE("SELECT COUNT(l.list_id) FROM " + dbTableCachesLists + " l, " + dbTableCaches + " c WHERE c.guid = ? AND c.geocode = l.geocode AND c.detailed = 1 AND list_id != " + StoredList.TEMPORARY_LIST.id),
@@ -4281,10 +4954,9 @@ public class DataStore {
         GEOCODE_FROM_TITLE("SELECT geocode FROM " + dbTableCaches + " WHERE name = ?"),
         INSERT_TRAILPOINT("INSERT INTO " + dbTableTrailHistory + " (latitude, longitude, altitude, timestamp) VALUES (?, ?, ?, ?)"),
         INSERT_ROUTEITEM("INSERT INTO " + dbTableRoute + " (precedence, type, id, latitude, longitude) VALUES (?, ?, ?, ?, ?)"),
-        COUNT_TYPE_ALL_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l  WHERE c.type = ? AND c.geocode = l.geocode AND l.list_id > 0"), // See use of COUNT_TYPE_LIST for synchronization
-        COUNT_ALL_TYPES_ALL_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.geocode = l.geocode AND l.list_id  > 0"), // See use of COUNT_TYPE_LIST for synchronization
-        COUNT_TYPE_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.type = ? AND c.geocode = l.geocode AND l.list_id = ?"),
-        COUNT_ALL_TYPES_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.geocode = l.geocode AND l.list_id = ?"), // See use of COUNT_TYPE_LIST for synchronization
+        COUNT_LIST("SELECT IFNULL(SUM(count), 0) FROM " + dbTableListCounts + " WHERE list_id = ?"), // See use of COUNT_TYPE_LIST for synchronization
+        COUNT_STORED_LIST("SELECT IFNULL(SUM(count), 0) FROM " + dbTableListCounts + " WHERE list_id = ? AND type <> ''"), // See use of COUNT_TYPE_LIST for synchronization
+        COUNT_TYPE_LIST("SELECT IFNULL(SUM(count), 0) FROM " + dbTableListCounts + " WHERE list_id = ? AND type = ?"),
         CHECK_IF_PRESENT("SELECT COUNT(*) FROM " + dbTableCaches + " WHERE geocode = ?"),
         SEQUENCE_SELECT("SELECT seq FROM " + dbTableSequences + " WHERE name = ?"),
         SEQUENCE_UPDATE("UPDATE " + dbTableSequences + " SET seq = ? WHERE name = ?"),
@@ -4337,21 +5009,22 @@ public class DataStore {
     }
 
     public static Map<String, Set<Integer>> markDropped(final Collection<Geocache> caches) {
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_ALL_LISTS.getStatement();
+        final Set<String> geocodes = Geocache.getGeocodes(caches);
         final Map<String, Set<Integer>> oldLists = new HashMap<>();
+        if (geocodes.isEmpty()) {
+            return oldLists;
+        }
+        init();
 
         database.beginTransaction();
         try {
-            final Set<String> geocodes = new HashSet<>(caches.size());
-            for (final Geocache cache : caches) {
-                oldLists.put(cache.getGeocode(), loadLists(cache.getGeocode()));
-
-                remove.bindString(1, cache.getGeocode());
-                remove.execute();
-                geocodes.add(cache.getGeocode());
-
-                cache.getLists().clear();
+            for (final String geocode : geocodes) {
+                oldLists.put(geocode, new HashSet<>());
             }
+            oldLists.putAll(loadLists(geocodes));
+
+            fillTempGeocodes(geocodes);
+            database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE geocode IN (SELECT geocode FROM " + dbTableTempGeocodes + ")");
             clearVisitDate(geocodes);
             clearLogsOffline(caches);
 
@@ -4359,6 +5032,8 @@ public class DataStore {
         } finally {
             database.endTransaction();
         }
+        updateLists(caches, Set::clear);
+        updateCachedLists(geocodes, Set::clear);
 
         return oldLists;
     }
@@ -4383,7 +5058,16 @@ public class DataStore {
 
     @NonNull
     public static SearchResult getBatchOfStoredCaches(final Geopoint coords, final CacheType cacheType, final int listId) {
-        final Set<String> geocodes = loadBatchOfStoredGeocodes(coords, cacheType, listId);
+        return getBatchOfStoredCaches(coords, cacheType, listId, null);
+    }
+
+    /**
+     * Get the stored caches of a list matching the given filter. The total count of the search result is the number of
+     * caches in the list without applying the filter.
+     */
+    @NonNull
+    public static SearchResult getBatchOfStoredCaches(final Geopoint coords, final CacheType cacheType, final int listId, @Nullable final SqlFilter filter) {
+        final Set<String> geocodes = loadBatchOfStoredGeocodes(coords, cacheType, listId, filter);
         return new SearchResult(geocodes, getAllStoredCachesCount(cacheType, listId));
     }
 
@@ -4819,12 +5503,93 @@ public class DataStore {
             database.delete(dbTableLogsOfflineTrackables, "logoffline_id in (select _id from " + dbTableLogsOffline + " where " + whereClause + ")", whereArgs);
             return database.delete(dbTableLogsOffline, whereClause, whereArgs);
         }
+    }
 
-        public static void cleanOrphanedRecords(final SQLiteDatabase db) {
-            Log.d("Database clean: removing entries for non-existing caches from logs offline");
-            database.delete(dbTableLogsOffline, "geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
-            database.delete(dbTableLogsOfflineImages, "logoffline_id NOT IN (SELECT _id FROM " + dbTableLogsOffline + ")", null);
-            database.delete(dbTableLogsOfflineTrackables, "logoffline_id NOT IN (SELECT _id FROM " + dbTableLogsOffline + ")", null);
+    /**
+     * Selection on the caches table which a cache list filter hands over to the database, so that only the matching
+     * caches are loaded. See {@link cgeo.geocaching.filter.IFilter#getSqlFilter()}.
+     */
+    public static final class SqlFilter {
+
+        /**
+         * kilometers per degree of latitude, rounded down so that bounding boxes are never too small
+         */
+        private static final double KM_PER_DEGREE = 110.5;
+
+        @NonNull private final String selection;
+        @NonNull private final String[] selectionArgs;
+        private final boolean exact;
+
+        private SqlFilter(@NonNull final String selection, @NonNull final String[] selectionArgs, final boolean exact) {
+            this.selection = selection;
+            this.selectionArgs = selectionArgs;
+            this.exact = exact;
+        }
+
+        /**
+         * @return {@code true} if the database selects exactly the caches accepted by the filter. Otherwise the selected
+         *         caches are only candidates and the filter still has to be applied to them in memory.
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        @NonNull
+        public static SqlFilter difficultyRange(final float minInclusive, final float maxExclusive) {
+            return range("difficulty", minInclusive, maxExclusive);
+        }
+
+        @NonNull
+        public static SqlFilter terrainRange(final float minInclusive, final float maxExclusive) {
+            return range("terrain", minInclusive, maxExclusive);
+        }
+
+        @NonNull
+        private static SqlFilter range(@NonNull final String column, final float minInclusive, final float maxExclusive) {
+            return new SqlFilter(column + " >= ? AND " + column + " < ?", new String[] { String.valueOf(minInclusive), String.valueOf(maxExclusive) }, true);
+        }
+
+        @NonNull
+        public static SqlFilter size(@NonNull final CacheSize size) {
+            return new SqlFilter("size = ?", new String[] { size.id }, true);
+        }
+
+        @NonNull
+        public static SqlFilter type(@NonNull final CacheType type) {
+            return new SqlFilter("type = ?", new String[] { type.id }, true);
+        }
+
+        @NonNull
+        public static SqlFilter attribute(@NonNull final String attribute) {
+            return new SqlFilter("geocode IN (SELECT geocode FROM " + dbTableAttributes + " WHERE attribute = ?)", new String[] { attribute }, true);
+        }
+
+        /**
+         * Caches with coordinates in a bounding box around the center. This is only a pre-selection for the caches within
+         * the given distance of the center, which cannot be calculated by the database.
+         */
+        @NonNull
+        public static SqlFilter nearCoordinates(@NonNull final Geopoint center, final double maxDistanceKm) {
+            final String coordsKnown = "latitude IS NOT NULL AND longitude IS NOT NULL";
+            final double deltaLatitude = maxDistanceKm / KM_PER_DEGREE;
+            if (Math.abs(center.getLatitude()) + deltaLatitude >= 90) {
+                return new SqlFilter(coordsKnown, new String[0], false);
+            }
+            final String latitudeRange = " AND latitude BETWEEN ? AND ?";
+            final String[] latitudeArgs = { String.valueOf(center.getLatitude() - deltaLatitude), String.valueOf(center.getLatitude() + deltaLatitude) };
+            final double deltaLongitude = deltaLatitude / Math.cos(Math.toRadians(Math.abs(center.getLatitude()) + deltaLatitude));
+            if (deltaLongitude >= 180 || Math.abs(center.getLongitude()) + deltaLongitude > 180) {
+                // do not handle wrapping around the date line
+                return new SqlFilter(coordsKnown + latitudeRange, latitudeArgs, false);
+            }
+            return new SqlFilter(coordsKnown + latitudeRange + " AND longitude BETWEEN ? AND ?",
+                    ArrayUtils.addAll(latitudeArgs, String.valueOf(center.getLongitude() - deltaLongitude), String.valueOf(center.getLongitude() + deltaLongitude)), false);
+        }
+
+        @Override
+        @NonNull
+        public String toString() {
+            return selection + " " + Arrays.toString(selectionArgs);
         }
     }
 
@@ -1,5 +1,6 @@
 package cgeo.geocaching.storage;
 
+import cgeo.geocaching.storage.extension.FolderUriIndex;
 import cgeo.geocaching.utils.CollectionStream;
 import cgeo.geocaching.utils.ContextLogger;
 import cgeo.geocaching.utils.FileUtils;
@@ -31,6 +32,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
@@ -43,7 +45,9 @@ import static org.apache.commons.io.IOUtils.closeQuietly;
  *
  * Document Framework does not efficiently (wrt performance) allow to work with subdirectories: Uris can't be build by a certain rule
  * and only querying of one folder content is possible. In order to efficiently deal with subfolder structures, an LRU
- * Uri cache was introduced (folderUriCache).
+ * Uri cache was introduced (folderUriCache). Since one query returns all children of a folder, the Uris of all subfolders
+ * found by a query are put into this cache. Folder Uris are also persisted in the database (see {@link FolderUriIndex}),
+ * so that folders need not be looked up level by level again after a restart. Persisted Uris are validated once before use.
  * Unfortunately Document Framework does also not allow for efficient check whether a (cached) Uri
  * is still valid (it is not if e.g. the underlying doc was deleted externally of c:geo), so a two-pass algorithm was implemented
  * where the cache value is trusted in a first attempt and only refreshed if this triggered an exception.
@@ -75,6 +79,9 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         }
     });
 
+    /** folder Uris known to be stored in {@link FolderUriIndex}, to avoid superfluous database writes */
+    private final Map<String, Uri> indexedFolderUris = Collections.synchronizedMap(new HashMap<>());
+
     DocumentContentAccessor(@NonNull final Context context) {
         super(context);
         refreshUriPermissionCache();
@@ -107,6 +114,20 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         }
     }
 
+    @Override
+    public Uri rename(@NonNull final Uri uri, @NonNull final String newName) throws IOException {
+        removeFromUriCache(uri);
+        try (ContextLogger cLog = new ContextLogger("DocumentFolderAccessor.rename %s: %s", uri, newName)) {
+            final Uri renamed = DocumentsContract.renameDocument(getContext().getContentResolver(), uri, newName);
+            if (renamed == null) {
+                throw new IOException("Could not rename '" + uri + "' to '" + newName + "'");
+            }
+            return renamed;
+        } catch (IllegalArgumentException iae) {
+            throw new IOException("Could not rename '" + uri + "' to '" + newName + "'", iae);
+        }
+    }
+
     private Uri createInternal(@NonNull final Folder folder, @NonNull final String name, final boolean validateCache) throws IOException {
         final Uri folderUri = getFolderUri(folder, true, true, validateCache);
         if (folderUri == null) {
@@ -200,7 +221,7 @@ class DocumentContentAccessor extends AbstractContentAccessor {
 
         //using dir.listFiles() is FAR too slow. Thus we have to create an explicit query
 
-        return queryDir(dir, new String[] {
+        final List<ContentStorage.FileInformation> result = queryDir(dir, new String[] {
             DocumentsContract.Document.COLUMN_DOCUMENT_ID,
             DocumentsContract.Document.COLUMN_DISPLAY_NAME,
             DocumentsContract.Document.COLUMN_MIME_TYPE,
@@ -208,6 +229,15 @@ class DocumentContentAccessor extends AbstractContentAccessor {
             DocumentsContract.Document.COLUMN_SIZE,
 
         }, c -> fileInfoFromCursor(c, null, dir, folder));
+
+        //subfolders are typically listed next (e.g. on tree walks), so remember their Uris
+        final String folderKey = uriCacheKey(getBaseUri(folder.getBaseUri()), folder.getSubdirsToBase(), -1);
+        for (ContentStorage.FileInformation fi : result) {
+            if (fi.isDirectory) {
+                this.folderUriCache.put(folderKey + "/" + fi.name, fi.uri);
+            }
+        }
+        return result;
     }
 
     /** retrieves a FileInformation object from the current cursor row retrieved by using {@Link } columns */
@@ -280,7 +310,7 @@ class DocumentContentAccessor extends AbstractContentAccessor {
             if (!checkUriPermissions(treeUri, needsWrite)) {
                 return null;
             }
-            final Uri baseUri = DocumentsContract.buildDocumentUriUsingTree(treeUri, DocumentsContract.getTreeDocumentId(treeUri));
+            final Uri baseUri = getBaseUri(treeUri);
 
             if (validateCache && !isValidDirectoryUri(baseUri, needsWrite)) {
                 return null;
@@ -291,11 +321,21 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         }
     }
 
+    private static Uri getBaseUri(final Uri treeUri) {
+        return DocumentsContract.buildDocumentUriUsingTree(treeUri, DocumentsContract.getTreeDocumentId(treeUri));
+    }
+
     private boolean isValidDirectoryUri(final Uri dirUri, final boolean needsWrite) throws IOException {
+        return isValidDirectoryUri(dirUri, needsWrite, null);
+    }
+
+    /** checks whether given Uri is an (accessible) directory. If dirName is given, then directory must also have this name */
+    private boolean isValidDirectoryUri(final Uri dirUri, final boolean needsWrite, final String dirName) throws IOException {
         try {
-            return queryDoc(dirUri, new String[]{DocumentsContract.Document.COLUMN_MIME_TYPE, DocumentsContract.Document.COLUMN_FLAGS}, false, c ->
+            return queryDoc(dirUri, new String[]{DocumentsContract.Document.COLUMN_MIME_TYPE, DocumentsContract.Document.COLUMN_FLAGS, DocumentsContract.Document.COLUMN_DISPLAY_NAME}, false, c ->
                 DocumentsContract.Document.MIME_TYPE_DIR.equals(c.getString(0)) &&
-                    (!needsWrite || (c.getInt(1) & DocumentsContract.Document.FLAG_DIR_SUPPORTS_CREATE) != 0));
+                    (!needsWrite || (c.getInt(1) & DocumentsContract.Document.FLAG_DIR_SUPPORTS_CREATE) != 0) &&
+                    (dirName == null || dirName.equals(c.getString(2))));
         } catch (IllegalArgumentException iae) {
             //this is thrown if dirUri does not exist
             return false;
@@ -309,7 +349,7 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         int subdirIdx = subdirs.size();
         while (subdirIdx > 0) {
             final String cacheKey = uriCacheKey(baseUri, subdirs, subdirIdx);
-            final Uri cachedDir = findInUriCache(cacheKey, needsWrite, validateCache);
+            final Uri cachedDir = findInUriCache(cacheKey, subdirs.get(subdirIdx - 1), needsWrite, validateCache);
             if (cachedDir != null) {
                 dir = cachedDir;
                 break;
@@ -320,7 +360,7 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         //from cache entry work up and find/create missing dirs
         while (subdirIdx < subdirs.size()) {
             final String subfolderName = subdirs.get(subdirIdx);
-            final Uri child = findCreateSubdirectory(dir, subfolderName, createIfNeeded);
+            final Uri child = findCreateSubdirectory(dir, uriCacheKey(baseUri, subdirs, subdirIdx), subfolderName, createIfNeeded);
             if (child == null) {
                 if (createIfNeeded) {
                     throw new IOException("Failed to create subdir " + subfolderName + " for dir " + dir + ": reason unknown");
@@ -330,25 +370,36 @@ class DocumentContentAccessor extends AbstractContentAccessor {
             }
             dir = child;
             subdirIdx++;
+            if (subdirIdx < subdirs.size()) {
+                putToUriCache(uriCacheKey(baseUri, subdirs, subdirIdx), dir);
+            }
         }
 
         putToUriCache(uriCacheKey(baseUri, subdirs, -1), dir);
         return dir;
     }
 
-    private Uri findCreateSubdirectory(final Uri dirUri, final String dirName, final boolean createIfNotExisting) throws IOException {
-        final List<Uri> result = queryDir(dirUri, new String[]{ DocumentsContract.Document.COLUMN_DOCUMENT_ID, DocumentsContract.Document.COLUMN_DISPLAY_NAME, DocumentsContract.Document.COLUMN_MIME_TYPE }, c -> {
-                if (dirName.equals(c.getString(1)) && DocumentsContract.Document.MIME_TYPE_DIR.equals(c.getString(2))) {
-                    return DocumentsContract.buildDocumentUriUsingTree(dirUri, c.getString(0));
+    private Uri findCreateSubdirectory(final Uri dirUri, final String dirKey, final String dirName, final boolean createIfNotExisting) throws IOException {
+        final List<ImmutablePair<String, Uri>> result = queryDir(dirUri, new String[]{ DocumentsContract.Document.COLUMN_DOCUMENT_ID, DocumentsContract.Document.COLUMN_DISPLAY_NAME, DocumentsContract.Document.COLUMN_MIME_TYPE }, c -> {
+                if (DocumentsContract.Document.MIME_TYPE_DIR.equals(c.getString(2))) {
+                    return new ImmutablePair<>(c.getString(1), DocumentsContract.buildDocumentUriUsingTree(dirUri, c.getString(0)));
                 }
                 return null;
 
             });
-        for (Uri uri : result) {
-            if (uri != null) {
-                return uri;
+        //the query returns all subdirectories, remember them for lookups of sibling folders
+        Uri found = null;
+        for (ImmutablePair<String, Uri> subdir : result) {
+            if (subdir != null) {
+                this.folderUriCache.put(dirKey + "/" + subdir.left, subdir.right);
+                if (dirName.equals(subdir.left)) {
+                    found = subdir.right;
+                }
             }
         }
+        if (found != null) {
+            return found;
+        }
         if (createIfNotExisting) {
             return DocumentsContract.createDocument(getContext().getContentResolver(), dirUri, DocumentsContract.Document.MIME_TYPE_DIR, dirName);
         }
@@ -416,27 +467,49 @@ class DocumentContentAccessor extends AbstractContentAccessor {
         }
     }
 
+    /** returns cache key for first max subdirs of baseUri (all subdirs if max is negative) */
     private String uriCacheKey(final Uri baseUri, final List<String> subdirs, final int max) {
-        return UriUtils.getPseudoUriString(baseUri, subdirs, max);
+        return UriUtils.getPseudoUriString(baseUri, max == 0 ? null : subdirs, max);
     }
 
-    private Uri findInUriCache(final String key, final boolean needsWrite, final boolean validateCache) throws IOException {
+    private Uri findInUriCache(final String key, final String dirName, final boolean needsWrite, final boolean validateCache) throws IOException {
         synchronized (this.folderUriCache) {
             final Uri cacheEntry = this.folderUriCache.get(key);
-            if (cacheEntry == null) {
-                return null;
+            if (cacheEntry != null) {
+                if (validateCache && !isValidDirectoryUri(cacheEntry, needsWrite)) {
+                    this.folderUriCache.remove(key);
+                    removeFromIndex(key);
+                    return null;
+                }
+                return cacheEntry;
             }
+        }
 
-            if (validateCache && !isValidDirectoryUri(cacheEntry, needsWrite)) {
-                this.folderUriCache.remove(key);
-                return null;
-            }
-            return cacheEntry;
+        //not used yet in this process: look up persistent index and validate the entry once
+        final Uri indexEntry = FolderUriIndex.get(key);
+        if (indexEntry == null) {
+            return null;
+        }
+        if (!isValidDirectoryUri(indexEntry, needsWrite, dirName)) {
+            removeFromIndex(key);
+            return null;
         }
+        this.indexedFolderUris.put(key, indexEntry);
+        this.folderUriCache.put(key, indexEntry);
+        return indexEntry;
     }
 
     private void putToUriCache(final String key, final Uri docUri) {
         this.folderUriCache.put(key, docUri);
+        if (!docUri.equals(this.indexedFolderUris.get(key))) {
+            FolderUriIndex.put(key, docUri);
+            this.indexedFolderUris.put(key, docUri);
+        }
+    }
+
+    private void removeFromIndex(final String key) {
+        this.indexedFolderUris.remove(key);
+        FolderUriIndex.remove(key);
     }
 
     private void removeFromUriCache(final Uri uri) {
@@ -449,6 +522,18 @@ class DocumentContentAccessor extends AbstractContentAccessor {
                 }
             }
         }
+        //entries of the persistent index not used yet in this process are validated before use
+        final List<String> indexKeysToRemove = new ArrayList<>();
+        synchronized (this.indexedFolderUris) {
+            for (Map.Entry<String, Uri> entry : this.indexedFolderUris.entrySet()) {
+                if (entry.getValue().toString().startsWith(docUriToString)) {
+                    indexKeysToRemove.add(entry.getKey());
+                }
+            }
+        }
+        for (String key : indexKeysToRemove) {
+            removeFromIndex(key);
+        }
     }
 
     private boolean checkUriPermissions(final Uri uri, final boolean checkWrite) {
@@ -42,6 +42,15 @@ class FileContentAccessor extends AbstractContentAccessor {
         }
     }
 
+    public Uri rename(@NonNull final Uri uri, @NonNull final String newName) throws IOException {
+        final File file = new File(uri.getPath());
+        final File newFile = new File(file.getParentFile(), newName);
+        if (!file.renameTo(newFile)) {
+            throw new IOException("Could not rename file '" + file + "' to '" + newName + "'");
+        }
+        return Uri.fromFile(newFile);
+    }
+
     public ContentStorage.FileInformation getFileInfo(@NonNull final Folder folder, final String name) {
         final File dir = toFile(folder, false);
         if (dir == null) {
@@ -31,9 +31,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +47,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
@@ -64,6 +68,11 @@ public class FolderUtils {
     private static final int COPY_FLAG_DIR_BEFORE  = 1;
     private static final int COPY_FLAG_DIR_NEEDED_FOR_TARGET = 2;
 
+    /** maximum number of files copied at the same time on folder sync */
+    private static final int SYNC_PARALLEL_COPIES = 4;
+    private static final int SYNC_BUFFER_SIZE = 64 * 1024;
+    private static final String SYNC_TEMP_FILE_SUFFIX = ".synctmp";
+
     private final ContentStorage pls = ContentStorage.get();
 
     private static final FolderUtils INSTANCE = new FolderUtils();
@@ -246,6 +255,10 @@ public class FolderUtils {
      *
      * Only files are synchronized. Necessary (sub)folder in target are created on need but not explicitely maintained.
      *
+     * Source and target are each walked only once. Changed files are copied in parallel (see {@link #SYNC_PARALLEL_COPIES}),
+     * each into a temporary file which replaces the target file only when complete. Sync information of files copied
+     * successfully is stored also if sync fails or is aborted, so a following sync only needs to copy the remaining files.
+     *
      * This implementation does NOT support overlapping source and target folders. If such parameters
      * are given, then behaviour is undefined.
      *
@@ -257,60 +270,63 @@ public class FolderUtils {
      */
     public FolderProcessResult synchronizeFolder(final Folder source, final File target, final Predicate<ContentStorage.FileInformation> sourceFilter, final AtomicBoolean cancelFlag, final Consumer<FolderProcessStatus> statusListener) {
 
-        sendCopyStatus(statusListener, null, 0, 0, null);
+        try (ContextLogger cLog = new ContextLogger("FolderUtils.synchronizeFolder: %s -> %s", source, target)) {
+            sendCopyStatus(statusListener, null, 0, 0, null);
 
-        final FolderInfo sourceFolderInfo = getFolderInfo(source, -1);
-        final ImmutablePair<Integer, Integer> sourceInfo = new ImmutablePair<>(sourceFolderInfo.fileCount, sourceFolderInfo.dirCount);
-        sendCopyStatus(statusListener, null, 0, 0, sourceInfo);
+            //walk source and target only once each. Target is a File folder, so it is walked directly
+            final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList = getAllFiles(source, sourceFilter);
+            final int sourceDirCount = (int) CollectionStream.of(sourceList).filter(e -> e.left.isDirectory).count();
+            final ImmutablePair<Integer, Integer> sourceInfo = new ImmutablePair<>(sourceList.size() - sourceDirCount, sourceDirCount);
+            sendCopyStatus(statusListener, null, 0, 0, sourceInfo);
 
-        final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList = getAllFiles(source, sourceFilter);
-        final List<ImmutablePair<ContentStorage.FileInformation, String>> targetList = getAllFiles(Folder.fromFile(target));
+            final Set<String> targetFilesToDelete = new HashSet<>();
+            final Map<String, Properties> targetSyncProps = new HashMap<>();
+            collectSyncTargetFiles(target, "/", targetFilesToDelete, targetSyncProps);
+            final Set<String> targetSyncPropsToUpdate = new HashSet<>();
 
-        final Set<String> targetFilesToDelete = CollectionStream.of(targetList)
-            .filter(e -> !e.left.isDirectory && !e.right.endsWith("/" + FOLDER_SYNC_INFO_FILENAME))
-            .map(e -> e.right).toSet();
-        final Set<String> targetSyncPropsToUpdate = new HashSet<>();
+            //Array stores values for: filesProcessed, filesModified, dirsProcessed, dirsModified
+            final int[] processStates = new int[]{ 0, 0, 0, 0};
+            final List<ImmutablePair<ContentStorage.FileInformation, String>> filesToCopy =
+                synchronizeFolderCollectFilesToCopy(target, cancelFlag, statusListener, sourceInfo, sourceList, targetFilesToDelete, targetSyncProps, processStates);
+            cLog.add("#s:%d, #c:%d", sourceList.size(), filesToCopy.size());
 
-        final Map<String, Properties> targetSyncProps = getTargetFolderSyncProperties(target, targetList);
+            final ContentStorage.FileInformation failedFile = synchronizeFolderCopyFiles(target, cancelFlag, statusListener, sourceInfo, filesToCopy, targetSyncPropsToUpdate, targetSyncProps, processStates);
 
-        //Array stores values for: filesProcessed, filesModified, dirsProcessed, dirsModified
-        final int[] processStates = new int[]{ 0, 0, 0, 0};
-        final ContentStorage.FileInformation failedFile = synchronizeFolderProcessAllFiles(target, cancelFlag, statusListener, sourceInfo, sourceList, targetFilesToDelete, targetSyncPropsToUpdate, targetSyncProps, processStates);
-        if (failedFile != null) {
-            return createFolderProcessResult(ProcessResult.FAILURE, failedFile, processStates[1], processStates[3], sourceInfo);
-        }
+            //create/update directory sync files. This is done also after failure or abort, so the next sync can continue where this one stopped
+            try {
+                synchronizeFolderUpdateSyncFiles(target, targetSyncPropsToUpdate, targetSyncProps);
+            } catch (IOException ioe) {
+                return createFolderProcessResult(ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
+            }
 
-        //create/update directory sync files
-        try {
-            synchronizeFolderUpdateSyncFiles(target, cancelFlag, targetSyncPropsToUpdate, targetSyncProps);
-        } catch (IOException ioe) {
-            return createFolderProcessResult(ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
-        }
+            if (failedFile != null) {
+                return createFolderProcessResult(ProcessResult.FAILURE, failedFile, processStates[1], processStates[3], sourceInfo);
+            }
+            if (isCancelled(cancelFlag)) {
+                return createFolderProcessResult(ProcessResult.ABORTED, null, 0, 0, sourceInfo);
+            }
 
-        if (isCancelled(cancelFlag)) {
-            return createFolderProcessResult(ProcessResult.ABORTED, null, 0, 0, sourceInfo);
-        }
+            //delete leftover target files (no longer synced)
+            boolean deleteSuccess = true;
+            for (String targetFileToDelete : targetFilesToDelete) {
+                deleteSuccess &= new File(target, targetFileToDelete).delete();
+                processStates[1]++;
+            }
+            sendCopyStatus(statusListener, null, processStates[0], processStates[2], sourceInfo);
 
-        //delete leftover target files (no longer synced)
-        boolean deleteSuccess = true;
-        for (String targetFileToDelete : targetFilesToDelete) {
-            deleteSuccess &= new File(target, targetFileToDelete).delete();
-            processStates[1]++;
+            return createFolderProcessResult(deleteSuccess ? ProcessResult.OK : ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
         }
-        sendCopyStatus(statusListener, null, processStates[0], processStates[2], sourceInfo);
-
-        return createFolderProcessResult(deleteSuccess ? ProcessResult.OK : ProcessResult.FAILURE, null, processStates[1], processStates[3], sourceInfo);
     }
 
-    @Nullable
-    private ContentStorage.FileInformation synchronizeFolderProcessAllFiles(
+    /** creates missing target dirs and returns the source files which need to be copied because they changed since the last sync */
+    private List<ImmutablePair<ContentStorage.FileInformation, String>> synchronizeFolderCollectFilesToCopy(
         final File target, final AtomicBoolean cancelFlag,
         final Consumer<FolderProcessStatus> statusListener, final ImmutablePair<Integer, Integer> sourceInfo,
         final List<ImmutablePair<ContentStorage.FileInformation, String>> sourceList, final Set<String> targetFilesToDelete,
-        final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps, final int[] processStates) {
+        final Map<String, Properties> targetSyncProps, final int[] processStates) {
 
+        final List<ImmutablePair<ContentStorage.FileInformation, String>> filesToCopy = new ArrayList<>();
         for (ImmutablePair<ContentStorage.FileInformation, String> sourceFile : sourceList) {
-            sendCopyStatus(statusListener, sourceFile.left, processStates[0], processStates[2], sourceInfo);
             if (isCancelled(cancelFlag)) {
                 break;
             }
@@ -322,27 +338,64 @@ public class FolderUtils {
                 }
                 processStates[2]++;
             } else {
-                targetFilesToDelete.remove(sourceFile.right);
-
-                final Boolean fileSyncResult = synchronizeSingleFileInternal(sourceFile, target, targetSyncPropsToUpdate, targetSyncProps);
-                if (fileSyncResult == null) {
-                    return sourceFile.left;
+                final boolean targetExists = targetFilesToDelete.remove(sourceFile.right);
+                final Properties dirProps = targetSyncProps.get(getParentPath(sourceFile.right));
+                if (targetExists && dirProps != null && getFileSyncToken(sourceFile.left).equals(dirProps.getProperty(sourceFile.left.name))) {
+                    processStates[0]++;
+                    sendCopyStatus(statusListener, sourceFile.left, processStates[0], processStates[2], sourceInfo);
+                } else {
+                    filesToCopy.add(sourceFile);
                 }
-                if (fileSyncResult) {
-                    processStates[1]++;
+            }
+        }
+        return filesToCopy;
+    }
+
+    /**
+     * copies the given files in parallel, with at most {@link #SYNC_PARALLEL_COPIES} copies running at the same time.
+     * Returns the first file which failed to copy, null if all files were copied or sync was cancelled
+     */
+    @Nullable
+    private ContentStorage.FileInformation synchronizeFolderCopyFiles(
+        final File target, final AtomicBoolean cancelFlag,
+        final Consumer<FolderProcessStatus> statusListener, final ImmutablePair<Integer, Integer> sourceInfo,
+        final List<ImmutablePair<ContentStorage.FileInformation, String>> filesToCopy,
+        final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps, final int[] processStates) {
+
+        //set on first failure to stop the other running copies
+        final AtomicBoolean stopFlag = new AtomicBoolean(false);
+        final Iterable<ImmutablePair<ImmutablePair<ContentStorage.FileInformation, String>, Boolean>> results = Observable.fromIterable(filesToCopy)
+            .flatMap(sourceFile -> Observable.fromCallable(() -> new ImmutablePair<>(sourceFile, synchronizeSingleFileInternal(sourceFile, target, cancelFlag, stopFlag)))
+                .subscribeOn(Schedulers.io()), SYNC_PARALLEL_COPIES)
+            .blockingIterable();
+
+        //results are processed on calling thread, so state and listener need no synchronization
+        ContentStorage.FileInformation failedFile = null;
+        for (ImmutablePair<ImmutablePair<ContentStorage.FileInformation, String>, Boolean> result : results) {
+            final ImmutablePair<ContentStorage.FileInformation, String> sourceFile = result.left;
+            if (result.right) {
+                final String dirPath = getParentPath(sourceFile.right);
+                Properties dirProps = targetSyncProps.get(dirPath);
+                if (dirProps == null) {
+                    dirProps = new Properties();
+                    targetSyncProps.put(dirPath, dirProps);
                 }
+                dirProps.setProperty(sourceFile.left.name, getFileSyncToken(sourceFile.left));
+                targetSyncPropsToUpdate.add(dirPath);
                 processStates[0]++;
+                processStates[1]++;
+                sendCopyStatus(statusListener, sourceFile.left, processStates[0], processStates[2], sourceInfo);
+            } else if (failedFile == null && !isCancelled(cancelFlag)) {
+                failedFile = sourceFile.left;
+                stopFlag.set(true);
             }
         }
-        return null;
+        return failedFile;
     }
 
-    private void synchronizeFolderUpdateSyncFiles(final File target, final AtomicBoolean cancelFlag, final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) throws IOException {
+    private void synchronizeFolderUpdateSyncFiles(final File target, final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) throws IOException {
         //create/update directory sync files
         for (String targetSyncPropToUpdate : targetSyncPropsToUpdate) {
-            if (isCancelled(cancelFlag)) {
-                break;
-            }
             OutputStream os = null;
             try {
                 os = new FileOutputStream(new File(target, targetSyncPropToUpdate + "/" + FOLDER_SYNC_INFO_FILENAME));
@@ -353,45 +406,63 @@ public class FolderUtils {
         }
     }
 
-    /** returns null in case of failre, true if file needed copy (and was copied), false if file didn't need copy) */
-    private Boolean synchronizeSingleFileInternal(final ImmutablePair<ContentStorage.FileInformation, String> sourceFile, final File targetRootDir,
-                                                  final Set<String> targetSyncPropsToUpdate, final Map<String, Properties> targetSyncProps) {
-        final String dirPath = getParentPath(sourceFile.right);
-        Properties dirProps = targetSyncProps.get(dirPath);
-        if (dirProps == null) {
-            dirProps = new Properties();
-            targetSyncProps.put(dirPath, dirProps);
-        }
+    /**
+     * Copies a single file to target. Content is written to a temporary file first which replaces the target file only when complete,
+     * so an aborted copy leaves the previous target file intact. Copy is aborted between two blocks if cancelFlag or stopFlag is set.
+     * Returns true if file was copied, false on failure or abort
+     */
+    private boolean synchronizeSingleFileInternal(final ImmutablePair<ContentStorage.FileInformation, String> sourceFile, final File targetRootDir,
+                                                  final AtomicBoolean cancelFlag, final AtomicBoolean stopFlag) {
         final File targetFile = new File(targetRootDir, sourceFile.right);
-        final boolean needsSync = !targetFile.exists() || !getFileSyncToken(sourceFile.left).equals(dirProps.getProperty(sourceFile.left.name));
-
-        if (needsSync) {
-            if (targetFile.exists() && !targetFile.delete()) {
-                return null;
+        final File tempFile = new File(targetFile.getParentFile(), targetFile.getName() + SYNC_TEMP_FILE_SUFFIX);
+        boolean success = false;
+        try (InputStream in = pls.openForRead(sourceFile.left.uri); OutputStream out = new FileOutputStream(tempFile)) {
+            if (in == null) {
+                return false;
             }
-            final Uri targetUri = ContentStorage.get().copy(sourceFile.left.uri, Folder.fromFile(targetFile.getParentFile()), FileNameCreator.forName(targetFile.getName()), false);
-            if (targetUri == null) {
-                return null;
+            final byte[] buffer = new byte[SYNC_BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) >= 0) {
+                if (stopFlag.get() || isCancelled(cancelFlag)) {
+                    return false;
+                }
+                out.write(buffer, 0, length);
             }
-            dirProps.setProperty(sourceFile.left.name, getFileSyncToken(sourceFile.left));
-            targetSyncPropsToUpdate.add(dirPath);
-        }
-        return needsSync;
-    }
-
-    private Map<String, Properties> getTargetFolderSyncProperties(final File target, final List<ImmutablePair<ContentStorage.FileInformation, String>> targetList) {
-        return CollectionStream.of(targetList)
-                .filter(e -> e.right.endsWith("/" + FOLDER_SYNC_INFO_FILENAME))
-                .toMap(e -> e.right.substring(0, e.right.length() - 1 - FOLDER_SYNC_INFO_FILENAME.length()),
-                    e -> {
-                    final Properties p = new Properties();
-                    try {
-                        p.load(new FileInputStream(new File(target, e.right)));
-                    } catch (IOException ioe) {
-                        //ignore, Prop will be empty
-                    }
-                    return p;
-            });
+            success = true;
+        } catch (IOException ioe) {
+            Log.w("FolderUtils: failed to sync " + sourceFile.left + " to " + targetFile, ioe);
+        } finally {
+            if (!success) {
+                tempFile.delete();
+            }
+        }
+        return success && tempFile.renameTo(targetFile);
+    }
+
+    /**
+     * collects the paths of all files in given target dir (excluding sync info files) and loads the sync info files
+     * (with their dir path as key)
+     */
+    private static void collectSyncTargetFiles(final File dir, final String dirPath, final Set<String> files, final Map<String, Properties> syncProps) {
+        final File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectSyncTargetFiles(child, dirPath + child.getName() + "/", files, syncProps);
+            } else if (FOLDER_SYNC_INFO_FILENAME.equals(child.getName())) {
+                final Properties p = new Properties();
+                try (InputStream is = new FileInputStream(child)) {
+                    p.load(is);
+                } catch (IOException ioe) {
+                    //ignore, Prop will be empty
+                }
+                syncProps.put(dirPath.substring(0, dirPath.length() - 1), p);
+            } else {
+                files.add(dirPath + child.getName());
+            }
+        }
     }
 
     private static String getFileSyncToken(final ContentStorage.FileInformation fi) {
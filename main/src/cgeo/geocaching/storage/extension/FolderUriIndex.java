@@ -0,0 +1,48 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.geocaching.storage.DataStore;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Persistent index of document Uris of SAF folders, so that folders need not be looked up level by level after each
+ * start of c:geo. Entries may be outdated (e.g. if a folder was deleted outside c:geo) and have to be validated before use.
+ * <p/>
+ * The index is only used once the database is open, since the database itself uses folders while being opened. Keys
+ * are matched exactly, as folder paths may contain '%' and '_'.
+ */
+public class FolderUriIndex extends DataStore.DBExtension {
+
+    private static final DataStore.DBExtensionType type = DataStore.DBExtensionType.DBEXTENSION_FOLDER_URI_INDEX;
+
+    private FolderUriIndex(final DataStore.DBExtension copyFrom) {
+        super(copyFrom);
+    }
+
+    @Nullable
+    public static Uri get(@NonNull final String key) {
+        if (!DataStore.isInitialized()) {
+            return null;
+        }
+        final DataStore.DBExtension entry = loadExact(type, key);
+        return entry == null ? null : Uri.parse(entry.getString1());
+    }
+
+    public static void put(@NonNull final String key, @NonNull final Uri uri) {
+        if (!DataStore.isInitialized()) {
+            return;
+        }
+        removeExact(type, key);
+        add(type, key, 0, 0, 0, 0, uri.toString(), "", "", "");
+    }
+
+    public static void remove(@NonNull final String key) {
+        if (!DataStore.isInitialized()) {
+            return;
+        }
+        removeExact(type, key);
+    }
+}
@@ -12,11 +12,13 @@ import cgeo.geocaching.sensors.GeoData;
 import cgeo.geocaching.sensors.Sensors;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.sorting.CacheComparator;
+import cgeo.geocaching.sorting.CacheSorter;
 import cgeo.geocaching.sorting.DistanceComparator;
 import cgeo.geocaching.sorting.EventDateComparator;
-import cgeo.geocaching.sorting.InverseComparator;
+import cgeo.geocaching.sorting.IncrementalDistanceSorter;
 import cgeo.geocaching.sorting.SeriesNameComparator;
 import cgeo.geocaching.sorting.VisitComparator;
+import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AngleUtils;
 import cgeo.geocaching.utils.CalendarUtils;
 import cgeo.geocaching.utils.Formatter;
@@ -42,8 +44,6 @@ import androidx.core.content.ContextCompat;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -65,6 +65,11 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
     private boolean selectMode = false;
     private IFilter currentFilter = null;
     private List<Geocache> originalList = null;
+    /**
+     * {@code true} if the list is loaded from the database with the SQL part of the current filter already applied
+     */
+    private boolean databaseFiltered = false;
+    private final IncrementalDistanceSorter distanceSorter = new IncrementalDistanceSorter();
     private final boolean isLiveList = Settings.isLiveList();
 
     private final Set<CompassMiniView> compasses = new LinkedHashSet<>();
@@ -220,14 +225,53 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
             // Back up the list again
             originalList = new ArrayList<>(list);
 
-            currentFilter.filter(list);
+            if (needsInMemoryFiltering(currentFilter)) {
+                currentFilter.filter(list);
+            }
+        } else {
+            originalList = null;
         }
     }
 
+    /**
+     * Set whether the caches of this list are loaded with the {@link IFilter#getSqlFilter() SQL filter} of the current
+     * filter. Filters are then only applied in memory as far as the database could not handle them.
+     */
+    public void setDatabaseFiltered(final boolean databaseFiltered) {
+        this.databaseFiltered = databaseFiltered;
+    }
+
+    /**
+     * @return {@code true} if changing to the given filter needs the list to be reloaded from the database
+     */
+    public boolean isReloadNeededForFilter(final IFilter filter) {
+        return databaseFiltered && (hasSqlFilter(currentFilter) || hasSqlFilter(filter));
+    }
+
+    private static boolean hasSqlFilter(final IFilter filter) {
+        return filter != null && filter.getSqlFilter() != null;
+    }
+
+    private boolean needsInMemoryFiltering(@NonNull final IFilter filter) {
+        if (!databaseFiltered) {
+            return true;
+        }
+        final DataStore.SqlFilter sqlFilter = filter.getSqlFilter();
+        return sqlFilter == null || !sqlFilter.isExact();
+    }
+
     /**
      * Called after a user action on the filter menu.
      */
     public void setFilter(final IFilter filter) {
+        if (isReloadNeededForFilter(filter)) {
+            // the caller reloads the list, the new filter is then applied in reFilter()
+            currentFilter = filter;
+            originalList = null;
+            notifyDataSetChanged();
+            return;
+        }
+
         // Backup current caches list if it isn't backed up yet
         if (originalList == null) {
             originalList = new ArrayList<>(list);
@@ -300,9 +344,10 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
 
         if (isSortedByDistance()) {
             lastSort = 0;
+            distanceSorter.invalidate();
             updateSortByDistance();
         } else {
-            Collections.sort(list, getPotentialInversion(getCacheComparator()));
+            CacheSorter.sort(list, getCacheComparator(), inverseSort);
         }
 
         notifyDataSetChanged();
@@ -333,24 +378,14 @@ public class CacheListAdapter extends ArrayAdapter<Geocache> implements SectionI
         if (coords == null) {
             return;
         }
-        final List<Geocache> oldList = new ArrayList<>(list);
-        Collections.sort(list, getPotentialInversion(new DistanceComparator(coords, list)));
-
         // avoid an update if the list has not changed due to location update
-        if (list.equals(oldList)) {
+        if (distanceSorter.sort(list, coords, inverseSort) == 0) {
             return;
         }
         notifyDataSetChanged();
         lastSort = System.currentTimeMillis();
     }
 
-    private Comparator<? super Geocache> getPotentialInversion(final CacheComparator comparator) {
-        if (inverseSort) {
-            return new InverseComparator(comparator);
-        }
-        return comparator;
-    }
-
     private boolean isSortedByDistance() {
         final CacheComparator comparator = getCacheComparator();
         return comparator == null || comparator instanceof DistanceComparator;
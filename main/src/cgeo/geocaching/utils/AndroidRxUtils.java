@@ -34,6 +34,11 @@ public class AndroidRxUtils {
 
     public static final Scheduler refreshScheduler = Schedulers.from(newFixedDiscardingThreadPool(3, "refresh-"));
 
+    /**
+     * single thread for processing sensor data, so that it does not need to be synchronized
+     */
+    public static final Scheduler sensorFusionScheduler = Schedulers.from(newFixedDiscardingThreadPool(1, "sensor-fusion-"));
+
     private static final HandlerThread looperCallbacksThread =
             new HandlerThread("looper callbacks", Process.THREAD_PRIORITY_DEFAULT);
 
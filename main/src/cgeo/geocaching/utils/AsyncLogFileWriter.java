@@ -0,0 +1,308 @@
+package cgeo.geocaching.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+/**
+ * Writes log entries to a file on a background thread.
+ * <p/>
+ * Logging threads only put the entry into a bounded lock-free ring buffer. If the buffer is full, the entry is dropped
+ * and counted, the number of dropped entries is written to the file later on. The writer thread formats the entries,
+ * writes them in batches and flushes after each batch. When a file grows beyond the maximum size, the writer continues
+ * in a new file provided by the {@link Target}.
+ */
+final class AsyncLogFileWriter {
+
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    /**
+     * provides the files to write to
+     */
+    interface Target {
+        /**
+         * @return a stream to a new log file, or {@code null} if no file could be created. In that case the writer stops.
+         */
+        @Nullable
+        OutputStream openNext();
+    }
+
+    private static final class Entry {
+        final long timestamp;
+        final String level;
+        final String message;
+        final Throwable throwable;
+
+        Entry(final long timestamp, final String level, final String message, final Throwable throwable) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+
+    /**
+     * Bounded multi-producer queue without locks, see "Bounded MPMC queue" by Dmitry Vyukov. Each slot carries a
+     * sequence number telling whether it is free for the producer of a position or filled for its consumer.
+     */
+    static final class RingBuffer<T> {
+        private final int mask;
+        private final AtomicReferenceArray<T> elements;
+        private final AtomicLongArray sequences;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        /**
+         * @param capacity
+         *            is rounded up to a power of two
+         */
+        RingBuffer(final int capacity) {
+            final int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+            mask = size - 1;
+            elements = new AtomicReferenceArray<>(size);
+            sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        /**
+         * @return {@code false} if the buffer is full
+         */
+        boolean offer(@NonNull final T element) {
+            long pos = head.get();
+            while (true) {
+                final int index = (int) (pos & mask);
+                final long diff = sequences.get(index) - pos;
+                if (diff == 0) {
+                    if (head.compareAndSet(pos, pos + 1)) {
+                        elements.set(index, element);
+                        sequences.set(index, pos + 1);
+                        return true;
+                    }
+                    pos = head.get();
+                } else if (diff < 0) {
+                    return false;
+                } else {
+                    pos = head.get();
+                }
+            }
+        }
+
+        /**
+         * @return the oldest element, or {@code null} if the buffer is empty
+         */
+        @Nullable
+        T poll() {
+            long pos = tail.get();
+            while (true) {
+                final int index = (int) (pos & mask);
+                final long diff = sequences.get(index) - (pos + 1);
+                if (diff == 0) {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        final T element = elements.get(index);
+                        elements.set(index, null);
+                        sequences.set(index, pos + mask + 1);
+                        return element;
+                    }
+                    pos = tail.get();
+                } else if (diff < 0) {
+                    return null;
+                } else {
+                    pos = tail.get();
+                }
+            }
+        }
+    }
+
+    private final RingBuffer<Entry> buffer;
+    private final Target target;
+    private final long maxFileSize;
+    private final Thread writerThread;
+    /**
+     * the writer is woken up whenever a quarter of the buffer was filled, so it does not overflow while the writer waits
+     */
+    private final long wakeUpMask;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed = false;
+
+    // only accessed by the writer thread
+    private final DateFormat entryFormat = new SimpleDateFormat("yy-MM-dd HH:mm:ss.SSS", Locale.US);
+    private CountingOutputStream fileStream = null;
+    private PrintWriter fileWriter = null;
+    private long reportedDropped = 0;
+    private long lastTimestamp = 0;
+    private String lastFormattedTimestamp = null;
+    private boolean targetFailed = false;
+
+    AsyncLogFileWriter(@NonNull final Target target, final int capacity, final long maxFileSize) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.target = target;
+        this.maxFileSize = maxFileSize;
+        this.wakeUpMask = Math.max(1, buffer.capacity() / 4) - 1;
+        this.writerThread = new Thread(this::run, "cgeo-logfile");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * queue an entry for writing, never blocks
+     */
+    void log(@NonNull final String level, @NonNull final String message, @Nullable final Throwable throwable) {
+        if (closed) {
+            return;
+        }
+        if (buffer.offer(new Entry(System.currentTimeMillis(), level, message, throwable))) {
+            if ((enqueued.incrementAndGet() & wakeUpMask) == 0) {
+                LockSupport.unpark(writerThread);
+            }
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * wait until all entries queued so far are written to the file, e.g. before the process is terminated on purpose
+     */
+    void flush(final long timeoutMillis) {
+        final long target = enqueued.get();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LockSupport.unpark(writerThread);
+        while (written.get() < target && !closed && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * write the pending entries and stop the writer
+     */
+    void close() {
+        flush(1000);
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(1000);
+        } catch (final InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            if (!writeBatch()) {
+                LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+            }
+        }
+        // entries and drops which came in while closing
+        writeBatch();
+        closeFile();
+    }
+
+    /**
+     * write all queued entries and flush them
+     *
+     * @return {@code false} if there was nothing to write
+     */
+    private boolean writeBatch() {
+        if (targetFailed) {
+            return false;
+        }
+        int count = 0;
+        Entry entry;
+        while ((entry = buffer.poll()) != null) {
+            if (fileWriter == null && !openNextFile()) {
+                targetFailed = true;
+                closed = true;
+                return false;
+            }
+            write(entry);
+            written.incrementAndGet();
+            count++;
+        }
+        final long droppedNow = dropped.get();
+        if (droppedNow != reportedDropped && fileWriter != null) {
+            fileWriter.write(formatTimestamp(System.currentTimeMillis()) + " (W) [cgeo-logfile] " + (droppedNow - reportedDropped) + " log entries dropped\n");
+            reportedDropped = droppedNow;
+            count++;
+        }
+        if (count == 0) {
+            return false;
+        }
+        fileWriter.flush();
+        if (fileWriter.checkError() || fileStream.getByteCount() >= maxFileSize) {
+            // continue in a new file with the next entry
+            closeFile();
+        }
+        return true;
+    }
+
+    private void write(@NonNull final Entry entry) {
+        fileWriter.write(formatTimestamp(entry.timestamp));
+        fileWriter.write(" (");
+        fileWriter.write(entry.level);
+        fileWriter.write(") ");
+        fileWriter.write(entry.message);
+        fileWriter.write('\n');
+        if (entry.throwable != null) {
+            entry.throwable.printStackTrace(fileWriter);
+        }
+    }
+
+    /**
+     * entries logged in bursts share the same timestamp, so the last formatted one is reused
+     */
+    @NonNull
+    private String formatTimestamp(final long timestamp) {
+        if (timestamp != lastTimestamp || lastFormattedTimestamp == null) {
+            lastTimestamp = timestamp;
+            lastFormattedTimestamp = entryFormat.format(new Date(timestamp));
+        }
+        return lastFormattedTimestamp;
+    }
+
+    private boolean openNextFile() {
+        final OutputStream stream = target.openNext();
+        if (stream == null) {
+            return false;
+        }
+        fileStream = new CountingOutputStream(stream);
+        fileWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(fileStream, StandardCharsets.UTF_8)));
+        return true;
+    }
+
+    private void closeFile() {
+        if (fileWriter != null) {
+            IOUtils.closeQuietly(fileWriter);
+            fileWriter = null;
+            fileStream = null;
+        }
+    }
+}
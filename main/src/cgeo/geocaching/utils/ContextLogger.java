@@ -10,12 +10,17 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper class to construct log messages. Optimized to log what is happening in a method,
  * but can be used in other situations as well.
  *
  * All logging is done on level given in constructor, default is VERBOSE level.
+ *
+ * Independent of the log level, the duration of each context is recorded in a {@link PerformanceMetrics} timer named
+ * after the context (the part of the context format before its first parameter or parenthesis).
  */
 public class ContextLogger implements Closeable {
 
@@ -25,7 +30,14 @@ public class ContextLogger implements Closeable {
         DATETIME_FORMAT.setTimeZone(Calendar.getInstance().getTimeZone());
     }
 
+    /**
+     * timers by context format, to avoid deriving the timer name for each instance
+     */
+    private static final Map<String, PerformanceMetrics.Timer> TIMERS = new ConcurrentHashMap<>();
+
     private final long startTime;
+    private final long startNanos;
+    private final PerformanceMetrics.Timer timer;
     private final StringBuilder message = new StringBuilder();
     private Throwable exception = null;
     private final String contextString;
@@ -40,6 +52,8 @@ public class ContextLogger implements Closeable {
 
     public ContextLogger(final Log.LogLevel logLevel, final String context, final Object ... params) {
         this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.timer = getTimer(context);
         this.logLevel = logLevel;
         this.doLog = Log.isEnabled(logLevel);
         if (this.doLog) {
@@ -50,6 +64,22 @@ public class ContextLogger implements Closeable {
         }
     }
 
+    private static PerformanceMetrics.Timer getTimer(final String context) {
+        PerformanceMetrics.Timer timer = TIMERS.get(context);
+        if (timer == null) {
+            int end = context.length();
+            for (final char c : new char[] { '(', ':', ' ', '%' }) {
+                final int index = context.indexOf(c);
+                if (index > 0 && index < end) {
+                    end = index;
+                }
+            }
+            timer = PerformanceMetrics.timer(context.substring(0, end));
+            TIMERS.put(context, timer);
+        }
+        return timer;
+    }
+
     public boolean isActive() {
         return this.doLog;
     }
@@ -83,8 +113,11 @@ public class ContextLogger implements Closeable {
     }
 
     public void endLog() {
+        if (!hasLogged) {
+            timer.stop(startNanos);
+        }
+        hasLogged = true;
         if (doLog) {
-            hasLogged = true;
             final String logMsg = this.contextString + "END (" + (System.currentTimeMillis() - startTime) + "ms)" + message.toString() +
                     (this.exception == null ? "" : "EXC:" + exception.getClass().getName() + "[" + exception.getMessage() + "]");
             if (this.exception == null) {
@@ -19,7 +19,9 @@ import androidx.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.atomic.AtomicReference;
 
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -47,6 +49,45 @@ public class DebugUtils {
                 }, 1000);
     }
 
+    public static void showPerformanceMetrics(@NonNull final Activity activity) {
+        final String summary = PerformanceMetrics.getSummary();
+        Dialogs.confirmPositiveNegativeNeutral(
+                activity,
+                activity.getString(R.string.init_performance_metrics),
+                summary.isEmpty() ? activity.getString(R.string.init_performance_metrics_empty) : summary,
+                activity.getString(android.R.string.ok),
+                activity.getString(R.string.init_performance_metrics_export_csv),
+                activity.getString(R.string.init_performance_metrics_export_json),
+                null,
+                (dialog, which) -> exportPerformanceMetrics(activity, FileNameCreator.PERFORMANCE_METRICS_CSV, "text/csv", PerformanceMetrics.toCsv()),
+                (dialog, which) -> exportPerformanceMetrics(activity, FileNameCreator.PERFORMANCE_METRICS_JSON, "application/json", JsonUtils.toString(PerformanceMetrics.toJson())));
+    }
+
+    private static void exportPerformanceMetrics(@NonNull final Activity activity, @NonNull final FileNameCreator nameCreator, @NonNull final String mimeType, @NonNull final String content) {
+        final AtomicReference<Uri> result = new AtomicReference<>(null);
+        AndroidRxUtils.andThenOnUi(Schedulers.io(), () -> {
+            final Uri uri = ContentStorage.get().create(PersistableFolder.LOGFILES, nameCreator, false);
+            if (uri == null) {
+                return;
+            }
+            try (OutputStream os = ContentStorage.get().openForWrite(uri)) {
+                if (os != null) {
+                    os.write(content.getBytes(StandardCharsets.UTF_8));
+                    result.set(uri);
+                }
+            } catch (IOException e) {
+                Log.e("exportPerformanceMetrics", e);
+            }
+        }, () -> {
+            if (result.get() != null) {
+                ShareUtils.shareOrDismissDialog(activity, result.get(), mimeType, R.string.init_performance_metrics,
+                        activity.getString(R.string.init_performance_metrics_exported, UriUtils.toUserDisplayableString(result.get())));
+            } else {
+                ActivityMixin.showToast(activity, R.string.init_performance_metrics_export_error);
+            }
+        });
+    }
+
     public static void askUserToReportProblem(@NonNull final Activity context, @Nullable final String errorMsg) {
         final StringBuilder message = new StringBuilder();
         if (errorMsg != null) {
@@ -16,6 +16,8 @@ public class FileNameCreator {
     public static final FileNameCreator LOGFILE = new FileNameCreator("logcat", "txt");
     public static final FileNameCreator LOGFILE_SELF_WRITTEN = new FileNameCreator("cgeo-log-%s", "txt");
     public static final FileNameCreator MEMORY_DUMP = new FileNameCreator("cgeo_dump", "hprof");
+    public static final FileNameCreator PERFORMANCE_METRICS_JSON = new FileNameCreator("cgeo_metrics", "json");
+    public static final FileNameCreator PERFORMANCE_METRICS_CSV = new FileNameCreator("cgeo_metrics", "csv");
     public static final FileNameCreator GPX_EXPORT = new FileNameCreator("export", "gpx");
     public static final FileNameCreator INDIVIDUAL_ROUTE_NOSUFFIX = new FileNameCreator("route", null);
     public static final FileNameCreator TRAIL_HISTORY = new FileNameCreator("trail", "gpx");
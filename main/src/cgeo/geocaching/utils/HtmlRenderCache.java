@@ -0,0 +1,163 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.utils.functions.Func1;
+
+import android.text.Spanned;
+import android.text.style.ImageSpan;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Cache for HTML texts which have already been rendered into spans, like cache descriptions and log texts.
+ * <p>
+ * Entries are keyed by the geocode, the HTML content, the display width (which images are scaled to) and a variant
+ * for the kind of rendering, so that an entry is never shown for a changed text or after a change of orientation.
+ * <p>
+ * The images of a rendered text are loaded progressively and update the view the text was rendered for. Use
+ * {@link #setText(TextView, CharSequence)} to show a rendered text, so that the images update the showing view instead.
+ */
+public final class HtmlRenderCache {
+
+    /** cache descriptions, these may keep a lot of images alive */
+    public static final HtmlRenderCache DESCRIPTIONS = new HtmlRenderCache(8);
+    /** log texts and waypoint notes, only holding smileys */
+    public static final HtmlRenderCache LOGS = new HtmlRenderCache(300);
+
+    private static final PerformanceMetrics.Timer RENDER_TIMER = PerformanceMetrics.timer("html.render");
+    private static final PerformanceMetrics.Counter CACHE_HITS = PerformanceMetrics.counter("html.render.cache.hit");
+
+    private final LeastRecentlyUsedMap<Key, CharSequence> cache;
+
+    private HtmlRenderCache(final int maxEntries) {
+        cache = new LeastRecentlyUsedMap.LruCache<>(maxEntries);
+    }
+
+    /**
+     * @return the rendered text or null, if it has not been rendered yet
+     */
+    @Nullable
+    public CharSequence get(@NonNull final String geocode, @NonNull final String html, @NonNull final String variant) {
+        final CharSequence rendered;
+        synchronized (cache) {
+            rendered = cache.get(new Key(geocode, html, variant));
+        }
+        if (rendered != null) {
+            CACHE_HITS.increment();
+        }
+        return rendered;
+    }
+
+    /**
+     * Get the rendered text from the cache or render it now. May be called from any thread.
+     */
+    @NonNull
+    public CharSequence render(@NonNull final String geocode, @NonNull final String html, @NonNull final String variant, @NonNull final Func1<String, CharSequence> renderer) {
+        final Key key = new Key(geocode, html, variant);
+        synchronized (cache) {
+            final CharSequence cached = cache.get(key);
+            if (cached != null) {
+                CACHE_HITS.increment();
+                return cached;
+            }
+        }
+        final long start = System.nanoTime();
+        final CharSequence rendered = renderer.call(html);
+        RENDER_TIMER.stop(start);
+        synchronized (cache) {
+            cache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * Render the text on a background thread, if it is not in the cache yet.
+     */
+    public void renderInBackground(@NonNull final String geocode, @NonNull final String html, @NonNull final String variant, @NonNull final Func1<String, CharSequence> renderer) {
+        final Key key = new Key(geocode, html, variant);
+        synchronized (cache) {
+            if (cache.containsKey(key)) {
+                return;
+            }
+        }
+        AndroidRxUtils.computationScheduler.scheduleDirect(() -> {
+            try {
+                render(geocode, html, variant, renderer);
+            } catch (final RuntimeException e) {
+                Log.w("HtmlRenderCache: rendering in background failed for " + geocode, e);
+            }
+        });
+    }
+
+    /**
+     * Show a rendered text in the given view. Images of the text which are still loading will update this view
+     * when they are ready. Must be called on the UI thread.
+     */
+    public static void setText(@NonNull final TextView view, @NonNull final CharSequence rendered) {
+        bindImages(view, rendered);
+        view.setText(rendered, TextView.BufferType.SPANNABLE);
+    }
+
+    /**
+     * Let the images of a rendered text which are still loading update the given view when they are ready.
+     * Must be called on the UI thread.
+     */
+    public static void bindImages(@NonNull final TextView view, @NonNull final CharSequence rendered) {
+        if (rendered instanceof Spanned) {
+            final Spanned spanned = (Spanned) rendered;
+            for (final ImageSpan span : spanned.getSpans(0, spanned.length(), ImageSpan.class)) {
+                if (span.getDrawable() instanceof ImageUtils.ContainerDrawable) {
+                    ((ImageUtils.ContainerDrawable) span.getDrawable()).setView(view);
+                }
+            }
+        }
+    }
+
+    /**
+     * drop all rendered texts, e.g. on memory pressure
+     */
+    public static void clearAll() {
+        DESCRIPTIONS.clear();
+        LOGS.clear();
+    }
+
+    private void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    private static final class Key {
+        private final String geocode;
+        private final String html;
+        private final String variant;
+        private final int displayWidth;
+
+        Key(final String geocode, final String html, final String variant) {
+            this.geocode = geocode;
+            this.html = html;
+            this.variant = variant;
+            this.displayWidth = DisplayUtils.getDisplaySize().x;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            // compare the cached string hash first, so the full content is only compared on a likely match
+            return displayWidth == other.displayWidth && html.hashCode() == other.html.hashCode() && geocode.equals(other.geocode)
+                    && variant.equals(other.variant) && html.equals(other.html);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((geocode.hashCode() * 31 + html.hashCode()) * 31 + variant.hashCode()) * 31 + displayWidth;
+        }
+    }
+}
@@ -394,7 +394,7 @@ public final class ImageUtils {
         private static final Runnable REDRAW_QUEUED_DRAWABLES = ContainerDrawable::redrawQueuedDrawables;
 
         private Drawable drawable;
-        protected final WeakReference<TextView> viewRef;
+        protected WeakReference<TextView> viewRef;
 
         @SuppressWarnings("deprecation")
         public ContainerDrawable(@NonNull final TextView view, final Observable<? extends Drawable> drawableObservable) {
@@ -404,6 +404,16 @@ public final class ImageUtils {
             drawableObservable.subscribe(this);
         }
 
+        /**
+         * Update the given view instead of the original one when the image is ready, e.g. if an already rendered
+         * text is shown in a new view. Called on the UI thread.
+         */
+        public void setView(@NonNull final TextView view) {
+            if (viewRef.get() != view) {
+                viewRef = new WeakReference<>(view);
+            }
+        }
+
         @Override
         public final void draw(final Canvas canvas) {
             if (drawable != null) {
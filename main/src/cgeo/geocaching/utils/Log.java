@@ -9,12 +9,9 @@ import android.net.Uri;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.PrintWriter;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Locale;
-import java.util.Objects;
 import java.util.Properties;
 
 import org.apache.commons.io.IOUtils;
@@ -38,8 +35,13 @@ public final class Log {
     public static final String PROP_THROW_ON_ERROR_LOG = "logging.throwonerror";
     /** Logfile to log to */
     public static final String PROP_LOGFILE = "logging.logfile";
+    /** Size in KB after which logging continues in a new logfile */
+    public static final String PROP_LOGFILE_MAXSIZE = "logging.logfile.maxsizekb";
+    /** Number of logfiles to keep when logging continues in a new logfile, older ones are deleted */
+    public static final String PROP_LOGFILE_COUNT = "logging.logfile.count";
 
-    private static final DateFormat LOGFILE_ENTRY_FORMAT = new SimpleDateFormat("yy-MM-dd HH:mm:ss.SSS", Locale.US);
+    /** Number of log entries waiting to be written to the logfile, further entries are dropped */
+    private static final int LOGFILE_BUFFER_SIZE = 4096;
 
     /**
      * If the debug flag is set then minimum log level is debug AND an exception is thrown on error logging
@@ -51,7 +53,7 @@ public final class Log {
     private static boolean logThrowExceptionOnError = false;
     private static LogLevel minLogAddCallerInfo = LogLevel.NONE;
     private static int addCallerInfoMaxDepth = 4;
-    private static PrintWriter logFileWriter = null;
+    private static volatile AsyncLogFileWriter logFileWriter = null;
 
     private static final boolean[] SETTING_DO_LOGGING = new boolean[LogLevel.values().length];
     private static boolean settingThrowExceptionOnError = true;
@@ -126,23 +128,64 @@ public final class Log {
             if (logProps.containsKey(PROP_LOGFILE)) {
                 final String logfileNamePraefix = logProps.getProperty(PROP_LOGFILE).trim();
                 if (StringUtils.isNotBlank(logfileNamePraefix)) {
-                    final String logFileName = FileNameCreator.LOGFILE_SELF_WRITTEN.createName(logfileNamePraefix);
-                    Uri logFileUri = null;
-                    try {
-                        logFileUri = ContentStorage.get().create(PersistableFolder.LOGFILES.getFolder(), logFileName);
-                        final OutputStream logFileStream = ContentStorage.get().openForWrite(logFileUri);
-                        logFileWriter = new PrintWriter(Objects.requireNonNull(logFileStream));
-                        android.util.Log.i(TAG, "[Log] opened logfile '" + logFileName + "' at '" + logFileUri + "'");
-                    } catch (Exception ioe) {
-                        //could not open logfile
-                        android.util.Log.e(TAG, "[Log] Failed to open '" + logFileName + "' at '" + logFileUri + "'", ioe);
+                    final long maxSizeKb = readLong(logProps, PROP_LOGFILE_MAXSIZE, 5 * 1024);
+                    final int fileCount = (int) readLong(logProps, PROP_LOGFILE_COUNT, 3);
+                    if (logFileWriter != null) {
+                        logFileWriter.close();
                     }
+                    logFileWriter = new AsyncLogFileWriter(new RotatingLogFiles(logfileNamePraefix, fileCount), LOGFILE_BUFFER_SIZE, maxSizeKb * 1024);
                 }
             }
             adjustSettings();
         }
     }
 
+    private static long readLong(final Properties logProps, final String propName, final long defaultValue) {
+        try {
+            return logProps.containsKey(propName) ? Long.parseLong(logProps.getProperty(propName).trim()) : defaultValue;
+        } catch (NumberFormatException nfe) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Creates the logfiles for the {@link AsyncLogFileWriter}, keeping only the most recent ones
+     */
+    private static final class RotatingLogFiles implements AsyncLogFileWriter.Target {
+        private final String logfileNamePraefix;
+        private final int maxFiles;
+        private final Deque<Uri> files = new ArrayDeque<>();
+
+        RotatingLogFiles(final String logfileNamePraefix, final int maxFiles) {
+            this.logfileNamePraefix = logfileNamePraefix;
+            this.maxFiles = Math.max(1, maxFiles);
+        }
+
+        @Override
+        public OutputStream openNext() {
+            final String logFileName = FileNameCreator.LOGFILE_SELF_WRITTEN.createName(logfileNamePraefix);
+            Uri logFileUri = null;
+            try {
+                logFileUri = ContentStorage.get().create(PersistableFolder.LOGFILES.getFolder(), logFileName);
+                final OutputStream logFileStream = ContentStorage.get().openForWrite(logFileUri);
+                if (logFileStream == null) {
+                    android.util.Log.e(TAG, "[Log] Failed to open '" + logFileName + "' at '" + logFileUri + "'");
+                    return null;
+                }
+                files.addLast(logFileUri);
+                while (files.size() > maxFiles) {
+                    ContentStorage.get().delete(files.removeFirst());
+                }
+                android.util.Log.i(TAG, "[Log] opened logfile '" + logFileName + "' at '" + logFileUri + "'");
+                return logFileStream;
+            } catch (Exception ioe) {
+                //could not open logfile
+                android.util.Log.e(TAG, "[Log] Failed to open '" + logFileName + "' at '" + logFileUri + "'", ioe);
+                return null;
+            }
+        }
+    }
+
     public static LogLevel readLogLevel(final Properties logProps, final String propName) {
         if (!logProps.containsKey(propName)) {
             return null;
@@ -306,6 +349,7 @@ public final class Log {
                 logToFile("E", message, null);
             }
             if (settingThrowExceptionOnError) {
+                flushLogFile();
                 throw new RuntimeException("Aborting on Log.e()");
             }
         }
@@ -319,6 +363,7 @@ public final class Log {
                 logToFile("E", message, t);
             }
             if (settingThrowExceptionOnError) {
+                flushLogFile();
                 if (t instanceof RuntimeException) {
                     throw (RuntimeException) t;
                 }
@@ -360,13 +405,19 @@ public final class Log {
     }
 
     private static void logToFile(final String level, final String message, final Throwable t) {
-        if (logFileWriter != null) {
+        final AsyncLogFileWriter writer = logFileWriter;
+        if (writer != null) {
+            writer.log(level, message, t);
+        }
+    }
 
-            logFileWriter.write(LOGFILE_ENTRY_FORMAT.format(new Date()) + " (" + level + ") " + message + "\n");
-            if (t != null) {
-                t.printStackTrace(logFileWriter);
-            }
-            logFileWriter.flush();
+    /**
+     * make sure the logfile contains everything logged so far before the app is terminated on purpose
+     */
+    private static void flushLogFile() {
+        final AsyncLogFileWriter writer = logFileWriter;
+        if (writer != null) {
+            writer.flush(1000);
         }
     }
 
@@ -17,6 +17,12 @@ import cgeo.geocaching.utils.builders.InsetBuilder.VERTICAL;
 import cgeo.geocaching.utils.builders.InsetsBuilder;
 
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.util.Pair;
@@ -41,6 +47,7 @@ public final class MapMarkerUtils {
     private static Boolean listsRead = false;
 
     private static final SparseArray<CacheMarker> overlaysCache = new SparseArray<>();
+    private static final SparseArray<BitmapDrawable> clusterMarkerCache = new SparseArray<>();
     private static EmojiUtils.EmojiPaint cPaint = null; // cache icons
     private static EmojiUtils.EmojiPaint lPaint = null; // list markers
 
@@ -221,6 +228,57 @@ public final class MapMarkerUtils {
         return new LayerDrawable(layers);
     }
 
+    /**
+     * Obtain the marker for a cluster of caches, a circle showing the number of caches.
+     * Return a drawable from the cache, if a marker for this number was already generated.
+     *
+     * @param res
+     *          the resources to use
+     * @param count
+     *          the number of caches in the cluster
+     * @return
+     *          a drawable representing the cluster
+     */
+    @NonNull
+    public static BitmapDrawable createClusterMarker(final Resources res, final int count) {
+        synchronized (clusterMarkerCache) {
+            BitmapDrawable marker = clusterMarkerCache.get(count);
+            if (marker == null) {
+                marker = buildClusterMarker(res, count);
+                clusterMarkerCache.put(count, marker);
+            }
+            return marker;
+        }
+    }
+
+    @NonNull
+    private static BitmapDrawable buildClusterMarker(final Resources res, final int count) {
+        final String text = count < 1000 ? String.valueOf(count) : (count / 1000) + "k";
+        final float density = res.getDisplayMetrics().density;
+        // bigger clusters get slightly bigger circles
+        final int size = Math.round(density * (28 + 4 * Math.min(text.length(), 4)));
+        final float center = size / 2f;
+
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(res.getColor(R.color.colorAccent));
+        paint.setAlpha(0xE0);
+        canvas.drawCircle(center, center, center - density, paint);
+        paint.setColor(Color.WHITE);
+        paint.setAlpha(0xFF);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(2 * density);
+        canvas.drawCircle(center, center, center - 2 * density, paint);
+
+        paint.setStyle(Paint.Style.FILL);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        paint.setTextSize(14 * density);
+        canvas.drawText(text, center, center - (paint.descent() + paint.ascent()) / 2, paint);
+        return new BitmapDrawable(res, bitmap);
+    }
+
     /**
      * Clear the cache of drawable items.
      */
@@ -228,6 +286,9 @@ public final class MapMarkerUtils {
         synchronized (overlaysCache) {
             overlaysCache.clear();
         }
+        synchronized (clusterMarkerCache) {
+            clusterMarkerCache.clear();
+        }
     }
 
     /**
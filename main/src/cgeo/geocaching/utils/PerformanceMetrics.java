@@ -0,0 +1,325 @@
+package cgeo.geocaching.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Aggregates timings and counts of interesting operations over the lifetime of the process.
+ * <p/>
+ * Timers and counters are registered by name once (typically in a static field) and can then be updated from any
+ * thread without allocating. Timers keep a histogram with fixed buckets, each power of two microseconds being split
+ * into four buckets, so percentiles are reported with an error of at most 25%.
+ * <p/>
+ * All sections measured with a {@link ContextLogger} are recorded here as well, independent of the log level.
+ */
+public final class PerformanceMetrics {
+
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    private PerformanceMetrics() {
+        // utility class
+    }
+
+    /**
+     * A named latency histogram.
+     */
+    public static final class Timer {
+
+        /**
+         * values below this are counted in a bucket of their own
+         */
+        private static final int LINEAR_BUCKETS = 8;
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        /**
+         * values of 2^40 microseconds (about 12 days) and above share the last bucket
+         */
+        private static final int MAX_EXPONENT = 40;
+        static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - 3) * SUB_BUCKETS + 1;
+
+        @NonNull private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        private Timer(@NonNull final String name) {
+            this.name = name;
+        }
+
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * record the time passed since the given start
+         *
+         * @param startNanos
+         *            the start of the measured section as returned by {@link System#nanoTime()}
+         */
+        public void stop(final long startNanos) {
+            recordMicros((System.nanoTime() - startNanos) / 1000);
+        }
+
+        public void recordMicros(final long micros) {
+            final long value = Math.max(0, micros);
+            buckets.incrementAndGet(bucketOf(value));
+            count.incrementAndGet();
+            totalMicros.addAndGet(value);
+            long max = maxMicros.get();
+            while (value > max && !maxMicros.compareAndSet(max, value)) {
+                max = maxMicros.get();
+            }
+        }
+
+        static int bucketOf(final long micros) {
+            if (micros < LINEAR_BUCKETS) {
+                return (int) micros;
+            }
+            final int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+            if (exponent == MAX_EXPONENT) {
+                return BUCKET_COUNT - 1;
+            }
+            final int subBucket = (int) (micros >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_BUCKETS + (exponent - 3) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * @return the largest value counted in the given bucket
+         */
+        static long upperBoundOf(final int bucket) {
+            if (bucket < LINEAR_BUCKETS) {
+                return bucket;
+            }
+            final int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 3;
+            final int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+            final long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (SUB_BUCKETS + subBucket + 1) * width - 1;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getTotalMicros() {
+            return totalMicros.get();
+        }
+
+        public long getMaxMicros() {
+            return maxMicros.get();
+        }
+
+        public long getMeanMicros() {
+            final long n = count.get();
+            return n == 0 ? 0 : totalMicros.get() / n;
+        }
+
+        /**
+         * @param percentile
+         *            between 0 and 100
+         * @return an upper bound of the given percentile of all recorded values, {@code 0} if nothing was recorded
+         */
+        public long getPercentileMicros(final double percentile) {
+            long total = 0;
+            final long[] snapshot = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i), maxMicros.get());
+                }
+            }
+            return maxMicros.get();
+        }
+
+        private void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalMicros.set(0);
+            maxMicros.set(0);
+        }
+    }
+
+    /**
+     * A named counter.
+     */
+    public static final class Counter {
+
+        @NonNull private final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(@NonNull final String name) {
+            this.name = name;
+        }
+
+        @NonNull
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(final long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+    }
+
+    /**
+     * @return the timer with the given name, created on first use
+     */
+    @NonNull
+    public static Timer timer(@NonNull final String name) {
+        final Timer timer = TIMERS.get(name);
+        if (timer != null) {
+            return timer;
+        }
+        final Timer newTimer = new Timer(name);
+        final Timer existing = TIMERS.putIfAbsent(name, newTimer);
+        return existing != null ? existing : newTimer;
+    }
+
+    /**
+     * @return the counter with the given name, created on first use
+     */
+    @NonNull
+    public static Counter counter(@NonNull final String name) {
+        final Counter counter = COUNTERS.get(name);
+        if (counter != null) {
+            return counter;
+        }
+        final Counter newCounter = new Counter(name);
+        final Counter existing = COUNTERS.putIfAbsent(name, newCounter);
+        return existing != null ? existing : newCounter;
+    }
+
+    /**
+     * clear all recorded values, the timers and counters stay registered
+     */
+    public static void reset() {
+        for (final Timer timer : TIMERS.values()) {
+            timer.reset();
+        }
+        for (final Counter counter : COUNTERS.values()) {
+            counter.value.set(0);
+        }
+    }
+
+    @NonNull
+    private static Map<String, Timer> getUsedTimers() {
+        final Map<String, Timer> result = new TreeMap<>();
+        for (final Timer timer : TIMERS.values()) {
+            if (timer.getCount() > 0) {
+                result.put(timer.getName(), timer);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private static Map<String, Counter> getUsedCounters() {
+        final Map<String, Counter> result = new TreeMap<>();
+        for (final Counter counter : COUNTERS.values()) {
+            if (counter.get() != 0) {
+                result.put(counter.getName(), counter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a human readable summary of all timers and counters which were used
+     */
+    @NonNull
+    public static String getSummary() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Timer timer : getUsedTimers().values()) {
+            sb.append(timer.getName()).append('\n')
+                    .append(String.format(Locale.US, "  n=%d p50=%s p99=%s max=%s\n", timer.getCount(),
+                            formatMicros(timer.getPercentileMicros(50)), formatMicros(timer.getPercentileMicros(99)), formatMicros(timer.getMaxMicros())));
+        }
+        for (final Counter counter : getUsedCounters().values()) {
+            sb.append(counter.getName()).append(": ").append(counter.get()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    private static String formatMicros(final long micros) {
+        if (micros < 1000) {
+            return micros + "\u00b5s";
+        }
+        return String.format(Locale.US, "%.1fms", micros / 1000.0);
+    }
+
+    @NonNull
+    public static ObjectNode toJson() {
+        final ObjectNode root = JsonUtils.createObjectNode();
+        final ArrayNode timers = root.putArray("timers");
+        for (final Timer timer : getUsedTimers().values()) {
+            timers.addObject()
+                    .put("name", timer.getName())
+                    .put("count", timer.getCount())
+                    .put("totalUs", timer.getTotalMicros())
+                    .put("meanUs", timer.getMeanMicros())
+                    .put("p50Us", timer.getPercentileMicros(50))
+                    .put("p90Us", timer.getPercentileMicros(90))
+                    .put("p99Us", timer.getPercentileMicros(99))
+                    .put("maxUs", timer.getMaxMicros());
+        }
+        final ObjectNode counters = root.putObject("counters");
+        for (final Counter counter : getUsedCounters().values()) {
+            counters.put(counter.getName(), counter.get());
+        }
+        return root;
+    }
+
+    @NonNull
+    public static String toCsv() {
+        final StringBuilder sb = new StringBuilder("type,name,count,total_us,mean_us,p50_us,p90_us,p99_us,max_us\n");
+        for (final Timer timer : getUsedTimers().values()) {
+            sb.append("timer,").append(csvQuote(timer.getName())).append(',').append(timer.getCount()).append(',').append(timer.getTotalMicros())
+                    .append(',').append(timer.getMeanMicros()).append(',').append(timer.getPercentileMicros(50)).append(',').append(timer.getPercentileMicros(90))
+                    .append(',').append(timer.getPercentileMicros(99)).append(',').append(timer.getMaxMicros()).append('\n');
+        }
+        for (final Counter counter : getUsedCounters().values()) {
+            sb.append("counter,").append(csvQuote(counter.getName())).append(',').append(counter.get()).append(",,,,,,\n");
+        }
+        return sb.toString();
+    }
+
+    @NonNull
+    private static String csvQuote(@NonNull final String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
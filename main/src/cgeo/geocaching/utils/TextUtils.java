@@ -67,12 +67,36 @@ public final class TextUtils {
      *            Find the last occurring value
      * @return defaultValue or the n-th group if the pattern matches (trimmed if wanted)
      */
+    public static String getMatch(@Nullable final String data, final Pattern pattern, final boolean trim, final int group, final String defaultValue, final boolean last) {
+        return getMatch(data, 0, pattern, trim, group, defaultValue, last);
+    }
+
+    /**
+     * Searches for the pattern pattern in the data, starting at the given index. If the pattern is not found
+     * defaultValue is returned
+     *
+     * @param data
+     *            Data to search in
+     * @param start
+     *            index in the data to start searching at
+     * @param pattern
+     *            Pattern to search for
+     * @param trim
+     *            Set to true if the group found should be trim'ed
+     * @param group
+     *            Number of the group to return if found
+     * @param defaultValue
+     *            Value to return if the pattern is not found
+     * @param last
+     *            Find the last occurring value
+     * @return defaultValue or the n-th group if the pattern matches (trimmed if wanted)
+     */
     @SuppressWarnings("RedundantStringConstructorCall")
     @SuppressFBWarnings("DM_STRING_CTOR")
-    public static String getMatch(@Nullable final String data, final Pattern pattern, final boolean trim, final int group, final String defaultValue, final boolean last) {
+    public static String getMatch(@Nullable final String data, final int start, final Pattern pattern, final boolean trim, final int group, final String defaultValue, final boolean last) {
         if (data != null) {
             final Matcher matcher = pattern.matcher(data);
-            if (matcher.find()) {
+            if (matcher.find(start)) {
                 String result = matcher.group(group);
                 while (last && matcher.find()) {
                     result = matcher.group(group);
@@ -138,6 +162,15 @@ public final class TextUtils {
 
     }
 
+    /**
+     * Searches for the pattern pattern in the data, starting at the given index.
+     *
+     * @return true if data contains the pattern pattern at or after the start index
+     */
+    public static boolean matches(final String data, final int start, final Pattern pattern) {
+        return data != null && pattern.matcher(data).find(start);
+    }
+
     /**
      * Replaces every \n, \r and \t with a single space. Afterwards multiple spaces
      * are merged into a single space. Finally leading spaces are deleted.
@@ -0,0 +1,51 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.expressions.BExpressionContextWay;
+import cgeo.geocaching.brouter.expressions.BExpressionMetaData;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class NodesCachePoolTest {
+
+    private static final long MAXMEM = 64L * 1024L * 1024L;
+
+    private static BExpressionContextWay createContext() {
+        return new BExpressionContextWay(new BExpressionMetaData());
+    }
+
+    @Test
+    public void testReuseForSameContext() {
+        final NodesCachePool pool = new NodesCachePool();
+        final BExpressionContextWay ctx = createContext();
+        assertThat(pool.acquire(ctx)).isNull();
+
+        final NodesCache cache = new NodesCache(ctx, MAXMEM, null, false);
+        pool.release(cache);
+        assertThat(cache.nodesMap).isNull();
+        assertThat(pool.acquire(createContext())).isNull();
+
+        assertThat(pool.acquire(ctx)).isSameAs(cache);
+        // a cache is handed out only once
+        assertThat(pool.acquire(ctx)).isNull();
+    }
+
+    @Test
+    public void testEvictLeastRecentlyReleased() {
+        final NodesCachePool pool = new NodesCachePool();
+        final BExpressionContextWay ctx1 = createContext();
+        final BExpressionContextWay ctx2 = createContext();
+        final BExpressionContextWay ctx3 = createContext();
+        pool.release(new NodesCache(ctx1, MAXMEM, null, false));
+        pool.release(new NodesCache(ctx2, MAXMEM, null, false));
+        pool.release(new NodesCache(ctx3, MAXMEM, null, false));
+
+        assertThat(pool.getIdleCount()).isEqualTo(2);
+        assertThat(pool.acquire(ctx1)).isNull();
+        assertThat(pool.acquire(ctx3)).isNotNull();
+
+        pool.clear();
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        assertThat(pool.acquire(ctx2)).isNull();
+    }
+}
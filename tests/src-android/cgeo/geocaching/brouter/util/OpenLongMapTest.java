@@ -0,0 +1,110 @@
+package cgeo.geocaching.brouter.util;
+
+import cgeo.geocaching.utils.Log;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OpenLongMapTest {
+    @Test
+    public void hashMapComparisonTest() {
+        hashMapComparison(100, 100000);
+        hashMapComparison(100000, 1000000);
+    }
+
+    private void hashMapComparison(final int keyrange, final int trycount) {
+        final Random rand = new Random(12345);
+        final HashMap<Long, String> hmap = new HashMap<Long, String>();
+        final OpenLongMap<String> omap = new OpenLongMap<String>(4);
+
+        for (int i = 0; i < trycount; i++) {
+            // packed positions like OsmNode.getIdFromPos()
+            final long k = ((long) rand.nextInt(keyrange)) << 32 | rand.nextInt(3);
+            final String s = "" + i;
+            switch (rand.nextInt(3)) {
+                case 0:
+                    Assert.assertEquals("put missmatch", hmap.put(k, s), omap.put(k, s));
+                    break;
+                case 1:
+                    Assert.assertEquals("remove missmatch", hmap.remove(k), omap.remove(k));
+                    break;
+                default:
+                    Assert.assertEquals("get missmatch", hmap.get(k), omap.get(k));
+                    break;
+            }
+            Assert.assertEquals("size missmatch", hmap.size(), omap.size());
+        }
+
+        int count = 0;
+        for (int i = 0; i < omap.capacity(); i++) {
+            final String s = omap.valueAt(i);
+            if (s != null) {
+                count++;
+                Assert.assertTrue("value missmatch", hmap.containsValue(s));
+            }
+        }
+        Assert.assertEquals("iteration missmatch", hmap.size(), count);
+    }
+
+    /**
+     * key of the former HashMap based node map, equal for the same position
+     */
+    private static final class Position {
+        int ilon;
+        int ilat;
+
+        Position(final int ilon, final int ilat) {
+            this.ilon = ilon;
+            this.ilat = ilat;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return ((Position) o).ilon == ilon && ((Position) o).ilat == ilat;
+        }
+
+        @Override
+        public int hashCode() {
+            return ilon + ilat;
+        }
+    }
+
+    @Test
+    public void benchmarkAgainstHashMap() {
+        final int nodes = 200000;
+        final Position[] positions = new Position[nodes];
+        final Random rand = new Random(3);
+        // positions along a long route, in micro degrees
+        for (int i = 0; i < nodes; i++) {
+            positions[i] = new Position(188000000 + i * 5 + rand.nextInt(5000), 138000000 + i * 3 + rand.nextInt(5000));
+        }
+
+        long start = System.nanoTime();
+        final HashMap<Position, Position> hmap = new HashMap<Position, Position>(4096);
+        final Position testKey = new Position(0, 0);
+        for (final Position p : positions) {
+            hmap.put(p, p);
+        }
+        for (final Position p : positions) {
+            testKey.ilon = p.ilon;
+            testKey.ilat = p.ilat;
+            Assert.assertNotNull(hmap.get(testKey));
+        }
+        final long hashMapMillis = (System.nanoTime() - start) / 1000000;
+
+        start = System.nanoTime();
+        final OpenLongMap<Position> omap = new OpenLongMap<Position>(4096);
+        for (final Position p : positions) {
+            omap.put(((long) p.ilon) << 32 | p.ilat, p);
+        }
+        for (final Position p : positions) {
+            Assert.assertNotNull(omap.get(((long) p.ilon) << 32 | p.ilat));
+        }
+        final long openMapMillis = (System.nanoTime() - start) / 1000000;
+
+        Log.d("OpenLongMap benchmark for " + nodes + " nodes: HashMap " + hashMapMillis + " ms, OpenLongMap " + openMapMillis + " ms");
+    }
+}
@@ -1,15 +1,21 @@
 package cgeo.geocaching.connector;
 
 import cgeo.geocaching.connector.gc.GCConnector;
+import cgeo.geocaching.connector.lc.LCConnector;
 import cgeo.geocaching.connector.oc.OCCZConnector;
 import cgeo.geocaching.connector.oc.OCConnector;
 import cgeo.geocaching.connector.oc.OCDEConnector;
 import cgeo.geocaching.connector.unknown.UnknownConnector;
 import cgeo.geocaching.test.AbstractResourceInstrumentationTestCase;
 import cgeo.geocaching.test.mock.GC1ZXX2;
+import cgeo.geocaching.utils.Log;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.assertj.core.api.Java6Assertions.assertThat;
@@ -114,6 +120,61 @@ public class ConnectorFactoryTest extends AbstractResourceInstrumentationTestCas
         assertThat(ConnectorFactory.getTrackableFromURL("https://www.coord.info/GC1234")).isEqualTo("GC1234");
     }
 
+    public static void testDispatchMatchesFullScan() {
+        for (final String geocode : getMixedGeocodes()) {
+            assertThat(ConnectorFactory.getConnector(geocode)).as(geocode).isSameAs(getConnectorByFullScan(geocode));
+            // second lookup is answered from the memo
+            assertThat(ConnectorFactory.getConnector(geocode)).as(geocode).isSameAs(getConnectorByFullScan(geocode));
+        }
+        // LC geocodes are claimed by lab caches before terracaching
+        assertThat(ConnectorFactory.getConnector("LC1234")).isSameAs(LCConnector.getInstance());
+    }
+
+    public static void testDispatchBenchmark() {
+        final List<String> geocodes = new ArrayList<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            // mostly geocaching.com, with a realistic share of other platforms and repeated lookups
+            final String id = Integer.toString(random.nextInt(i < 2500 ? 100000 : 200), 36);
+            final int platform = random.nextInt(10);
+            geocodes.add((platform < 6 ? "GC" : platform < 8 ? "OC" : platform < 9 ? "OK" : "TC") + id);
+        }
+        geocodes.addAll(getMixedGeocodes());
+
+        final long startFullScan = System.nanoTime();
+        for (final String geocode : geocodes) {
+            getConnectorByFullScan(geocode);
+        }
+        final long startDispatch = System.nanoTime();
+        for (final String geocode : geocodes) {
+            ConnectorFactory.getConnector(geocode);
+        }
+        final long end = System.nanoTime();
+        Log.i("ConnectorFactoryTest: full scan " + (startDispatch - startFullScan) / 1000 + "us, dispatch " + (end - startDispatch) / 1000 + "us for " + geocodes.size() + " geocodes");
+
+        for (final String geocode : geocodes) {
+            assertThat(ConnectorFactory.getConnector(geocode)).as(geocode).isSameAs(getConnectorByFullScan(geocode));
+        }
+    }
+
+    private static IConnector getConnectorByFullScan(final String geocode) {
+        for (final IConnector connector : ConnectorFactory.getConnectors()) {
+            if (connector.canHandle(geocode)) {
+                return connector;
+            }
+        }
+        return ConnectorFactory.UNKNOWN_CONNECTOR;
+    }
+
+    private static List<String> getMixedGeocodes() {
+        final List<String> geocodes = new ArrayList<>(getGeocodeSample());
+        geocodes.addAll(Arrays.asList("gc12345", "GC1I", "OZ12345", "oc1ab", "OK0815", "OS1234", "OB1234", "OP1234", "OU1234", "OR1234",
+                "ec1234", "ECX", "LC-abc_1", "lc1234", "CC12", "CC12345", "tc1", "ga1234", "GAX1", "tp1", "ge1234", "GEX", "wm1234", "WMabc",
+                "SU1234", "tr1234", "MV1", "VI1", "MS1", "EV1", "CT1", "LT1", "LV1", "SUX", "ZZ1", "zz1AB", "ZZ12345",
+                "X", "1", "XY1234", "some string", "O"));
+        return geocodes;
+    }
+
     public static Set<String> getGeocodeSample() {
         final Set<String> geocodes = new HashSet<>(18);
         geocodes.add("GC1234");
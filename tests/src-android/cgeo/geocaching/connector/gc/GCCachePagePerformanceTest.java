@@ -0,0 +1,78 @@
+package cgeo.geocaching.connector.gc;
+
+import cgeo.geocaching.test.mock.MockedCache;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.TextUtils;
+
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * compares matching the cache details patterns on the whole page with matching them at the anchors of {@link GCCachePage}
+ */
+public class GCCachePagePerformanceTest extends AndroidTestCase {
+
+    private static final int RUNS = 50;
+
+    private static final Pattern[] PATTERNS = { GCConstants.PATTERN_HINT, GCConstants.PATTERN_DESC, GCConstants.PATTERN_SHORTDESC,
+            GCConstants.PATTERN_LATLON, GCConstants.PATTERN_LOCATION, GCConstants.PATTERN_PERSONALNOTE, GCConstants.PATTERN_DIFFICULTY,
+            GCConstants.PATTERN_OWNER_DISPLAYNAME, GCConstants.PATTERN_COUNTLOGS, GCConstants.PATTERN_IS_FAVORITE, GCConstants.PATTERN_FOUND };
+    private static final String[] ANCHORS = { GCConstants.ID_HINT, GCConstants.ID_DESC, GCConstants.ID_SHORTDESC,
+            GCConstants.ID_LATLON, GCConstants.ID_LOCATION, GCConstants.ID_PERSONALNOTE, GCConstants.ID_DIFFICULTY,
+            GCConstants.ID_OWNER_DISPLAYNAME, GCConstants.ID_COUNTLOGS, GCConstants.ID_IS_FAVORITE, GCConstants.ID_FOUND };
+
+    public void testAnchoredMatching() {
+        final int pages = MockedCache.MOCKED_CACHES.size();
+        final String[][] expected = new String[pages][];
+        final String[][] actual = new String[pages][];
+        final long wholePage = measure("whole page matching", () -> {
+            for (int run = 0; run < RUNS; run++) {
+                for (int i = 0; i < pages; i++) {
+                    expected[i] = matchWholePage(MockedCache.MOCKED_CACHES.get(i).getData());
+                }
+            }
+        });
+        final long anchored = measure("anchored matching", () -> {
+            for (int run = 0; run < RUNS; run++) {
+                for (int i = 0; i < pages; i++) {
+                    actual[i] = matchAnchored(MockedCache.MOCKED_CACHES.get(i).getData());
+                }
+            }
+        });
+        Log.d("anchored matching speedup: " + (anchored == 0 ? "-" : String.valueOf((float) wholePage / anchored)));
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private static String[] matchWholePage(final String pageIn) {
+        final String page = TextUtils.replaceWhitespace(pageIn);
+        final String[] result = new String[PATTERNS.length];
+        for (int i = 0; i < PATTERNS.length; i++) {
+            result[i] = TextUtils.getMatch(page, PATTERNS[i], true, null);
+        }
+        return result;
+    }
+
+    private static String[] matchAnchored(final String pageIn) {
+        final GCCachePage cachePage = new GCCachePage(pageIn);
+        final String[] result = new String[PATTERNS.length];
+        for (int i = 0; i < PATTERNS.length; i++) {
+            result[i] = cachePage.getMatch(PATTERNS[i], ANCHORS[i], true, null);
+        }
+        return result;
+    }
+
+    @SuppressFBWarnings("DM_GC")
+    private static long measure(final String label, final Runnable runnable) {
+        System.gc();
+        final long start = SystemClock.elapsedRealtime();
+        runnable.run();
+        final long end = SystemClock.elapsedRealtime();
+        Log.d(label + ": " + (end - start) + " ms");
+        return end - start;
+    }
+}
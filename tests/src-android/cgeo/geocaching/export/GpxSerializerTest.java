@@ -10,6 +10,9 @@ import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.test.AbstractResourceInstrumentationTestCase;
 import cgeo.geocaching.test.R;
+import cgeo.geocaching.utils.Log;
+
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 
@@ -18,16 +21,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 
 public class GpxSerializerTest extends AbstractResourceInstrumentationTestCase {
 
+    private static final List<String> BENCHMARK_GEOCODES = Arrays.asList("GC1BKP3", "GC31J2H", "ZZ1000");
+    private static final int BENCHMARK_RUNS = 20;
+
     public static void testWriteEmptyGPX() throws Exception {
         final StringWriter writer = new StringWriter();
         new GpxSerializer().writeGPX(Collections.emptyList(), writer, null);
@@ -41,6 +50,89 @@ public class GpxSerializerTest extends AbstractResourceInstrumentationTestCase {
                 "xmlns:cgeo=\"http://www.cgeo.org/wptext/1/0\" />"));
     }
 
+    /**
+     * The pipelined export must write exactly the document of the sequential exporter it replaced, with any parallelism.
+     */
+    public void testExportEqualsSequentialExport() throws IOException, ParserException {
+        try {
+            loadBenchmarkCaches();
+            final String expected = writeSequentialGPX(BENCHMARK_GEOCODES);
+            assertThat(expected).contains("<name>GC1BKP3</name>").contains("<name>GC31J2H</name>").contains("<name>ZZ1000</name>");
+
+            for (final int parallelism : new int[] { 1, 4 }) {
+                final StringWriter writer = new StringWriter();
+                new GpxSerializer(parallelism).writeGPX(BENCHMARK_GEOCODES, writer, null);
+                assertThat(writer.toString()).isEqualTo(expected);
+            }
+        } finally {
+            removeBenchmarkCaches();
+        }
+    }
+
+    public void testExportPerformance() throws IOException, ParserException {
+        try {
+            loadBenchmarkCaches();
+            final String[] expected = new String[1];
+            final String[] actual = new String[1];
+            final long sequential = measure("sequential gpx export", () -> {
+                for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                    expected[0] = writeSequentialGPX(BENCHMARK_GEOCODES);
+                }
+            });
+            final long pipelined = measure("pipelined gpx export", () -> {
+                for (int run = 0; run < BENCHMARK_RUNS; run++) {
+                    actual[0] = getGPXFromCaches(BENCHMARK_GEOCODES);
+                }
+            });
+            Log.d("pipelined gpx export speedup: " + (pipelined == 0 ? "-" : String.valueOf((float) sequential / pipelined)));
+            assertThat(actual[0]).isEqualTo(expected[0]);
+        } finally {
+            removeBenchmarkCaches();
+        }
+    }
+
+    private void loadBenchmarkCaches() throws IOException, ParserException {
+        loadCacheFromResource(R.raw.gc1bkp3_gpx101);
+        loadCacheFromResource(R.raw.gc31j2h);
+        loadCacheFromResource(R.raw.zz1000);
+    }
+
+    private static void removeBenchmarkCaches() {
+        for (final String geocode : BENCHMARK_GEOCODES) {
+            DataStore.removeCache(geocode, LoadFlags.REMOVE_ALL);
+        }
+    }
+
+    private static String writeSequentialGPX(final List<String> geocodes) {
+        final StringWriter writer = new StringWriter();
+        try {
+            new SequentialGpxSerializer().writeGPX(geocodes, writer);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    private static String getGPXFromCaches(final List<String> geocodes) {
+        final StringWriter writer = new StringWriter();
+        try {
+            new GpxSerializer().writeGPX(geocodes, writer, null);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    @SuppressFBWarnings("DM_GC")
+    private static long measure(final String label, final Runnable runnable) {
+        System.gc();
+        final long start = SystemClock.elapsedRealtime();
+        runnable.run();
+        final long end = SystemClock.elapsedRealtime();
+        Log.d(label + ": " + (end - start) + " ms");
+        return end - start;
+    }
+
     private static String removeWhitespaces(final String txt) {
         return txt.replaceAll("\\s", "");
 
@@ -0,0 +1,146 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.utils.Log;
+
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * compares sorting 50k synthetic caches with the comparators and with precomputed sort keys
+ */
+public class CacheSorterPerformanceTest extends AndroidTestCase {
+
+    private static final int CACHE_COUNT = 50000;
+
+    private List<Geocache> caches;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        final Random random = new Random(4711);
+        final CacheSize[] sizes = CacheSize.values();
+        caches = new ArrayList<>(CACHE_COUNT);
+        for (int i = 0; i < CACHE_COUNT; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GC" + Integer.toString(random.nextInt(5000000) + 100000, 36).toUpperCase());
+            cache.setName("Synthetic cache " + random.nextInt(CACHE_COUNT) + " #" + random.nextInt(100));
+            cache.setCoords(new Geopoint(47 + random.nextDouble() * 8, 6 + random.nextDouble() * 9));
+            cache.setDifficulty((random.nextInt(9) + 2) / 2.0f);
+            cache.setTerrain((random.nextInt(9) + 2) / 2.0f);
+            cache.setSize(sizes[random.nextInt(sizes.length)]);
+            cache.setFavoritePoints(random.nextInt(500));
+            cache.setInventoryItems(random.nextInt(5));
+            cache.setMyVote(random.nextInt(6));
+            cache.setRating(random.nextFloat() * 5);
+            cache.setVotes(random.nextInt(50));
+            cache.setDisabled(random.nextInt(10) == 0);
+            cache.setHidden(new Date(1000000000000L + random.nextInt(500000) * 86400000L));
+            cache.setVisitedDate(random.nextInt(100) == 0 ? System.currentTimeMillis() - random.nextInt(1000000) : 0);
+            cache.setUpdated(System.currentTimeMillis() - random.nextInt(1000000000));
+            caches.add(cache);
+        }
+    }
+
+    public void testDifficulty() {
+        compare(new DifficultyComparator());
+    }
+
+    public void testTerrain() {
+        compare(new TerrainComparator());
+    }
+
+    public void testSize() {
+        compare(new SizeComparator());
+    }
+
+    public void testName() {
+        compare(new NameComparator());
+    }
+
+    public void testSeriesName() {
+        compare(new SeriesNameComparator());
+    }
+
+    public void testGeocode() {
+        compare(new GeocodeComparator());
+    }
+
+    public void testDate() {
+        compare(new DateComparator());
+    }
+
+    public void testEventDate() {
+        compare(new EventDateComparator());
+    }
+
+    public void testDistance() {
+        compare(new DistanceComparator(new Geopoint(51, 10), caches));
+    }
+
+    public void testPopularity() {
+        compare(new PopularityComparator());
+    }
+
+    public void testPopularityRatio() {
+        compare(new PopularityRatioComparator());
+    }
+
+    public void testRating() {
+        compare(new RatingComparator());
+    }
+
+    public void testVote() {
+        compare(new VoteComparator());
+    }
+
+    public void testInventory() {
+        compare(new InventoryComparator());
+    }
+
+    public void testFinds() {
+        compare(new FindsComparator());
+    }
+
+    public void testState() {
+        compare(new StateComparator());
+    }
+
+    public void testStorageTime() {
+        compare(new StorageTimeComparator());
+    }
+
+    public void testVisit() {
+        compare(new VisitComparator());
+    }
+
+    private void compare(final CacheComparator comparator) {
+        final List<Geocache> expected = new ArrayList<>(caches);
+        final List<Geocache> actual = new ArrayList<>(caches);
+        final String name = comparator.getClass().getSimpleName();
+        measure(name + " Collections.sort", () -> Collections.sort(expected, new InverseComparator(comparator)));
+        measure(name + " CacheSorter.sort", () -> CacheSorter.sort(actual, comparator, true));
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @SuppressFBWarnings("DM_GC")
+    private static long measure(final String label, final Runnable runnable) {
+        System.gc();
+        final long start = SystemClock.elapsedRealtime();
+        runnable.run();
+        final long end = SystemClock.elapsedRealtime();
+        Log.d(label + ": " + (end - start) + " ms");
+        return end - start;
+    }
+}
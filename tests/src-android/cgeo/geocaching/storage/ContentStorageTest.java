@@ -484,6 +484,10 @@ public class ContentStorageTest extends CGeoTestCase {
             "ccc-ccc-aaa.txt", getFileSyncToken(sourceFiles.get(6).left),
             "ccc-ccc-bbb.txt", getFileSyncToken(sourceFiles.get(7).left));
 
+        //a second sync has nothing to copy
+        final FolderUtils.FolderProcessResult secondSync = FolderUtils.get().synchronizeFolder(sourceFolder, targetFolderFile, fi -> !fi.name.equals("dontsync.txt"), null, null);
+        assertThat(secondSync.result).isEqualTo(FolderUtils.ProcessResult.OK);
+        assertThat(secondSync.filesModified).isEqualTo(0);
     }
 
     private static String getFileSyncToken(final ContentStorage.FileInformation fi) {
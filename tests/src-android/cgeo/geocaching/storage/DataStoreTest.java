@@ -4,9 +4,12 @@ import cgeo.CGeoTestCase;
 import cgeo.geocaching.SearchResult;
 import cgeo.geocaching.connector.gc.GCConnector;
 import cgeo.geocaching.connector.gc.Tile;
+import cgeo.geocaching.enumerations.CacheSize;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.enumerations.LoadFlags.RemoveFlag;
 import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
+import cgeo.geocaching.list.PseudoList;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
@@ -27,6 +30,7 @@ import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
@@ -107,6 +111,285 @@ public class DataStoreTest extends CGeoTestCase {
         }
     }
 
+    public static void testListCounters() {
+        int listId1 = StoredList.STANDARD_LIST_ID;
+        int listId2 = StoredList.STANDARD_LIST_ID;
+
+        final Geocache cache1 = new Geocache();
+        cache1.setGeocode("LISTCOUNT1");
+        cache1.setType(CacheType.TRADITIONAL);
+        final Geocache cache2 = new Geocache();
+        cache2.setGeocode("LISTCOUNT2");
+        cache2.setType(CacheType.MULTI);
+
+        try {
+            listId1 = DataStore.createList("DataStore Counter Test 1");
+            listId2 = DataStore.createList("DataStore Counter Test 2");
+            final int allCaches = DataStore.getAllCachesCount();
+            final int allTraditionals = DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, PseudoList.ALL_LIST.id);
+
+            cache1.setDetailed(true);
+            cache1.getLists().add(listId1);
+            cache2.setDetailed(true);
+            cache2.getLists().add(listId1);
+            DataStore.saveCache(cache1, LoadFlags.SAVE_ALL);
+            DataStore.saveCache(cache2, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, listId1)).isEqualTo(1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MULTI, listId1)).isEqualTo(1);
+            assertThat(DataStore.getList(StoredList.STANDARD_LIST_ID).getNumberOfCaches()).isEqualTo(DataStore.getAllStoredCachesCount(CacheType.ALL, StoredList.STANDARD_LIST_ID));
+
+            // a cache on two lists is counted once for all lists
+            DataStore.addToList(Collections.singletonList(cache1), listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(1);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches + 2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, PseudoList.ALL_LIST.id)).isEqualTo(allCaches + 2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, PseudoList.ALL_LIST.id)).isEqualTo(allTraditionals + 1);
+
+            // adding an existing membership again doesn't change the counters
+            DataStore.addToList(Collections.singletonList(cache1), listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(1);
+
+            DataStore.moveToList(Collections.singletonList(cache2), listId1, listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MULTI, listId2)).isEqualTo(1);
+
+            // changing the type moves the cache between the type counters
+            cache2.setType(CacheType.TRADITIONAL);
+            DataStore.saveCache(cache2, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MULTI, listId2)).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, listId2)).isEqualTo(2);
+
+            DataStore.removeFromList(Collections.singletonList(cache1), listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(1);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches + 2);
+
+            for (final StoredList list : DataStore.getLists()) {
+                if (list.id == listId1 || list.id == listId2) {
+                    assertThat(list.getNumberOfCaches()).isEqualTo(1);
+                }
+            }
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            geocodes.add(cache1.getGeocode());
+            geocodes.add(cache2.getGeocode());
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId1);
+            DataStore.removeList(listId2);
+        }
+        assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(0);
+    }
+
+    public static void testRemoveOrphanedRecordsInChunks() throws InterruptedException {
+        int listId = StoredList.STANDARD_LIST_ID;
+        // list entries of caches which are not stored are orphans
+        final Set<String> geocodes = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            geocodes.add("ORPHAN" + i);
+        }
+
+        try {
+            listId = DataStore.createList("DataStore Orphan Test");
+            DataStore.addGeocodesToList(geocodes, listId);
+            assertThat(DataStore.loadLists(geocodes)).hasSize(25);
+
+            // an interrupted cleanup continues at its stored progress, here the last step
+            DataStore.DBExtension.add(DataStore.DBExtensionType.DBEXTENSION_MAINTENANCE, "clean", DataStore.ORPHANED_RECORDS.length, 0, 0, 0, "", "", "", "");
+            DataStore.removeExpiredAndOrphanedRecords(10);
+            assertThat(DataStore.loadLists(geocodes)).hasSize(25);
+            assertThat(DataStore.DBExtension.load(DataStore.DBExtensionType.DBEXTENSION_MAINTENANCE, "clean")).isNull();
+
+            // a complete cleanup checks all rows in windows of 10 rows
+            assertThat(DataStore.removeExpiredAndOrphanedRecords(10)).isGreaterThanOrEqualTo(25);
+            assertThat(DataStore.loadLists(geocodes)).isEmpty();
+        } finally {
+            DataStore.removeGeocodesFromList(geocodes, listId);
+            DataStore.removeList(listId);
+        }
+    }
+
+    public static void testBulkListOperations() {
+        int listId1 = StoredList.STANDARD_LIST_ID;
+        int listId2 = StoredList.STANDARD_LIST_ID;
+
+        final Geocache cache1 = new Geocache();
+        cache1.setGeocode("BULKLIST1");
+        final Geocache cache2 = new Geocache();
+        cache2.setGeocode("BULKLIST2");
+        final Set<String> geocodes = new HashSet<>();
+        geocodes.add(cache1.getGeocode());
+        geocodes.add(cache2.getGeocode());
+
+        try {
+            listId1 = DataStore.createList("DataStore Bulk List Test 1");
+            listId2 = DataStore.createList("DataStore Bulk List Test 2");
+            cache1.setDetailed(true);
+            cache1.getLists().add(listId1);
+            cache2.setDetailed(true);
+            cache2.getLists().add(listId1);
+            DataStore.saveCache(cache1, LoadFlags.SAVE_ALL);
+            DataStore.saveCache(cache2, LoadFlags.SAVE_ALL);
+
+            // the caches in memory are updated along with the database
+            assertThat(DataStore.moveGeocodesToList(geocodes, listId1, listId2)).isTrue();
+            assertThat(DataStore.loadLists(cache1.getGeocode())).containsOnly(listId2);
+            assertThat(DataStore.loadCache(cache2.getGeocode(), LoadFlags.LOAD_CACHE_ONLY).getLists()).containsOnly(listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(2);
+
+            DataStore.addToList(Collections.singletonList(cache1), listId1);
+            assertThat(cache1.getLists()).containsOnly(listId1, listId2);
+
+            // dropping returns the old lists, which can be restored
+            final List<Geocache> caches = new ArrayList<>();
+            caches.add(cache1);
+            caches.add(cache2);
+            final Map<String, Set<Integer>> oldLists = DataStore.markDropped(caches);
+            assertThat(oldLists.get(cache1.getGeocode())).containsOnly(listId1, listId2);
+            assertThat(DataStore.loadLists(geocodes)).isEmpty();
+            assertThat(cache2.getLists()).isEmpty();
+
+            DataStore.addToLists(caches, oldLists);
+            assertThat(DataStore.loadLists(geocodes)).isEqualTo(oldLists);
+            assertThat(cache1.getLists()).containsOnly(listId1, listId2);
+
+            DataStore.saveLists(caches, Collections.singleton(listId1));
+            assertThat(DataStore.loadLists(cache2.getGeocode())).containsOnly(listId1);
+            DataStore.removeFromList(caches, listId1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(0);
+        } finally {
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId1);
+            DataStore.removeList(listId2);
+        }
+    }
+
+    public static void testOfflineAndFilteredGeocodes() {
+        int listId = StoredList.STANDARD_LIST_ID;
+
+        final Geocache cache1 = new Geocache();
+        cache1.setGeocode("BULKFILTER1");
+        cache1.setType(CacheType.TRADITIONAL);
+        cache1.setDisabled(true);
+        final Geocache cache2 = new Geocache();
+        cache2.setGeocode("BULKFILTER2");
+        cache2.setType(CacheType.MULTI);
+        final Set<String> geocodes = new HashSet<>();
+        geocodes.add(cache1.getGeocode());
+        geocodes.add(cache2.getGeocode());
+        geocodes.add("BULKFILTER3");
+
+        try {
+            listId = DataStore.createList("DataStore Bulk Test");
+            cache1.setDetailed(true);
+            cache1.getLists().add(listId);
+            DataStore.saveCache(cache1, LoadFlags.SAVE_ALL);
+            DataStore.saveCache(cache2, EnumSet.of(SaveFlag.DB));
+
+            assertThat(DataStore.getOfflineGeocodes(geocodes)).containsOnly(cache1.getGeocode());
+            assertThat(new SearchResult(geocodes).hasUnsavedCaches()).isTrue();
+            assertThat(new SearchResult(Collections.singleton(cache1.getGeocode())).hasUnsavedCaches()).isFalse();
+
+            // filter on the database columns
+            DataStore.removeAllFromCache();
+            assertThat(DataStore.filterGeocodes(geocodes, true, false, CacheType.ALL).left).containsOnly(cache2.getGeocode());
+            assertThat(DataStore.filterGeocodes(geocodes, true, false, CacheType.ALL).right).containsOnly(cache1.getGeocode());
+            assertThat(DataStore.filterGeocodes(geocodes, false, false, CacheType.TRADITIONAL).left).containsOnly(cache1.getGeocode());
+
+            // filter on the memory cache
+            cache2.setArchived(true);
+            DataStore.saveCache(cache2, EnumSet.of(SaveFlag.CACHE));
+            assertThat(DataStore.filterGeocodes(geocodes, false, true, CacheType.ALL).left).containsOnly(cache1.getGeocode());
+
+            final SearchResult filtered = new SearchResult(geocodes).filterSearchResults(false, true, CacheType.ALL);
+            assertThat(filtered.getGeocodes()).containsOnly(cache1.getGeocode());
+            assertThat(filtered.getTotalCountGC()).isEqualTo(2);
+        } finally {
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId);
+        }
+    }
+
+    public static void testBatchOfStoredCachesWithSqlFilter() {
+        int listId = StoredList.STANDARD_LIST_ID;
+
+        final Geocache cache1 = new Geocache();
+        cache1.setGeocode("SQLFILTER1");
+        cache1.setDifficulty(1.5f);
+        cache1.setSize(CacheSize.MICRO);
+        cache1.setAttributes(Collections.singletonList("dogs_yes"));
+        final Geocache cache2 = new Geocache();
+        cache2.setGeocode("SQLFILTER2");
+        cache2.setDifficulty(4f);
+        cache2.setSize(CacheSize.REGULAR);
+        cache2.setAttributes(Collections.singletonList("dogs_no"));
+
+        try {
+            listId = DataStore.createList("DataStore SqlFilter Test");
+            cache1.setDetailed(true);
+            cache1.getLists().add(listId);
+            cache2.setDetailed(true);
+            cache2.getLists().add(listId);
+            DataStore.saveCache(cache1, LoadFlags.SAVE_ALL);
+            DataStore.saveCache(cache2, LoadFlags.SAVE_ALL);
+
+            assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, null).getGeocodes()).containsOnly("SQLFILTER1", "SQLFILTER2");
+
+            final SearchResult attribute = DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, DataStore.SqlFilter.attribute("dogs_yes"));
+            assertThat(attribute.getGeocodes()).containsOnly("SQLFILTER1");
+            // the total count is not affected by the filter
+            assertThat(attribute.getTotalCountGC()).isEqualTo(2);
+
+            assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, DataStore.SqlFilter.difficultyRange(3.85f, 4.15f)).getGeocodes()).containsOnly("SQLFILTER2");
+            assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, DataStore.SqlFilter.size(CacheSize.MICRO)).getGeocodes()).containsOnly("SQLFILTER1");
+            assertThat(DataStore.getBatchOfStoredCaches(null, CacheType.ALL, listId, DataStore.SqlFilter.size(CacheSize.LARGE)).getGeocodes()).isEmpty();
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            geocodes.add(cache1.getGeocode());
+            geocodes.add(cache2.getGeocode());
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+            DataStore.removeList(listId);
+        }
+    }
+
+    public static void testSaveCachesInChunks() {
+        final List<Geocache> caches = new ArrayList<>();
+        final Set<String> geocodes = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("SAVECHUNK" + i);
+            cache.setDetailed(true);
+            cache.setAttributes(Collections.singletonList("dogs_yes"));
+            caches.add(cache);
+            geocodes.add(cache.getGeocode());
+        }
+
+        try {
+            DataStore.saveCaches(caches, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.loadCaches(geocodes, LoadFlags.LOAD_CACHE_OR_DB)).hasSize(250);
+
+            // store again from fresh instances, so that the current state is taken from the database
+            DataStore.removeCaches(geocodes, EnumSet.of(RemoveFlag.CACHE));
+            final List<Geocache> updatedCaches = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                final Geocache cache = new Geocache();
+                cache.setGeocode("SAVECHUNK" + i);
+                cache.setDetailed(true);
+                cache.setAttributes(Collections.singletonList(i % 2 == 0 ? "dogs_yes" : "dogs_no"));
+                updatedCaches.add(cache);
+            }
+            DataStore.saveCaches(updatedCaches, EnumSet.of(SaveFlag.DB));
+
+            DataStore.removeCaches(geocodes, EnumSet.of(RemoveFlag.CACHE));
+            for (final Geocache cache : DataStore.loadCaches(geocodes, LoadFlags.LOAD_ALL_DB_ONLY)) {
+                final int index = Integer.parseInt(StringUtils.removeStart(cache.getGeocode(), "SAVECHUNK"));
+                assertThat(cache.getAttributes()).containsExactly(index % 2 == 0 ? "dogs_yes" : "dogs_no");
+            }
+        } finally {
+            DataStore.removeCaches(geocodes, REMOVE_ALL);
+        }
+    }
+
     // Check that queries don't throw an exception (see issue #1429).
     public static void testLoadWaypoints() {
         final Viewport viewport = new Viewport(new Geopoint(-1, -2), new Geopoint(3, 4));
@@ -196,6 +479,79 @@ public class DataStoreTest extends CGeoTestCase {
         assertThat(logsLoadeded).containsExactlyInAnyOrderElementsOf(logs);
     }
 
+    public static void testSaveLogsReplacesChangedLogsInPlace() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        try {
+            final List<LogEntry> logs = new ArrayList<>();
+            logs.add(new LogEntry.Builder().setServiceLogId("GL1").setAuthor("author1").setDate(1000).setLogType(LogType.FOUND_IT).setLog("found")
+                    .addLogImage(new Image.Builder().setUrl("https://img.example.com/1.jpg").setTitle("image").build()).build());
+            logs.add(new LogEntry.Builder().setAuthor("author2").setDate(2000).setLogType(LogType.NOTE).setLog("note").build());
+            logs.add(new LogEntry.Builder().setServiceLogId("GL3").setAuthor("author3").setDate(3000).setLogType(LogType.DIDNT_FIND_IT).setLog("dnf").build());
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+            final List<LogEntry> stored = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+            assertThat(stored).hasSize(3);
+            assertThat(getLogOfAuthor(stored, "author1").logImages).hasSize(1);
+
+            // log 1 changed and lost its image, log 2 is unchanged, log 3 was removed and log 4 is new
+            final List<LogEntry> newLogs = new ArrayList<>();
+            newLogs.add(new LogEntry.Builder().setServiceLogId("GL1").setAuthor("author1").setDate(1000).setLogType(LogType.FOUND_IT).setLog("found it").build());
+            newLogs.add(new LogEntry.Builder().setAuthor("author2").setDate(2000).setLogType(LogType.NOTE).setLog("note").build());
+            newLogs.add(new LogEntry.Builder().setServiceLogId("GL4").setAuthor("author4").setDate(4000).setLogType(LogType.FOUND_IT).setLog("new").build());
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, newLogs, true);
+
+            final List<LogEntry> updated = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+            assertThat(updated).containsExactlyInAnyOrderElementsOf(newLogs);
+            assertThat(getLogOfAuthor(updated, "author1").id).isEqualTo(getLogOfAuthor(stored, "author1").id);
+            assertThat(getLogOfAuthor(updated, "author1").logImages).isEmpty();
+            assertThat(getLogOfAuthor(updated, "author2").id).isEqualTo(getLogOfAuthor(stored, "author2").id);
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    public static void testSaveLogsMergesWithStoredLogs() {
+        DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        try {
+            final List<LogEntry> logs = new ArrayList<>();
+            logs.add(new LogEntry.Builder().setServiceLogId("GL1").setAuthor("author1").setDate(1000).setLogType(LogType.FOUND_IT).setLog("found").build());
+            logs.add(new LogEntry.Builder().setServiceLogId("GL2").setAuthor("author2").setDate(2000).setLogType(LogType.NOTE).setLog("note").build());
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, logs, true);
+            final List<LogEntry> stored = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+
+            // a log without service log id (as from a GPX file) matches by date, type and author and keeps the id
+            final List<LogEntry> importedLogs = new ArrayList<>();
+            importedLogs.add(new LogEntry.Builder().setAuthor("author1").setDate(1000).setLogType(LogType.FOUND_IT).setLog("found, with more text")
+                    .addLogImage(new Image.Builder().setUrl("https://img.example.com/1.jpg").build()).build());
+            // same date, type and author, but a different service log id is a different log
+            importedLogs.add(new LogEntry.Builder().setServiceLogId("GL5").setAuthor("author2").setDate(2000).setLogType(LogType.NOTE).setLog("note").build());
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, importedLogs, false);
+
+            final List<LogEntry> merged = DataStore.loadLogs(ARTIFICIAL_GEOCODE);
+            assertThat(merged).hasSize(3);
+            final LogEntry log1 = getLogOfAuthor(merged, "author1");
+            assertThat(log1.id).isEqualTo(getLogOfAuthor(stored, "author1").id);
+            assertThat(log1.serviceLogId).isEqualTo("GL1");
+            assertThat(log1.log).isEqualTo("found, with more text");
+            assertThat(log1.logImages).hasSize(1);
+
+            // storing the same logs again does not change anything
+            DataStore.saveLogs(ARTIFICIAL_GEOCODE, importedLogs, false);
+            assertThat(DataStore.loadLogs(ARTIFICIAL_GEOCODE)).hasSize(3);
+            assertThat(getLogOfAuthor(DataStore.loadLogs(ARTIFICIAL_GEOCODE), "author1").logImages).hasSize(1);
+        } finally {
+            DataStore.removeCache(ARTIFICIAL_GEOCODE, REMOVE_ALL);
+        }
+    }
+
+    private static LogEntry getLogOfAuthor(final List<LogEntry> logs, final String author) {
+        for (final LogEntry log : logs) {
+            if (log.author.equals(author)) {
+                return log;
+            }
+        }
+        throw new AssertionError("no log of " + author);
+    }
+
     public static void testLoadCacheHistory() {
         int sumCaches = 0;
         int allCaches = 0;
@@ -0,0 +1,75 @@
+package cgeo.geocaching.storage.extension;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.storage.DataStore;
+
+import android.net.Uri;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FolderUriIndexTest extends CGeoTestCase {
+
+    private static final String KEY = "folderUriIndexTest/dir";
+    private static final String WILDCARD_KEY = "folderUriIndexTest/d_r";
+    private static final String PERCENT_KEY = "folderUriIndexTest/%";
+
+    private static final Uri URI = Uri.parse("content://test/folderUriIndexTest/dir");
+    private static final Uri OTHER_URI = Uri.parse("content://test/folderUriIndexTest/other");
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // the index is only used once the database is open
+        DataStore.init();
+        removeTestKeys();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        removeTestKeys();
+        super.tearDown();
+    }
+
+    private static void removeTestKeys() {
+        FolderUriIndex.remove(KEY);
+        FolderUriIndex.remove(WILDCARD_KEY);
+        FolderUriIndex.remove(PERCENT_KEY);
+    }
+
+    public static void testPutGetRemove() {
+        assertThat(FolderUriIndex.get(KEY)).isNull();
+
+        FolderUriIndex.put(KEY, URI);
+        assertThat(FolderUriIndex.get(KEY)).isEqualTo(URI);
+
+        FolderUriIndex.remove(KEY);
+        assertThat(FolderUriIndex.get(KEY)).isNull();
+    }
+
+    public static void testPutReplacesEntry() {
+        FolderUriIndex.put(KEY, URI);
+        FolderUriIndex.put(KEY, OTHER_URI);
+        assertThat(FolderUriIndex.get(KEY)).isEqualTo(OTHER_URI);
+
+        // only one entry was stored, so removing it invalidates the key
+        FolderUriIndex.remove(KEY);
+        assertThat(FolderUriIndex.get(KEY)).isNull();
+    }
+
+    public static void testWildcardsInKeysAreMatchedExactly() {
+        FolderUriIndex.put(KEY, URI);
+
+        // '_' and '%' must not match other keys
+        assertThat(FolderUriIndex.get(WILDCARD_KEY)).isNull();
+        assertThat(FolderUriIndex.get(PERCENT_KEY)).isNull();
+
+        FolderUriIndex.put(WILDCARD_KEY, OTHER_URI);
+        assertThat(FolderUriIndex.get(WILDCARD_KEY)).isEqualTo(OTHER_URI);
+        assertThat(FolderUriIndex.get(KEY)).isEqualTo(URI);
+
+        FolderUriIndex.remove(PERCENT_KEY);
+        FolderUriIndex.remove(WILDCARD_KEY);
+        assertThat(FolderUriIndex.get(KEY)).isEqualTo(URI);
+        assertThat(FolderUriIndex.get(WILDCARD_KEY)).isNull();
+    }
+}
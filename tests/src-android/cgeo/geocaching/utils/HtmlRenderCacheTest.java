@@ -0,0 +1,44 @@
+package cgeo.geocaching.utils;
+
+import androidx.core.text.HtmlCompat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class HtmlRenderCacheTest extends TestCase {
+
+    public static void testRenderOnlyOnce() {
+        HtmlRenderCache.clearAll();
+        final AtomicInteger renderCount = new AtomicInteger();
+        final String html = "<b>bold</b> text";
+
+        assertThat(HtmlRenderCache.LOGS.get("GC12345", html, "test")).isNull();
+        final CharSequence rendered = HtmlRenderCache.LOGS.render("GC12345", html, "test", h -> {
+            renderCount.incrementAndGet();
+            return HtmlCompat.fromHtml(h, HtmlCompat.FROM_HTML_MODE_LEGACY);
+        });
+        assertThat(rendered.toString()).isEqualTo("bold text");
+
+        // equal content in a new string is found as well
+        assertThat(HtmlRenderCache.LOGS.render("GC12345", new String(html.toCharArray()), "test", h -> {
+            renderCount.incrementAndGet();
+            return h;
+        })).isSameAs(rendered);
+        assertThat(renderCount.get()).isEqualTo(1);
+    }
+
+    public static void testKeyedByGeocodeContentAndVariant() {
+        HtmlRenderCache.clearAll();
+        HtmlRenderCache.LOGS.render("GC12345", "<i>text</i>", "test", h -> h);
+
+        assertThat(HtmlRenderCache.LOGS.get("GC12345", "<i>text</i>", "test")).isNotNull();
+        assertThat(HtmlRenderCache.LOGS.get("GC54321", "<i>text</i>", "test")).isNull();
+        assertThat(HtmlRenderCache.LOGS.get("GC12345", "<i>other text</i>", "test")).isNull();
+        assertThat(HtmlRenderCache.LOGS.get("GC12345", "<i>text</i>", "other")).isNull();
+
+        HtmlRenderCache.clearAll();
+        assertThat(HtmlRenderCache.LOGS.get("GC12345", "<i>text</i>", "test")).isNull();
+    }
+}
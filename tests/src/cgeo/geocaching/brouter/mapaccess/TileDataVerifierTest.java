@@ -0,0 +1,88 @@
+package cgeo.geocaching.brouter.mapaccess;
+
+import cgeo.geocaching.brouter.util.Crc32Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class TileDataVerifierTest {
+
+    private static final int INDEX_SIZE = 32 * 32 * 4;
+
+    /**
+     * create a tile in the current format with data in the first and the fourth sub tile
+     */
+    private static byte[] createTile() {
+        final Random random = new Random(42);
+        final long[] fileIndex = new long[25];
+        long position = 200;
+        for (int i = 0; i < 25; i++) {
+            if (i == 0 || i == 3) {
+                position += INDEX_SIZE + 1000;
+            }
+            fileIndex[i] = position;
+        }
+        final ByteBuffer tile = ByteBuffer.allocate((int) position + 8 + 26 * 4);
+        for (final long index : fileIndex) {
+            tile.putLong(index);
+        }
+        final byte[] data = new byte[(int) position - 200];
+        random.nextBytes(data);
+        tile.put(data);
+        final byte[] content = tile.array();
+
+        tile.putLong(System.currentTimeMillis());
+        tile.putInt(Crc32Utils.crc(content, 0, 200) ^ 2);
+        for (int i = 0; i < 25; i++) {
+            final int start = i > 0 ? (int) fileIndex[i - 1] : 200;
+            tile.putInt(start == fileIndex[i] ? 0 : Crc32Utils.crc(content, start, INDEX_SIZE));
+        }
+        return content;
+    }
+
+    private static String verify(final byte[] content, final int length, final int chunkSize) {
+        final TileDataVerifier verifier = new TileDataVerifier();
+        try {
+            for (int offset = 0; offset < length; offset += chunkSize) {
+                verifier.update(content, offset, Math.min(chunkSize, length - offset));
+            }
+            verifier.finish();
+            return null;
+        } catch (final IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void testValidTile() {
+        final byte[] tile = createTile();
+        assertThat(verify(tile, tile.length, tile.length)).isNull();
+        assertThat(verify(tile, tile.length, 7)).isNull();
+        assertThat(verify(tile, tile.length, 199)).isNull();
+    }
+
+    @Test
+    public void testCorruptTopIndex() {
+        final byte[] tile = createTile();
+        tile[31]--; // end of the fourth sub tile
+        assertThat(verify(tile, tile.length, 100)).isEqualTo("top index checksum error");
+    }
+
+    @Test
+    public void testCorruptSubIndex() {
+        final byte[] tile = createTile();
+        tile[200 + INDEX_SIZE + 1000 + 17]++;
+        assertThat(verify(tile, tile.length, 1000)).isEqualTo("sub index checksum error");
+    }
+
+    @Test
+    public void testTruncatedTile() {
+        final byte[] tile = createTile();
+        assertThat(verify(tile, tile.length - 10, 1000)).startsWith("file of size");
+        assertThat(verify(tile, 150, 1000)).startsWith("file of size");
+    }
+}
@@ -0,0 +1,71 @@
+package cgeo.geocaching.calculator;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class CompiledExpressionTest {
+
+    private static double eval(final String expression) {
+        return new CompiledExpression(expression, "").evaluate(new double[0]);
+    }
+
+    @Test
+    public void testEval() {
+        assertThat(eval("-2.5 + 3 * (4-1) + 3^3")).isEqualTo(33.5d);
+        assertThat(eval("[2 + {3 * 4}] % 5")).isEqualTo(4d);
+        assertThat(eval("10 / 4")).isEqualTo(2.5d);
+        assertThat(eval("cos(60) * 2")).isCloseTo(1d, within(1e-12));
+    }
+
+    @Test
+    public void testVariables() {
+        final CompiledExpression expression = new CompiledExpression("a * 2 + b", "ab");
+        assertThat(expression.evaluate(new double[] { 3, 4 })).isEqualTo(10d);
+        assertThat(expression.evaluate(new double[] { 1, 1 })).isEqualTo(3d);
+        assertThat(expression.usesRegister(0)).isTrue();
+        assertThat(expression.usesRegister(2)).isFalse();
+        assertThat(expression.isConstant()).isFalse();
+    }
+
+    @Test
+    public void testUpperCaseVariablesAreDigits() {
+        final CompiledExpression expression = new CompiledExpression("AB.C1 + 1", "ABC");
+        assertThat(expression.evaluate(new double[] { 1, 23, 4 })).isCloseTo(124.41, within(1e-9));
+        assertThat(Double.isNaN(expression.evaluate(new double[] { -1, 2, 3 }))).isTrue();
+        assertThat(Double.isNaN(expression.evaluate(new double[] { Double.NaN, 2, 3 }))).isTrue();
+    }
+
+    @Test
+    public void testUpperCaseVariablesAsNumbers() {
+        final CompiledExpression expression = new CompiledExpression("A * 2 + b", "Ab", false);
+        assertThat(expression.evaluate(new double[] { -3, 0 })).isEqualTo(-6d);
+        assertThat(expression.evaluate(new double[] { 1.5, 1 })).isEqualTo(4d);
+        assertThat(expression.usesRegister(0)).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAdjacentUpperCaseVariablesAsNumbers() {
+        new CompiledExpression("AB", "AB", false);
+    }
+
+    @Test
+    public void testConstantsAreFolded() {
+        assertThat(new CompiledExpression("(1 + 2) * 3", "a").isConstant()).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVariable() {
+        new CompiledExpression("a + c", "ab");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFunction() {
+        eval("uknown(42)");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnbalancedParentheses() {
+        eval("3 * (2 + 4 * 2");
+    }
+}
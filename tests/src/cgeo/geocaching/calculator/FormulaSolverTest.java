@@ -0,0 +1,58 @@
+package cgeo.geocaching.calculator;
+
+import cgeo.geocaching.location.Geopoint;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class FormulaSolverTest {
+
+    private static List<FormulaSolver.Solution> solve(final FormulaSolver solver, final Geopoint reference, final double maxDistanceKm) {
+        return solver.solve(reference, maxDistanceKm).toList().blockingGet();
+    }
+
+    @Test
+    public void testFindsSingleSolution() {
+        final FormulaSolver solver = new FormulaSolver("N 52° 3A.1B0'", "E 013° 2C.345'",
+                Collections.emptyList(), Collections.emptyList(),
+                Arrays.asList(new FormulaSolver.Range('A', 0, 9), new FormulaSolver.Range('B', 0, 9), new FormulaSolver.Range('C', 0, 9)));
+        assertThat(solver.getCombinationCount()).isEqualTo(1000);
+
+        final List<FormulaSolver.Solution> solutions = solve(solver, new Geopoint("N 52° 34.170' E 013° 24.345'"), 0.01);
+        assertThat(solutions).hasSize(1);
+        assertThat(solutions.get(0).getValues()).containsEntry('A', 4).containsEntry('B', 7).containsEntry('C', 4);
+        assertThat(solutions.get(0).getDistance()).isLessThan(0.001f);
+    }
+
+    @Test
+    public void testEquationsAndFreeVariables() {
+        final FormulaSolver solver = new FormulaSolver("N 52° 3A.(B*100+x)'", "E 013° 24.[D+1]'",
+                Collections.singletonList(new VariableData('D', "b*2")), Collections.singletonList(new VariableData('x', "70")),
+                Arrays.asList(new FormulaSolver.Range('A', 0, 9), new FormulaSolver.Range('B', 0, 9), new FormulaSolver.Range('b', 100, 300)));
+
+        final List<FormulaSolver.Solution> solutions = solve(solver, new Geopoint("N 52° 34.170' E 013° 24.345'"), 0.001);
+        assertThat(solutions).hasSize(1);
+        assertThat(solutions.get(0).getValues()).containsEntry('A', 4).containsEntry('B', 1).containsEntry('b', 172);
+    }
+
+    @Test
+    public void testDistanceLimit() {
+        final FormulaSolver solver = new FormulaSolver("N 52° 3A.000'", "E 013° 24.000'",
+                Collections.emptyList(), Collections.emptyList(), Collections.singletonList(new FormulaSolver.Range('A', 0, 9)));
+        final Geopoint reference = new Geopoint("N 52° 35.000' E 013° 24.000'");
+
+        assertThat(solve(solver, reference, 0.01)).hasSize(1);
+        // one minute of latitude is about 1.85 km
+        assertThat(solve(solver, reference, 2)).hasSize(3);
+        assertThat(solve(solver, reference, 20)).hasSize(10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new FormulaSolver.Range('A', 5, 4);
+    }
+}
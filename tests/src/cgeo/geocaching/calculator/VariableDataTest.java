@@ -0,0 +1,26 @@
+package cgeo.geocaching.calculator;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class VariableDataTest {
+
+    private static double evaluate(final String expression, final VariableData dependantVariable) {
+        final VariableData variable = new VariableData('B', expression);
+        variable.evaluateString(Collections.singletonList(dependantVariable), null);
+        return variable.getCachedValue();
+    }
+
+    @Test
+    public void testNegativeDependantVariable() {
+        assertThat(evaluate("A*2", new VariableData('A', "-3"))).isEqualTo(-6d);
+    }
+
+    @Test
+    public void testFractionalDependantVariable() {
+        assertThat(evaluate("A*2", new VariableData('A', "1.5"))).isEqualTo(3d);
+        assertThat(evaluate("A*2", new VariableData('A', "3/4"))).isEqualTo(1.5d);
+    }
+}
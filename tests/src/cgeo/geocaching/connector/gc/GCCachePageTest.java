@@ -0,0 +1,101 @@
+package cgeo.geocaching.connector.gc;
+
+import cgeo.geocaching.utils.TextUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+/**
+ * Compares the anchored matching of {@link GCCachePage} with matching the whole page for all stored cache pages.
+ */
+public class GCCachePageTest {
+
+    private static final String[] CACHE_PAGES = { "GC1K1W4", "GC1ZXX2", "GC2CJPF", "GC2JVEH", "GC3FJ5F", "GC3XX5J", "GC5BRQK", "GC6K70B" };
+
+    private static String readPage(final String geocode) throws IOException {
+        try (InputStream is = GCCachePageTest.class.getResourceAsStream("/cgeo/geocaching/test/mock/" + geocode + ".html")) {
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testWhitespaceIsCollapsed() throws IOException {
+        for (final String geocode : CACHE_PAGES) {
+            final String raw = readPage(geocode);
+            assertThat(new GCCachePage(raw).getText()).as(geocode).isEqualTo(TextUtils.replaceWhitespace(raw));
+        }
+    }
+
+    @Test
+    public void testAnchoredMatchesAreSameAsPageMatches() throws IOException {
+        for (final String geocode : CACHE_PAGES) {
+            final GCCachePage cachePage = new GCCachePage(readPage(geocode));
+            final String page = cachePage.getText();
+
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_HINT, GCConstants.ID_HINT, false);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_DESC, GCConstants.ID_DESC, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_SHORTDESC, GCConstants.ID_SHORTDESC, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_LATLON, GCConstants.ID_LATLON, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_LOCATION, GCConstants.ID_LOCATION, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_PERSONALNOTE, GCConstants.ID_PERSONALNOTE, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_DIFFICULTY, GCConstants.ID_DIFFICULTY, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_OWNER_DISPLAYNAME, GCConstants.ID_OWNER_DISPLAYNAME, true);
+            assertSameMatch(geocode, cachePage, GCConstants.PATTERN_COUNTLOGS, GCConstants.ID_COUNTLOGS, true);
+
+            assertThat(cachePage.matches(GCConstants.PATTERN_FOUND, GCConstants.ID_FOUND)).as(geocode).isEqualTo(TextUtils.matches(page, GCConstants.PATTERN_FOUND));
+            assertThat(cachePage.matches(GCConstants.PATTERN_DNF, GCConstants.ID_FOUND)).as(geocode).isEqualTo(TextUtils.matches(page, GCConstants.PATTERN_DNF));
+            assertThat(cachePage.matches(GCConstants.PATTERN_IS_FAVORITE, GCConstants.ID_IS_FAVORITE)).as(geocode).isEqualTo(TextUtils.matches(page, GCConstants.PATTERN_IS_FAVORITE));
+
+            assertThat(cachePage.contains(GCConstants.STRING_STATUS_DISABLED, GCConstants.ID_STATUS_DISABLED)).as(geocode).isEqualTo(page.contains(GCConstants.STRING_STATUS_DISABLED));
+            assertThat(cachePage.contains(GCConstants.STRING_STATUS_ARCHIVED, GCConstants.ID_STATUS_ARCHIVED)).as(geocode).isEqualTo(page.contains(GCConstants.STRING_STATUS_ARCHIVED));
+            assertThat(cachePage.contains(GCConstants.STRING_STATUS_LOCKED, GCConstants.ID_STATUS_LOCKED)).as(geocode).isEqualTo(page.contains(GCConstants.STRING_STATUS_LOCKED));
+        }
+    }
+
+    @Test
+    public void testAnchoredMatchesAfterStart() throws IOException {
+        for (final String geocode : CACHE_PAGES) {
+            final GCCachePage cachePage = new GCCachePage(readPage(geocode));
+            final String page = cachePage.getText();
+            final int pos = page.indexOf(GCConstants.STRING_CACHEDETAILS);
+            assertThat(pos).as(geocode).isGreaterThan(0);
+            final String tableInside = page.substring(pos);
+
+            assertThat(cachePage.getMatch(pos, GCConstants.PATTERN_DIFFICULTY, GCConstants.ID_DIFFICULTY, true, 1, null))
+                    .as(geocode).isNotNull().isEqualTo(TextUtils.getMatch(tableInside, GCConstants.PATTERN_DIFFICULTY, true, null));
+            assertThat(cachePage.getMatch(pos, GCConstants.PATTERN_OWNER_DISPLAYNAME, GCConstants.ID_OWNER_DISPLAYNAME, true, 1, null))
+                    .as(geocode).isEqualTo(TextUtils.getMatch(tableInside, GCConstants.PATTERN_OWNER_DISPLAYNAME, true, null));
+            assertThat(TextUtils.getMatch(page, pos, GCConstants.PATTERN_SIZE, true, 1, null, false))
+                    .as(geocode).isEqualTo(TextUtils.getMatch(tableInside, GCConstants.PATTERN_SIZE, true, null));
+        }
+    }
+
+    @Test
+    public void testMissingAnchor() {
+        final GCCachePage cachePage = new GCCachePage("<html>\n  <body>\t<span id=\"other\">text</span></body></html>");
+        assertThat(cachePage.getText()).isEqualTo("<html> <body> <span id=\"other\">text</span></body></html>");
+        assertThat(cachePage.hasAnchor("other")).isTrue();
+        assertThat(cachePage.hasAnchor(GCConstants.ID_LATLON)).isFalse();
+        assertThat(cachePage.getAnchorStart(GCConstants.ID_LATLON)).isEqualTo(-1);
+        assertThat(cachePage.getMatch(GCConstants.PATTERN_LATLON, GCConstants.ID_LATLON, true, "default")).isEqualTo("default");
+    }
+
+    @Test
+    public void testFirstOccurrenceIsAnchor() {
+        final String page = "<div><p id=\"a id=\"uxLatLon\">x</p> <span id=\"uxLatLon\" class=\"x\">N 1° 2.000 E 3° 4.000</span>";
+        final GCCachePage cachePage = new GCCachePage(page);
+        assertThat(cachePage.getAnchorStart(GCConstants.ID_LATLON)).isEqualTo(page.indexOf("<p "));
+        assertThat(cachePage.getMatch(GCConstants.PATTERN_LATLON, GCConstants.ID_LATLON, true, null)).isEqualTo("N 1° 2.000 E 3° 4.000");
+    }
+
+    private static void assertSameMatch(final String geocode, final GCCachePage cachePage, final Pattern pattern, final String anchor, final boolean trim) {
+        assertThat(cachePage.getMatch(pattern, anchor, trim, null)).as(geocode + " " + anchor).isEqualTo(TextUtils.getMatch(cachePage.getText(), pattern, trim, null));
+    }
+
+}
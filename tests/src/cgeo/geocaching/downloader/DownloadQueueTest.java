@@ -0,0 +1,171 @@
+package cgeo.geocaching.downloader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class DownloadQueueTest {
+
+    private static final byte[] CONTENT = createContent(200_000);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private DownloadQueue queue;
+
+    private static byte[] createContent(final int size) {
+        final byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    private static MockResponse response(final byte[] content, final int from) {
+        final Buffer body = new Buffer().write(content, from, content.length - from);
+        return new MockResponse().setBody(body);
+    }
+
+    /**
+     * verifier which fails if the content differs from the expected content
+     */
+    private static class ContentVerifier implements DownloadQueue.Verifier {
+        private int position = 0;
+
+        @Override
+        public void update(final byte[] buffer, final int offset, final int length) throws IOException {
+            for (int i = 0; i < length; i++) {
+                if (buffer[offset + i] != CONTENT[position++]) {
+                    throw new IOException("wrong content at " + (position - 1));
+                }
+            }
+        }
+
+        @Override
+        public void finish() {
+            // nothing more to check
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        queue = new DownloadQueue(new OkHttpClient(), folder.getRoot(), Schedulers.io(), 2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private List<DownloadQueue.Result> download(final DownloadQueue.Task... tasks) {
+        return queue.download(Arrays.asList(tasks)).toList().blockingGet();
+    }
+
+    private DownloadQueue.Task task(final String name, final long expectedSize) {
+        return new DownloadQueue.Task(server.url("/" + name).toString(), name, expectedSize, ContentVerifier::new);
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        server.enqueue(response(CONTENT, 0));
+
+        final List<DownloadQueue.Result> results = download(task("tile.rd5", CONTENT.length));
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccessful()).isTrue();
+        assertThat(FileUtils.readFileToByteArray(results.get(0).getFile())).isEqualTo(CONTENT);
+        assertThat(new File(folder.getRoot(), "tile.rd5.part")).doesNotExist();
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final int partialSize = 50_000;
+        try (OutputStream out = new FileOutputStream(new File(folder.getRoot(), "tile.rd5.part"))) {
+            out.write(CONTENT, 0, partialSize);
+        }
+        server.enqueue(response(CONTENT, partialSize).setResponseCode(206)
+                .setHeader("Content-Range", "bytes " + partialSize + "-" + (CONTENT.length - 1) + "/" + CONTENT.length));
+
+        final List<DownloadQueue.Result> results = download(task("tile.rd5", CONTENT.length));
+        final RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader("Range")).isEqualTo("bytes=" + partialSize + "-");
+        assertThat(results.get(0).isSuccessful()).isTrue();
+        assertThat(FileUtils.readFileToByteArray(results.get(0).getFile())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testServerWithoutRangeSupport() throws Exception {
+        try (OutputStream out = new FileOutputStream(new File(folder.getRoot(), "tile.rd5.part"))) {
+            out.write(CONTENT, 0, 1000);
+        }
+        server.enqueue(response(CONTENT, 0));
+
+        final List<DownloadQueue.Result> results = download(task("tile.rd5", CONTENT.length));
+        assertThat(results.get(0).isSuccessful()).isTrue();
+        assertThat(FileUtils.readFileToByteArray(results.get(0).getFile())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    public void testCorruptContent() {
+        final byte[] corrupt = CONTENT.clone();
+        corrupt[1234]++;
+        server.enqueue(response(corrupt, 0));
+
+        final List<DownloadQueue.Result> results = download(task("tile.rd5", CONTENT.length));
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(results.get(0).getError()).isNotNull();
+        assertThat(new File(folder.getRoot(), "tile.rd5")).doesNotExist();
+        assertThat(new File(folder.getRoot(), "tile.rd5.part")).doesNotExist();
+    }
+
+    @Test
+    public void testWrongSize() {
+        server.enqueue(response(CONTENT, 0));
+
+        final List<DownloadQueue.Result> results = download(task("tile.rd5", CONTENT.length - 1));
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(new File(folder.getRoot(), "tile.rd5")).doesNotExist();
+    }
+
+    @Test
+    public void testNotFound() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        final List<DownloadQueue.Result> results = queue.download(Collections.singletonList(task("missing.rd5", -1))).toList().blockingGet();
+        assertThat(results.get(0).isSuccessful()).isFalse();
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSeveralFiles() {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(response(CONTENT, 0));
+        }
+
+        final List<DownloadQueue.Result> results = download(task("a.rd5", -1), task("b.rd5", -1), task("c.rd5", -1), task("d.rd5", -1), task("e.rd5", -1));
+        assertThat(results).hasSize(5);
+        for (final DownloadQueue.Result result : results) {
+            assertThat(result.isSuccessful()).isTrue();
+            assertThat(result.getFile()).hasName(result.getTask().getFileName());
+        }
+    }
+}
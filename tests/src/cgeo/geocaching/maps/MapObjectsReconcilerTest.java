@@ -0,0 +1,185 @@
+package cgeo.geocaching.maps;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class MapObjectsReconcilerTest {
+
+    /**
+     * object drawn by the fake map, markers are the objects starting with "marker"
+     */
+    private static final class Drawn {
+        private String object;
+
+        Drawn(final String object) {
+            this.object = object;
+        }
+
+        boolean isMarker() {
+            return object.startsWith("marker");
+        }
+    }
+
+    /**
+     * records all changes of the map
+     */
+    private static final class FakeMap implements MapObjectsReconciler.Target<String, Drawn> {
+        private final List<Drawn> drawn = new ArrayList<>();
+        private final List<String> log = new ArrayList<>();
+
+        @Override
+        @NonNull
+        public Drawn add(@NonNull final String object) {
+            log.add("add " + object);
+            final Drawn result = new Drawn(object);
+            drawn.add(result);
+            return result;
+        }
+
+        @Override
+        public void remove(@NonNull final Drawn object) {
+            log.add("remove " + object.object);
+            drawn.remove(object);
+        }
+
+        @Override
+        public boolean isReusable(@NonNull final Drawn object) {
+            return object.isMarker();
+        }
+
+        @Override
+        public boolean canReuseFor(@NonNull final String object) {
+            return object.startsWith("marker");
+        }
+
+        @Override
+        public void reuse(@NonNull final Drawn object, @NonNull final String newObject) {
+            log.add("reuse " + object.object + " for " + newObject);
+            object.object = newObject;
+        }
+
+        List<String> getDrawnObjects() {
+            final List<String> result = new ArrayList<>();
+            for (final Drawn object : drawn) {
+                result.add(object.object);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * clock advancing by one millisecond each time it is read
+     */
+    private static final class FakeClock implements MapObjectsReconciler.Clock {
+        private long nanos = 0;
+
+        @Override
+        public long nanoTime() {
+            nanos += 1000000;
+            return nanos;
+        }
+    }
+
+    private final FakeMap map = new FakeMap();
+    private final MapObjectsReconciler<String, Drawn> reconciler = new MapObjectsReconciler<>(map, 3000000, new FakeClock());
+
+    private void applyAll() {
+        while (reconciler.applyRequests()) {
+            // next frame
+        }
+    }
+
+    @Test
+    public void testApplyOnlyRequestedOnce() {
+        assertThat(reconciler.requestAdd(Collections.singletonList("circle1"))).isTrue();
+        // already requested
+        assertThat(reconciler.requestAdd(Collections.singletonList("circle2"))).isFalse();
+        assertThat(reconciler.applyRequests()).isFalse();
+        assertThat(reconciler.requestRemove(Collections.singletonList("circle1"))).isTrue();
+        assertThat(reconciler.requestRemove(Collections.<String>emptyList())).isFalse();
+    }
+
+    @Test
+    public void testAddAndRemoveCancelEachOther() {
+        reconciler.requestAdd(Arrays.asList("circle1", "marker1"));
+        reconciler.requestRemove(Arrays.asList("circle1", "marker1"));
+        applyAll();
+        assertThat(map.log).isEmpty();
+
+        reconciler.requestAdd(Collections.singletonList("circle1"));
+        applyAll();
+        map.log.clear();
+        reconciler.requestRemove(Collections.singletonList("circle1"));
+        reconciler.requestAdd(Collections.singletonList("circle1"));
+        applyAll();
+        assertThat(map.log).isEmpty();
+        assertThat(map.getDrawnObjects()).containsExactly("circle1");
+    }
+
+    @Test
+    public void testOrder() {
+        reconciler.requestAdd(Arrays.asList("circle1", "circle2", "circle3"));
+        applyAll();
+        reconciler.requestAdd(Arrays.asList("circle5", "circle4"));
+        reconciler.requestRemove(Arrays.asList("circle3", "circle1"));
+        applyAll();
+        assertThat(map.log).containsExactly("add circle1", "add circle2", "add circle3",
+                "remove circle3", "remove circle1", "add circle5", "add circle4");
+    }
+
+    @Test
+    public void testSameObjectDrawnOnce() {
+        reconciler.requestAdd(Collections.singletonList("circle1"));
+        applyAll();
+        reconciler.requestAdd(Collections.singletonList("circle1"));
+        applyAll();
+        assertThat(map.getDrawnObjects()).containsExactly("circle1");
+    }
+
+    @Test
+    public void testFrameBudget() {
+        final List<String> objects = new ArrayList<>();
+        for (int i = 0; i < 10 * MapObjectsReconciler.BATCH_SIZE; i++) {
+            objects.add("circle" + i);
+        }
+        reconciler.requestAdd(objects);
+
+        // the clock is read once at the start and before each batch, so two batches fit into the budget
+        assertThat(reconciler.applyRequests()).isTrue();
+        assertThat(map.drawn).hasSize(2 * MapObjectsReconciler.BATCH_SIZE);
+
+        int frames = 1;
+        do {
+            frames++;
+        } while (reconciler.applyRequests());
+        assertThat(frames).isEqualTo(5);
+        assertThat(map.getDrawnObjects()).containsExactlyElementsOf(objects);
+    }
+
+    @Test
+    public void testMarkersAreReused() {
+        reconciler.requestAdd(Arrays.asList("marker1", "marker2", "circle1"));
+        applyAll();
+        map.log.clear();
+
+        reconciler.requestRemove(Arrays.asList("marker1", "marker2", "circle1"));
+        reconciler.requestAdd(Arrays.asList("marker3", "circle2"));
+        applyAll();
+        assertThat(map.log).containsExactly("remove circle1", "reuse marker1 for marker3", "add circle2", "remove marker2");
+        assertThat(map.getDrawnObjects()).containsOnly("marker3", "circle2");
+
+        // a reused marker can be removed again
+        map.log.clear();
+        reconciler.requestRemove(Collections.singletonList("marker3"));
+        applyAll();
+        assertThat(map.log).containsExactly("remove marker3");
+        assertThat(map.getDrawnObjects()).containsExactly("circle2");
+    }
+}
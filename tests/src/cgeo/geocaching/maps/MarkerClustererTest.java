@@ -0,0 +1,88 @@
+package cgeo.geocaching.maps;
+
+import cgeo.geocaching.location.Geopoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class MarkerClustererTest {
+
+    private static List<Geopoint> createGroup(final double latitude, final double longitude, final int count) {
+        final List<Geopoint> points = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            points.add(new Geopoint(latitude + i * 0.0001, longitude + i * 0.0001));
+        }
+        return points;
+    }
+
+    @Test
+    public void testMercatorRoundTrip() {
+        for (double latitude = -80; latitude <= 80; latitude += 10) {
+            assertThat(MarkerClusterer.fromMercatorY(MarkerClusterer.toMercatorY(latitude))).isCloseTo(latitude, within(1e-9));
+        }
+        assertThat(MarkerClusterer.toMercatorX(-180)).isEqualTo(0.0);
+        assertThat(MarkerClusterer.toMercatorY(0)).isCloseTo(0.5, within(1e-12));
+        assertThat(MarkerClusterer.fromMercatorX(MarkerClusterer.toMercatorX(13.4))).isCloseTo(13.4, within(1e-9));
+    }
+
+    @Test
+    public void testDenseGroupIsClustered() {
+        final List<Geopoint> points = createGroup(52.5, 13.4, 10);
+        points.add(new Geopoint(48.1, 11.6));
+        final MarkerClusterer<Geopoint> clusterer = new MarkerClusterer<>(points, point -> point);
+
+        final MarkerClusterer.Result<Geopoint> result = clusterer.getClusters(8);
+        assertThat(result.getClusters()).hasSize(1);
+        final MarkerClusterer.Cluster<Geopoint> cluster = result.getClusters().get(0);
+        assertThat(cluster.size()).isEqualTo(10);
+        assertThat(cluster.getCenter().getLatitude()).isCloseTo(52.50045, within(1e-4));
+        assertThat(cluster.getCenter().getLongitude()).isCloseTo(13.40045, within(1e-4));
+        assertThat(result.getSingles()).containsExactly(new Geopoint(48.1, 11.6));
+    }
+
+    @Test
+    public void testSmallGroupsStaySingle() {
+        final List<Geopoint> points = createGroup(52.5, 13.4, MarkerClusterer.MIN_CLUSTER_SIZE - 1);
+        points.addAll(createGroup(48.1, 11.6, MarkerClusterer.MIN_CLUSTER_SIZE - 1));
+        final MarkerClusterer<Geopoint> clusterer = new MarkerClusterer<>(points, point -> point);
+
+        final MarkerClusterer.Result<Geopoint> result = clusterer.getClusters(5);
+        assertThat(result.getClusters()).isEmpty();
+        assertThat(result.getSingles()).hasSize(points.size());
+    }
+
+    @Test
+    public void testClustersExpandWhenZoomingIn() {
+        final MarkerClusterer<Geopoint> clusterer = new MarkerClusterer<>(createGroup(52.5, 13.4, 20), point -> point);
+
+        assertThat(clusterer.getClusters(6).getClusters()).hasSize(1);
+        assertThat(clusterer.getClusters(MarkerClusterer.MAX_CLUSTER_ZOOM).getClusters()).isEmpty();
+        assertThat(clusterer.getClusters(MarkerClusterer.MAX_CLUSTER_ZOOM).getSingles()).hasSize(20);
+        assertThat(clusterer.getClusters(20).getSingles()).hasSize(20);
+    }
+
+    @Test
+    public void testEveryItemIsReturnedOnce() {
+        final List<Geopoint> points = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            points.add(new Geopoint(50 + (i % 60) * 0.01, 8 + (i / 60) * 0.01));
+        }
+        points.add(null);
+        final MarkerClusterer<Geopoint> clusterer = new MarkerClusterer<>(points, point -> point);
+
+        for (int zoom = 0; zoom <= MarkerClusterer.MAX_CLUSTER_ZOOM; zoom++) {
+            final MarkerClusterer.Result<Geopoint> result = clusterer.getClusters(zoom);
+            int total = result.getSingles().size();
+            for (final MarkerClusterer.Cluster<Geopoint> cluster : result.getClusters()) {
+                assertThat(cluster.size()).isGreaterThanOrEqualTo(MarkerClusterer.MIN_CLUSTER_SIZE);
+                total += cluster.size();
+            }
+            assertThat(total).isEqualTo(points.size());
+        }
+        assertThat(clusterer.getClusters(10)).isSameAs(clusterer.getClusters(10));
+    }
+}
@@ -0,0 +1,59 @@
+package cgeo.geocaching.sensors;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.assertj.core.api.Java6Assertions.within;
+
+public class HeadingFilterTest {
+
+    private static final long STEP = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testFirstValueIsTakenAsIs() {
+        assertThat(new HeadingFilter(300).filter(42f, 0)).isCloseTo(42f, within(1e-4f));
+    }
+
+    @Test
+    public void testJitterIsSmoothed() {
+        final HeadingFilter filter = new HeadingFilter(300);
+        float result = 0;
+        for (int i = 0; i < 50; i++) {
+            result = filter.filter(i % 2 == 0 ? 80f : 100f, i * STEP);
+        }
+        assertThat(result).isCloseTo(90f, within(5f));
+    }
+
+    @Test
+    public void testAveragingAroundNorth() {
+        final HeadingFilter filter = new HeadingFilter(300);
+        float result = 0;
+        for (int i = 0; i < 50; i++) {
+            result = filter.filter(i % 2 == 0 ? 350f : 10f, i * STEP);
+        }
+        assertThat(Math.min(result, 360f - result)).isLessThan(5f);
+    }
+
+    @Test
+    public void testConvergesToNewHeading() {
+        final HeadingFilter filter = new HeadingFilter(300);
+        filter.filter(0f, 0);
+        final float first = filter.filter(90f, STEP);
+        assertThat(first).isGreaterThan(0f).isLessThan(90f);
+        float result = first;
+        for (int i = 2; i < 30; i++) {
+            result = filter.filter(90f, i * STEP);
+        }
+        assertThat(result).isCloseTo(90f, within(0.5f));
+    }
+
+    @Test
+    public void testResetAfterGap() {
+        final HeadingFilter filter = new HeadingFilter(300);
+        filter.filter(0f, 0);
+        assertThat(filter.filter(180f, TimeUnit.SECONDS.toNanos(10))).isCloseTo(180f, within(1e-3f));
+        filter.reset();
+        assertThat(filter.filter(270f, TimeUnit.SECONDS.toNanos(10) + STEP)).isCloseTo(270f, within(1e-3f));
+    }
+}
@@ -0,0 +1,101 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.enumerations.CacheSize;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class CacheSorterTest {
+
+    private static List<Geocache> createCaches(final int count) {
+        final Random random = new Random(4711);
+        final CacheSize[] sizes = CacheSize.values();
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode((random.nextBoolean() ? "GC" : "OC") + Integer.toString(random.nextInt(100000) + 100, 36).toUpperCase());
+            // some caches without name or difficulty to test the geocode fallback
+            cache.setName(i % 5 == 0 ? "" : "Cache " + random.nextInt(count / 2 + 1));
+            cache.setDifficulty(i % 9 == 0 ? 0.0f : (random.nextInt(9) + 2) / 2.0f);
+            cache.setTerrain((random.nextInt(9) + 2) / 2.0f);
+            cache.setSize(sizes[random.nextInt(sizes.length)]);
+            cache.setFavoritePoints(random.nextInt(20));
+            cache.setInventoryItems(random.nextInt(3));
+            cache.setMyVote(random.nextInt(6));
+            caches.add(cache);
+        }
+        return caches;
+    }
+
+    private static void assertSameOrder(final CacheComparator comparator, final boolean inverse) {
+        final List<Geocache> expected = createCaches(500);
+        final List<Geocache> actual = new ArrayList<>(expected);
+        Collections.sort(expected, inverse ? new InverseComparator(comparator) : comparator);
+        CacheSorter.sort(actual, comparator, inverse);
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    private static void assertSameOrder(final CacheComparator comparator) {
+        assertSameOrder(comparator, false);
+        assertSameOrder(comparator, true);
+    }
+
+    @Test
+    public void testDifficulty() {
+        assertSameOrder(new DifficultyComparator());
+    }
+
+    @Test
+    public void testTerrain() {
+        assertSameOrder(new TerrainComparator());
+    }
+
+    @Test
+    public void testSize() {
+        assertSameOrder(new SizeComparator());
+    }
+
+    @Test
+    public void testPopularity() {
+        assertSameOrder(new PopularityComparator());
+    }
+
+    @Test
+    public void testInventory() {
+        assertSameOrder(new InventoryComparator());
+    }
+
+    @Test
+    public void testVote() {
+        assertSameOrder(new VoteComparator());
+    }
+
+    @Test
+    public void testName() {
+        assertSameOrder(new NameComparator());
+    }
+
+    @Test
+    public void testGeocode() {
+        assertSameOrder(new GeocodeComparator());
+    }
+
+    @Test
+    public void testSmallLists() {
+        final List<Geocache> empty = new ArrayList<>();
+        CacheSorter.sort(empty, new NameComparator(), false);
+        assertThat(empty).isEmpty();
+
+        final List<Geocache> single = createCaches(1);
+        final Geocache cache = single.get(0);
+        CacheSorter.sort(single, new NameComparator(), true);
+        assertThat(single).containsExactly(cache);
+    }
+
+}
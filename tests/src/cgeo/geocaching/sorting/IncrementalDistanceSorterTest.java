@@ -0,0 +1,93 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class IncrementalDistanceSorterTest {
+
+    private static List<Geocache> createCaches(final int count) {
+        final Random random = new Random(42);
+        final List<Geocache> caches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GC" + Integer.toString(i + 100, 36).toUpperCase());
+            if (i % 7 != 0) {
+                cache.setCoords(new Geopoint(48 + random.nextDouble() * 0.2, 11 + random.nextDouble() * 0.2));
+            }
+            caches.add(cache);
+        }
+        return caches;
+    }
+
+    private static void assertSameOrderAsComparator(final List<Geocache> caches, final Geopoint coords, final boolean inverse) {
+        final List<Geocache> expected = new ArrayList<>(caches);
+        final CacheComparator comparator = new DistanceComparator(coords, expected);
+        Collections.sort(expected, inverse ? new InverseComparator(comparator) : comparator);
+        assertThat(caches).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void testFullSortMatchesComparator() {
+        final List<Geocache> caches = createCaches(200);
+        final Geopoint coords = new Geopoint(48.1, 11.1);
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        sorter.sort(caches, coords, false);
+        assertSameOrderAsComparator(caches, coords, false);
+    }
+
+    @Test
+    public void testInverseSortMatchesComparator() {
+        final List<Geocache> caches = createCaches(200);
+        final Geopoint coords = new Geopoint(48.1, 11.1);
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        sorter.sort(caches, coords, true);
+        assertSameOrderAsComparator(caches, coords, true);
+    }
+
+    @Test
+    public void testSmallMovementsAreRepaired() {
+        final List<Geocache> caches = createCaches(500);
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        Geopoint coords = new Geopoint(48.1, 11.1);
+        sorter.sort(caches, coords, false);
+        for (int step = 0; step < 20; step++) {
+            coords = coords.project(45, 0.02);
+            sorter.sort(caches, coords, false);
+            assertSameOrderAsComparator(caches, coords, false);
+        }
+    }
+
+    @Test
+    public void testPositionJump() {
+        final List<Geocache> caches = createCaches(300);
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        sorter.sort(caches, new Geopoint(48.0, 11.0), false);
+        final Geopoint coords = new Geopoint(48.2, 11.2);
+        sorter.sort(caches, coords, false);
+        assertSameOrderAsComparator(caches, coords, false);
+    }
+
+    @Test
+    public void testUnchangedOrderReportsNoChanges() {
+        final List<Geocache> caches = createCaches(100);
+        final Geopoint coords = new Geopoint(48.1, 11.1);
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        sorter.sort(caches, coords, false);
+        assertThat(sorter.sort(caches, coords, false)).isEqualTo(0);
+    }
+
+    @Test
+    public void testEmptyList() {
+        final IncrementalDistanceSorter sorter = new IncrementalDistanceSorter();
+        assertThat(sorter.sort(new ArrayList<>(), Geopoint.ZERO, false)).isEqualTo(0);
+    }
+
+}
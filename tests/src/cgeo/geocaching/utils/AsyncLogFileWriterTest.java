@@ -0,0 +1,152 @@
+package cgeo.geocaching.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class AsyncLogFileWriterTest {
+
+    private static class MemoryTarget implements AsyncLogFileWriter.Target {
+        final List<ByteArrayOutputStream> files = new ArrayList<>();
+
+        @Override
+        public synchronized ByteArrayOutputStream openNext() {
+            final ByteArrayOutputStream file = new ByteArrayOutputStream();
+            files.add(file);
+            return file;
+        }
+
+        synchronized String getContent() {
+            final StringBuilder sb = new StringBuilder();
+            for (final ByteArrayOutputStream file : files) {
+                sb.append(new String(file.toByteArray(), StandardCharsets.UTF_8));
+            }
+            return sb.toString();
+        }
+    }
+
+    @Test
+    public void testRingBufferOrderAndCapacity() {
+        final AsyncLogFileWriter.RingBuffer<Integer> buffer = new AsyncLogFileWriter.RingBuffer<>(5);
+        assertThat(buffer.capacity()).isEqualTo(8);
+        assertThat(buffer.poll()).isNull();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 8; i++) {
+                assertThat(buffer.offer(i)).isTrue();
+            }
+            assertThat(buffer.offer(8)).isFalse();
+            for (int i = 0; i < 8; i++) {
+                assertThat(buffer.poll()).isEqualTo(i);
+            }
+            assertThat(buffer.poll()).isNull();
+        }
+    }
+
+    @Test
+    public void testRingBufferConcurrentProducers() throws InterruptedException {
+        final AsyncLogFileWriter.RingBuffer<Integer> buffer = new AsyncLogFileWriter.RingBuffer<>(64);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        final Set<Integer> received = new HashSet<>();
+        final int[] lastOfProducer = new int[producers];
+        for (int p = 0; p < producers; p++) {
+            lastOfProducer[p] = -1;
+        }
+        while (received.size() < producers * perProducer) {
+            final Integer value = buffer.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            // entries of one producer keep their order
+            assertThat(value % perProducer).isGreaterThan(lastOfProducer[value / perProducer]);
+            lastOfProducer[value / perProducer] = value % perProducer;
+            received.add(value);
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void testEntriesAreWritten() {
+        final MemoryTarget target = new MemoryTarget();
+        final AsyncLogFileWriter writer = new AsyncLogFileWriter(target, 16, 1024 * 1024);
+        writer.log("I", "first message", null);
+        writer.log("E", "second message", new IllegalStateException("failure"));
+        writer.close();
+
+        final String content = target.getContent();
+        assertThat(target.files).hasSize(1);
+        assertThat(content).contains(" (I) first message\n");
+        assertThat(content).contains(" (E) second message\n");
+        assertThat(content).contains("java.lang.IllegalStateException: failure");
+        assertThat(content.indexOf("first message")).isLessThan(content.indexOf("second message"));
+    }
+
+    @Test
+    public void testRotation() {
+        final MemoryTarget target = new MemoryTarget();
+        final AsyncLogFileWriter writer = new AsyncLogFileWriter(target, 16, 100);
+        for (int i = 0; i < 5; i++) {
+            writer.log("D", "message " + i + " which is long enough to exceed the maximum file size of 100 bytes", null);
+            writer.flush(1000);
+        }
+        writer.close();
+
+        assertThat(target.files).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(new String(target.files.get(i).toByteArray(), StandardCharsets.UTF_8)).contains("message " + i + " ");
+        }
+    }
+
+    @Test
+    public void testDroppedEntriesAreCounted() {
+        final MemoryTarget target = new MemoryTarget();
+        final AsyncLogFileWriter writer = new AsyncLogFileWriter(target, 2, 1024 * 1024);
+        for (int i = 0; i < 10000; i++) {
+            writer.log("V", "message " + i, null);
+        }
+        writer.close();
+
+        final long dropped = writer.getDroppedCount();
+        assertThat(dropped).isGreaterThan(0);
+        final String content = target.getContent();
+        int written = 0;
+        for (int index = content.indexOf(" (V) message "); index >= 0; index = content.indexOf(" (V) message ", index + 1)) {
+            written++;
+        }
+        assertThat(written + dropped).isEqualTo(10000);
+        assertThat(content).contains("log entries dropped");
+    }
+
+    @Test
+    public void testWriterStopsWithoutFile() {
+        final AsyncLogFileWriter writer = new AsyncLogFileWriter(() -> null, 16, 1024);
+        writer.log("I", "message", null);
+        writer.flush(1000);
+        writer.close();
+        writer.log("I", "ignored", null);
+        assertThat(writer.getDroppedCount()).isEqualTo(0);
+    }
+}
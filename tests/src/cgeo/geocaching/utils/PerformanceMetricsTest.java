@@ -0,0 +1,78 @@
+package cgeo.geocaching.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+public class PerformanceMetricsTest {
+
+    @Test
+    public void testBucketsAreContiguous() {
+        assertThat(PerformanceMetrics.Timer.bucketOf(0)).isEqualTo(0);
+        for (int bucket = 1; bucket < PerformanceMetrics.Timer.BUCKET_COUNT - 1; bucket++) {
+            final long lowerBound = PerformanceMetrics.Timer.upperBoundOf(bucket - 1) + 1;
+            assertThat(PerformanceMetrics.Timer.bucketOf(lowerBound)).isEqualTo(bucket);
+            assertThat(PerformanceMetrics.Timer.bucketOf(PerformanceMetrics.Timer.upperBoundOf(bucket))).isEqualTo(bucket);
+        }
+        assertThat(PerformanceMetrics.Timer.bucketOf(Long.MAX_VALUE)).isEqualTo(PerformanceMetrics.Timer.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    public void testBucketPrecision() {
+        for (long value = 8; value < 1000000000L; value = value * 3 / 2) {
+            final long upperBound = PerformanceMetrics.Timer.upperBoundOf(PerformanceMetrics.Timer.bucketOf(value));
+            assertThat(upperBound).isGreaterThanOrEqualTo(value);
+            assertThat(upperBound).isLessThanOrEqualTo(value * 5 / 4);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        final PerformanceMetrics.Timer timer = PerformanceMetrics.timer("test.percentiles");
+        assertThat(timer.getPercentileMicros(50)).isEqualTo(0);
+        for (int i = 1; i <= 1000; i++) {
+            timer.recordMicros(i * 1000L);
+        }
+        assertThat(timer.getCount()).isEqualTo(1000);
+        assertThat(timer.getMaxMicros()).isEqualTo(1000000);
+        assertThat(timer.getMeanMicros()).isEqualTo(500500);
+        assertThat(timer.getPercentileMicros(50)).isBetween(500000L, 625000L);
+        assertThat(timer.getPercentileMicros(99)).isBetween(990000L, 1000000L);
+        assertThat(timer.getPercentileMicros(100)).isEqualTo(1000000);
+    }
+
+    @Test
+    public void testRegistry() {
+        assertThat(PerformanceMetrics.timer("test.registry")).isSameAs(PerformanceMetrics.timer("test.registry"));
+        final PerformanceMetrics.Counter counter = PerformanceMetrics.counter("test.registry");
+        assertThat(counter).isSameAs(PerformanceMetrics.counter("test.registry"));
+        counter.increment();
+        counter.add(41);
+        assertThat(counter.get()).isEqualTo(42);
+    }
+
+    @Test
+    public void testExport() {
+        PerformanceMetrics.timer("test.export,with comma").recordMicros(1500);
+        PerformanceMetrics.counter("test.export").add(3);
+
+        final ObjectNode json = PerformanceMetrics.toJson();
+        boolean found = false;
+        for (final JsonNode timer : json.get("timers")) {
+            if ("test.export,with comma".equals(timer.get("name").asText())) {
+                found = true;
+                assertThat(timer.get("count").asLong()).isGreaterThanOrEqualTo(1);
+                assertThat(timer.get("maxUs").asLong()).isGreaterThanOrEqualTo(1500);
+            }
+        }
+        assertThat(found).isTrue();
+        assertThat(json.get("counters").get("test.export").asLong()).isGreaterThanOrEqualTo(3);
+
+        final String csv = PerformanceMetrics.toCsv();
+        assertThat(csv).startsWith("type,name,count,");
+        assertThat(csv).contains("timer,\"test.export,with comma\",");
+        assertThat(csv).contains("counter,test.export,");
+        assertThat(PerformanceMetrics.getSummary()).contains("test.export,with comma");
+    }
+}